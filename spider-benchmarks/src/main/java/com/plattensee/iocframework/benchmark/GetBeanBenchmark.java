@@ -0,0 +1,59 @@
+package com.plattensee.iocframework.benchmark;
+
+import com.plattensee.iocframework.benchmark.fixture.Catalog;
+import com.plattensee.iocframework.benchmark.fixture.InMemoryCatalog;
+import com.plattensee.iocframework.benchmark.fixture.Repository;
+import com.plattensee.iocframework.benchmark.fixture.Service;
+import com.plattensee.iocframework.benchmark.fixture.Validator;
+import com.plattensee.iocframework.container.DependencyContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures runtime bean lookups from several threads at once: getBean by class and by interface, and register, which
+ * goes through the concurrent singleton cache. Run with {@code -prof gc} to check that getBean does not allocate, and
+ * with {@code -t} to change the number of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(2)
+public class GetBeanBenchmark {
+    private DependencyContainer container;
+
+    @Setup
+    public void setUp() {
+        container = new DependencyContainer();
+        container.registerClassesInPath(Arrays.asList(Repository.class, Validator.class, Service.class, InMemoryCatalog.class));
+    }
+
+    @Benchmark
+    public Service getBeanByClass() {
+        return container.getBean(Service.class);
+    }
+
+    @Benchmark
+    public Catalog getBeanByInterface() {
+        return container.getBean(Catalog.class);
+    }
+
+    @Benchmark
+    public Service register() {
+        return container.register(Service.class);
+    }
+}
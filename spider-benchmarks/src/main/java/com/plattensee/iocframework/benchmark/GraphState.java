@@ -0,0 +1,34 @@
+package com.plattensee.iocframework.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+
+/**
+ * Generates the synthetic graph of every shape and size combination once per trial.
+ */
+@State(Scope.Benchmark)
+public class GraphState {
+    @Param({"WIDE", "DEEP", "DIAMOND"})
+    public SyntheticGraph.Shape shape;
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    SyntheticGraph graph;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        graph = SyntheticGraph.generate(shape, size);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        graph.close();
+    }
+}
@@ -0,0 +1,52 @@
+package com.plattensee.iocframework.benchmark;
+
+import com.plattensee.iocframework.IOCFrameworkRunner;
+import com.plattensee.iocframework.SpiderApplicationContext;
+import com.plattensee.iocframework.container.DependencyContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full initContext of a synthetic graph: locating the components through the index with a fresh class
+ * loader, indexing, planning, and instantiating every singleton.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class InitContextBenchmark {
+    private URLClassLoader classLoader;
+
+    @Setup(Level.Invocation)
+    public void newClassLoader(GraphState state) {
+        classLoader = state.graph.newClassLoader();
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeClassLoader() throws IOException {
+        classLoader.close();
+    }
+
+    @Benchmark
+    public IOCFrameworkRunner initContext(GraphState state) {
+        SpiderApplicationContext context = new SpiderApplicationContext(new DependencyContainer(),
+                state.graph.indexLocator(classLoader));
+        return context.initContext(state.graph.loadEntryPoint(classLoader));
+    }
+}
@@ -0,0 +1,62 @@
+package com.plattensee.iocframework.benchmark;
+
+import com.plattensee.iocframework.benchmark.fixture.Repository;
+import com.plattensee.iocframework.benchmark.fixture.Service;
+import com.plattensee.iocframework.benchmark.fixture.Validator;
+import com.plattensee.iocframework.container.BeanFactory;
+import com.plattensee.iocframework.container.DependencyContainer;
+import com.plattensee.iocframework.container.InstantiationStrategy;
+import com.plattensee.iocframework.container.LambdaInstantiationStrategy;
+import com.plattensee.iocframework.container.ReflectiveInstantiationStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the reflective and the LambdaMetafactory based instantiation strategies, both for a bare constructor call
+ * and for resolving a small bean graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InstantiationStrategyBenchmark {
+    @Param({"reflective", "lambda"})
+    private String strategy;
+
+    private BeanFactory<Repository> repositoryFactory;
+    private DependencyContainer container;
+
+    @Setup
+    public void setUp() {
+        InstantiationStrategy instantiationStrategy = "lambda".equals(strategy) ?
+                new LambdaInstantiationStrategy() : new ReflectiveInstantiationStrategy();
+        repositoryFactory = instantiationStrategy.createFactory(Repository.class);
+        container = new DependencyContainer();
+        container.setInstantiationStrategy(instantiationStrategy);
+        container.registerClassesInPath(Arrays.asList(Repository.class, Validator.class, Service.class));
+    }
+
+    @Benchmark
+    public Repository construct() {
+        return repositoryFactory.newInstance();
+    }
+
+    @Benchmark
+    public Service resolve() {
+        return container.resolve(Service.class);
+    }
+}
@@ -0,0 +1,49 @@
+package com.plattensee.iocframework.benchmark;
+
+import com.plattensee.iocframework.container.DependencyContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of register, which returns the existing singleton, and resolve, which creates a new instance
+ * of the root bean and injects its singleton dependencies, on a fully initialized container. Run with {@code -prof gc}
+ * to see the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolveBenchmark {
+    private DependencyContainer container;
+    private Class<?> rootBean;
+
+    @Setup
+    public void initialize(GraphState state) {
+        ClassLoader classLoader = state.graph.newClassLoader();
+        container = new DependencyContainer();
+        container.registerClassesInPath(state.graph.indexLocator(classLoader).scan(state.graph.getPackageName()));
+        rootBean = state.graph.loadRootBean(classLoader);
+    }
+
+    @Benchmark
+    public Object register() {
+        return container.register(rootBean);
+    }
+
+    @Benchmark
+    public Object resolve() {
+        return container.resolve(rootBean);
+    }
+}
@@ -0,0 +1,53 @@
+package com.plattensee.iocframework.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures locating the components of a synthetic graph with a fresh class loader, so every scan loads the component
+ * classes cold, once by reading the class files and once through the component index.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ScanBenchmark {
+    private URLClassLoader classLoader;
+
+    @Setup(Level.Invocation)
+    public void newClassLoader(GraphState state) {
+        classLoader = state.graph.newClassLoader();
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeClassLoader() throws IOException {
+        classLoader.close();
+    }
+
+    @Benchmark
+    public List<Class<?>> bytecodeScan(GraphState state) {
+        return state.graph.bytecodeScanner(classLoader).scan(state.graph.getPackageName());
+    }
+
+    @Benchmark
+    public List<Class<?>> indexScan(GraphState state) {
+        return state.graph.indexLocator(classLoader).scan(state.graph.getPackageName());
+    }
+}
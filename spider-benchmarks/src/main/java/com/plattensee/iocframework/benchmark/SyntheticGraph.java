@@ -0,0 +1,219 @@
+package com.plattensee.iocframework.benchmark;
+
+import com.plattensee.iocframework.IOCFrameworkRunner;
+import com.plattensee.iocframework.locator.BytecodeClassScanner;
+import com.plattensee.iocframework.locator.ClassLocator;
+import com.plattensee.iocframework.locator.ComponentIndexLocator;
+import com.plattensee.iocframework.processor.ComponentIndexProcessor;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * A synthetic component graph, generated as Java sources and compiled at benchmark setup into a temporary directory.
+ * Every bean is a @Component with concrete @Inject fields, and the entry point of the graph injects the last bean.
+ * The component index is written next to the classes, so the graph can be located both through the index and by
+ * scanning the class files.
+ */
+public final class SyntheticGraph implements AutoCloseable {
+    /**
+     * The shapes of the generated graphs.
+     */
+    public enum Shape {
+        /**
+         * Sixteen hub beans without dependencies; every other bean depends on one of the hubs.
+         */
+        WIDE,
+        /**
+         * A single chain, where every bean depends on the previous one.
+         */
+        DEEP,
+        /**
+         * Every bean depends on the two previous ones, so each bean is reachable from the last one through many paths.
+         */
+        DIAMOND
+    }
+
+    private static final int HUBS = 16;
+    private static final String ENTRY_POINT = "Application";
+
+    private final Path directory;
+    private final Path classesDirectory;
+    private final String packageName;
+    private final String rootBeanName;
+
+    private SyntheticGraph(Path directory, String packageName, String rootBeanName) {
+        this.directory = directory;
+        this.classesDirectory = directory.resolve("classes");
+        this.packageName = packageName;
+        this.rootBeanName = rootBeanName;
+    }
+
+    /**
+     * Generates and compiles a graph of the specified shape and size.
+     *
+     * @param shape the shape of the graph
+     * @param size  the number of beans, not counting the entry point
+     * @return the compiled graph
+     */
+    static SyntheticGraph generate(Shape shape, int size) {
+        String packageName = "com.plattensee.iocframework.benchmark.generated." + shape.name().toLowerCase(Locale.ROOT) + size;
+        try {
+            SyntheticGraph graph = new SyntheticGraph(Files.createTempDirectory("spider-graph"), packageName, beanName(size - 1));
+            graph.compile(graph.writeSources(shape, size));
+            return graph;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private List<Path> writeSources(Shape shape, int size) throws IOException {
+        Path packageDirectory = directory.resolve("sources").resolve(packageName.replace('.', '/'));
+        Files.createDirectories(packageDirectory);
+        List<Path> sources = new ArrayList<>(size + 1);
+        for (int bean = 0; bean < size; bean++) {
+            sources.add(writeSource(packageDirectory, beanName(bean), "", dependenciesOf(shape, bean)));
+        }
+        sources.add(writeSource(packageDirectory, ENTRY_POINT,
+                " implements " + IOCFrameworkRunner.class.getName(), Collections.singletonList(size - 1)));
+        return sources;
+    }
+
+    private static List<Integer> dependenciesOf(Shape shape, int bean) {
+        switch (shape) {
+            case WIDE:
+                return bean < HUBS ? Collections.emptyList() : Collections.singletonList(bean % HUBS);
+            case DEEP:
+                return bean == 0 ? Collections.emptyList() : Collections.singletonList(bean - 1);
+            default:
+                return bean == 0 ? Collections.emptyList()
+                        : bean == 1 ? Collections.singletonList(0) : Arrays.asList(bean - 1, bean - 2);
+        }
+    }
+
+    private Path writeSource(Path packageDirectory, String className, String implementsClause,
+                             List<Integer> dependencies) throws IOException {
+        Path source = packageDirectory.resolve(className + ".java");
+        try (Writer writer = Files.newBufferedWriter(source, StandardCharsets.UTF_8)) {
+            writer.write("package " + packageName + ";\n\n");
+            writer.write("@com.plattensee.iocframework.annotation.Component\n");
+            writer.write("public class " + className + implementsClause + " {\n");
+            for (int dependency : dependencies) {
+                writer.write("    @com.plattensee.iocframework.annotation.Inject\n");
+                writer.write("    private " + beanName(dependency) + " dependency" + dependency + ";\n");
+            }
+            if (!implementsClause.isEmpty()) {
+                writer.write("    public void run() {\n    }\n");
+            }
+            writer.write("}\n");
+        }
+        return source;
+    }
+
+    private void compile(List<Path> sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("The benchmarks generate their component graphs at runtime and need a JDK");
+        }
+        Files.createDirectories(classesDirectory);
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            List<String> options = Arrays.asList("-d", classesDirectory.toString(),
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-processor", ComponentIndexProcessor.class.getName());
+            Boolean compiled = compiler.getTask(null, fileManager, null, options, null,
+                    fileManager.getJavaFileObjectsFromFiles(toFiles(sources))).call();
+            if (!Boolean.TRUE.equals(compiled)) {
+                throw new IllegalStateException("Unable to compile the synthetic graph " + packageName);
+            }
+        }
+    }
+
+    private static List<File> toFiles(List<Path> paths) {
+        List<File> files = new ArrayList<>(paths.size());
+        paths.forEach(path -> files.add(path.toFile()));
+        return files;
+    }
+
+    private static String beanName(int bean) {
+        return "Bean" + bean;
+    }
+
+    /**
+     * Creates a new class loader for the graph, so every invocation can load the classes cold.
+     *
+     * @return a new class loader whose parent is the loader of the framework
+     */
+    URLClassLoader newClassLoader() {
+        try {
+            return new URLClassLoader(new URL[]{classesDirectory.toUri().toURL()}, SyntheticGraph.class.getClassLoader());
+        } catch (MalformedURLException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Creates a locator reading the class files of the graph.
+     *
+     * @param classLoader the class loader of the graph
+     * @return a bytecode scanner restricted to the graph directory
+     */
+    ClassLocator bytecodeScanner(ClassLoader classLoader) {
+        return new BytecodeClassScanner(Collections.singletonList(classesDirectory), classLoader);
+    }
+
+    /**
+     * Creates a locator reading the component index of the graph.
+     *
+     * @param classLoader the class loader of the graph
+     * @return an index locator, falling back to a bytecode scanner of the graph
+     */
+    ClassLocator indexLocator(ClassLoader classLoader) {
+        return new ComponentIndexLocator(classLoader, bytecodeScanner(classLoader));
+    }
+
+    String getPackageName() {
+        return packageName;
+    }
+
+    @SuppressWarnings("unchecked")
+    Class<? extends IOCFrameworkRunner> loadEntryPoint(ClassLoader classLoader) {
+        return (Class<? extends IOCFrameworkRunner>) load(classLoader, ENTRY_POINT);
+    }
+
+    Class<?> loadRootBean(ClassLoader classLoader) {
+        return load(classLoader, rootBeanName);
+    }
+
+    private Class<?> load(ClassLoader classLoader, String simpleName) {
+        try {
+            return Class.forName(packageName + '.' + simpleName, false, classLoader);
+        } catch (ClassNotFoundException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
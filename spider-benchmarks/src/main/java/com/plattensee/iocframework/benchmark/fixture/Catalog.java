@@ -0,0 +1,5 @@
+package com.plattensee.iocframework.benchmark.fixture;
+
+public interface Catalog {
+    String find(String key);
+}
@@ -0,0 +1,15 @@
+package com.plattensee.iocframework.benchmark.fixture;
+
+import com.plattensee.iocframework.annotation.Component;
+import com.plattensee.iocframework.annotation.Inject;
+
+@Component
+public class InMemoryCatalog implements Catalog {
+    @Inject
+    private Repository repository;
+
+    @Override
+    public String find(String key) {
+        return key;
+    }
+}
@@ -0,0 +1,12 @@
+package com.plattensee.iocframework.benchmark.fixture;
+
+import com.plattensee.iocframework.annotation.Component;
+import com.plattensee.iocframework.annotation.Inject;
+
+@Component
+public class Service {
+    @Inject
+    private Repository repository;
+    @Inject
+    private Validator validator;
+}
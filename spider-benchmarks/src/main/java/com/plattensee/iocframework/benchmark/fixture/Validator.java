@@ -0,0 +1,7 @@
+package com.plattensee.iocframework.benchmark.fixture;
+
+import com.plattensee.iocframework.annotation.Component;
+
+@Component
+public class Validator {
+}
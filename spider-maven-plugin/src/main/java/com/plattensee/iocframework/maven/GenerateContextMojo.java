@@ -0,0 +1,231 @@
+package com.plattensee.iocframework.maven;
+
+import com.plattensee.iocframework.container.ContextSourceGenerator;
+import com.plattensee.iocframework.container.DependencyContainer;
+import com.plattensee.iocframework.container.GeneratedContainer;
+import com.plattensee.iocframework.locator.BytecodeClassScanner;
+import com.plattensee.iocframework.locator.ComponentIndexLocator;
+import com.plattensee.iocframework.locator.ScanConfiguration;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Resolves the wiring of the entry point after the classes are compiled and generates its GeneratedContext class. The
+ * components are located and resolved exactly like the SpiderApplicationContext does at runtime, so wiring errors
+ * fail the build. The generated source is compiled into the classes directory, where the SpiderApplicationContext
+ * picks it up instead of scanning and resolving the classes.
+ */
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.PROCESS_CLASSES, requiresDependencyResolution = ResolutionScope.COMPILE,
+        threadSafe = true)
+public class GenerateContextMojo extends AbstractMojo {
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    /**
+     * The fully qualified name of the IOCFrameworkRunner the context is generated for.
+     */
+    @Parameter(property = "spider.entryPoint", required = true)
+    private String entryPoint;
+
+    /**
+     * The directory of the compiled classes, which the generated context is compiled into.
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}", required = true)
+    private File classesDirectory;
+
+    /**
+     * The directory the source of the generated context is written to.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/generated-sources/spider", required = true)
+    private File outputDirectory;
+
+    /**
+     * The packages scanned for components. By default, the package of the entry point is scanned.
+     */
+    @Parameter
+    private List<String> basePackages;
+
+    /**
+     * The packages and class name patterns to include, see ScanConfiguration.
+     */
+    @Parameter
+    private List<String> includes;
+
+    /**
+     * The packages and class name patterns to exclude, see ScanConfiguration.
+     */
+    @Parameter
+    private List<String> excludes;
+
+    /**
+     * Fails the build if a constructor or @Inject field is not accessible from the package of the entry point, instead
+     * of reaching it reflectively.
+     */
+    @Parameter(property = "spider.failOnReflection", defaultValue = "false")
+    private boolean failOnReflection;
+
+    /**
+     * Matches @Inject(className=...) qualifiers as case-insensitive fragments of the class names, like the
+     * DependencyContainer does with legacy qualifier matching turned on.
+     */
+    @Parameter(property = "spider.legacyQualifierMatching", defaultValue = "false")
+    private boolean legacyQualifierMatching;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        List<String> classpathElements = getClasspathElements();
+        String source;
+        try (URLClassLoader classLoader = new URLClassLoader(toUrls(classpathElements), getClass().getClassLoader())) {
+            Class<?> entryPointClass = loadEntryPoint(classLoader);
+            List<Class<?>> components = new ComponentIndexLocator(classLoader,
+                    new BytecodeClassScanner(Collections.singletonList(classesDirectory.toPath()), classLoader))
+                    .scan(scanConfiguration(entryPointClass));
+
+            DependencyContainer dependencyContainer = new DependencyContainer();
+            dependencyContainer.setLegacyQualifierMatching(legacyQualifierMatching);
+            ContextSourceGenerator generator = new ContextSourceGenerator(dependencyContainer);
+            try {
+                source = generator.generate(entryPointClass, components);
+            } catch (RuntimeException exception) {
+                throw new MojoFailureException(String.format("Unable to wire %s: %s", entryPoint, exception.getMessage()), exception);
+            }
+            checkReflectiveAccesses(generator.getReflectiveAccesses());
+            getLog().info(String.format("Wired %d components of %s", components.size(), entryPoint));
+
+            Path sourceFile = writeSource(GeneratedContainer.generatedClassNameOf(entryPointClass), source);
+            compile(sourceFile, classpathElements);
+        } catch (IOException exception) {
+            throw new MojoExecutionException("Unable to generate the context", exception);
+        }
+    }
+
+    private List<String> getClasspathElements() throws MojoExecutionException {
+        try {
+            return project.getCompileClasspathElements();
+        } catch (DependencyResolutionRequiredException exception) {
+            throw new MojoExecutionException("Unable to resolve the compile class path", exception);
+        }
+    }
+
+    private static URL[] toUrls(List<String> classpathElements) throws MojoExecutionException {
+        URL[] urls = new URL[classpathElements.size()];
+        try {
+            for (int i = 0; i < urls.length; i++) {
+                urls[i] = new File(classpathElements.get(i)).toURI().toURL();
+            }
+        } catch (MalformedURLException exception) {
+            throw new MojoExecutionException("Invalid class path element", exception);
+        }
+        return urls;
+    }
+
+    private Class<?> loadEntryPoint(ClassLoader classLoader) throws MojoFailureException {
+        try {
+            return Class.forName(entryPoint, false, classLoader);
+        } catch (ClassNotFoundException exception) {
+            throw new MojoFailureException(String.format("Entry point %s not found in %s", entryPoint, classesDirectory), exception);
+        }
+    }
+
+    private ScanConfiguration scanConfiguration(Class<?> entryPointClass) {
+        ScanConfiguration.Builder builder = ScanConfiguration.builder();
+        if (basePackages == null || basePackages.isEmpty()) {
+            builder.basePackages(entryPointClass.getPackage() == null ? "" : entryPointClass.getPackage().getName());
+        } else {
+            builder.basePackages(basePackages.toArray(new String[0]));
+        }
+        if (includes != null) {
+            builder.include(includes.toArray(new String[0]));
+        }
+        if (excludes != null) {
+            builder.exclude(excludes.toArray(new String[0]));
+        }
+        return builder.build();
+    }
+
+    private void checkReflectiveAccesses(List<String> reflectiveAccesses) throws MojoFailureException {
+        for (String reflectiveAccess : reflectiveAccesses) {
+            if (failOnReflection) {
+                getLog().error(reflectiveAccess);
+            } else {
+                getLog().warn(reflectiveAccess);
+            }
+        }
+        if (failOnReflection && !reflectiveAccesses.isEmpty()) {
+            throw new MojoFailureException(String.format("The context of %s needs %d reflective accesses, make the " +
+                    "reported constructors and fields accessible from the package of the entry point", entryPoint, reflectiveAccesses.size()));
+        }
+    }
+
+    private Path writeSource(String generatedClassName, String source) throws IOException {
+        Path sourceFile = outputDirectory.toPath().resolve(generatedClassName.replace('.', File.separatorChar) + ".java");
+        Files.createDirectories(sourceFile.getParent());
+        Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+        return sourceFile;
+    }
+
+    private void compile(Path sourceFile, List<String> classpathElements) throws IOException, MojoExecutionException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new MojoExecutionException("The generated context can only be compiled on a JDK");
+        }
+        List<String> options = new ArrayList<>();
+        Properties properties = project.getProperties();
+        if (properties.getProperty("maven.compiler.release") != null) {
+            options.add("--release");
+            options.add(properties.getProperty("maven.compiler.release"));
+        } else {
+            if (properties.getProperty("maven.compiler.source") != null) {
+                options.add("-source");
+                options.add(properties.getProperty("maven.compiler.source"));
+            }
+            if (properties.getProperty("maven.compiler.target") != null) {
+                options.add("-target");
+                options.add(properties.getProperty("maven.compiler.target"));
+            }
+        }
+        Collections.addAll(options, "-proc:none", "-nowarn", "-encoding", "UTF-8",
+                "-classpath", String.join(File.pathSeparator, classpathElements),
+                "-d", classesDirectory.getAbsolutePath());
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            Iterable<? extends JavaFileObject> sources = fileManager.getJavaFileObjects(sourceFile.toFile());
+            if (!compiler.getTask(null, fileManager, diagnostics, options, null, sources).call()) {
+                StringBuilder errors = new StringBuilder();
+                for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                    if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                        errors.append(System.lineSeparator()).append(diagnostic);
+                    }
+                }
+                throw new MojoExecutionException(String.format("Unable to compile %s:%s", sourceFile, errors));
+            }
+        }
+    }
+}
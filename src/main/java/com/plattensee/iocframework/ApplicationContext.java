@@ -1,6 +1,11 @@
 package com.plattensee.iocframework;
 
-public interface ApplicationContext {
+import com.plattensee.iocframework.container.ChildContainer;
+import com.plattensee.iocframework.instrumentation.StartupReport;
+
+import java.util.concurrent.Callable;
+
+public interface ApplicationContext extends AutoCloseable {
     /**
      * Initializes the application context with the specified entry point class.
      *
@@ -9,4 +14,59 @@ public interface ApplicationContext {
      * @return an instance of the specified IOCFrameworkRunner type
      */
     <T extends IOCFrameworkRunner> T initContext(Class<T> entryPoint);
+
+    /**
+     * Returns the bean of the specified type from the initialized context. Lookups are safe from any thread.
+     *
+     * @param <T>  the type of the bean
+     * @param type the class object representing the type of the bean
+     * @return the shared instance of a singleton, or a new instance of a prototype
+     */
+    <T> T getBean(Class<T> type);
+
+    /**
+     * Creates a child container sharing the singletons of the initialized context. The child creates its own instances
+     * of the components annotated with @Scope(ScopeType.CONTEXT).
+     *
+     * @return the new child container, to be closed once it is no longer used
+     */
+    ChildContainer createChildContainer();
+
+    /**
+     * Runs the specified action within a new request scope. The components annotated with @Scope(ScopeType.REQUEST)
+     * are created once within the scope and destroyed when the action completes.
+     *
+     * @param action the code handling the request
+     */
+    void runInRequestScope(Runnable action);
+
+    /**
+     * Calls the specified action within a new request scope, like {@link #runInRequestScope(Runnable)}.
+     *
+     * @param <T>    the type of the result
+     * @param action the code handling the request
+     * @return the result of the action
+     * @throws Exception if the action throws an exception
+     */
+    <T> T callInRequestScope(Callable<T> action) throws Exception;
+
+    /**
+     * Ends the thread scope of the calling thread, destroying the instances of the components annotated with
+     * @Scope(ScopeType.THREAD) it created.
+     */
+    void endThreadScope();
+
+    /**
+     * Returns the timings collected while the context was initialized.
+     *
+     * @return the startup report, with the beans ordered slowest first
+     * @throws IllegalStateException if the startup report was not enabled
+     */
+    StartupReport getStartupReport();
+
+    /**
+     * Shuts the context down, invoking the @PreDestroy methods of its singletons.
+     */
+    @Override
+    void close();
 }
@@ -1,39 +1,415 @@
 package com.plattensee.iocframework;
 
+import com.plattensee.iocframework.container.ChildContainer;
 import com.plattensee.iocframework.container.ContainerFactory;
+import com.plattensee.iocframework.container.DependencyContainer;
+import com.plattensee.iocframework.container.GeneratedContainer;
 import com.plattensee.iocframework.container.IOCContainer;
+import com.plattensee.iocframework.container.WiringSnapshot;
+import com.plattensee.iocframework.instrumentation.ContainerListener;
+import com.plattensee.iocframework.instrumentation.StartupPhase;
+import com.plattensee.iocframework.instrumentation.StartupReport;
+import com.plattensee.iocframework.instrumentation.StartupReportCollector;
+import com.plattensee.iocframework.locator.BytecodeClassScanner;
 import com.plattensee.iocframework.locator.ClassLocator;
-import com.plattensee.iocframework.locator.PackageClassScanner;
+import com.plattensee.iocframework.locator.ComponentIndexLocator;
+import com.plattensee.iocframework.locator.ScanConfiguration;
+import com.plattensee.iocframework.reload.HotReloader;
+import com.plattensee.iocframework.reload.ReloadListener;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The SpiderApplicationContext class is an implementation of the ApplicationContext interface specifically designed for the Spider IOC framework.
  * It uses a specified IOCContainer implementation to manage dependencies and initializes the context using an entry point class.
  */
 public class SpiderApplicationContext implements ApplicationContext {
-    private final IOCContainer iocContainer;
+    private static final long DEFAULT_SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private IOCContainer iocContainer;
+    private final ClassLocator classLocator;
+    private final boolean containerProvided;
+    private StartupReportCollector startupReportCollector;
+    private Path wiringSnapshotFile;
+    private ScanConfiguration scanConfiguration;
+    private Boolean generatedContextEnabled;
+    private boolean freezeEnabled = true;
+    private ReloadListener reloadListener;
+    private HotReloader hotReloader;
 
     /**
-     * Constructs a new SpiderApplicationContext with the specified container type.
+     * Constructs a new SpiderApplicationContext with the specified container type. Components are located through the
+     * compile-time component index, falling back to reading the class files of the class path directories and jars
+     * when no index is found.
      *
      * @param containerType the class object representing the container type to use
      */
     public SpiderApplicationContext(Class<? extends IOCContainer> containerType) {
-        this.iocContainer = ContainerFactory.getFactoryInstance().createInstance(containerType);
+        this(containerType, new ComponentIndexLocator(new BytecodeClassScanner()));
+    }
+
+    /**
+     * Constructs a new SpiderApplicationContext with the specified container type and class locator.
+     *
+     * @param containerType the class object representing the container type to use
+     * @param classLocator  the class locator used to find the components
+     */
+    public SpiderApplicationContext(Class<? extends IOCContainer> containerType, ClassLocator classLocator) {
+        this(ContainerFactory.getFactoryInstance().createInstance(containerType), classLocator, false);
+    }
+
+    /**
+     * Constructs a new SpiderApplicationContext around an already configured container. The context always uses this
+     * container, even if a context was generated for the entry point.
+     *
+     * @param iocContainer the container to use
+     * @param classLocator the class locator used to find the components
+     */
+    public SpiderApplicationContext(IOCContainer iocContainer, ClassLocator classLocator) {
+        this(iocContainer, classLocator, true);
+    }
+
+    private SpiderApplicationContext(IOCContainer iocContainer, ClassLocator classLocator, boolean containerProvided) {
+        this.iocContainer = Objects.requireNonNull(iocContainer, "Container cannot be null");
+        this.classLocator = Objects.requireNonNull(classLocator, "Class locator cannot be null");
+        this.containerProvided = containerProvided;
     }
 
     /**
      * Initializes the Spider application context with the specified entry point class.
-     * Scans for classes in the same package as the entry point and registers them in the container.
+     * Scans for classes in the same package as the entry point, or as configured by the scan configuration, and
+     * registers them in the container.
      * Finally, registers and returns an instance of the specified entry point class.
+     * <p>
+     * If the spider-maven-plugin generated a context for the entry point, and this context was neither given a
+     * container instance nor configured otherwise (startup report, scan configuration, wiring snapshot or disabled
+     * freezing), the
+     * generated context replaces the container of this context: the beans are created and injected by the generated
+     * code, without scanning or resolving anything. A configured context scans and resolves the classes instead, unless
+     * the generated context was explicitly enabled, in which case initializing it fails.
+     * <p>
+     * Otherwise, if a wiring snapshot file is set and holds the wiring of the current class path, the components are registered
+     * from the snapshot without scanning or resolving anything. Otherwise, the classes are scanned and resolved and
+     * the snapshot file is rewritten.
+     * <p>
+     * Finally, unless freezing was turned off, the container is frozen: the metadata only needed to register the
+     * classes is released. With hot reloading enabled, the container is not frozen, the generated context is ignored
+     * and the class directories are watched once the context is initialized.
      *
      * @param <T>        the type of the IOCFrameworkRunner
      * @param entryPoint the class object representing the entry point of the IOC framework
      * @return an instance of the specified IOCFrameworkRunner type
+     * @throws IllegalStateException if the generated context was explicitly enabled, but this context is configured in
+     *                               a way the generated context does not support
      */
     @Override
     public <T extends IOCFrameworkRunner> T initContext(Class<T> entryPoint) {
-        ClassLocator classLocator = PackageClassScanner.getInstance();
-        iocContainer.registerClassesInPath(classLocator.scan(entryPoint.getPackage().getName()));
-        return iocContainer.register(entryPoint);
+        GeneratedContainer generatedContainer = !Boolean.FALSE.equals(generatedContextEnabled) && reloadListener == null ?
+                loadGeneratedContainer(entryPoint) : null;
+        if (generatedContainer != null) {
+            iocContainer = generatedContainer;
+            generatedContainer.instantiateSingletons();
+            return generatedContainer.register(entryPoint);
+        }
+        ScanConfiguration configuration = scanConfiguration != null ? scanConfiguration :
+                ScanConfiguration.of(entryPoint.getPackage().getName());
+        if (wiringSnapshotFile == null) {
+            registerScannedClasses(configuration, 0);
+        } else {
+            ContainerListener listener = iocContainer.getContainerListener();
+            long start = listener == ContainerListener.NONE ? 0 : System.nanoTime();
+            byte[] fingerprint = WiringSnapshot.fingerprint(classPathEntries(), entryPoint.getName() + configuration);
+            WiringSnapshot snapshot = WiringSnapshot.read(wiringSnapshotFile, fingerprint);
+            // Checking the snapshot is what replaces the scan, so it is reported as part of it
+            long snapshotNanos = listener == ContainerListener.NONE ? 0 : System.nanoTime() - start;
+            if (snapshot != null) {
+                if (listener != ContainerListener.NONE) {
+                    listener.phaseCompleted(StartupPhase.SCAN, snapshotNanos);
+                }
+                iocContainer.registerWiringSnapshot(snapshot, entryPoint.getClassLoader());
+            } else {
+                registerScannedClasses(configuration, snapshotNanos);
+                iocContainer.createWiringSnapshot(fingerprint).write(wiringSnapshotFile);
+            }
+        }
+        T runner = iocContainer.register(entryPoint);
+        if (reloadListener != null) {
+            startHotReload(entryPoint, configuration);
+        } else if (freezeEnabled) {
+            iocContainer.freeze();
+        }
+        return runner;
+    }
+
+    private void startHotReload(Class<?> entryPoint, ScanConfiguration configuration) {
+        if (!(iocContainer instanceof DependencyContainer)) {
+            throw new UnsupportedOperationException(String.format("%s does not support hot reloading", iocContainer.getClass().getName()));
+        }
+        hotReloader = HotReloader.start((DependencyContainer) iocContainer, entryPoint, configuration, classPathEntries(),
+                reloadListener);
+    }
+
+    /**
+     * Returns the context generated for the entry point, or null if there is none or this context is configured in a
+     * way the generated context does not support.
+     */
+    private GeneratedContainer loadGeneratedContainer(Class<?> entryPoint) {
+        Class<?> generatedClass;
+        try {
+            generatedClass = Class.forName(GeneratedContainer.generatedClassNameOf(entryPoint), false, entryPoint.getClassLoader());
+        } catch (ClassNotFoundException exception) {
+            return null;
+        }
+        List<String> settings = explicitSettings();
+        if (!settings.isEmpty()) {
+            if (Boolean.TRUE.equals(generatedContextEnabled)) {
+                throw new IllegalStateException(String.format("%s does not support the configured %s, " +
+                        "call setGeneratedContextEnabled(false) to scan the classes instead", generatedClass.getName(),
+                        String.join(", ", settings)));
+            }
+            return null;
+        }
+        return ContainerFactory.getFactoryInstance().createInstance(generatedClass.asSubclass(GeneratedContainer.class));
+    }
+
+    /**
+     * Returns the settings of this context that the generated context would ignore.
+     */
+    private List<String> explicitSettings() {
+        List<String> settings = new ArrayList<>();
+        if (containerProvided) {
+            settings.add("container instance");
+        }
+        if (startupReportCollector != null) {
+            settings.add("startup report");
+        }
+        if (scanConfiguration != null) {
+            settings.add("scan configuration");
+        }
+        if (wiringSnapshotFile != null) {
+            settings.add("wiring snapshot file");
+        }
+        if (!freezeEnabled) {
+            // A generated context cannot register classes later either
+            settings.add("disabled freezing");
+        }
+        return settings;
+    }
+
+    /**
+     * Scans and registers the classes, reporting the scan together with the time spent checking the wiring snapshot.
+     */
+    private void registerScannedClasses(ScanConfiguration configuration, long snapshotNanos) {
+        ContainerListener listener = iocContainer.getContainerListener();
+        if (listener == ContainerListener.NONE) {
+            iocContainer.registerClassesInPath(classLocator.scan(configuration));
+        } else {
+            long start = System.nanoTime();
+            List<Class<?>> classes = classLocator.scan(configuration);
+            listener.phaseCompleted(StartupPhase.SCAN, snapshotNanos + System.nanoTime() - start);
+            iocContainer.registerClassesInPath(classes);
+        }
+    }
+
+    private static List<Path> classPathEntries() {
+        List<Path> classPathEntries = new ArrayList<>();
+        for (String classPathEntry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            if (!classPathEntry.isEmpty()) {
+                classPathEntries.add(Paths.get(classPathEntry));
+            }
+        }
+        return classPathEntries;
+    }
+
+    /**
+     * Sets the packages and patterns scanned for components. It has to be set before the context is initialized; by
+     * default, the package of the entry point and its sub-packages are scanned.
+     *
+     * @param scanConfiguration the scan configuration, or null to scan the package of the entry point
+     */
+    public void setScanConfiguration(ScanConfiguration scanConfiguration) {
+        this.scanConfiguration = scanConfiguration;
+    }
+
+    /**
+     * Turns the use of the context generated at build time on or off. By default, the generated context is used when
+     * this context is not configured otherwise. Turned off, the classes are scanned and resolved even when a generated
+     * context is present. Turned on, initializing the context fails if it is configured in a way the generated context
+     * does not support, such as with a container instance or a startup report, instead of silently scanning.
+     *
+     * @param generatedContextEnabled true to require the generated context, false to ignore it
+     */
+    public void setGeneratedContextEnabled(boolean generatedContextEnabled) {
+        this.generatedContextEnabled = generatedContextEnabled;
+    }
+
+    /**
+     * Turns freezing the container on or off. It is on by default: the container is frozen once the context is
+     * initialized, which releases the metadata only needed to register the classes. Beans of every scope, child
+     * containers and request and thread scopes keep working, but no more classes can be registered and the wiring can
+     * no longer be exported, so applications that register classes after the context is initialized turn it off. Hot
+     * reloading keeps the container unfrozen whatever this setting.
+     *
+     * @param freezeEnabled false to keep the container open for registrations
+     * @see IOCContainer#freeze()
+     */
+    public void setFreezeEnabled(boolean freezeEnabled) {
+        this.freezeEnabled = freezeEnabled;
+    }
+
+    /**
+     * Sets the file the resolved wiring is kept in between starts. It has to be set before the context is initialized.
+     * The snapshot is keyed by a fingerprint of the class path: the sizes and modification times of the jars and of the
+     * component indexes of the class directories, which the annotation processor rewrites on every compilation, and the
+     * modification times of the directories without an index. A missing, corrupt or outdated snapshot is silently
+     * replaced. Without the processor, a class compiled again in place does not change the fingerprint.
+     *
+     * @param wiringSnapshotFile the wiring snapshot file, or null to scan and resolve on every start
+     */
+    public void setWiringSnapshotFile(Path wiringSnapshotFile) {
+        this.wiringSnapshotFile = wiringSnapshotFile;
+    }
+
+    /**
+     * Turns on hot reloading for development. It has to be called before the context is initialized. Once the context
+     * is initialized, the class directories of the scanned packages are watched, and when class files change the
+     * changed classes are reloaded and only the beans depending on them are rebuilt. Hot reloading needs a
+     * DependencyContainer.
+     *
+     * @param reloadListener the listener notified about the reloads, or ReloadListener.NONE
+     * @see HotReloader
+     */
+    public void enableHotReload(ReloadListener reloadListener) {
+        this.reloadListener = Objects.requireNonNull(reloadListener, "Reload listener cannot be null");
+    }
+
+    /**
+     * Stops watching the class directories, if hot reloading was enabled.
+     */
+    public void disableHotReload() {
+        reloadListener = null;
+        if (hotReloader != null) {
+            hotReloader.close();
+            hotReloader = null;
+        }
+    }
+
+    /**
+     * Returns the bean of the specified type from the container of this context.
+     *
+     * @param <T>  the type of the bean
+     * @param type the class object representing the type of the bean
+     * @return the shared instance of a singleton, or a new instance of a prototype
+     */
+    @Override
+    public <T> T getBean(Class<T> type) {
+        return iocContainer.getBean(type);
+    }
+
+    /**
+     * Creates a child container of the initialized context, which shares its singletons and creates its own instances
+     * of the context-scoped components. Children are meant to be short-lived, for example one per request or tenant,
+     * and should be closed when they are no longer used.
+     *
+     * @return the new child container
+     * @throws UnsupportedOperationException if the container does not support child containers
+     */
+    @Override
+    public ChildContainer createChildContainer() {
+        return iocContainer.createChildContainer();
+    }
+
+    /**
+     * Runs the specified action within a new request scope of the initialized context. A virtual thread handling a
+     * single request would typically run its whole handler within the scope.
+     *
+     * @param action the code handling the request
+     * @throws UnsupportedOperationException if the container does not support request scopes
+     */
+    @Override
+    public void runInRequestScope(Runnable action) {
+        iocContainer.runInRequestScope(action);
+    }
+
+    /**
+     * Calls the specified action within a new request scope of the initialized context.
+     *
+     * @param <T>    the type of the result
+     * @param action the code handling the request
+     * @return the result of the action
+     * @throws Exception                     if the action throws an exception
+     * @throws UnsupportedOperationException if the container does not support request scopes
+     */
+    @Override
+    public <T> T callInRequestScope(Callable<T> action) throws Exception {
+        return iocContainer.callInRequestScope(action);
+    }
+
+    /**
+     * Ends the thread scope of the calling thread, so that a pooled thread does not carry its thread-scoped beans over
+     * to its next task.
+     */
+    @Override
+    public void endThreadScope() {
+        iocContainer.endThreadScope();
+    }
+
+    /**
+     * Shuts the context down, waiting at most 30 seconds for the @PreDestroy methods of the singletons.
+     *
+     * @see #shutdown(long, TimeUnit)
+     */
+    @Override
+    public void close() {
+        shutdown(DEFAULT_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Shuts the context down: stops hot reloading, if it was enabled, and invokes the @PreDestroy methods of the
+     * singletons, each after those of the singletons depending on it.
+     *
+     * @param timeout the maximum time to wait for the singletons to be destroyed
+     * @param unit    the unit of the timeout
+     * @return true if every singleton was destroyed within the timeout
+     * @throws com.plattensee.iocframework.exception.LifecycleCallbackException if a @PreDestroy method throws an
+     *                                                                          exception, once the other singletons
+     *                                                                          are destroyed
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        disableHotReload();
+        return iocContainer.shutdown(timeout, unit);
+    }
+
+    /**
+     * Turns on the collection of the startup report. It has to be called before the context is initialized.
+     *
+     * @throws UnsupportedOperationException if the container does not support instrumentation
+     */
+    public void enableStartupReport() {
+        if (startupReportCollector == null) {
+            startupReportCollector = new StartupReportCollector();
+            iocContainer.addContainerListener(startupReportCollector);
+        }
+    }
+
+    /**
+     * Returns the timings collected while the context was initialized.
+     *
+     * @return the startup report, with the beans ordered slowest first
+     * @throws IllegalStateException if the startup report was not enabled
+     */
+    @Override
+    public StartupReport getStartupReport() {
+        if (startupReportCollector == null) {
+            throw new IllegalStateException("The startup report is not enabled, call enableStartupReport() before initContext()");
+        }
+        return startupReportCollector.getReport();
     }
 }
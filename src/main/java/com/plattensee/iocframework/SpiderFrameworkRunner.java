@@ -2,7 +2,11 @@ package com.plattensee.iocframework;
 
 import com.plattensee.iocframework.container.DependencyContainer;
 import com.plattensee.iocframework.container.IOCContainer;
+import com.plattensee.iocframework.locator.ClassLocator;
+import com.plattensee.iocframework.locator.ScanConfiguration;
+import com.plattensee.iocframework.reload.ReloadListener;
 
+import java.nio.file.Path;
 import java.util.Objects;
 
 /**
@@ -11,16 +15,29 @@ import java.util.Objects;
  */
 public class SpiderFrameworkRunner {
     private static Class<? extends IOCContainer> containerType = DependencyContainer.class;
+    private static ClassLocator classLocator;
+    private static Path wiringSnapshotFile;
+    private static ScanConfiguration scanConfiguration;
+    private static boolean hotReloadEnabled;
 
     /**
-     * Starts the Spider IOC framework with the specified entry point class.
+     * Starts the Spider IOC framework with the specified entry point class. The context is closed when the JVM shuts
+     * down, which invokes the @PreDestroy methods of the singletons.
      *
      * @param <T>        the type of the IOCFrameworkRunner
      * @param entryPoint the class object representing the entry point of the IOC framework
      */
     public static synchronized <T extends IOCFrameworkRunner> void start(Class<T> entryPoint) {
-        ApplicationContext context = new SpiderApplicationContext(Objects.requireNonNull(containerType));
+        SpiderApplicationContext context = classLocator == null ?
+                new SpiderApplicationContext(Objects.requireNonNull(containerType)) :
+                new SpiderApplicationContext(Objects.requireNonNull(containerType), classLocator);
+        context.setWiringSnapshotFile(wiringSnapshotFile);
+        context.setScanConfiguration(scanConfiguration);
+        if (hotReloadEnabled) {
+            context.enableHotReload(ReloadListener.NONE);
+        }
         IOCFrameworkRunner runner = context.initContext(entryPoint);
+        Runtime.getRuntime().addShutdownHook(new Thread(context::close, "spider-shutdown"));
         runner.run();
     }
 
@@ -30,6 +47,46 @@ public class SpiderFrameworkRunner {
      * @param <T> the type of the IOCContainer
      */
     public static synchronized <T extends IOCContainer> void setContainerType(Class<T> containerType) {
-        containerType = Objects.requireNonNull(containerType, "Container type cannot be null");
+        SpiderFrameworkRunner.containerType = Objects.requireNonNull(containerType, "Container type cannot be null");
+    }
+
+    /**
+     * Sets the class locator used to find the components. By default, components are read from the compile-time
+     * component index and the class path is scanned only if no index is found.
+     *
+     * @param classLocator the class locator to use
+     */
+    public static synchronized void setClassLocator(ClassLocator classLocator) {
+        SpiderFrameworkRunner.classLocator = Objects.requireNonNull(classLocator, "Class locator cannot be null");
+    }
+
+    /**
+     * Sets the file the resolved wiring is kept in between starts.
+     *
+     * @param wiringSnapshotFile the wiring snapshot file, or null to scan and resolve on every start
+     * @see SpiderApplicationContext#setWiringSnapshotFile(Path)
+     */
+    public static synchronized void setWiringSnapshotFile(Path wiringSnapshotFile) {
+        SpiderFrameworkRunner.wiringSnapshotFile = wiringSnapshotFile;
+    }
+
+    /**
+     * Sets the packages and patterns scanned for components.
+     *
+     * @param scanConfiguration the scan configuration, or null to scan the package of the entry point
+     * @see SpiderApplicationContext#setScanConfiguration(ScanConfiguration)
+     */
+    public static synchronized void setScanConfiguration(ScanConfiguration scanConfiguration) {
+        SpiderFrameworkRunner.scanConfiguration = scanConfiguration;
+    }
+
+    /**
+     * Turns hot reloading on or off for development.
+     *
+     * @param hotReloadEnabled true to reload changed classes and rebuild the beans depending on them
+     * @see SpiderApplicationContext#enableHotReload(ReloadListener)
+     */
+    public static synchronized void setHotReloadEnabled(boolean hotReloadEnabled) {
+        SpiderFrameworkRunner.hotReloadEnabled = hotReloadEnabled;
     }
 }
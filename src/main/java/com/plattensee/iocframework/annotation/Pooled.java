@@ -0,0 +1,15 @@
+package com.plattensee.iocframework.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Pooled {
+    /**
+     * The number of wired instances the pool is filled with at startup and keeps while they are idle.
+     */
+    int size() default 8;
+}
@@ -0,0 +1,36 @@
+package com.plattensee.iocframework.annotation;
+
+/**
+ * The scopes a component can be declared with through the @Scope annotation.
+ */
+public enum ScopeType {
+    /**
+     * A single instance is created per container and shared by every injection point.
+     */
+    SINGLETON,
+    /**
+     * A new instance is created for every injection point and every lookup.
+     */
+    PROTOTYPE,
+    /**
+     * Instances are borrowed from a bounded pool of wired instances and returned after use. A component annotated with
+     * @Pooled has this scope; injected directly, it behaves like a prototype.
+     */
+    POOLED,
+    /**
+     * A single instance is created per child container and shared by the injection points within it. Singletons are
+     * created by the parent container, so they cannot depend on context-scoped components.
+     */
+    CONTEXT,
+    /**
+     * A single instance is created per thread and shared by the injection points on that thread. Interface injection
+     * points receive a proxy delegating to the instance of the calling thread, so singletons can use it as well.
+     */
+    THREAD,
+    /**
+     * A single instance is created per request, entered through DependencyContainer.runInRequestScope, and destroyed
+     * when the request ends. Interface injection points receive a proxy delegating to the instance of the current
+     * request, so singletons can use it as well.
+     */
+    REQUEST
+}
@@ -0,0 +1,195 @@
+package com.plattensee.iocframework.container;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * The ArrayCollections are the immutable collections injected into List, Set and Map fields. Each one wraps the array
+ * of beans it was created with, so iterating it is a plain array walk. Every mutator throws an
+ * UnsupportedOperationException.
+ */
+final class ArrayCollections {
+    private ArrayCollections() {
+    }
+
+    static List<Object> list(Object[] elements) {
+        return new ArrayBackedList(elements);
+    }
+
+    static Set<Object> set(Object[] elements) {
+        return new ArraySet(elements);
+    }
+
+    static Map<String, Object> map(String[] keys, Object[] values) {
+        return new ArrayMap(keys, values);
+    }
+
+    private static final class ArrayBackedList extends AbstractList<Object> implements RandomAccess {
+        private final Object[] elements;
+
+        private ArrayBackedList(Object[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public Object get(int index) {
+            return elements[index];
+        }
+
+        @Override
+        public int size() {
+            return elements.length;
+        }
+
+        @Override
+        public void forEach(Consumer<? super Object> action) {
+            for (Object element : elements) {
+                action.accept(element);
+            }
+        }
+    }
+
+    private static final class ArraySet extends AbstractSet<Object> {
+        private final Object[] elements;
+
+        private ArraySet(Object[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return new ArrayIterator<>(elements);
+        }
+
+        @Override
+        public int size() {
+            return elements.length;
+        }
+
+        @Override
+        public boolean contains(Object object) {
+            for (Object element : elements) {
+                if (element.equals(object)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEach(Consumer<? super Object> action) {
+            for (Object element : elements) {
+                action.accept(element);
+            }
+        }
+    }
+
+    /**
+     * A map from the keys of the beans to the beans. The hash codes of the keys are kept in a parallel array, so a
+     * lookup compares strings only when their hash codes are equal.
+     */
+    private static final class ArrayMap extends AbstractMap<String, Object> {
+        private final String[] keys;
+        private final int[] hashes;
+        private final Object[] values;
+
+        private ArrayMap(String[] keys, Object[] values) {
+            this.keys = keys;
+            this.values = values;
+            this.hashes = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                hashes[i] = keys[i].hashCode();
+            }
+        }
+
+        @Override
+        public Object get(Object key) {
+            int index = indexOf(key);
+            return index < 0 ? null : values[index];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(key) >= 0;
+        }
+
+        private int indexOf(Object key) {
+            if (key != null) {
+                int hash = key.hashCode();
+                for (int i = 0; i < keys.length; i++) {
+                    if (hashes[i] == hash && keys[i].equals(key)) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<Entry<String, Object>>() {
+                        private int index;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < keys.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (index >= keys.length) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, Object> entry = new SimpleImmutableEntry<>(keys[index], values[index]);
+                            index++;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+    }
+
+    private static final class ArrayIterator<E> implements Iterator<E> {
+        private final E[] elements;
+        private int index;
+
+        private ArrayIterator(E[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < elements.length;
+        }
+
+        @Override
+        public E next() {
+            if (index >= elements.length) {
+                throw new NoSuchElementException();
+            }
+            return elements[index++];
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.plattensee.iocframework.container;
+
+/**
+ * The BeanFactory interface defines the contract for a factory that constructs new, not yet wired instances of a bean.
+ *
+ * @param <T> the type of the bean
+ */
+public interface BeanFactory<T> {
+    /**
+     * Constructs a new instance of the bean.
+     *
+     * @return a new instance of the bean
+     */
+    T newInstance();
+}
@@ -0,0 +1,223 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.annotation.Pooled;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The BeanPool keeps the idle instances of a @Pooled component, so expensive beans that are not thread-safe are wired
+ * once and reused by one thread at a time. An @Inject field of type BeanPool&lt;T&gt; receives the pool of the component
+ * T; the pool can also be obtained through {@link IOCContainer#getBeanPool(Class)}.
+ * <p>
+ * The idle instances are kept in the slots of an array, one per pooled instance, which the container fills with wired
+ * instances at startup. A thread starts looking for an idle instance, and for a free slot when returning one, at a slot
+ * derived from its id, and claims it with a single compare-and-set, so concurrent threads mostly touch different slots
+ * and never wait for each other.
+ * <p>
+ * The pool never blocks: when every instance is borrowed, an extra instance is created, and when every slot is taken,
+ * a returned instance is destroyed with its @PreDestroy methods. The pool thus keeps at most {@link Pooled#size()}
+ * instances, but under load more instances may be in use at the same time. The idle instances are destroyed when the
+ * container is shut down.
+ *
+ * @param <T> the type of the pooled bean
+ */
+public final class BeanPool<T> {
+    private final Class<T> type;
+    private final Provider<?> factory;
+    private final AtomicReferenceArray<T> idleInstances;
+
+    /**
+     * Constructs a new BeanPool.
+     *
+     * @param type    the class object representing the pooled component
+     * @param size    the number of instances to keep
+     * @param factory creates a new, injected instance of the component
+     * @throws IllegalArgumentException if size is not positive
+     */
+    BeanPool(Class<T> type, int size, Provider<?> factory) {
+        if (size < 1) {
+            throw new IllegalArgumentException(String.format("The pool of %s needs a positive size, not %d", type.getName(), size));
+        }
+        this.type = type;
+        this.factory = factory;
+        this.idleInstances = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Returns the number of instances the pool of a component keeps, declared with @Pooled.
+     *
+     * @param component the class object representing the pooled component
+     * @return the declared size, or the default of @Pooled if the component is not annotated
+     */
+    static int sizeOf(Class<?> component) {
+        Pooled pooled = component.getAnnotation(Pooled.class);
+        if (pooled != null) {
+            return pooled.size();
+        }
+        try {
+            return (Integer) Pooled.class.getMethod("size").getDefaultValue();
+        } catch (NoSuchMethodException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Creates an instance for every empty slot. It is called by the container at startup, so the instances are wired
+     * before they are first borrowed.
+     */
+    void fill() {
+        for (int slot = 0; slot < idleInstances.length(); slot++) {
+            if (idleInstances.get(slot) == null) {
+                T instance = type.cast(factory.get());
+                if (!idleInstances.compareAndSet(slot, null, instance)) {
+                    // A returned instance took the slot meanwhile
+                    destroy(instance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the idle instances out of the pool and invokes their @PreDestroy methods. It is called by the container
+     * when it is shut down; instances borrowed meanwhile are kept when they are returned.
+     *
+     * @throws com.plattensee.iocframework.exception.LifecycleCallbackException if a @PreDestroy method throws an
+     *                                                                          exception, once the other instances
+     *                                                                          are destroyed
+     */
+    void destroyIdleInstances() {
+        List<Object> instances = new ArrayList<>(0);
+        for (int slot = 0; slot < idleInstances.length(); slot++) {
+            T instance = idleInstances.getAndSet(slot, null);
+            if (instance != null) {
+                instances.add(instance);
+            }
+        }
+        LifecycleMethods.preDestroyAll(instances, Long.MAX_VALUE);
+    }
+
+    private static void destroy(Object instance) {
+        LifecycleMethods.preDestroyAll(Collections.singletonList(instance), Long.MAX_VALUE);
+    }
+
+    /**
+     * Borrows an instance from the pool. The instance has to be returned with {@link #release(Object)} once the
+     * borrowing thread no longer uses it.
+     *
+     * @return an idle instance, or an extra instance if all of them are borrowed
+     */
+    public T borrow() {
+        int slots = idleInstances.length();
+        int start = firstSlot(slots);
+        for (int i = 0; i < slots; i++) {
+            int slot = (start + i) % slots;
+            T instance = idleInstances.get(slot);
+            if (instance != null && idleInstances.compareAndSet(slot, instance, null)) {
+                return instance;
+            }
+        }
+        return type.cast(factory.get());
+    }
+
+    /**
+     * Returns a borrowed instance to the pool. The instance must not be used after it has been returned. If the pool
+     * already keeps as many instances as it has slots, the instance is destroyed instead.
+     *
+     * @param instance the borrowed instance
+     * @throws ClassCastException                                               if the instance is not of the pooled
+     *                                                                          type
+     * @throws com.plattensee.iocframework.exception.LifecycleCallbackException if a @PreDestroy method of a
+     *                                                                          destroyed instance throws an exception
+     */
+    public void release(T instance) {
+        T idleInstance = type.cast(Objects.requireNonNull(instance));
+        int slots = idleInstances.length();
+        int start = firstSlot(slots);
+        for (int i = 0; i < slots; i++) {
+            int slot = (start + i) % slots;
+            if (idleInstances.get(slot) == null && idleInstances.compareAndSet(slot, null, idleInstance)) {
+                return;
+            }
+        }
+        destroy(idleInstance);
+    }
+
+    /**
+     * Borrows an instance that is returned when the lease is closed, to be used with try-with-resources.
+     *
+     * @return the lease of a borrowed instance
+     */
+    public Lease<T> lease() {
+        return new Lease<>(this, borrow());
+    }
+
+    /**
+     * Returns the pooled component.
+     *
+     * @return the class object representing the pooled component
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Returns the number of instances the pool keeps.
+     *
+     * @return the number of slots of the pool
+     */
+    public int getSize() {
+        return idleInstances.length();
+    }
+
+    /**
+     * Spreads the threads over the slots by mixing the thread id, so neighbouring ids start at distant slots.
+     */
+    private static int firstSlot(int slots) {
+        long mixed = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) ((mixed >>> 32) % slots);
+    }
+
+    /**
+     * A borrowed instance that is returned to its pool when the lease is closed. A lease belongs to the thread that
+     * borrowed it and is not thread-safe.
+     *
+     * @param <T> the type of the pooled bean
+     */
+    public static final class Lease<T> implements AutoCloseable {
+        private final BeanPool<T> pool;
+        private T instance;
+
+        private Lease(BeanPool<T> pool, T instance) {
+            this.pool = pool;
+            this.instance = instance;
+        }
+
+        /**
+         * Returns the borrowed instance.
+         *
+         * @return the borrowed instance
+         * @throws IllegalStateException if the lease is closed
+         */
+        public T get() {
+            if (instance == null) {
+                throw new IllegalStateException(String.format("The lease of %s is closed", pool.getType().getName()));
+            }
+            return instance;
+        }
+
+        /**
+         * Returns the borrowed instance to the pool. Closing a closed lease has no effect.
+         */
+        @Override
+        public void close() {
+            if (instance != null) {
+                pool.release(instance);
+                instance = null;
+            }
+        }
+    }
+}
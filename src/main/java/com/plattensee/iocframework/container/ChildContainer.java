@@ -0,0 +1,19 @@
+package com.plattensee.iocframework.container;
+
+/**
+ * The ChildContainer interface represents a lightweight container created from a parent container, for example per
+ * request or per tenant. A child shares everything its parent resolved: the index of the components, the injection
+ * plans and the singletons. It only holds its own instances of the components annotated with
+ * @Scope(ScopeType.CONTEXT), which are created on first access and injected into the beans created through the
+ * child.
+ * <p>
+ * Closing a child releases its instances; the parent keeps no reference to its children.
+ */
+public interface ChildContainer extends IOCContainer, AutoCloseable {
+    /**
+     * Releases the context-scoped instances of the child. The child cannot be used anymore; closing it again has no
+     * effect.
+     */
+    @Override
+    void close();
+}
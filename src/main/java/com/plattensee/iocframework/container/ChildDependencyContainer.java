@@ -0,0 +1,120 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.annotation.ScopeType;
+import com.plattensee.iocframework.instrumentation.ContainerListener;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The ChildDependencyContainer is the ChildContainer of a DependencyContainer. Its context-scoped instances are kept in
+ * ScopedInstances, indexed by the ids the parent assigned to the context-scoped beans when it planned them; everything
+ * else is obtained from the parent. Beans created through the child are injected with its context-scoped instances.
+ * <p>
+ * A context-scoped instance is created without holding a lock: the first access claims the slot of the bean, and
+ * concurrent first accesses wait for that creation, so they share a single instance while different beans are created
+ * concurrently. Closing the child invokes the @PreDestroy methods of its context-scoped instances, in the reverse order
+ * of their ids, which follows the dependencies.
+ */
+final class ChildDependencyContainer implements ChildContainer {
+    private final DependencyContainer parent;
+    private final ScopedInstances contextInstances;
+
+    ChildDependencyContainer(DependencyContainer parent) {
+        this.parent = parent;
+        this.contextInstances = parent.newContextInstances(this);
+    }
+
+    /**
+     * Returns the instance of a context-scoped bean within this child, creating it on first access.
+     *
+     * @param clazz the class object representing the context-scoped bean
+     * @return the instance of the bean within this child
+     * @throws IllegalStateException if the child is closed
+     */
+    Object getContextInstance(Class<?> clazz) {
+        return contextInstances.getInstance(clazz, parent.getContextBeanId(clazz));
+    }
+
+    private ChildDependencyContainer open() {
+        contextInstances.checkOpen();
+        return this;
+    }
+
+    /**
+     * Returns the bean of the specified class within this child.
+     *
+     * @param <T>      the type of the class
+     * @param newClass the class object representing the bean
+     * @return the shared instance of a singleton, the instance of this child, or a new instance of a prototype
+     * @throws IllegalStateException if the child is closed
+     */
+    @Override
+    public <T> T register(Class<T> newClass) {
+        return newClass.cast(parent.getInstance(Objects.requireNonNull(newClass), open()));
+    }
+
+    /**
+     * Creates a new instance of the specified class, injected with the context-scoped instances of this child.
+     *
+     * @param <T>   the type of the class
+     * @param clazz the class object representing the class to resolve
+     * @return a new instance of the class
+     * @throws IllegalStateException if the child is closed
+     */
+    @Override
+    public <T> T resolve(Class<T> clazz) {
+        return parent.resolve(Objects.requireNonNull(clazz), open());
+    }
+
+    /**
+     * Not supported, a child container shares the classes registered in its parent.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void registerClassesInPath(List<Class<?>> classesInPath) {
+        throw new UnsupportedOperationException("A child container shares the classes registered in its parent");
+    }
+
+    /**
+     * Returns the bean of the specified type within this child. Singletons are looked up in the parent.
+     *
+     * @param <T>  the type of the bean
+     * @param type the class object representing the type of the bean
+     * @return the shared instance of a singleton, the instance of this child, or a new instance of a prototype
+     * @throws IllegalStateException if the child is closed
+     */
+    @Override
+    public <T> T getBean(Class<T> type) {
+        Class<?> implementation = parent.getImplementation(Objects.requireNonNull(type));
+        if (parent.getScope(implementation) == ScopeType.SINGLETON) {
+            open();
+            return parent.getBean(type);
+        }
+        return type.cast(parent.getInstance(implementation, open()));
+    }
+
+    @Override
+    public <T> BeanPool<T> getBeanPool(Class<T> type) {
+        return parent.getBeanPool(type);
+    }
+
+    @Override
+    public ContainerListener getContainerListener() {
+        return parent.getContainerListener();
+    }
+
+    /**
+     * Closes the child and invokes the @PreDestroy methods of its context-scoped instances. Closing it again has no
+     * effect.
+     *
+     * @throws com.plattensee.iocframework.exception.LifecycleCallbackException if a @PreDestroy method throws an
+     *                                                                          exception, once the other instances
+     *                                                                          are destroyed
+     */
+    @Override
+    public void close() {
+        contextInstances.close();
+    }
+}
@@ -0,0 +1,154 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.annotation.Named;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The ComponentIndex holds the components registered in a container together with an index from every superclass and
+ * interface to the components assignable to it, and an index from every qualifier to the components it names. A
+ * component is qualified by its simple name, its fully qualified name and the value of its @Named annotation. The
+ * index is built once when the classes are registered and never changes afterwards, so implementation and qualifier
+ * lookups are hash lookups instead of scans over every component.
+ * <p>
+ * Once the container is frozen, the index is compacted: the arrays holding the same components, such as those of a
+ * component's own type, its only interface and its qualifiers, are shared, so both maps and their hash lookups are
+ * kept for the lookups made at runtime.
+ */
+final class ComponentIndex {
+    private static final Class<?>[] NO_COMPONENTS = new Class<?>[0];
+
+    private final Class<?>[] components;
+    private final Map<Class<?>, Class<?>[]> implementationsByType;
+    private final Map<String, Class<?>[]> componentsByQualifier;
+
+    private ComponentIndex(Class<?>[] components, Map<Class<?>, Class<?>[]> implementationsByType,
+                           Map<String, Class<?>[]> componentsByQualifier) {
+        this.components = components;
+        this.implementationsByType = implementationsByType;
+        this.componentsByQualifier = componentsByQualifier;
+    }
+
+    /**
+     * Builds the index of the specified components.
+     *
+     * @param components the registered components, in registration order
+     * @return the index of the components
+     */
+    static ComponentIndex of(List<Class<?>> components) {
+        Map<Class<?>, Set<Class<?>>> implementations = new HashMap<>();
+        Map<String, Set<Class<?>>> qualified = new HashMap<>();
+        for (Class<?> component : components) {
+            for (Class<?> supertype : supertypesOf(component)) {
+                implementations.computeIfAbsent(supertype, type -> new LinkedHashSet<>(2)).add(component);
+            }
+            for (String qualifier : qualifiersOf(component)) {
+                qualified.computeIfAbsent(qualifier, name -> new LinkedHashSet<>(2)).add(component);
+            }
+        }
+        return new ComponentIndex(components.toArray(NO_COMPONENTS), toArrays(implementations), toArrays(qualified));
+    }
+
+    /**
+     * Returns the compact form of this index, whose types and qualifiers share one array per distinct list of
+     * components.
+     *
+     * @return the compacted index
+     */
+    ComponentIndex compact() {
+        Map<List<Class<?>>, Class<?>[]> sharedArrays = new HashMap<>();
+        return new ComponentIndex(components, share(implementationsByType, sharedArrays),
+                share(componentsByQualifier, sharedArrays));
+    }
+
+    private static <K> Map<K, Class<?>[]> share(Map<K, Class<?>[]> index, Map<List<Class<?>>, Class<?>[]> sharedArrays) {
+        Map<K, Class<?>[]> shared = new HashMap<>(index.size() * 4 / 3 + 1);
+        index.forEach((key, classes) -> shared.put(key, sharedArrays.computeIfAbsent(Arrays.asList(classes), list -> classes)));
+        return shared;
+    }
+
+    private static <K> Map<K, Class<?>[]> toArrays(Map<K, Set<Class<?>>> index) {
+        Map<K, Class<?>[]> arrays = new HashMap<>(index.size() * 4 / 3 + 1);
+        index.forEach((key, classes) -> arrays.put(key, classes.toArray(NO_COMPONENTS)));
+        return arrays;
+    }
+
+    private static List<String> qualifiersOf(Class<?> component) {
+        List<String> qualifiers = new ArrayList<>(3);
+        qualifiers.add(component.getSimpleName());
+        qualifiers.add(component.getName());
+        Named named = component.getAnnotation(Named.class);
+        if (named != null && !named.value().isEmpty()) {
+            qualifiers.add(named.value());
+        }
+        return qualifiers;
+    }
+
+    /**
+     * Collects the class itself, its superclasses and every interface it implements directly or indirectly.
+     */
+    static Set<Class<?>> supertypesOf(Class<?> component) {
+        Set<Class<?>> supertypes = new LinkedHashSet<>();
+        for (Class<?> type = component; type != null && type != Object.class; type = type.getSuperclass()) {
+            supertypes.add(type);
+            addInterfaces(type, supertypes);
+        }
+        return supertypes;
+    }
+
+    private static void addInterfaces(Class<?> type, Set<Class<?>> supertypes) {
+        for (Class<?> implementedInterface : type.getInterfaces()) {
+            if (supertypes.add(implementedInterface)) {
+                addInterfaces(implementedInterface, supertypes);
+            }
+        }
+    }
+
+    /**
+     * Returns the components assignable to the specified type, in registration order.
+     *
+     * @param type the class or interface to look up
+     * @return the assignable components, or an empty array if there are none
+     */
+    Class<?>[] getImplementations(Class<?> type) {
+        return implementationsByType.getOrDefault(type, NO_COMPONENTS);
+    }
+
+    /**
+     * Returns the components whose simple name, fully qualified name or @Named value equals the specified qualifier.
+     *
+     * @param qualifier the qualifier to look up
+     * @return the qualified components, or an empty array if there are none
+     */
+    Class<?>[] getQualified(String qualifier) {
+        return componentsByQualifier.getOrDefault(qualifier, NO_COMPONENTS);
+    }
+
+    List<Class<?>> getComponents() {
+        return Collections.unmodifiableList(Arrays.asList(components));
+    }
+
+    long estimateSize() {
+        long size = Footprint.object(3) + Footprint.array(components.length)
+                + Footprint.hashMap(implementationsByType.size()) + Footprint.hashMap(componentsByQualifier.size());
+        // Shared arrays are counted once
+        Set<Class<?>[]> arrays = Collections.newSetFromMap(new IdentityHashMap<>());
+        arrays.addAll(implementationsByType.values());
+        arrays.addAll(componentsByQualifier.values());
+        for (Class<?>[] array : arrays) {
+            size += Footprint.array(array.length);
+        }
+        for (String qualifier : componentsByQualifier.keySet()) {
+            size += Footprint.string(qualifier);
+        }
+        return size;
+    }
+}
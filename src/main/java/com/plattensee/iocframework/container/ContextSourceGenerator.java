@@ -0,0 +1,409 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.annotation.ScopeType;
+import com.plattensee.iocframework.exception.BeanInstantiationException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The ContextSourceGenerator resolves the wiring of an application at build time and writes it as the Java source of a
+ * GeneratedContext class. The components are indexed and planned exactly like the DependencyContainer does at runtime,
+ * so a missing or ambiguous implementation, a missing constructor or a circular dependency fails the generation.
+ * <p>
+ * The generated class creates every bean with a constructor call, passing the parameters of its @Inject constructor,
+ * and assigns its @Inject fields directly. Constructors and fields that cannot be accessed from the package of the
+ * entry point are reached reflectively instead; every such access is recorded, so the build can warn about it or
+ * reject it.
+ */
+public final class ContextSourceGenerator {
+    private final DependencyContainer dependencyContainer;
+    private final List<String> reflectiveAccesses = new ArrayList<>();
+    private String packageName;
+    private Map<Class<?>, Integer> beanIds;
+    private Map<String, String> collectionMethods;
+
+    /**
+     * Constructs a new ContextSourceGenerator.
+     *
+     * @param dependencyContainer the container the components are planned with, which is not used otherwise
+     */
+    public ContextSourceGenerator(DependencyContainer dependencyContainer) {
+        this.dependencyContainer = dependencyContainer;
+    }
+
+    /**
+     * Resolves the wiring of the specified components and generates the context of the entry point.
+     *
+     * @param entryPoint the class object representing the entry point
+     * @param components the components located in the package of the entry point
+     * @return the source of the generated context, named {@link GeneratedContainer#generatedClassNameOf(Class)}
+     * @throws RuntimeException if the components cannot be wired, with the same exception the container would throw
+     */
+    public String generate(Class<?> entryPoint, List<Class<?>> components) {
+        dependencyContainer.planComponents(components);
+        List<Class<?>> beans = collectBeans(entryPoint);
+        DependencyGraph dependencyGraph = DependencyGraph.of(beans,
+                clazz -> dependencyContainer.getInjectionPlan(clazz).getDependencies());
+
+        String generatedClassName = GeneratedContainer.generatedClassNameOf(entryPoint);
+        packageName = generatedClassName.equals(GeneratedContainer.GENERATED_CLASS_NAME) ? "" :
+                generatedClassName.substring(0, generatedClassName.lastIndexOf('.'));
+        beanIds = new HashMap<>();
+        collectionMethods = new HashMap<>();
+        for (Class<?> bean : dependencyGraph.getInstantiationOrder()) {
+            beanIds.put(bean, beanIds.size());
+        }
+        reflectiveAccesses.clear();
+
+        Set<Class<?>> componentSet = new HashSet<>(components);
+        StringBuilder members = new StringBuilder();
+        for (Class<?> bean : dependencyGraph.getInstantiationOrder()) {
+            writeBeanMethods(members, bean);
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n")
+                .append(" * The wiring of ").append(entryPoint.getName()).append(", resolved at build time.\n")
+                .append(" * Generated by the spider-maven-plugin, do not edit.\n")
+                .append(" */\n")
+                .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("public final class ").append(GeneratedContainer.GENERATED_CLASS_NAME)
+                .append(" extends ").append(GeneratedContainer.class.getName()).append(" {\n");
+        source.append(members);
+
+        source.append("\n    public ").append(GeneratedContainer.GENERATED_CLASS_NAME).append("() {\n");
+        for (Class<?> bean : dependencyGraph.getInstantiationOrder()) {
+            int id = beanIds.get(bean);
+            source.append("        addBean(").append(classReference(bean)).append(", this::")
+                    .append(beanMethodOf(bean)).append(", this::new").append(id).append(", ")
+                    .append(componentSet.contains(bean)).append(");\n");
+            if (dependencyContainer.getScope(bean) == ScopeType.POOLED) {
+                source.append("        addBeanPool(").append(classReference(bean)).append(", ")
+                        .append(BeanPool.sizeOf(bean)).append(", this::new").append(id).append(");\n");
+            }
+        }
+        source.append("    }\n\n    @Override\n    protected void createSingletons() {\n");
+        for (Class<?> singleton : dependencyContainer.getStartupSingletons()) {
+            source.append("        bean").append(beanIds.get(singleton)).append("();\n");
+        }
+        source.append("    }\n}\n");
+        return source.toString();
+    }
+
+    /**
+     * Returns the constructors and fields the last generated context reaches reflectively.
+     *
+     * @return a description of every reflective access
+     */
+    public List<String> getReflectiveAccesses() {
+        return Collections.unmodifiableList(reflectiveAccesses);
+    }
+
+    /**
+     * Collects the planned beans, the entry point and every bean they can obtain, including the targets of lazy
+     * proxies and providers, and checks that all of them can be constructed and none of them is context-, thread- or
+     * request-scoped.
+     */
+    private List<Class<?>> collectBeans(Class<?> entryPoint) {
+        Set<Class<?>> beans = new LinkedHashSet<>(dependencyContainer.getDependencyGraph().getInstantiationOrder());
+        beans.add(entryPoint);
+        List<Class<?>> pending = new ArrayList<>(beans);
+        for (int i = 0; i < pending.size(); i++) {
+            Class<?> bean = pending.get(i);
+            dependencyContainer.checkConstructor(bean);
+            ScopeType scope = dependencyContainer.getScope(bean);
+            if (scope == ScopeType.CONTEXT || scope == ScopeType.THREAD || scope == ScopeType.REQUEST) {
+                throw new BeanInstantiationException(String.format("%s is %s-scoped, which a generated context does not support",
+                        bean.getName(), scope.name().toLowerCase(Locale.ROOT)));
+            }
+            for (InjectionPlan.InjectionPoint injectionPoint : dependencyContainer.getInjectionPlan(bean).getInjectionPoints()) {
+                Class<?>[] targets = injectionPoint.isCollection() ? injectionPoint.getElements() :
+                        new Class<?>[]{injectionPoint.getTargetType()};
+                for (Class<?> target : targets) {
+                    if (beans.add(target)) {
+                        pending.add(target);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(beans);
+    }
+
+    private void writeBeanMethods(StringBuilder members, Class<?> bean) {
+        int id = beanIds.get(bean);
+        boolean typed = isAccessible(bean);
+        String beanType = typed ? bean.getCanonicalName() : "Object";
+
+        if (dependencyContainer.getScope(bean) == ScopeType.SINGLETON) {
+            members.append("\n    private volatile Object singleton").append(id).append(";\n\n")
+                    .append("    private Object bean").append(id).append("() {\n")
+                    .append("        Object bean = singleton").append(id).append(";\n")
+                    .append("        if (bean == null) {\n")
+                    .append("            synchronized (this) {\n")
+                    .append("                bean = singleton").append(id).append(";\n")
+                    .append("                if (bean == null) {\n")
+                    .append("                    singleton").append(id).append(" = bean = new").append(id).append("();\n")
+                    .append(LifecycleMethods.of(bean).hasPreDestroy() ? "                    addDestroyable(bean);\n" : "")
+                    .append("                }\n")
+                    .append("            }\n")
+                    .append("        }\n")
+                    .append("        return bean;\n")
+                    .append("    }\n");
+        }
+
+        InjectionPlan injectionPlan = dependencyContainer.getInjectionPlan(bean);
+        StringBuilder body = new StringBuilder();
+        if (injectionPlan.isConstructorInjected()) {
+            writeConstructorCall(members, body, bean, injectionPlan);
+        } else if (typed && isConstructible(bean)) {
+            body.append("        ").append(beanType).append(" bean = new ").append(beanType).append("();\n");
+        } else {
+            members.append("\n    private static final ").append(BeanFactory.class.getName()).append(" FACTORY").append(id)
+                    .append(" = reflectiveFactory(").append(classReference(bean)).append(");\n");
+            body.append("        ").append(beanType).append(" bean = ").append(typed ? "(" + beanType + ") " : "")
+                    .append("FACTORY").append(id).append(".newInstance();\n");
+            reflectiveAccesses.add(String.format("The constructor of %s is not accessible from %s, it is called reflectively",
+                    bean.getName(), packageDescription()));
+        }
+
+        for (InjectionPlan.InjectionPoint injectionPoint : injectionPlan.getInjectedFields()) {
+            String value = valueOf(members, injectionPoint);
+            Field field = fieldOf(bean, injectionPoint.getName());
+            if (typed && isAssignable(field)) {
+                String cast = field.getType() == Provider.class ? "" : "(" + field.getType().getCanonicalName() + ") ";
+                body.append("        bean.").append(field.getName()).append(" = ").append(cast).append(value).append(";\n");
+            } else {
+                String setter = "SETTER" + id + "_" + field.getName();
+                members.append("\n    private static final java.lang.invoke.MethodHandle ").append(setter)
+                        .append(" = setter(").append(classReference(bean)).append(", \"").append(field.getName()).append("\");\n");
+                body.append("        setField(").append(setter).append(", bean, ").append(value).append(");\n");
+                reflectiveAccesses.add(String.format("The field %s.%s is not assignable from %s, it is injected reflectively",
+                        bean.getName(), field.getName(), packageDescription()));
+            }
+        }
+
+        if (LifecycleMethods.of(bean).hasPostConstruct()) {
+            body.append("        postConstruct(bean);\n");
+        }
+        members.append("\n    private Object new").append(id).append("() {\n").append(body)
+                .append("        return bean;\n    }\n");
+    }
+
+    /**
+     * Writes the creation of a bean through its @Inject constructor, which is called directly if the generated class
+     * can access it and its parameter types, and reflectively otherwise.
+     */
+    private void writeConstructorCall(StringBuilder members, StringBuilder body, Class<?> bean, InjectionPlan injectionPlan) {
+        int id = beanIds.get(bean);
+        Constructor<?> constructor = injectionPlan.getConstructor();
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        boolean typed = isAccessible(bean);
+        boolean direct = typed && isInstantiable(bean) && isAccessible(constructor);
+        for (Class<?> parameterType : parameterTypes) {
+            direct &= isAccessible(parameterType);
+        }
+
+        List<InjectionPlan.InjectionPoint> parameters = injectionPlan.getConstructorParameters();
+        StringBuilder arguments = new StringBuilder();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            arguments.append(i == 0 ? "" : ", ");
+            if (direct && parameterTypes[i] != Provider.class) {
+                arguments.append("(").append(parameterTypes[i].getCanonicalName()).append(") ");
+            }
+            arguments.append(valueOf(members, parameters.get(i)));
+        }
+        String beanType = typed ? bean.getCanonicalName() : "Object";
+        if (direct) {
+            body.append("        ").append(beanType).append(" bean = new ").append(beanType).append("(")
+                    .append(arguments).append(");\n");
+            return;
+        }
+
+        StringBuilder types = new StringBuilder();
+        for (Class<?> parameterType : parameterTypes) {
+            types.append(types.length() == 0 ? "" : ", ").append(classReference(parameterType));
+        }
+        members.append("\n    private static final java.lang.invoke.MethodHandle CONSTRUCTOR").append(id)
+                .append(" = constructor(").append(classReference(bean)).append(", new Class<?>[]{").append(types).append("});\n");
+        body.append("        ").append(beanType).append(" bean = ").append(typed ? "(" + beanType + ") " : "")
+                .append("construct(CONSTRUCTOR").append(id).append(", new Object[]{").append(arguments).append("});\n");
+        reflectiveAccesses.add(String.format("The @Inject constructor of %s is not accessible from %s, it is called reflectively",
+                bean.getName(), packageDescription()));
+    }
+
+    private String valueOf(StringBuilder members, InjectionPlan.InjectionPoint injectionPoint) {
+        if (injectionPoint.isCollection()) {
+            return collectionMethodOf(members, injectionPoint) + "()";
+        }
+        String beanMethod = "this::" + beanMethodOf(injectionPoint.getTargetType());
+        switch (injectionPoint.getKind()) {
+            case PROVIDER:
+                return "provider(" + beanMethod + ")";
+            case POOL:
+                return "getBeanPool(" + classReference(injectionPoint.getTargetType()) + ")";
+            case LAZY_PROXY:
+                return "lazyProxy(" + classReference(injectionPoint.getDeclaredType()) + ", " + beanMethod + ")";
+            default:
+                return beanMethodOf(injectionPoint.getTargetType()) + "()";
+        }
+    }
+
+    /**
+     * Writes the method returning the collection of a List, Set or Map field, once per kind and element type. A
+     * collection of singletons and lazy proxies is kept in a field and shared, like the DependencyContainer does.
+     */
+    private String collectionMethodOf(StringBuilder members, InjectionPlan.InjectionPoint injectionPoint) {
+        String key = injectionPoint.getKind() + " " + injectionPoint.getTargetType().getName();
+        String method = collectionMethods.get(key);
+        if (method != null) {
+            return method;
+        }
+        method = injectionPoint.getKind().name().toLowerCase() + collectionMethods.size();
+        collectionMethods.put(key, method);
+
+        Class<?>[] elements = injectionPoint.getElements();
+        StringBuilder beans = new StringBuilder();
+        boolean shareable = true;
+        for (int i = 0; i < elements.length; i++) {
+            beans.append(i == 0 ? "" : ", ");
+            if (injectionPoint.isLazyElement(i)) {
+                beans.append("lazyProxy(").append(classReference(injectionPoint.getTargetType())).append(", this::")
+                        .append(beanMethodOf(elements[i])).append(")");
+            } else {
+                beans.append(beanMethodOf(elements[i])).append("()");
+                shareable &= dependencyContainer.getScope(elements[i]) == ScopeType.SINGLETON;
+            }
+        }
+        String collection;
+        if (injectionPoint.getKind() == InjectionPlan.Kind.MAP) {
+            StringBuilder keys = new StringBuilder();
+            for (String mapKey : injectionPoint.getKeys()) {
+                keys.append(keys.length() == 0 ? "" : ", ").append('"').append(escape(mapKey)).append('"');
+            }
+            collection = "mapOf(new String[]{" + keys + "}, new Object[]{" + beans + "})";
+        } else {
+            collection = injectionPoint.getKind().name().toLowerCase() + "Of(new Object[]{" + beans + "})";
+        }
+
+        String type = injectionPoint.getDeclaredType().getName();
+        String sharedField = "shared" + Character.toUpperCase(method.charAt(0)) + method.substring(1);
+        if (shareable) {
+            members.append("\n    private volatile ").append(type).append(" ").append(sharedField).append(";\n\n")
+                    .append("    private ").append(type).append(" ").append(method).append("() {\n")
+                    .append("        ").append(type).append(" collection = ").append(sharedField).append(";\n")
+                    .append("        if (collection == null) {\n")
+                    .append("            ").append(sharedField).append(" = collection = ").append(collection).append(";\n")
+                    .append("        }\n")
+                    .append("        return collection;\n")
+                    .append("    }\n");
+        } else {
+            members.append("\n    private ").append(type).append(" ").append(method).append("() {\n")
+                    .append("        return ").append(collection).append(";\n")
+                    .append("    }\n");
+        }
+        return method;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private String beanMethodOf(Class<?> bean) {
+        int id = beanIds.get(bean);
+        return (dependencyContainer.getScope(bean) == ScopeType.SINGLETON ? "bean" : "new") + id;
+    }
+
+    private String classReference(Class<?> clazz) {
+        if (isAccessible(clazz)) {
+            return clazz.getCanonicalName() + ".class";
+        }
+        return "classForName(" + GeneratedContainer.GENERATED_CLASS_NAME + ".class, \"" + clazz.getName() + "\")";
+    }
+
+    private String packageDescription() {
+        return packageName.isEmpty() ? "the default package" : "package " + packageName;
+    }
+
+    private static Field fieldOf(Class<?> bean, String name) {
+        try {
+            return bean.getDeclaredField(name);
+        } catch (NoSuchFieldException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Checks whether the generated class can name the specified class: the class and all the classes enclosing it
+     * have to be public, or package-private in the package of the generated class.
+     */
+    private boolean isAccessible(Class<?> clazz) {
+        if (clazz.getCanonicalName() == null) {
+            return false;
+        }
+        for (Class<?> enclosing = clazz; enclosing != null; enclosing = enclosing.getDeclaringClass()) {
+            if (!isAccessible(enclosing.getModifiers(), enclosing)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isAccessible(int modifiers, Class<?> owner) {
+        return Modifier.isPublic(modifiers) || (!Modifier.isPrivate(modifiers) && packageOf(owner).equals(packageName));
+    }
+
+    private boolean isAccessible(Member member) {
+        return isAccessible(member.getModifiers(), member.getDeclaringClass());
+    }
+
+    /**
+     * Checks whether the generated class can create the specified class with its accessible no-arg constructor.
+     */
+    private boolean isConstructible(Class<?> bean) {
+        if (!isInstantiable(bean)) {
+            return false;
+        }
+        try {
+            Constructor<?> constructor = bean.getDeclaredConstructor();
+            return isAccessible(constructor);
+        } catch (NoSuchMethodException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether the specified class can be created with a {@code new} expression: it is neither abstract nor an
+     * inner class.
+     */
+    private static boolean isInstantiable(Class<?> bean) {
+        return !Modifier.isAbstract(bean.getModifiers())
+                && (bean.getDeclaringClass() == null || Modifier.isStatic(bean.getModifiers()));
+    }
+
+    private boolean isAssignable(Field field) {
+        int modifiers = field.getModifiers();
+        return !Modifier.isFinal(modifiers) && !Modifier.isStatic(modifiers) && isAccessible(field)
+                && isAccessible(field.getType());
+    }
+
+    private static String packageOf(Class<?> clazz) {
+        String name = clazz.getName();
+        int packageEnd = name.lastIndexOf('.');
+        return packageEnd < 0 ? "" : name.substring(0, packageEnd);
+    }
+}
@@ -1,32 +1,797 @@
 package com.plattensee.iocframework.container;
 
-import com.plattensee.iocframework.annotation.Inject;
+import com.plattensee.iocframework.annotation.Lazy;
+import com.plattensee.iocframework.annotation.Order;
+import com.plattensee.iocframework.annotation.Pooled;
+import com.plattensee.iocframework.annotation.Scope;
+import com.plattensee.iocframework.annotation.ScopeType;
 import com.plattensee.iocframework.exception.*;
+import com.plattensee.iocframework.instrumentation.ContainerListener;
+import com.plattensee.iocframework.instrumentation.StartupPhase;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * The DependencyContainer class is an implementation of the IOCContainer interface that manages class dependencies and
  * provides dependency resolution functionality.
+ * <p>
+ * Components are singletons unless they are annotated with @Scope(ScopeType.PROTOTYPE). A singleton is created exactly
+ * once, on first access, and shared by every injection point. Concurrent first accesses of the same singleton wait for
+ * a single creation without taking a global lock.
+ * <p>
+ * A bean is created through its constructor annotated with @Inject, whose parameters are injected like fields, or
+ * else through its no-arg constructor. Its @Inject fields are then injected; a bean without any is not touched after
+ * its constructor, so dependencies kept in final fields are safely published.
+ * <p>
+ * When the classes are registered, the container sorts the dependency graph of the components topologically and
+ * creates the singletons dependencies first. With an instantiation executor, independent singletons are created
+ * concurrently. Singletons annotated with @Lazy are only created on first access. Injection points annotated with
+ * @Lazy, or whose target is a @Lazy component, receive a proxy of their interface, and Provider fields receive a
+ * provider, so their beans are not needed at injection time.
+ * <p>
+ * List, Set and Map&lt;String, T&gt; fields receive every component of T, ordered by @Order and then by class
+ * name, in an immutable array-backed collection. A collection of singletons is created once per element type and
+ * shared by every field that injects it.
+ * <p>
+ * Components annotated with @Pooled are borrowed from a {@link BeanPool} of wired instances, which is injected into
+ * BeanPool&lt;T&gt; fields. The pools of the registered components are filled once the startup singletons are created,
+ * and their idle instances are destroyed on shutdown. Injected directly, a pooled component is created like a
+ * prototype.
+ * <p>
+ * Components annotated with @Scope(ScopeType.CONTEXT) are created once per {@link ChildContainer}. A child shares the
+ * index, the plans and the singletons of this container, so it is cheap to create for a single request or tenant.
+ * <p>
+ * Components annotated with @Scope(ScopeType.THREAD) are created once per thread, and those annotated with
+ * @Scope(ScopeType.REQUEST) once per {@link #runInRequestScope(Runnable) request scope}. The instances of a thread are
+ * kept in a single ThreadLocal of the container, in an array indexed by bean, and those of a request are bound to a
+ * ScopedValue on Java 25 and later, where it is final. Interface injection points of these beans receive a proxy delegating to
+ * the instance of the caller, so singletons can use them too.
+ * <p>
+ * Methods annotated with @PostConstruct are invoked once a bean is injected. With a lifecycle executor, those of the
+ * singletons created at startup run concurrently instead, each after those of the beans it depends on, and the
+ * registration waits for all of them. {@link #shutdown(long, TimeUnit)} invokes the @PreDestroy methods of the
+ * singletons, each after those of the singletons depending on it.
+ * <p>
+ * Once a type has been looked up through {@link #getBean(Class)}, later lookups of the same type read a ClassValue
+ * holding the bean, which neither locks nor allocates for singletons, so request threads can fetch beans at runtime.
+ * <p>
+ * After the classes are registered, the resolved wiring can be exported with {@link #createWiringSnapshot(byte[])}.
+ * Registering that snapshot on a later start wires the same beans without looking up any implementation.
+ * <p>
+ * Once the application is started, {@link #freeze()} drops what was only needed to start it and compacts the rest,
+ * so a long-running process keeps as little metadata as possible.
  */
 public class DependencyContainer implements IOCContainer {
-    private Map<Class<?>, Object> registeredInstances = Collections.synchronizedMap(new HashMap<>());
-    private List<Class<?>> classesInPath;
+    private final ConcurrentMap<Class<?>, CompletableFuture<Object>> singletonInstances = new ConcurrentHashMap<>();
+    private volatile SingletonTable frozenSingletons = SingletonTable.EMPTY;
+    private boolean frozen;
+    private final ThreadLocal<Deque<Class<?>>> classesInCreation = ThreadLocal.withInitial(ArrayDeque::new);
+    private final ClassValue<ScopeType> scopes = new ClassValue<ScopeType>() {
+        @Override
+        protected ScopeType computeValue(Class<?> type) {
+            if (type.isAnnotationPresent(Pooled.class)) {
+                return ScopeType.POOLED;
+            }
+            Scope scope = type.getAnnotation(Scope.class);
+            return scope == null ? ScopeType.SINGLETON : scope.value();
+        }
+    };
+    private ComponentIndex componentIndex;
+    private DependencyGraph dependencyGraph;
+    private List<Class<?>> startupSingletons;
+    private volatile Map<Class<?>, Map<String, Class<?>>> snapshotTargets = Collections.emptyMap();
+    private boolean legacyQualifierMatching;
+    private Executor instantiationExecutor;
+    private Executor lifecycleExecutor;
+    private volatile Map<Class<?>, Queue<Object>> deferredInitializations;
+    private ContainerListener containerListener = ContainerListener.NONE;
+    private ClassValue<BeanFactory<?>> beanFactories = beanFactoriesOf(new ReflectiveInstantiationStrategy());
+    private final ClassValue<Provider<?>> providers = new ClassValue<Provider<?>>() {
+        @Override
+        protected Provider<?> computeValue(Class<?> type) {
+            return () -> getInstance(type, null);
+        }
+    };
+    private volatile ClassValue<Class<?>> implementations = newImplementationCache();
+    private volatile ClassValue<Provider<?>> beans = newBeanCache();
+    private final ClassValue<BeanPool<?>> beanPools = new ClassValue<BeanPool<?>>() {
+        @Override
+        protected BeanPool<?> computeValue(Class<?> type) {
+            if (scopes.get(type) != ScopeType.POOLED) {
+                throw new BeanInstantiationException(String.format("%s is not a @Pooled component", type.getName()));
+            }
+            BeanPool<?> beanPool = newBeanPool(type);
+            createdBeanPools.put(type, beanPool);
+            return beanPool;
+        }
+    };
+    private final ConcurrentMap<Class<?>, BeanPool<?>> createdBeanPools = new ConcurrentHashMap<>();
+    private final ClassValue<InjectionPlan> injectionPlans = new ClassValue<InjectionPlan>() {
+        @Override
+        protected InjectionPlan computeValue(Class<?> type) {
+            InjectionPlan injectionPlan = InjectionPlan.of(type, DependencyContainer.this::resolveTargetType,
+                    DependencyContainer.this::resolveImplementations);
+            for (InjectionPlan.InjectionPoint injectionPoint : injectionPlan.getInjectionPoints()) {
+                if (injectionPoint.getKind() == InjectionPlan.Kind.POOL) {
+                    // Creates the empty pool, so a BeanPool field of a component that is not pooled fails the planning
+                    beanPools.get(injectionPoint.getTargetType());
+                }
+            }
+            return injectionPlan;
+        }
+    };
+    private final Map<InjectionPlan.Kind, ConcurrentMap<Class<?>, Object>> sharedCollections = newSharedCollections();
+    /**
+     * The scopes whose instances are kept in arrays indexed by bean: those of a child, a thread or a request.
+     */
+    private static final Set<ScopeType> SCOPED_BEAN_SCOPES = Collections.unmodifiableSet(
+            EnumSet.of(ScopeType.CONTEXT, ScopeType.THREAD, ScopeType.REQUEST));
+
+    private final Map<ScopeType, AtomicInteger> scopedBeanCounts = newScopedBeanCounts();
+    private final ClassValue<Integer> scopedBeanIds = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return scopedBeanCounts.get(scopes.get(type)).getAndIncrement();
+        }
+    };
+    private volatile ThreadScope threadScope = new ThreadScope();
+    private final Supplier<ScopedInstances> newThreadInstances =
+            () -> new ScopedInstances(this, ScopeType.THREAD, scopedBeanCounts.get(ScopeType.THREAD));
+    private final RequestScope requestScope = new RequestScope();
 
     /**
-     * Registers the classes in the specified path within the container.
+     * Registers the classes in the specified path within the container. The classes are indexed by their supertypes
+     * and the injection plan of every class is built before anything is wired, so missing and ambiguous
+     * implementations and circular dependencies are reported up front. The singletons are then instantiated right
+     * away in dependency order, the prototypes on demand.
      *
      * @param classesInPath a list of classes to register in the container
+     * @throws ImplementationNotFoundException  if no implementation is found for an injected interface or abstract class
+     * @throws UndefinedImplementationException if multiple implementations are found for an injected interface or abstract class
+     * @throws CircularDependencyException      if the classes depend on each other in a cycle
      */
     @Override
     public void registerClassesInPath(List<Class<?>> classesInPath) {
-        this.classesInPath = Objects.requireNonNull(classesInPath);
-        classesInPath.forEach(this::register);
+        registerComponents(Objects.requireNonNull(classesInPath), null, null);
+    }
+
+    /**
+     * Registers the components of a wiring snapshot within the container. The implementation recorded in the snapshot
+     * is injected at every planned injection point and the recorded singletons are instantiated in the recorded order,
+     * so no implementation has to be looked up. If the snapshot holds the dependency graph, the graph is taken as
+     * recorded: it is neither walked nor checked again, and the injection plans are only built for the beans that
+     * are created.
+     *
+     * @param snapshot    the wiring snapshot to register
+     * @param classLoader the class loader to load the classes of the snapshot with
+     * @throws IllegalStateException if a class of the snapshot cannot be loaded
+     */
+    @Override
+    public void registerWiringSnapshot(WiringSnapshot snapshot, ClassLoader classLoader) {
+        Map<Class<?>, Map<String, Class<?>>> targets = new HashMap<>();
+        snapshot.getInjectionTargets().forEach((owner, fields) -> {
+            Map<String, Class<?>> fieldTargets = new HashMap<>();
+            fields.forEach((field, target) -> fieldTargets.put(field, WiringSnapshot.load(target, classLoader)));
+            targets.put(WiringSnapshot.load(owner, classLoader), fieldTargets);
+        });
+        List<Class<?>> components = new ArrayList<>(snapshot.getComponents().size());
+        snapshot.getComponents().forEach(component -> components.add(WiringSnapshot.load(component, classLoader)));
+        List<Class<?>> singletons = new ArrayList<>(snapshot.getInstantiationOrder().size());
+        snapshot.getInstantiationOrder().forEach(singleton -> singletons.add(WiringSnapshot.load(singleton, classLoader)));
+        DependencyGraph recordedGraph = null;
+        if (!snapshot.getDependencies().isEmpty()) {
+            Map<Class<?>, Class<?>[]> dependencies = new LinkedHashMap<>();
+            snapshot.getDependencies().forEach((bean, beanDependencies) -> {
+                Class<?>[] dependencyClasses = new Class<?>[beanDependencies.size()];
+                for (int i = 0; i < dependencyClasses.length; i++) {
+                    dependencyClasses[i] = WiringSnapshot.load(beanDependencies.get(i), classLoader);
+                }
+                dependencies.put(WiringSnapshot.load(bean, classLoader), dependencyClasses);
+            });
+            recordedGraph = DependencyGraph.ofSorted(dependencies);
+        }
+
+        this.snapshotTargets = targets;
+        registerComponents(components, singletons, recordedGraph);
+    }
+
+    /**
+     * Exports the wiring resolved when the classes were registered: the components, the implementation injected at
+     * every planned injection point and the singletons instantiated at startup, in order.
+     *
+     * @param fingerprint the fingerprint of the class path the classes were scanned from
+     * @return the wiring snapshot of the container
+     * @throws NullPointerException if no classes have been registered yet
+     */
+    @Override
+    public WiringSnapshot createWiringSnapshot(byte[] fingerprint) {
+        checkNotFrozen();
+        DependencyGraph graph = Objects.requireNonNull(dependencyGraph, "First, you have to scan the packages.");
+        List<String> components = componentIndex.getComponents().stream().map(Class::getName).collect(Collectors.toList());
+        Map<String, Map<String, String>> injectionTargets = new LinkedHashMap<>();
+        for (Class<?> plannedClass : graph.getInstantiationOrder()) {
+            Map<String, String> targets = new LinkedHashMap<>();
+            for (InjectionPlan.InjectionPoint injectionPoint : injectionPlans.get(plannedClass).getInjectionPoints()) {
+                // Collections are rebuilt from the component index, they have no single target
+                if (!injectionPoint.isCollection()) {
+                    targets.put(injectionPoint.getName(), injectionPoint.getTargetType().getName());
+                }
+            }
+            if (!targets.isEmpty()) {
+                injectionTargets.put(plannedClass.getName(), targets);
+            }
+        }
+        List<String> instantiationOrder = startupSingletons.stream().map(Class::getName).collect(Collectors.toList());
+        Map<String, List<String>> dependencies = new LinkedHashMap<>();
+        for (Class<?> plannedClass : graph.getInstantiationOrder()) {
+            List<String> dependencyNames = new ArrayList<>();
+            for (Class<?> dependency : graph.getDependencies(plannedClass)) {
+                dependencyNames.add(dependency.getName());
+            }
+            dependencies.put(plannedClass.getName(), dependencyNames);
+        }
+        return new WiringSnapshot(fingerprint, components, injectionTargets, instantiationOrder, dependencies);
+    }
+
+    /**
+     * Indexes and plans the components, then instantiates the singletons needed at startup.
+     *
+     * @param components    the classes to register
+     * @param singletons    the singletons to instantiate in order, or null to derive them from the dependency graph
+     * @param recordedGraph the dependency graph of a wiring snapshot, or null to build and check the graph
+     */
+    private void registerComponents(List<Class<?>> components, List<Class<?>> singletons, DependencyGraph recordedGraph) {
+        checkNotFrozen();
+        ContainerListener listener = containerListener;
+        long start = listener == ContainerListener.NONE ? 0 : System.nanoTime();
+        start = planComponents(components, singletons, recordedGraph, listener, start);
+        startSingletons(startupSingletons, dependencyGraph);
+        fillBeanPools(components);
+        phaseCompleted(listener, StartupPhase.INSTANTIATE, start);
+    }
+
+    /**
+     * Fills the pools of the specified components that are @Pooled, once the singletons they may depend on exist.
+     */
+    private void fillBeanPools(List<Class<?>> components) {
+        for (Class<?> component : components) {
+            if (scopes.get(component) == ScopeType.POOLED) {
+                beanPools.get(component).fill();
+            }
+        }
+    }
+
+    /**
+     * Indexes and plans the components without instantiating anything. Missing and ambiguous implementations, missing
+     * constructors and circular dependencies are reported here.
+     *
+     * @param components the classes to register
+     */
+    void planComponents(List<Class<?>> components) {
+        planComponents(Objects.requireNonNull(components), null, null, ContainerListener.NONE, 0);
+    }
+
+    private long planComponents(List<Class<?>> components, List<Class<?>> singletons, DependencyGraph recordedGraph,
+                                ContainerListener listener, long start) {
+        this.componentIndex = ComponentIndex.of(components);
+        start = phaseCompleted(listener, StartupPhase.INDEX, start);
+        // A recorded graph was checked when its snapshot was written
+        DependencyGraph graph = recordedGraph != null ? recordedGraph :
+                DependencyGraph.of(components, clazz -> injectionPlans.get(clazz).getDependencies());
+        if (recordedGraph == null) {
+            components.forEach(this::checkConstructor);
+        }
+        for (Class<?> bean : graph.getInstantiationOrder()) {
+            ScopeType scope = scopes.get(bean);
+            if (scopedBeanCounts.containsKey(scope)) {
+                // Numbers the scoped beans up front, so the children, threads and requests have room for all of them
+                scopedBeanIds.get(bean);
+            }
+            if (recordedGraph == null) {
+                checkScopedDependencies(bean, scope, graph);
+            }
+        }
+        this.dependencyGraph = graph;
+        this.startupSingletons = singletons == null ? startupSingletons(graph, new HashSet<>(components)) : singletons;
+        return phaseCompleted(listener, StartupPhase.PLAN, start);
+    }
+
+    /**
+     * Returns the classes registered in the container.
+     *
+     * @return the registered classes, in registration order
+     */
+    public List<Class<?>> getRegisteredClasses() {
+        return Objects.requireNonNull(componentIndex, "First, you have to scan the packages.").getComponents();
+    }
+
+    /**
+     * Returns the classes the container has planned: the registered classes, the beans they depend on and the beans
+     * obtained through {@link #register(Class)}, such as the entry point.
+     *
+     * @return the planned classes
+     */
+    public Set<Class<?>> getPlannedClasses() {
+        Set<Class<?>> plannedClasses = new LinkedHashSet<>(getRegisteredClasses());
+        if (dependencyGraph != null) {
+            plannedClasses.addAll(dependencyGraph.getInstantiationOrder());
+        }
+        plannedClasses.addAll(frozenSingletons.getClasses());
+        plannedClasses.addAll(singletonInstances.keySet());
+        return plannedClasses;
+    }
+
+    /**
+     * Returns the planned classes whose beans have to be rebuilt when the specified classes change, appear or
+     * disappear: the planned classes among them, and every planned class injecting one of them or one of their
+     * supertypes, directly or transitively. Types are compared by name, so the classes can be new versions loaded by
+     * another class loader.
+     *
+     * @param classes the changed, added or removed classes
+     * @return the planned classes depending on the specified classes
+     */
+    public Set<Class<?>> getDependents(Collection<Class<?>> classes) {
+        Set<Class<?>> plannedClasses = getPlannedClasses();
+        Set<Class<?>> dependents = new LinkedHashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        for (Class<?> clazz : classes) {
+            if (plannedClasses.contains(clazz)) {
+                dependents.add(clazz);
+            }
+            pending.add(clazz);
+        }
+        while (!pending.isEmpty()) {
+            Set<String> typeNames = new HashSet<>();
+            ComponentIndex.supertypesOf(pending.poll()).forEach(type -> typeNames.add(type.getName()));
+            for (Class<?> plannedClass : plannedClasses) {
+                if (!dependents.contains(plannedClass) && injectsAny(plannedClass, typeNames)) {
+                    dependents.add(plannedClass);
+                    pending.add(plannedClass);
+                }
+            }
+        }
+        return dependents;
+    }
+
+    private boolean injectsAny(Class<?> plannedClass, Set<String> typeNames) {
+        for (InjectionPlan.InjectionPoint injectionPoint : injectionPlans.get(plannedClass).getInjectionPoints()) {
+            if (typeNames.contains(injectionPoint.getDeclaredType().getName())
+                    || typeNames.contains(injectionPoint.getTargetType().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Registers a new set of classes in place of the registered ones and rebuilds only the stale beans. The classes are
+     * indexed and planned again, reusing the plans of the classes that are not stale; the singletons of the stale
+     * classes are dropped, and the singletons needed at startup that do not exist anymore are created again. If the
+     * new classes cannot be planned, the container keeps its previous wiring.
+     * <p>
+     * It is meant for reloading classes during development: lookups running concurrently may still obtain the previous
+     * beans.
+     *
+     * @param classesInPath the classes to register, including the new versions of the stale classes
+     * @param staleClasses  the planned classes that were removed or replaced, and the classes depending on them, as
+     *                      returned by {@link #getDependents(Collection)}
+     * @throws ImplementationNotFoundException  if no implementation is found for an injected interface or abstract class
+     * @throws UndefinedImplementationException if multiple implementations are found for an injected interface or abstract class
+     * @throws CircularDependencyException      if the classes depend on each other in a cycle
+     * @throws IllegalStateException            if the container is frozen
+     */
+    public synchronized void rewire(List<Class<?>> classesInPath, Collection<Class<?>> staleClasses) {
+        checkNotFrozen();
+        ComponentIndex previousIndex = componentIndex;
+        DependencyGraph previousGraph = dependencyGraph;
+        List<Class<?>> previousSingletons = startupSingletons;
+        Map<Class<?>, Object> staleSingletons = createdSingletons(staleClasses);
+        // The graph is built while the stale plans still exist, the stale singletons are destroyed with them
+        DependencyGraph staleGraph = graphOf(staleSingletons.keySet());
+        staleClasses.forEach(injectionPlans::remove);
+        try {
+            planComponents(Objects.requireNonNull(classesInPath), null, null, ContainerListener.NONE, 0);
+        } catch (RuntimeException | Error exception) {
+            componentIndex = previousIndex;
+            dependencyGraph = previousGraph;
+            startupSingletons = previousSingletons;
+            throw exception;
+        }
+        staleClasses.forEach(singletonInstances::remove);
+        sharedCollections.values().forEach(Map::clear);
+        threadScope = new ThreadScope();
+        snapshotTargets = Collections.emptyMap();
+        implementations = newImplementationCache();
+        beans = newBeanCache();
+        destroySingletons(staleSingletons, staleGraph, Long.MAX_VALUE);
+        for (Class<?> staleClass : staleClasses) {
+            BeanPool<?> stalePool = createdBeanPools.remove(staleClass);
+            if (stalePool != null) {
+                beanPools.remove(staleClass);
+                stalePool.destroyIdleInstances();
+            }
+        }
+        startSingletons(startupSingletons, dependencyGraph);
+        fillBeanPools(classesInPath);
+    }
+
+    /**
+     * Invokes the @PreDestroy methods of the singletons created so far and drops them, so looking them up afterwards
+     * creates them again. The methods of a singleton are invoked once those of every singleton depending on it
+     * have completed. With a lifecycle executor, singletons that do not depend on each other are destroyed
+     * concurrently; otherwise they are destroyed one after another on the calling thread.
+     * <p>
+     * A failing @PreDestroy method does not keep the other singletons from being destroyed. Once the timeout has
+     * elapsed, the singletons not destroyed yet are skipped, and the methods still running on the executor are
+     * abandoned.
+     * <p>
+     * The thread-scoped beans of every thread and the idle instances of the bean pools are destroyed first. The
+     * thread-scoped beans are dropped as well, so threads still running obtain new ones afterwards; the pools are
+     * refilled by the instances returned to them.
+     *
+     * @param timeout the maximum time to wait for the singletons to be destroyed
+     * @param unit    the unit of the timeout
+     * @return true if every singleton was destroyed within the timeout
+     * @throws LifecycleCallbackException if a @PreDestroy method throws an exception, once the other singletons are
+     *                                    destroyed
+     */
+    @Override
+    public synchronized boolean shutdown(long timeout, TimeUnit unit) {
+        ThreadScope endedThreadScope = threadScope;
+        threadScope = new ThreadScope();
+        LifecycleCallbackException scopeFailure = null;
+        try {
+            endedThreadScope.closeAll();
+        } catch (LifecycleCallbackException exception) {
+            scopeFailure = exception;
+        }
+        for (BeanPool<?> beanPool : createdBeanPools.values()) {
+            try {
+                beanPool.destroyIdleInstances();
+            } catch (LifecycleCallbackException exception) {
+                if (scopeFailure == null) {
+                    scopeFailure = exception;
+                } else {
+                    scopeFailure.addSuppressed(exception);
+                }
+            }
+        }
+        List<Class<?>> singletonClasses = frozenSingletons.getClasses();
+        singletonClasses.addAll(singletonInstances.keySet());
+        Map<Class<?>, Object> singletons = createdSingletons(singletonClasses);
+        DependencyGraph graph = graphOf(singletons.keySet());
+        frozenSingletons = SingletonTable.EMPTY;
+        singletonInstances.keySet().removeAll(singletons.keySet());
+        sharedCollections.values().forEach(Map::clear);
+        beans = newBeanCache();
+        boolean destroyed;
+        try {
+            destroyed = destroySingletons(singletons, graph, unit.toNanos(timeout));
+        } catch (LifecycleCallbackException exception) {
+            if (scopeFailure != null) {
+                exception.addSuppressed(scopeFailure);
+            }
+            throw exception;
+        }
+        if (scopeFailure != null) {
+            throw scopeFailure;
+        }
+        return destroyed;
+    }
+
+    /**
+     * Returns the singletons of the specified classes that were created successfully.
+     */
+    private Map<Class<?>, Object> createdSingletons(Collection<Class<?>> classes) {
+        Map<Class<?>, Object> singletons = new LinkedHashMap<>();
+        for (Class<?> clazz : classes) {
+            Object frozenInstance = frozenSingletons.get(clazz);
+            CompletableFuture<Object> instance = singletonInstances.get(clazz);
+            if (frozenInstance != null) {
+                singletons.put(clazz, frozenInstance);
+            } else if (instance != null && instance.isDone() && !instance.isCompletedExceptionally()) {
+                singletons.put(clazz, instance.join());
+            }
+        }
+        return singletons;
+    }
+
+    /**
+     * Drops the structures only needed to register the classes, and compacts the rest. It is meant to be called once
+     * the application is started:
+     * <ul>
+     *     <li>every planned singleton gets a slot in a {@link SingletonTable}, an array indexed by a dense id per
+     *     class; the singletons created so far move there from their map of futures, and their factories and
+     *     injection plans are released;</li>
+     *     <li>the dependency graph, the startup order and the targets of the wiring snapshot are dropped;</li>
+     *     <li>the arrays of the component index are shared between the types and qualifiers naming the same
+     *     components.</li>
+     * </ul>
+     * Beans of every scope can still be obtained, and singletons not created yet are created on first access and then
+     * published to their slot. Singletons may be created by other threads meanwhile: an instance is only dropped from
+     * the map of futures once its slot holds it, so every thread sees the same instance. A frozen container cannot
+     * register classes or export its wiring anymore. Freezing it again has no effect.
+     *
+     * @see #getRetainedMetadataSize()
+     */
+    @Override
+    public synchronized void freeze() {
+        if (frozen || componentIndex == null) {
+            return;
+        }
+        Set<Class<?>> singletonClasses = new LinkedHashSet<>();
+        if (dependencyGraph != null) {
+            singletonClasses.addAll(dependencyGraph.getInstantiationOrder());
+        }
+        singletonClasses.addAll(componentIndex.getComponents());
+        singletonClasses.removeIf(clazz -> clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())
+                || scopes.get(clazz) != ScopeType.SINGLETON);
+        singletonClasses.addAll(singletonInstances.keySet());
+        SingletonTable singletons = new SingletonTable(singletonClasses);
+        // The table is published before the instances move, so the singletons created meanwhile move themselves
+        frozenSingletons = singletons;
+        singletonInstances.forEach((clazz, instance) -> {
+            if (instance.isDone() && !instance.isCompletedExceptionally()) {
+                singletons.publish(clazz, instance.join());
+                singletonInstances.remove(clazz, instance);
+                // Both are computed again if the singleton is ever created again after a shutdown
+                beanFactories.remove(clazz);
+                injectionPlans.remove(clazz);
+            }
+        });
+        componentIndex = componentIndex.compact();
+        dependencyGraph = null;
+        startupSingletons = null;
+        snapshotTargets = Collections.emptyMap();
+        frozen = true;
+    }
+
+    /**
+     * Estimates the heap size of the metadata the container keeps: its component index, dependency graph, startup
+     * order, singleton registry, wiring snapshot targets and shared collections. The classes, the beans and the
+     * metadata kept per class, such as the injection plans, are not counted.
+     *
+     * @return the estimated size in bytes, assuming compressed references
+     */
+    public synchronized long getRetainedMetadataSize() {
+        long size = frozenSingletons.estimateSize()
+                + Footprint.concurrentHashMap(singletonInstances.size())
+                + singletonInstances.size() * Footprint.object(2);
+        if (componentIndex != null) {
+            size += componentIndex.estimateSize();
+        }
+        if (dependencyGraph != null) {
+            size += dependencyGraph.estimateSize();
+        }
+        if (startupSingletons != null) {
+            size += Footprint.list(startupSingletons.size());
+        }
+        Map<Class<?>, Map<String, Class<?>>> targets = snapshotTargets;
+        size += Footprint.hashMap(targets.size());
+        for (Map<String, Class<?>> fieldTargets : targets.values()) {
+            size += Footprint.hashMap(fieldTargets.size());
+        }
+        for (ConcurrentMap<Class<?>, Object> collections : sharedCollections.values()) {
+            size += Footprint.concurrentHashMap(collections.size());
+        }
+        return size;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("The container is frozen, its classes cannot be registered or exported anymore");
+        }
+    }
+
+    private DependencyGraph graphOf(Collection<Class<?>> beans) {
+        return DependencyGraph.of(new ArrayList<>(beans), clazz -> injectionPlans.get(clazz).getDependencies());
+    }
+
+    /**
+     * Invokes the @PreDestroy methods of the specified singletons in reverse dependency order.
+     *
+     * @param singletons   the singletons to destroy, by class
+     * @param graph        a dependency graph holding the classes of the singletons
+     * @param timeoutNanos the time the singletons may take to be destroyed, in nanoseconds
+     * @return true if every singleton was destroyed within the timeout
+     */
+    private boolean destroySingletons(Map<Class<?>, Object> singletons, DependencyGraph graph, long timeoutNanos) {
+        long start = System.nanoTime();
+        Map<Class<?>, List<Class<?>>> dependents = new HashMap<>();
+        Map<Class<?>, Set<Class<?>>> prototypeDependencies = new HashMap<>();
+        for (Class<?> singleton : singletons.keySet()) {
+            for (Class<?> dependency : singletonDependencies(singleton, graph, prototypeDependencies)) {
+                if (singletons.containsKey(dependency)) {
+                    dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(singleton);
+                }
+            }
+        }
+
+        Executor executor = lifecycleExecutor != null ? lifecycleExecutor : Runnable::run;
+        Queue<LifecycleCallbackException> failures = new ConcurrentLinkedQueue<>();
+        AtomicBoolean skipped = new AtomicBoolean();
+        Map<Class<?>, CompletableFuture<Void>> destructions = new HashMap<>();
+        List<Class<?>> instantiationOrder = graph.getInstantiationOrder();
+        for (ListIterator<Class<?>> beans = instantiationOrder.listIterator(instantiationOrder.size()); beans.hasPrevious(); ) {
+            Class<?> bean = beans.previous();
+            Object singleton = singletons.get(bean);
+            if (singleton == null) {
+                continue;
+            }
+            List<Class<?>> beanDependents = dependents.getOrDefault(bean, Collections.emptyList());
+            CompletableFuture<?>[] dependentDestructions = new CompletableFuture<?>[beanDependents.size()];
+            for (int i = 0; i < dependentDestructions.length; i++) {
+                dependentDestructions[i] = destructions.get(beanDependents.get(i));
+            }
+            CompletableFuture<Void> ready = CompletableFuture.allOf(dependentDestructions);
+            if (!LifecycleMethods.of(bean).hasPreDestroy()) {
+                destructions.put(bean, ready);
+                continue;
+            }
+            destructions.put(bean, ready.thenRunAsync(() -> {
+                if (System.nanoTime() - start > timeoutNanos) {
+                    skipped.set(true);
+                    return;
+                }
+                try {
+                    LifecycleMethods.of(bean).preDestroy(singleton);
+                } catch (LifecycleCallbackException exception) {
+                    failures.add(exception);
+                }
+            }, executor));
+        }
+
+        boolean completed;
+        try {
+            CompletableFuture.allOf(destructions.values().toArray(new CompletableFuture<?>[0]))
+                    .get(Math.max(0, timeoutNanos - (System.nanoTime() - start)), TimeUnit.NANOSECONDS);
+            completed = !skipped.get();
+        } catch (TimeoutException exception) {
+            completed = false;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            completed = false;
+        } catch (ExecutionException exception) {
+            throw new LifecycleCallbackException(exception.getCause());
+        }
+        LifecycleCallbackException failure = failures.poll();
+        if (failure != null) {
+            failures.forEach(failure::addSuppressed);
+            throw failure;
+        }
+        return completed;
+    }
+
+    DependencyGraph getDependencyGraph() {
+        return dependencyGraph;
+    }
+
+    List<Class<?>> getStartupSingletons() {
+        return startupSingletons;
+    }
+
+    InjectionPlan getInjectionPlan(Class<?> clazz) {
+        return injectionPlans.get(clazz);
+    }
+
+    /**
+     * Checks that the specified class can be instantiated: either it has an @Inject constructor, or a factory can be
+     * created for its no-arg constructor.
+     */
+    void checkConstructor(Class<?> clazz) {
+        if (!injectionPlans.get(clazz).isConstructorInjected()) {
+            beanFactories.get(clazz);
+        }
+    }
+
+    ScopeType getScope(Class<?> clazz) {
+        return scopes.get(clazz);
+    }
+
+    Class<?> getImplementation(Class<?> type) {
+        return implementations.get(type);
+    }
+
+    /**
+     * Returns the index of a context-scoped bean within the instances of a child container.
+     */
+    int getContextBeanId(Class<?> clazz) {
+        return scopedBeanIds.get(clazz);
+    }
+
+    /**
+     * Returns new, empty context-scoped instances of a child container.
+     */
+    ScopedInstances newContextInstances(ChildDependencyContainer child) {
+        return new ScopedInstances(this, ScopeType.CONTEXT, scopedBeanCounts.get(ScopeType.CONTEXT), child);
+    }
+
+    /**
+     * Reports a completed startup phase to the listener, if instrumentation is turned on.
+     *
+     * @return the start time of the next phase
+     */
+    private static long phaseCompleted(ContainerListener listener, StartupPhase phase, long start) {
+        if (listener == ContainerListener.NONE) {
+            return 0;
+        }
+        long end = System.nanoTime();
+        listener.phaseCompleted(phase, end - start);
+        return end;
+    }
+
+    @Override
+    public void addContainerListener(ContainerListener listener) {
+        this.containerListener = ContainerListener.compose(containerListener, Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+
+    @Override
+    public ContainerListener getContainerListener() {
+        return containerListener;
+    }
+
+    /**
+     * Sets the executor used to instantiate the singletons when the classes are registered. Each singleton is
+     * submitted as soon as all the singletons it depends on exist, so independent singletons are created concurrently.
+     * By default, the singletons are created one after another on the registering thread.
+     *
+     * @param instantiationExecutor the executor to use, or null to instantiate on the registering thread
+     * @see InstantiationExecutors
+     */
+    public void setInstantiationExecutor(Executor instantiationExecutor) {
+        this.instantiationExecutor = instantiationExecutor;
+    }
+
+    /**
+     * Sets the executor running the lifecycle methods. It has to be set before the classes are registered. The
+     * @PostConstruct methods of the singletons created at startup, and of the beans created with them, then run
+     * concurrently on the executor, each once those of the beans it depends on have completed; the registration
+     * returns once all of them have completed. The singletons are also destroyed concurrently on shutdown.
+     * <p>
+     * By default, a bean is initialized right after it is injected, on the creating thread, and the singletons are
+     * destroyed one after another.
+     *
+     * @param lifecycleExecutor the executor to use, or null to run the lifecycle methods on the calling thread
+     * @see InstantiationExecutors
+     */
+    public void setLifecycleExecutor(Executor lifecycleExecutor) {
+        this.lifecycleExecutor = lifecycleExecutor;
+    }
+
+    /**
+     * Sets the strategy used to create the factories of the beans. It has to be set before the classes are registered,
+     * the default is the ReflectiveInstantiationStrategy.
+     *
+     * @param instantiationStrategy the instantiation strategy to use
+     */
+    public void setInstantiationStrategy(InstantiationStrategy instantiationStrategy) {
+        this.beanFactories = beanFactoriesOf(Objects.requireNonNull(instantiationStrategy, "Instantiation strategy cannot be null"));
+    }
+
+    /**
+     * Switches @Inject(className=...) back to the matching of earlier versions, where a qualifier selects every
+     * component whose fully qualified name contains it, ignoring case. By default, a qualifier has to equal the simple
+     * name, the fully qualified name or the @Named value of the component.
+     *
+     * @param legacyQualifierMatching true to match qualifiers as case-insensitive substrings
+     */
+    public void setLegacyQualifierMatching(boolean legacyQualifierMatching) {
+        this.legacyQualifierMatching = legacyQualifierMatching;
     }
 
     /**
@@ -34,103 +799,758 @@ public class DependencyContainer implements IOCContainer {
      *
      * @param <T>      the type of the class to register
      * @param newClass the class object representing the new class to register
-     * @return the registered instance of the specified class
+     * @return the shared instance of the specified class, or a new instance if it is a prototype
      */
     @Override
     public <T> T register(Class<T> newClass) {
-        if (!registeredInstances.containsKey(Objects.requireNonNull(newClass))) {
-            registeredInstances.put(newClass, resolve(newClass));
+        return newClass.cast(getInstance(Objects.requireNonNull(newClass), null));
+    }
+
+    /**
+     * Returns the bean of the specified type. The first lookup of a type resolves its implementation and, for a
+     * singleton, the instance; both are then kept in a ClassValue, so later lookups are wait-free and allocation-free.
+     *
+     * @param <T>  the type of the bean
+     * @param type the class object representing the type of the bean
+     * @return the shared instance of a singleton, or a new instance of a prototype
+     * @throws ImplementationNotFoundException  if no component implements the type
+     * @throws UndefinedImplementationException if multiple components implement the type
+     */
+    @Override
+    public <T> T getBean(Class<T> type) {
+        return type.cast(beans.get(Objects.requireNonNull(type)).get());
+    }
+
+    /**
+     * Returns the pool of the specified @Pooled component. The pool of a registered component is filled with wired
+     * instances at startup.
+     *
+     * @param <T>  the type of the pooled bean
+     * @param type the class object representing the component, or an interface or abstract class it implements
+     * @return the pool of the component
+     * @throws BeanInstantiationException       if the component is not annotated with @Pooled
+     * @throws ImplementationNotFoundException  if no component implements the type
+     * @throws UndefinedImplementationException if multiple components implement the type
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> BeanPool<T> getBeanPool(Class<T> type) {
+        return (BeanPool<T>) beanPools.get(implementations.get(Objects.requireNonNull(type)));
+    }
+
+    /**
+     * Runs the specified action within a new request scope. The request-scoped beans obtained by the action, directly or
+     * through proxies and providers, are created once within the scope, and their @PreDestroy methods are invoked when
+     * the action completes, normally or not.
+     * <p>
+     * On Java 25 and later, the scope is bound to a ScopedValue, so it leaves nothing in the thread afterwards and is
+     * also seen by the subtasks the action forks in a StructuredTaskScope, where that API is available. On older
+     * versions, including those where ScopedValue is a preview feature, it is bound to the calling thread while the
+     * action runs.
+     *
+     * @param action the code handling the request
+     * @throws com.plattensee.iocframework.exception.LifecycleCallbackException if a @PreDestroy method throws an
+     *                                                                          exception
+     */
+    @Override
+    public void runInRequestScope(Runnable action) {
+        Objects.requireNonNull(action, "Action cannot be null");
+        ScopedInstances instances = new ScopedInstances(this, ScopeType.REQUEST, scopedBeanCounts.get(ScopeType.REQUEST));
+        try {
+            requestScope.run(instances, action);
+        } catch (RuntimeException | Error exception) {
+            try {
+                instances.close();
+            } catch (LifecycleCallbackException closeException) {
+                exception.addSuppressed(closeException);
+            }
+            throw exception;
         }
-        return newClass.cast(registeredInstances.get(newClass));
+        instances.close();
+    }
+
+    /**
+     * Calls the specified action within a new request scope, like {@link #runInRequestScope(Runnable)}.
+     *
+     * @param <T>    the type of the result
+     * @param action the code handling the request
+     * @return the result of the action
+     * @throws Exception if the action throws an exception, once the request-scoped beans are destroyed
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T callInRequestScope(Callable<T> action) throws Exception {
+        Objects.requireNonNull(action, "Action cannot be null");
+        Object[] result = new Object[1];
+        Exception[] failure = new Exception[1];
+        runInRequestScope(() -> {
+            try {
+                result[0] = action.call();
+            } catch (RuntimeException exception) {
+                throw exception;
+            } catch (Exception exception) {
+                failure[0] = exception;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return (T) result[0];
+    }
+
+    /**
+     * Ends the thread scope of the calling thread: the @PreDestroy methods of its thread-scoped beans are invoked and
+     * the beans are dropped, so the next lookup on the thread creates new ones. The beans of a thread that ended are
+     * destroyed once the thread is collected, by the next thread entering or ending its scope; threads that are
+     * reused, such as those of a pool, never end, so they should end their scope once their task completes.
+     *
+     * @throws com.plattensee.iocframework.exception.LifecycleCallbackException if a @PreDestroy method throws an
+     *                                                                          exception
+     */
+    @Override
+    public void endThreadScope() {
+        threadScope.end();
+    }
+
+    /**
+     * Creates a child container sharing the index, the injection plans and the singletons of this container. Creating a
+     * child allocates its container and an array for its context-scoped instances, nothing is resolved again.
+     *
+     * @return the new child container
+     */
+    @Override
+    public ChildContainer createChildContainer() {
+        return new ChildDependencyContainer(this);
     }
 
     /**
-     * Resolves the dependencies for the specified class and returns an instance of it.
+     * Resolves the dependencies for the specified class and returns a new instance of it. The dependencies are
+     * obtained according to their own scope.
      *
      * @param <T>   the type of the class to resolve
      * @param clazz the class object representing the class to resolve
      * @return an instance of the specified class with resolved dependencies
-     * @throws WiredConstructorNotFoundException   if a no-arg constructor is not found for the class
+     * @throws WiredConstructorNotFoundException   if neither a no-arg nor an @Inject constructor is found for the class
      * @throws WiredConstructorInvocationException if there is an error invoking the constructor
      * @throws WiredConstructorNotAccessible       if the constructor is not accessible
+     * @throws CircularDependencyException         if the class depends on itself
      */
     @Override
     public <T> T resolve(Class<T> clazz) {
+        return resolve(clazz, null);
+    }
+
+    /**
+     * Creates a new instance of the specified class with its dependencies obtained within the specified context.
+     *
+     * @param clazz   the class object representing the class to resolve
+     * @param context the child container the instance is created for, or null for this container
+     * @return an instance of the specified class with resolved dependencies
+     */
+    <T> T resolve(Class<T> clazz, ChildDependencyContainer context) {
+        Deque<Class<?>> creationPath = classesInCreation.get();
+        checkCircularDependency(creationPath, clazz);
+        creationPath.addLast(clazz);
         try {
-            T instance = createInstance(clazz);
-            injectDependencies(instance);
+            ContainerListener listener = containerListener;
+            InjectionPlan injectionPlan = injectionPlans.get(clazz);
+            if (listener == ContainerListener.NONE) {
+                T instance = createInstance(clazz, injectionPlan, context);
+                injectDependencies(instance, injectionPlan, context);
+                initialize(instance);
+                return instance;
+            }
+            long start = System.nanoTime();
+            T instance = createInstance(clazz, injectionPlan, context);
+            long created = System.nanoTime();
+            listener.beanCreated(clazz, created - start);
+            injectDependencies(instance, injectionPlan, context);
+            listener.beanInjected(clazz, System.nanoTime() - created);
+            initialize(instance);
             return instance;
-        } catch (NoSuchMethodException exception) {
-            throw new WiredConstructorNotFoundException("Sorry bro, I need a no-arg constructor!", exception);
-        } catch (InvocationTargetException | InstantiationException exception) {
-            throw new WiredConstructorInvocationException(exception);
-        } catch (IllegalAccessException exception) {
-            throw new WiredConstructorNotAccessible(exception);
+        } finally {
+            creationPath.removeLast();
         }
     }
 
     /**
-     * Injects dependencies into the specified object instance by using reflection.
+     * Selects the singletons of the dependency graph that are needed at startup, dependencies first. The registered
+     * singletons not annotated with @Lazy are needed, and so is every singleton they depend on, directly or through
+     * prototypes.
      *
-     * @param instance the object instance to inject dependencies into
-     * @throws IllegalAccessException if there is an error accessing a field during dependency injection
+     * @param dependencyGraph the dependency graph of the registered classes
+     * @param components      the registered classes
+     * @return the singletons to instantiate, in instantiation order
      */
-    private void injectDependencies(Object instance) throws IllegalAccessException {
-        Class<?> clazz = instance.getClass();
-        Field[] fields = clazz.getDeclaredFields();
-        for (Field field : fields) {
-            if (field.isAnnotationPresent(Inject.class)) {
-                Class<?> fieldType = field.getType();
-                if (fieldType.isInterface() || Modifier.isAbstract(fieldType.getModifiers())) {
-                    fieldType = findImplementionClass(fieldType, field);
+    private List<Class<?>> startupSingletons(DependencyGraph dependencyGraph, Set<Class<?>> components) {
+        List<Class<?>> instantiationOrder = dependencyGraph.getInstantiationOrder();
+        Set<Class<?>> required = new HashSet<>();
+        Deque<Class<?>> singletonsInReverse = new ArrayDeque<>();
+        for (ListIterator<Class<?>> beans = instantiationOrder.listIterator(instantiationOrder.size()); beans.hasPrevious(); ) {
+            Class<?> bean = beans.previous();
+            boolean singleton = scopes.get(bean) == ScopeType.SINGLETON;
+            if (required.contains(bean) || (singleton && components.contains(bean) && !bean.isAnnotationPresent(Lazy.class))) {
+                required.addAll(Arrays.asList(dependencyGraph.getDependencies(bean)));
+                if (singleton) {
+                    singletonsInReverse.push(bean);
                 }
-                Object dependencyInstance = resolve(fieldType);
-                field.setAccessible(true);
-                field.set(instance, dependencyInstance);
             }
         }
+        return new ArrayList<>(singletonsInReverse);
     }
 
     /**
-     * Creates an instance of the specified class using reflection.
+     * Invokes the @PostConstruct methods of an injected bean, or defers them while the startup singletons are created
+     * with a lifecycle executor.
+     */
+    private void initialize(Object instance) {
+        LifecycleMethods lifecycleMethods = LifecycleMethods.of(instance.getClass());
+        if (lifecycleMethods.hasPostConstruct()) {
+            Map<Class<?>, Queue<Object>> deferred = deferredInitializations;
+            if (deferred != null) {
+                deferred.computeIfAbsent(instance.getClass(), type -> new ConcurrentLinkedQueue<>()).add(instance);
+            } else {
+                lifecycleMethods.postConstruct(instance);
+            }
+        }
+    }
+
+    /**
+     * Creates the specified singletons and initializes them. With a lifecycle executor, the @PostConstruct methods of
+     * the beans created meanwhile are collected and then run concurrently, and this method returns once all of them
+     * have completed.
      *
-     * @param <T>   the type of the class to create an instance of
-     * @param clazz the class object representing the class to create an instance of
+     * @param singletons      the singletons to create, in instantiation order
+     * @param dependencyGraph the dependency graph of the registered classes
+     */
+    private void startSingletons(List<Class<?>> singletons, DependencyGraph dependencyGraph) {
+        if (lifecycleExecutor == null) {
+            instantiateSingletons(singletons, dependencyGraph);
+            return;
+        }
+        Map<Class<?>, Queue<Object>> deferred = new ConcurrentHashMap<>();
+        deferredInitializations = deferred;
+        try {
+            instantiateSingletons(singletons, dependencyGraph);
+        } finally {
+            // Beans created by the @PostConstruct methods themselves are initialized right away
+            deferredInitializations = null;
+        }
+        if (!deferred.isEmpty()) {
+            awaitAll(initializeConcurrently(deferred, dependencyGraph));
+        }
+    }
+
+    /**
+     * Submits the deferred @PostConstruct methods to the lifecycle executor, those of every bean once the methods of
+     * the beans it depends on have completed.
+     *
+     * @return the initialization of every bean of the graph
+     */
+    private Collection<CompletableFuture<Void>> initializeConcurrently(Map<Class<?>, Queue<Object>> deferred,
+                                                                      DependencyGraph dependencyGraph) {
+        Map<Class<?>, CompletableFuture<Void>> initializations = new HashMap<>();
+        for (Class<?> bean : dependencyGraph.getInstantiationOrder()) {
+            Class<?>[] dependencies = dependencyGraph.getDependencies(bean);
+            CompletableFuture<?>[] dependencyInitializations = new CompletableFuture<?>[dependencies.length];
+            for (int i = 0; i < dependencies.length; i++) {
+                dependencyInitializations[i] = initializations.get(dependencies[i]);
+            }
+            CompletableFuture<Void> ready = CompletableFuture.allOf(dependencyInitializations);
+            Queue<Object> instances = deferred.remove(bean);
+            initializations.put(bean, instances == null ? ready : ready.thenRunAsync(() -> postConstructAll(instances), lifecycleExecutor));
+        }
+        List<CompletableFuture<Void>> pending = new ArrayList<>(initializations.values());
+        // Beans outside of the graph, such as an entry point registered meanwhile, have no known dependencies
+        deferred.values().forEach(instances -> pending.add(CompletableFuture.runAsync(() -> postConstructAll(instances), lifecycleExecutor)));
+        return pending;
+    }
+
+    private static void postConstructAll(Queue<Object> instances) {
+        for (Object instance : instances) {
+            LifecycleMethods.of(instance.getClass()).postConstruct(instance);
+        }
+    }
+
+    /**
+     * Creates the specified singletons, each after the singletons it depends on.
+     *
+     * @param singletons      the singletons to create, in instantiation order
+     * @param dependencyGraph the dependency graph of the registered classes
+     */
+    private void instantiateSingletons(List<Class<?>> singletons, DependencyGraph dependencyGraph) {
+        if (instantiationExecutor == null) {
+            singletons.forEach(this::getSingleton);
+            return;
+        }
+
+        Map<Class<?>, CompletableFuture<Void>> creations = new HashMap<>(singletons.size() * 4 / 3 + 1);
+        Map<Class<?>, Set<Class<?>>> prototypeDependencies = new HashMap<>();
+        for (Class<?> singleton : singletons) {
+            Set<Class<?>> dependencies = singletonDependencies(singleton, dependencyGraph, prototypeDependencies);
+            CompletableFuture<?>[] dependencyCreations = new CompletableFuture<?>[dependencies.size()];
+            int i = 0;
+            for (Class<?> dependency : dependencies) {
+                dependencyCreations[i++] = creations.get(dependency);
+            }
+            creations.put(singleton, CompletableFuture.allOf(dependencyCreations)
+                    .thenRunAsync(() -> getSingleton(singleton), instantiationExecutor));
+        }
+        awaitAll(creations.values());
+    }
+
+    private static void awaitAll(Collection<CompletableFuture<Void>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException exception) {
+            Throwable cause = exception.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : exception;
+        }
+    }
+
+    /**
+     * Collects the singletons a bean needs before it can be created: its singleton dependencies, and those of the
+     * prototypes it depends on, which are created together with the bean.
+     */
+    private Set<Class<?>> singletonDependencies(Class<?> bean, DependencyGraph dependencyGraph,
+                                                Map<Class<?>, Set<Class<?>>> prototypeDependencies) {
+        Set<Class<?>> dependencies = new LinkedHashSet<>();
+        for (Class<?> dependency : dependencyGraph.getDependencies(bean)) {
+            if (scopes.get(dependency) == ScopeType.SINGLETON) {
+                dependencies.add(dependency);
+            } else {
+                Set<Class<?>> transitive = prototypeDependencies.get(dependency);
+                if (transitive == null) {
+                    transitive = singletonDependencies(dependency, dependencyGraph, prototypeDependencies);
+                    prototypeDependencies.put(dependency, transitive);
+                }
+                dependencies.addAll(transitive);
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * Returns an instance of the specified class according to its scope.
+     *
+     * @param clazz   the class object representing the class to obtain
+     * @param context the child container the instance is obtained for, or null for this container
+     * @return the shared instance of a singleton, the instance of the context, or a new instance of a prototype
+     * @throws BeanInstantiationException if the class is context-scoped and no child container is given
+     */
+    Object getInstance(Class<?> clazz, ChildDependencyContainer context) {
+        switch (scopes.get(clazz)) {
+            case SINGLETON:
+                return getSingleton(clazz);
+            case CONTEXT:
+                if (context == null) {
+                    throw new BeanInstantiationException(String.format(
+                            "%s is context-scoped, it can only be obtained through a child container", clazz.getName()));
+                }
+                return context.getContextInstance(clazz);
+            case THREAD:
+                return getThreadInstance(clazz);
+            case REQUEST:
+                return getRequestInstance(clazz);
+            default:
+                return resolve(clazz, context);
+        }
+    }
+
+    /**
+     * Returns the shared instance of the specified class, creating it if this is the first access. The thread that
+     * wins the race to publish the future creates the instance, the others wait for it.
+     *
+     * @param clazz the class object representing the singleton
+     * @return the shared instance of the class
+     */
+    private Object getSingleton(Class<?> clazz) {
+        Object frozenInstance = frozenSingletons.get(clazz);
+        if (frozenInstance != null) {
+            containerListener.cacheHit(clazz);
+            return frozenInstance;
+        }
+        CompletableFuture<Object> instance = singletonInstances.get(clazz);
+        if (instance == null) {
+            CompletableFuture<Object> newInstance = new CompletableFuture<>();
+            instance = singletonInstances.putIfAbsent(clazz, newInstance);
+            if (instance == null) {
+                // The singleton may have been published to the frozen table, and its future dropped, meanwhile
+                Object publishedInstance = frozenSingletons.get(clazz);
+                if (publishedInstance != null) {
+                    singletonInstances.remove(clazz, newInstance);
+                    newInstance.complete(publishedInstance);
+                    containerListener.cacheHit(clazz);
+                    return publishedInstance;
+                }
+                containerListener.cacheMiss(clazz);
+                try {
+                    newInstance.complete(resolve(clazz, null));
+                } catch (RuntimeException | Error exception) {
+                    singletonInstances.remove(clazz, newInstance);
+                    newInstance.completeExceptionally(exception);
+                    throw exception;
+                }
+                if (frozenSingletons.publish(clazz, newInstance.join())) {
+                    singletonInstances.remove(clazz, newInstance);
+                }
+                return newInstance.join();
+            }
+        }
+        containerListener.cacheHit(clazz);
+        if (!instance.isDone()) {
+            // The singleton is either being created by another thread, or by this one further up the call stack
+            checkCircularDependency(classesInCreation.get(), clazz);
+        }
+        try {
+            return instance.join();
+        } catch (CompletionException exception) {
+            Throwable cause = exception.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : exception;
+        }
+    }
+
+    /**
+     * Returns the instance of a thread-scoped bean within the calling thread, creating it on first access. The
+     * instances of a thread are kept in a single ThreadLocal entry of the {@link ThreadScope}, whatever the number of
+     * thread-scoped beans.
+     */
+    private Object getThreadInstance(Class<?> clazz) {
+        return threadScope.current(newThreadInstances).getInstance(clazz, scopedBeanIds.get(clazz));
+    }
+
+    /**
+     * Returns the instance of a request-scoped bean within the current request, creating it on first access.
+     *
+     * @throws BeanInstantiationException if no request scope is active
+     */
+    private Object getRequestInstance(Class<?> clazz) {
+        ScopedInstances instances = requestScope.current();
+        if (instances == null) {
+            throw new BeanInstantiationException(String.format(
+                    "%s is request-scoped, it can only be obtained within runInRequestScope", clazz.getName()));
+        }
+        return instances.getInstance(clazz, scopedBeanIds.get(clazz));
+    }
+
+    /**
+     * Checks that a bean does not depend on a bean whose scope may end before its own: singletons are shared by all
+     * the children, threads and requests, the thread-scoped beans by the requests of their thread, and the beans of a
+     * child by the threads using it. Interface injection points of thread- and request-scoped beans receive proxies
+     * instead, which are not dependencies.
+     */
+    private void checkScopedDependencies(Class<?> bean, ScopeType scope, DependencyGraph dependencyGraph) {
+        for (Class<?> dependency : dependencyGraph.getDependencies(bean)) {
+            ScopeType dependencyScope = scopes.get(dependency);
+            if (isShorterLived(dependencyScope, scope)) {
+                throw new BeanInstantiationException(String.format("The %s %s cannot depend on the %s %s",
+                        describeScope(scope), bean.getName(), describeScope(dependencyScope), dependency.getName()));
+            }
+        }
+    }
+
+    private static boolean isShorterLived(ScopeType dependencyScope, ScopeType scope) {
+        switch (scope) {
+            case SINGLETON:
+                return SCOPED_BEAN_SCOPES.contains(dependencyScope);
+            case THREAD:
+                return dependencyScope == ScopeType.CONTEXT || dependencyScope == ScopeType.REQUEST;
+            case REQUEST:
+                return dependencyScope == ScopeType.CONTEXT;
+            case CONTEXT:
+                return dependencyScope == ScopeType.THREAD || dependencyScope == ScopeType.REQUEST;
+            default:
+                return false;
+        }
+    }
+
+    private static String describeScope(ScopeType scope) {
+        return scope == ScopeType.SINGLETON ? "singleton" : scope.name().toLowerCase(Locale.ROOT) + "-scoped";
+    }
+
+    /**
+     * Checks that the calling thread is not creating the specified class already, before it waits for the instance
+     * another creation of the class publishes.
+     *
+     * @throws CircularDependencyException if the calling thread is creating the class
+     */
+    void checkNotInCreation(Class<?> clazz) {
+        checkCircularDependency(classesInCreation.get(), clazz);
+    }
+
+    private static void checkCircularDependency(Deque<Class<?>> creationPath, Class<?> clazz) {
+        if (creationPath.contains(clazz)) {
+            throw new CircularDependencyException(String.format("Circular dependency detected: %s", describePath(creationPath, clazz)));
+        }
+    }
+
+    private static String describePath(Deque<Class<?>> creationPath, Class<?> clazz) {
+        StringBuilder path = new StringBuilder();
+        boolean inCycle = false;
+        for (Class<?> classInPath : creationPath) {
+            inCycle |= classInPath == clazz;
+            if (inCycle) {
+                path.append(classInPath.getName()).append(" -> ");
+            }
+        }
+        return path.append(clazz.getName()).toString();
+    }
+
+    /**
+     * Injects dependencies into the @Inject fields of the specified object instance by using the cached injection plan
+     * of its class. Beans without @Inject fields are skipped.
+     *
+     * @param instance      the object instance to inject dependencies into
+     * @param injectionPlan the injection plan of the class of the instance
+     * @param context       the child container the dependencies are obtained for, or null for this container
+     */
+    private void injectDependencies(Object instance, InjectionPlan injectionPlan, ChildDependencyContainer context) {
+        if (injectionPlan.hasInjectedFields()) {
+            injectionPlan.inject(instance, injectionPoint -> getInjectedValue(injectionPoint, context));
+        }
+    }
+
+    /**
+     * Returns the value to inject at the specified injection point.
+     *
+     * @param injectionPoint the injection point
+     * @param context        the child container the value is obtained for, or null for this container
+     * @return the bean itself, its provider or pool, a lazy proxy of the declared interface, or the collection of the
+     * beans
+     */
+    private Object getInjectedValue(InjectionPlan.InjectionPoint injectionPoint, ChildDependencyContainer context) {
+        Class<?> targetType = injectionPoint.getTargetType();
+        switch (injectionPoint.getKind()) {
+            case PROVIDER:
+                if (context == null || scopes.get(targetType) == ScopeType.SINGLETON) {
+                    return providers.get(targetType);
+                }
+                return (Provider<?>) () -> getInstance(targetType, context);
+            case POOL:
+                return beanPools.get(targetType);
+            case LAZY_PROXY:
+                return LazyInvocationHandler.createProxy(injectionPoint.getDeclaredType(), () -> getInstance(targetType, context));
+            case SCOPED_PROXY:
+                return ScopedInvocationHandler.createProxy(injectionPoint.getDeclaredType(), providers.get(targetType));
+            case LIST:
+            case SET:
+            case MAP:
+                return getCollection(injectionPoint, context);
+            default:
+                return getInstance(targetType, context);
+        }
+    }
+
+    /**
+     * Returns the collection of the beans of a List, Set or Map field. A collection of singletons and lazy proxies is
+     * created once per element type and shared; a collection holding prototypes is created for every injection.
+     *
+     * @param injectionPoint the collection injection point
+     * @param context        the child container the beans are obtained for, or null for this container
+     * @return the immutable collection
+     */
+    private Object getCollection(InjectionPlan.InjectionPoint injectionPoint, ChildDependencyContainer context) {
+        ConcurrentMap<Class<?>, Object> shared = sharedCollections.get(injectionPoint.getKind());
+        Object collection = shared.get(injectionPoint.getTargetType());
+        if (collection != null) {
+            return collection;
+        }
+
+        Class<?>[] elements = injectionPoint.getElements();
+        Object[] beans = new Object[elements.length];
+        boolean shareable = true;
+        for (int i = 0; i < elements.length; i++) {
+            Class<?> element = elements[i];
+            if (injectionPoint.isLazyElement(i)) {
+                beans[i] = LazyInvocationHandler.createProxy(injectionPoint.getTargetType(), () -> getInstance(element, context));
+                shareable &= scopes.get(element) != ScopeType.CONTEXT;
+            } else {
+                beans[i] = getInstance(element, context);
+                shareable &= scopes.get(element) == ScopeType.SINGLETON;
+            }
+        }
+        switch (injectionPoint.getKind()) {
+            case LIST:
+                collection = ArrayCollections.list(beans);
+                break;
+            case SET:
+                collection = ArrayCollections.set(beans);
+                break;
+            default:
+                collection = ArrayCollections.map(injectionPoint.getKeys(), beans);
+        }
+        if (shareable) {
+            Object existing = shared.putIfAbsent(injectionPoint.getTargetType(), collection);
+            return existing != null ? existing : collection;
+        }
+        return collection;
+    }
+
+    /**
+     * Resolves the type to instantiate for an @Inject field or constructor parameter.
+     *
+     * @param declaredType the declared type of the field or parameter
+     * @param owner        the class declaring the field or constructor
+     * @param name         the name of the field, or the name of the parameter within the injection plan
+     * @param qualifier    the className of the @Inject annotation, or an empty string
+     * @return the implementation recorded in the wiring snapshot, the declared type itself, or its implementation
+     * class if it is an interface or an abstract class
+     */
+    private Class<?> resolveTargetType(Class<?> declaredType, Class<?> owner, String name, String qualifier) {
+        Map<String, Class<?>> recordedTargets = snapshotTargets.get(owner);
+        if (recordedTargets != null) {
+            Class<?> recordedTarget = recordedTargets.get(name);
+            if (recordedTarget != null && declaredType.isAssignableFrom(recordedTarget)) {
+                return recordedTarget;
+            }
+        }
+        if (declaredType.isInterface() || Modifier.isAbstract(declaredType.getModifiers())) {
+            return findImplementionClass(declaredType, qualifier);
+        }
+        return declaredType;
+    }
+
+    /**
+     * Resolves the components injected into a List, Set or Map field. Components annotated with @Order come first, by
+     * ascending value, followed by the others; components with the same order are sorted by class name.
+     *
+     * @param elementType the element type of the collection
+     * @return the ordered components assignable to the element type, possibly none
+     */
+    private Class<?>[] resolveImplementations(Class<?> elementType) {
+        Class<?>[] implementations = Objects.requireNonNull(componentIndex, "First, you have to scan the packages.")
+                .getImplementations(elementType).clone();
+        Arrays.sort(implementations, Comparator.comparingInt(DependencyContainer::orderOf).thenComparing(Class::getName));
+        return implementations;
+    }
+
+    private static int orderOf(Class<?> component) {
+        Order order = component.getAnnotation(Order.class);
+        return order == null ? Integer.MAX_VALUE : order.value();
+    }
+
+    /**
+     * Creates an instance of the specified class through its @Inject constructor, with the constructor parameters
+     * obtained like injected fields, or else using the cached factory of the class.
+     *
+     * @param <T>           the type of the class to create an instance of
+     * @param clazz         the class object representing the class to create an instance of
+     * @param injectionPlan the injection plan of the class
+     * @param context       the child container the constructor parameters are obtained for, or null for this container
      * @return an instance of the specified class
-     * @throws NoSuchMethodException     if the no-arg constructor for the class is not found
-     * @throws InvocationTargetException if there is an error invoking the constructor
-     * @throws InstantiationException    if there is an error instantiating the class
-     * @throws IllegalAccessException    if there is an error accessing the class or constructor
      */
-    private <T> T createInstance(Class<T> clazz) throws NoSuchMethodException,
-            InvocationTargetException, InstantiationException, IllegalAccessException {
-        Constructor<?> constructor = clazz.getDeclaredConstructor();
-        return clazz.cast(constructor.newInstance());
+    @SuppressWarnings("unchecked")
+    private <T> T createInstance(Class<T> clazz, InjectionPlan injectionPlan, ChildDependencyContainer context) {
+        if (injectionPlan.isConstructorInjected()) {
+            return (T) injectionPlan.construct(injectionPoint -> getInjectedValue(injectionPoint, context));
+        }
+        return ((BeanFactory<T>) beanFactories.get(clazz)).newInstance();
+    }
+
+    /**
+     * Creates the cache of the implementation of every looked up type. It is replaced when the classes are rewired.
+     */
+    private ClassValue<Class<?>> newImplementationCache() {
+        return new ClassValue<Class<?>>() {
+            @Override
+            protected Class<?> computeValue(Class<?> type) {
+                return type.isInterface() || Modifier.isAbstract(type.getModifiers()) ? getAssignableClass(type) : type;
+            }
+        };
+    }
+
+    /**
+     * Creates the cache of the beans looked up through {@link #getBean(Class)}. It is replaced when the classes are
+     * rewired.
+     */
+    private ClassValue<Provider<?>> newBeanCache() {
+        return new ClassValue<Provider<?>>() {
+            @Override
+            protected Provider<?> computeValue(Class<?> type) {
+                Class<?> implementation = implementations.get(type);
+                if (scopes.get(implementation) != ScopeType.SINGLETON) {
+                    return providers.get(implementation);
+                }
+                Object singleton = getSingleton(implementation);
+                return () -> singleton;
+            }
+        };
+    }
+
+    private <T> BeanPool<T> newBeanPool(Class<T> type) {
+        return new BeanPool<>(type, BeanPool.sizeOf(type), () -> resolve(type));
+    }
+
+    private static Map<InjectionPlan.Kind, ConcurrentMap<Class<?>, Object>> newSharedCollections() {
+        Map<InjectionPlan.Kind, ConcurrentMap<Class<?>, Object>> sharedCollections = new EnumMap<>(InjectionPlan.Kind.class);
+        for (InjectionPlan.Kind kind : EnumSet.of(InjectionPlan.Kind.LIST, InjectionPlan.Kind.SET, InjectionPlan.Kind.MAP)) {
+            sharedCollections.put(kind, new ConcurrentHashMap<>());
+        }
+        return sharedCollections;
+    }
+
+    private static Map<ScopeType, AtomicInteger> newScopedBeanCounts() {
+        Map<ScopeType, AtomicInteger> scopedBeanCounts = new EnumMap<>(ScopeType.class);
+        for (ScopeType scope : SCOPED_BEAN_SCOPES) {
+            scopedBeanCounts.put(scope, new AtomicInteger());
+        }
+        return scopedBeanCounts;
+    }
+
+    private ClassValue<BeanFactory<?>> beanFactoriesOf(InstantiationStrategy instantiationStrategy) {
+        return new ClassValue<BeanFactory<?>>() {
+            @Override
+            protected BeanFactory<?> computeValue(Class<?> type) {
+                return instantiationStrategy.createFactory(type, containerListener);
+            }
+        };
     }
 
     /**
      * Finds the implementation class for a given parent class or interface based on the @Inject annotation.
      *
-     * @param parent the parent class or interface
-     * @param field  the field containing the @Inject annotation
+     * @param parent    the parent class or interface
+     * @param className the className of the @Inject annotation, or an empty string
      * @return the implementation class found based on the annotation or assignable class
      */
-    private Class<?> findImplementionClass(Class<?> parent, Field field) {
-        String className = field.getAnnotation(Inject.class).className();
-        return Objects.nonNull(className) && !className.isEmpty() ?
-                findClassByName(className) : getAssignableClass(parent);
+    private Class<?> findImplementionClass(Class<?> parent, String className) {
+        if (Objects.isNull(className) || className.isEmpty()) {
+            return getAssignableClass(parent);
+        }
+        return legacyQualifierMatching ? findClassByNameFragment(className) : findClassByName(className, parent);
+    }
+
+    /**
+     * Finds a class assignable to the parent type by its simple name, fully qualified name or @Named value within the
+     * qualifier index of the classes registered in the container.
+     *
+     * @param className the qualifier of the class to find
+     * @param parent    the parent class or interface the class has to be assignable to
+     * @return the class object representing the found class
+     * @throws ImplementationNotFoundException  if the class implementation is not found
+     * @throws UndefinedImplementationException if the qualifier names multiple implementations
+     */
+    private Class<?> findClassByName(String className, Class<?> parent) {
+        List<Class<?>> matchingClasses = new ArrayList<>(1);
+        for (Class<?> clazz : Objects.requireNonNull(componentIndex, "First, you have to scan the packages.").getQualified(className)) {
+            if (parent.isAssignableFrom(clazz)) {
+                matchingClasses.add(clazz);
+            }
+        }
+        return checkMatchingImplementationsQuantity(matchingClasses, className)
+                .orElseThrow(ImplementationNotFoundException::new);
     }
 
     /**
-     * Finds a class by its name within the list of classes registered in the container.
+     * Finds a class by a fragment of its name within the list of classes registered in the container.
      *
      * @param className the name of the class to find
      * @return the class object representing the found class
      * @throws ImplementationNotFoundException if the class implementation is not found
      */
-    private Class<?> findClassByName(String className) {
-        List<Class<?>> matchingClasses = Objects.requireNonNull(classesInPath, "First, you have to scan the packages.")
-                .stream()
+    private Class<?> findClassByNameFragment(String className) {
+        List<Class<?>> matchingClasses = Objects.requireNonNull(componentIndex, "First, you have to scan the packages.")
+                .getComponents().stream()
                 .filter(clazz -> clazz.getName().toLowerCase().contains(className.toLowerCase()))
                 .collect(Collectors.toList());
         return checkMatchingImplementationsQuantity(matchingClasses, className)
@@ -161,16 +1581,15 @@ public class DependencyContainer implements IOCContainer {
     }
 
     /**
-     * Gets an assignable class based on a given type from the list of classes registered in the container.
+     * Gets an assignable class based on a given type from the supertype index of the classes registered in the container.
      *
      * @param type the type of the class to find
      * @return the class object representing the found assignable class
      * @throws ImplementationNotFoundException if no assignable class is found
      */
     private Class<?> getAssignableClass(Class<?> type) {
-        List<Class<?>> matchingClasses = Objects.requireNonNull(classesInPath, "First, you have to scan the packages.")
-                .stream()
-                .filter(type::isAssignableFrom).collect(Collectors.toList());
+        List<Class<?>> matchingClasses = Arrays.asList(Objects.requireNonNull(componentIndex, "First, you have to scan the packages.")
+                .getImplementations(type));
 
         return checkMatchingImplementationsQuantity(matchingClasses, type.getName())
                 .orElseThrow(ImplementationNotFoundException::new);
@@ -0,0 +1,138 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.exception.CircularDependencyException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The DependencyGraph is the directed acyclic graph of the beans reachable from the registered components, where an edge
+ * leads from a bean to every bean injected into it. Building the graph sorts it topologically and rejects cycles, so
+ * the beans can be instantiated dependencies first without any recursion.
+ */
+final class DependencyGraph {
+    private final Map<Class<?>, Class<?>[]> dependencies;
+    private final List<Class<?>> instantiationOrder;
+
+    private DependencyGraph(Map<Class<?>, Class<?>[]> dependencies, List<Class<?>> instantiationOrder) {
+        this.dependencies = dependencies;
+        this.instantiationOrder = instantiationOrder;
+    }
+
+    /**
+     * Builds the graph of the beans reachable from the specified roots. The graph is walked depth-first with an explicit
+     * stack, so even very deep graphs cannot overflow the call stack.
+     *
+     * @param roots          the registered components
+     * @param dependenciesOf provides the beans injected into a bean
+     * @return the dependency graph
+     * @throws CircularDependencyException if the beans depend on each other in a cycle
+     */
+    static DependencyGraph of(List<Class<?>> roots, Function<Class<?>, Class<?>[]> dependenciesOf) {
+        Map<Class<?>, Class<?>[]> dependencies = new LinkedHashMap<>();
+        Map<Class<?>, Boolean> finished = new HashMap<>();
+        List<Class<?>> instantiationOrder = new ArrayList<>();
+        Deque<Class<?>> path = new ArrayDeque<>();
+        Deque<Iterator<Class<?>>> pendingDependencies = new ArrayDeque<>();
+
+        for (Class<?> root : roots) {
+            if (finished.containsKey(root)) {
+                continue;
+            }
+            visit(root, dependenciesOf, dependencies, finished, path, pendingDependencies);
+            while (!path.isEmpty()) {
+                Iterator<Class<?>> pending = pendingDependencies.peek();
+                if (pending.hasNext()) {
+                    Class<?> dependency = pending.next();
+                    Boolean dependencyFinished = finished.get(dependency);
+                    if (dependencyFinished == null) {
+                        visit(dependency, dependenciesOf, dependencies, finished, path, pendingDependencies);
+                    } else if (!dependencyFinished) {
+                        throw new CircularDependencyException(
+                                String.format("Circular dependency detected: %s", describeCycle(path, dependency)));
+                    }
+                } else {
+                    Class<?> bean = path.pop();
+                    pendingDependencies.pop();
+                    finished.put(bean, Boolean.TRUE);
+                    instantiationOrder.add(bean);
+                }
+            }
+        }
+        return new DependencyGraph(dependencies, Collections.unmodifiableList(instantiationOrder));
+    }
+
+    /**
+     * Builds a graph that was already sorted, such as the graph recorded in a wiring snapshot, without walking it again.
+     *
+     * @param dependencies the direct dependencies of every bean, each bean after all the beans it depends on
+     * @return the dependency graph
+     */
+    static DependencyGraph ofSorted(Map<Class<?>, Class<?>[]> dependencies) {
+        Map<Class<?>, Class<?>[]> graph = new LinkedHashMap<>(dependencies);
+        return new DependencyGraph(graph, Collections.unmodifiableList(new ArrayList<>(graph.keySet())));
+    }
+
+    private static void visit(Class<?> bean, Function<Class<?>, Class<?>[]> dependenciesOf,
+                              Map<Class<?>, Class<?>[]> dependencies, Map<Class<?>, Boolean> finished,
+                              Deque<Class<?>> path, Deque<Iterator<Class<?>>> pendingDependencies) {
+        Class<?>[] beanDependencies = dependenciesOf.apply(bean);
+        dependencies.put(bean, beanDependencies);
+        finished.put(bean, Boolean.FALSE);
+        path.push(bean);
+        pendingDependencies.push(Arrays.asList(beanDependencies).iterator());
+    }
+
+    /**
+     * Describes the cycle closed by the specified bean, from its first occurrence on the current path.
+     */
+    private static String describeCycle(Deque<Class<?>> path, Class<?> bean) {
+        StringBuilder cycle = new StringBuilder();
+        boolean inCycle = false;
+        for (Iterator<Class<?>> beans = path.descendingIterator(); beans.hasNext(); ) {
+            Class<?> beanInPath = beans.next();
+            inCycle |= beanInPath == bean;
+            if (inCycle) {
+                cycle.append(beanInPath.getName()).append(" -> ");
+            }
+        }
+        return cycle.append(bean.getName()).toString();
+    }
+
+    /**
+     * Returns every bean of the graph, each one after all the beans it depends on.
+     *
+     * @return the beans in topological order
+     */
+    List<Class<?>> getInstantiationOrder() {
+        return instantiationOrder;
+    }
+
+    /**
+     * Returns the beans injected directly into the specified bean.
+     *
+     * @param bean a bean of the graph
+     * @return the direct dependencies of the bean
+     */
+    Class<?>[] getDependencies(Class<?> bean) {
+        return dependencies.get(bean);
+    }
+
+    long estimateSize() {
+        long size = Footprint.object(2) + Footprint.linkedHashMap(dependencies.size()) + Footprint.object(1)
+                + Footprint.list(instantiationOrder.size());
+        for (Class<?>[] beanDependencies : dependencies.values()) {
+            size += Footprint.array(beanDependencies.length);
+        }
+        return size;
+    }
+}
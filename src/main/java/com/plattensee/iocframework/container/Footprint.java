@@ -0,0 +1,62 @@
+package com.plattensee.iocframework.container;
+
+/**
+ * The Footprint class estimates the heap size of the structures a container keeps. The estimates assume a 64-bit JVM
+ * with compressed references: 12-byte object headers, 16-byte array headers, 4-byte references and 8-byte alignment.
+ * The classes and the beans themselves are not counted.
+ */
+final class Footprint {
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int HASH_MAP = 48;
+    private static final int HASH_MAP_NODE = 32;
+    private static final int LINKED_HASH_MAP = 56;
+    private static final int LINKED_HASH_MAP_NODE = 40;
+    private static final int CONCURRENT_HASH_MAP = 64;
+    private static final int ARRAY_LIST = 24;
+    private static final int STRING = 24;
+
+    private Footprint() {
+    }
+
+    static long object(int fields) {
+        return align(OBJECT_HEADER + (long) fields * REFERENCE);
+    }
+
+    static long array(int length) {
+        return align(ARRAY_HEADER + (long) length * REFERENCE);
+    }
+
+    static long list(int size) {
+        return ARRAY_LIST + array(size);
+    }
+
+    static long hashMap(int size) {
+        return HASH_MAP + array(tableLength(size)) + (long) size * HASH_MAP_NODE;
+    }
+
+    static long linkedHashMap(int size) {
+        return LINKED_HASH_MAP + array(tableLength(size)) + (long) size * LINKED_HASH_MAP_NODE;
+    }
+
+    static long concurrentHashMap(int size) {
+        return CONCURRENT_HASH_MAP + (size == 0 ? 0 : array(tableLength(size))) + (long) size * HASH_MAP_NODE;
+    }
+
+    static long string(String value) {
+        return STRING + align(ARRAY_HEADER + value.length());
+    }
+
+    private static int tableLength(int size) {
+        int length = 16;
+        while (length * 3 / 4 < size) {
+            length <<= 1;
+        }
+        return length;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
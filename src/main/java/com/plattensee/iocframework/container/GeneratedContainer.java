@@ -0,0 +1,467 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.exception.BeanInstantiationException;
+import com.plattensee.iocframework.exception.ImplementationNotFoundException;
+import com.plattensee.iocframework.exception.LifecycleCallbackException;
+import com.plattensee.iocframework.exception.UndefinedImplementationException;
+import com.plattensee.iocframework.exception.WiredConstructorInvocationException;
+import com.plattensee.iocframework.exception.WiredConstructorNotAccessible;
+import com.plattensee.iocframework.exception.WiredConstructorNotFoundException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The GeneratedContainer is the base class of the GeneratedContext classes written by the spider-maven-plugin. The
+ * wiring of a generated context is resolved at build time: its beans are created with constructor calls, passing the
+ * parameters of @Inject constructors, and injected with field assignments, so neither the class path nor the
+ * implementations are looked up at runtime.
+ * <p>
+ * Beans whose constructor or @Inject field cannot be accessed from the generated class, for example because it is
+ * private, are still created or injected reflectively through the helpers of this class.
+ * <p>
+ * The @PostConstruct methods are invoked on the creating thread once a bean is injected; the singletons with
+ * @PreDestroy methods are destroyed in the reverse order of their creation.
+ */
+public abstract class GeneratedContainer implements IOCContainer {
+    /**
+     * The simple name of the generated context class, which is placed in the package of the entry point.
+     */
+    public static final String GENERATED_CLASS_NAME = "GeneratedContext";
+
+    private final Map<Class<?>, Provider<?>> beans = new HashMap<>();
+    private final Map<Class<?>, Provider<?>> factories = new HashMap<>();
+    private final List<Class<?>> components = new ArrayList<>();
+    private final Map<Class<?>, BeanPool<?>> beanPools = new HashMap<>();
+    private final List<Object> destroyableSingletons = new ArrayList<>();
+    private final ClassValue<Provider<?>> beansByType = new ClassValue<Provider<?>>() {
+        @Override
+        protected Provider<?> computeValue(Class<?> type) {
+            Provider<?> bean = beans.get(type);
+            return bean != null ? bean : beans.get(getAssignableComponent(type));
+        }
+    };
+    private volatile boolean singletonsInstantiated;
+
+    /**
+     * Returns the name of the context generated for the specified entry point.
+     *
+     * @param entryPoint the class object representing the entry point
+     * @return the fully qualified name of the generated context class
+     */
+    public static String generatedClassNameOf(Class<?> entryPoint) {
+        String entryPointName = entryPoint.getName();
+        int packageEnd = entryPointName.lastIndexOf('.');
+        return packageEnd < 0 ? GENERATED_CLASS_NAME : entryPointName.substring(0, packageEnd + 1) + GENERATED_CLASS_NAME;
+    }
+
+    /**
+     * Registers a wired bean. It is called by the constructor of the generated context for every bean.
+     *
+     * @param type      the class object representing the bean
+     * @param bean      provides the bean according to its scope
+     * @param factory   creates a new, injected instance of the bean
+     * @param component true if the bean is a registered component, which can be looked up by its supertypes
+     */
+    protected final void addBean(Class<?> type, Provider<?> bean, Provider<?> factory, boolean component) {
+        beans.put(type, bean);
+        factories.put(type, factory);
+        if (component) {
+            components.add(type);
+        }
+    }
+
+    /**
+     * Registers the pool of a @Pooled bean. It is called by the constructor of the generated context for every pooled
+     * bean, after the bean itself was added.
+     *
+     * @param type    the class object representing the pooled bean
+     * @param size    the number of instances to keep
+     * @param factory creates a new, injected instance of the bean
+     */
+    protected final void addBeanPool(Class<?> type, int size, Provider<?> factory) {
+        beanPools.put(type, new BeanPool<>(type, size, factory));
+    }
+
+    /**
+     * Creates the singletons needed at startup, dependencies first.
+     */
+    protected abstract void createSingletons();
+
+    /**
+     * Instantiates the singletons needed at startup, then fills the bean pools. The classes were registered when the
+     * context was generated, so this is all that is left to do before the beans are used; calling it again has no
+     * effect.
+     */
+    public final void instantiateSingletons() {
+        if (!singletonsInstantiated) {
+            synchronized (this) {
+                if (!singletonsInstantiated) {
+                    createSingletons();
+                    beanPools.values().forEach(BeanPool::fill);
+                    singletonsInstantiated = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Instantiates the singletons of the generated context. The specified classes are ignored, since the classes were
+     * registered and resolved when the context was generated.
+     *
+     * @param classesInPath ignored
+     */
+    @Override
+    public void registerClassesInPath(List<Class<?>> classesInPath) {
+        instantiateSingletons();
+    }
+
+    /**
+     * Returns the bean of the specified class.
+     *
+     * @param <T>      the type of the class
+     * @param newClass the class object representing a bean of the generated context
+     * @return the shared instance of a singleton, or a new instance of a prototype
+     * @throws BeanInstantiationException if the class was not wired when the context was generated
+     */
+    @Override
+    public <T> T register(Class<T> newClass) {
+        return newClass.cast(wired(beans, newClass).get());
+    }
+
+    /**
+     * Returns a new instance of the specified class with its dependencies injected.
+     *
+     * @param <T>   the type of the class
+     * @param clazz the class object representing a bean of the generated context
+     * @return a new instance of the class
+     * @throws BeanInstantiationException if the class was not wired when the context was generated
+     */
+    @Override
+    public <T> T resolve(Class<T> clazz) {
+        return clazz.cast(wired(factories, clazz).get());
+    }
+
+    /**
+     * Returns the bean of the specified type, which can be a bean or a supertype of a single component.
+     *
+     * @param <T>  the type of the bean
+     * @param type the class object representing the type of the bean
+     * @return the shared instance of a singleton, or a new instance of a prototype
+     * @throws ImplementationNotFoundException  if no component implements the type
+     * @throws UndefinedImplementationException if multiple components implement the type
+     */
+    @Override
+    public <T> T getBean(Class<T> type) {
+        return type.cast(beansByType.get(Objects.requireNonNull(type)).get());
+    }
+
+    /**
+     * Returns the pool of the specified @Pooled bean, which can be the bean or a supertype of a single component.
+     *
+     * @param <T>  the type of the pooled bean
+     * @param type the class object representing the type of the pooled bean
+     * @return the pool of the bean
+     * @throws BeanInstantiationException       if the bean is not pooled, or was not wired when the context was generated
+     * @throws ImplementationNotFoundException  if no component implements the type
+     * @throws UndefinedImplementationException if multiple components implement the type
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> BeanPool<T> getBeanPool(Class<T> type) {
+        Class<?> implementation = beans.containsKey(Objects.requireNonNull(type)) ? type : getAssignableComponent(type);
+        BeanPool<?> beanPool = beanPools.get(implementation);
+        if (beanPool == null) {
+            throw new BeanInstantiationException(String.format("%s is not a @Pooled component", implementation.getName()));
+        }
+        return (BeanPool<T>) beanPool;
+    }
+
+    private static Provider<?> wired(Map<Class<?>, Provider<?>> providers, Class<?> type) {
+        Provider<?> provider = providers.get(Objects.requireNonNull(type));
+        if (provider == null) {
+            throw new BeanInstantiationException(String.format("%s was not wired when the context was generated", type.getName()));
+        }
+        return provider;
+    }
+
+    private Class<?> getAssignableComponent(Class<?> type) {
+        List<Class<?>> matchingComponents = new ArrayList<>(1);
+        for (Class<?> component : components) {
+            if (type.isAssignableFrom(component)) {
+                matchingComponents.add(component);
+            }
+        }
+        if (matchingComponents.size() > 1) {
+            throw new UndefinedImplementationException(
+                    String.format("There are multiple implementations for %s interface or abstract class. " +
+                            "Use @Inject(className=exampleClass) annotation to specify the implementing class.", type.getName()));
+        }
+        if (matchingComponents.isEmpty()) {
+            throw new ImplementationNotFoundException(
+                    String.format("Implementation not found for %s interface or abstract class. " +
+                            "Use @Inject(className=exampleClass) annotation to specify the implementing class.", type.getName()));
+        }
+        return matchingComponents.get(0);
+    }
+
+    /**
+     * Invokes the @PostConstruct methods of an injected bean. It is called by the generated context for the beans that
+     * declare such methods.
+     *
+     * @param bean the injected bean
+     */
+    protected static void postConstruct(Object bean) {
+        LifecycleMethods.of(bean.getClass()).postConstruct(bean);
+    }
+
+    /**
+     * Records a singleton with @PreDestroy methods. It is called by the generated context once the singleton is
+     * created, so the singletons are recorded after the singletons they depend on.
+     *
+     * @param singleton the created singleton
+     */
+    protected final void addDestroyable(Object singleton) {
+        synchronized (destroyableSingletons) {
+            destroyableSingletons.add(singleton);
+        }
+    }
+
+    /**
+     * Invokes the @PreDestroy methods of the idle instances of the bean pools, then those of the singletons created so
+     * far, in the reverse order of their creation, on the calling thread. The singletons are not created again
+     * afterwards.
+     *
+     * @param timeout the maximum time to wait for the singletons to be destroyed
+     * @param unit    the unit of the timeout
+     * @return true if every singleton was destroyed within the timeout
+     * @throws com.plattensee.iocframework.exception.LifecycleCallbackException if a @PreDestroy method throws an
+     *                                                                          exception, once the other singletons
+     *                                                                          are destroyed
+     */
+    @Override
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        List<Object> singletons;
+        synchronized (destroyableSingletons) {
+            singletons = new ArrayList<>(destroyableSingletons);
+            destroyableSingletons.clear();
+        }
+        Collections.reverse(singletons);
+        LifecycleCallbackException poolFailure = null;
+        for (BeanPool<?> beanPool : beanPools.values()) {
+            try {
+                beanPool.destroyIdleInstances();
+            } catch (LifecycleCallbackException exception) {
+                if (poolFailure == null) {
+                    poolFailure = exception;
+                } else {
+                    poolFailure.addSuppressed(exception);
+                }
+            }
+        }
+        boolean destroyed;
+        try {
+            destroyed = LifecycleMethods.preDestroyAll(singletons, unit.toNanos(timeout));
+        } catch (LifecycleCallbackException exception) {
+            if (poolFailure != null) {
+                exception.addSuppressed(poolFailure);
+            }
+            throw exception;
+        }
+        if (poolFailure != null) {
+            throw poolFailure;
+        }
+        return destroyed;
+    }
+
+    /**
+     * Adapts a bean method of the generated context to the declared type of a Provider field.
+     *
+     * @param provider the bean method
+     * @return the provider
+     */
+    @SuppressWarnings("rawtypes")
+    protected static Provider provider(Provider<?> provider) {
+        return provider;
+    }
+
+    /**
+     * Creates the immutable List injected into a List field.
+     *
+     * @param beans the beans, in order
+     * @return the list backed by the array
+     */
+    protected static List<Object> listOf(Object[] beans) {
+        return ArrayCollections.list(beans);
+    }
+
+    /**
+     * Creates the immutable Set injected into a Set field.
+     *
+     * @param beans the beans, in order
+     * @return the set backed by the array
+     */
+    protected static Set<Object> setOf(Object[] beans) {
+        return ArrayCollections.set(beans);
+    }
+
+    /**
+     * Creates the immutable Map injected into a Map field.
+     *
+     * @param keys  the keys of the beans
+     * @param beans the beans, in the order of the keys
+     * @return the map backed by the arrays
+     */
+    protected static Map<String, Object> mapOf(String[] keys, Object[] beans) {
+        return ArrayCollections.map(keys, beans);
+    }
+
+    /**
+     * Creates the proxy injected into a lazy interface field.
+     *
+     * @param type     the interface of the field
+     * @param provider the bean method of the target
+     * @return a proxy that obtains the bean on its first method call
+     */
+    protected static Object lazyProxy(Class<?> type, Provider<?> provider) {
+        return LazyInvocationHandler.createProxy(type, provider::get);
+    }
+
+    /**
+     * Loads a class that cannot be referenced by the generated code, since it is not accessible from its package.
+     *
+     * @param anchor    the generated context class, whose class loader loads the class
+     * @param className the binary name of the class
+     * @return the class object
+     */
+    protected static Class<?> classForName(Class<?> anchor, String className) {
+        try {
+            return Class.forName(className, false, anchor.getClassLoader());
+        } catch (ClassNotFoundException exception) {
+            throw new BeanInstantiationException(String.format("Class %s of the generated context not found", className), exception);
+        }
+    }
+
+    /**
+     * Creates a factory for a bean whose constructor cannot be called by the generated code.
+     *
+     * @param beanClass the class object representing the bean
+     * @return a factory invoking the no-arg constructor reflectively
+     * @throws WiredConstructorNotFoundException if a no-arg constructor is not found for the class
+     * @throws WiredConstructorNotAccessible     if the constructor cannot be made accessible
+     */
+    protected static BeanFactory<?> reflectiveFactory(Class<?> beanClass) {
+        Constructor<?> constructor;
+        try {
+            constructor = beanClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+        } catch (NoSuchMethodException exception) {
+            throw new WiredConstructorNotFoundException("Sorry bro, I need a no-arg constructor!", exception);
+        } catch (RuntimeException exception) {
+            throw new WiredConstructorNotAccessible(String.format("Unable to access the constructor of %s", beanClass.getName()), exception);
+        }
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch (InvocationTargetException | InstantiationException exception) {
+                throw new WiredConstructorInvocationException(exception);
+            } catch (IllegalAccessException exception) {
+                throw new WiredConstructorNotAccessible(exception);
+            }
+        };
+    }
+
+    /**
+     * Creates a method handle for an @Inject constructor that cannot be called by the generated code.
+     *
+     * @param beanClass      the class object representing the bean
+     * @param parameterTypes the parameter types of the constructor
+     * @return the constructor, of type (Object[])Object
+     * @throws WiredConstructorNotFoundException if the constructor is not found
+     * @throws WiredConstructorNotAccessible     if the constructor cannot be accessed
+     */
+    protected static MethodHandle constructor(Class<?> beanClass, Class<?>[] parameterTypes) {
+        Constructor<?> constructor;
+        try {
+            constructor = beanClass.getDeclaredConstructor(parameterTypes);
+        } catch (NoSuchMethodException exception) {
+            throw new WiredConstructorNotFoundException(String.format("The @Inject constructor of %s is not found", beanClass.getName()), exception);
+        }
+        try {
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor).asFixedArity()
+                    .asSpreader(Object[].class, parameterTypes.length).asType(InjectionPlan.CONSTRUCTOR_TYPE);
+        } catch (IllegalAccessException | RuntimeException exception) {
+            throw new WiredConstructorNotAccessible(String.format("Unable to access the constructor of %s", beanClass.getName()), exception);
+        }
+    }
+
+    /**
+     * Creates a bean through a constructor handle.
+     *
+     * @param constructor the constructor created by {@link #constructor(Class, Class[])}
+     * @param arguments   the values of the constructor parameters
+     * @return the new bean
+     * @throws WiredConstructorInvocationException if the constructor throws an exception
+     */
+    protected static Object construct(MethodHandle constructor, Object[] arguments) {
+        try {
+            return (Object) constructor.invokeExact(arguments);
+        } catch (Error error) {
+            throw error;
+        } catch (Throwable throwable) {
+            throw new WiredConstructorInvocationException(throwable);
+        }
+    }
+
+    /**
+     * Creates a setter for an @Inject field that cannot be assigned by the generated code.
+     *
+     * @param owner     the class object declaring the field
+     * @param fieldName the name of the field
+     * @return the setter, of type (Object, Object)void
+     * @throws WiredConstructorNotAccessible if the field cannot be accessed
+     */
+    protected static MethodHandle setter(Class<?> owner, String fieldName) {
+        try {
+            Field field = owner.getDeclaredField(fieldName);
+            field.setAccessible(true);
+            MethodHandle setter = MethodHandles.lookup().unreflectSetter(field);
+            if (Modifier.isStatic(field.getModifiers())) {
+                setter = MethodHandles.dropArguments(setter, 0, Object.class);
+            }
+            return setter.asType(InjectionPlan.SETTER_TYPE);
+        } catch (NoSuchFieldException | IllegalAccessException | RuntimeException exception) {
+            throw new WiredConstructorNotAccessible(String.format("Unable to access %s.%s", owner.getName(), fieldName), exception);
+        }
+    }
+
+    /**
+     * Assigns an @Inject field through its setter.
+     *
+     * @param setter the setter created by {@link #setter(Class, String)}
+     * @param bean   the bean to inject
+     * @param value  the value to inject
+     */
+    protected static void setField(MethodHandle setter, Object bean, Object value) {
+        try {
+            setter.invokeExact(bean, value);
+        } catch (RuntimeException | Error exception) {
+            throw exception;
+        } catch (Throwable throwable) {
+            throw new BeanInstantiationException(String.format("Unable to inject %s", bean.getClass().getName()), throwable);
+        }
+    }
+}
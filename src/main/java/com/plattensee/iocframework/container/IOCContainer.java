@@ -1,10 +1,141 @@
 package com.plattensee.iocframework.container;
 
+import com.plattensee.iocframework.instrumentation.ContainerListener;
+
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 public interface IOCContainer {
     <T> T register(Class<T> newClass);
 
     <T> T resolve(Class<T> clazz);
     void registerClassesInPath(List<Class<?>> classesInPath);
+
+    /**
+     * Returns the bean of the specified type. The type can be a component, or an interface or abstract class with a
+     * single implementing component.
+     *
+     * @param <T>  the type of the bean
+     * @param type the class object representing the type of the bean
+     * @return the shared instance of a singleton, or a new instance of a prototype
+     */
+    default <T> T getBean(Class<T> type) {
+        return register(type);
+    }
+
+    /**
+     * Returns the pool of the specified @Pooled component. The type can be the component, or an interface or abstract
+     * class with a single implementing component.
+     *
+     * @param <T>  the type of the pooled bean
+     * @param type the class object representing the type of the pooled bean
+     * @return the pool of the component
+     * @throws UnsupportedOperationException if the container does not support pooling
+     */
+    default <T> BeanPool<T> getBeanPool(Class<T> type) {
+        throw new UnsupportedOperationException(String.format("%s does not support pooling", getClass().getName()));
+    }
+
+    /**
+     * Creates a child container sharing the registered classes and the singletons of this container. The child only
+     * creates its own instances of the context-scoped components.
+     *
+     * @return the new child container
+     * @throws UnsupportedOperationException if the container does not support child containers
+     */
+    default ChildContainer createChildContainer() {
+        throw new UnsupportedOperationException(String.format("%s does not support child containers", getClass().getName()));
+    }
+
+    /**
+     * Runs the specified action within a new request scope, in which the request-scoped components are created once.
+     *
+     * @param action the code handling the request
+     * @throws UnsupportedOperationException if the container does not support request scopes
+     */
+    default void runInRequestScope(Runnable action) {
+        throw new UnsupportedOperationException(String.format("%s does not support request scopes", getClass().getName()));
+    }
+
+    /**
+     * Calls the specified action within a new request scope, in which the request-scoped components are created once.
+     *
+     * @param <T>    the type of the result
+     * @param action the code handling the request
+     * @return the result of the action
+     * @throws Exception                     if the action throws an exception
+     * @throws UnsupportedOperationException if the container does not support request scopes
+     */
+    default <T> T callInRequestScope(Callable<T> action) throws Exception {
+        throw new UnsupportedOperationException(String.format("%s does not support request scopes", getClass().getName()));
+    }
+
+    /**
+     * Ends the thread scope of the calling thread, destroying its thread-scoped components. A container that does not
+     * support thread scopes has nothing to end.
+     */
+    default void endThreadScope() {
+    }
+
+    /**
+     * Invokes the @PreDestroy methods of the singletons created by the container, each after those of the singletons
+     * depending on it. A container that does not support lifecycle methods has nothing to destroy.
+     *
+     * @param timeout the maximum time to wait for the singletons to be destroyed
+     * @param unit    the unit of the timeout
+     * @return true if every singleton was destroyed within the timeout
+     */
+    default boolean shutdown(long timeout, TimeUnit unit) {
+        return true;
+    }
+
+    /**
+     * Releases the metadata only needed to register the classes, once the application is started. Containers that do
+     * not keep such metadata ignore it.
+     */
+    default void freeze() {
+    }
+
+    /**
+     * Installs an instrumentation listener in addition to the ones already installed. Listeners have to be installed
+     * before the classes are registered to observe the startup.
+     *
+     * @param listener the listener to install
+     * @throws UnsupportedOperationException if the container does not support instrumentation
+     */
+    default void addContainerListener(ContainerListener listener) {
+        throw new UnsupportedOperationException(String.format("%s does not support instrumentation", getClass().getName()));
+    }
+
+    /**
+     * Returns the instrumentation listener of the container.
+     *
+     * @return the installed listeners combined, or ContainerListener.NONE if instrumentation is turned off
+     */
+    default ContainerListener getContainerListener() {
+        return ContainerListener.NONE;
+    }
+
+    /**
+     * Registers the components of a wiring snapshot within the container, instead of scanning and resolving them.
+     *
+     * @param snapshot    the wiring snapshot to register
+     * @param classLoader the class loader to load the classes of the snapshot with
+     * @throws UnsupportedOperationException if the container does not support wiring snapshots
+     */
+    default void registerWiringSnapshot(WiringSnapshot snapshot, ClassLoader classLoader) {
+        throw new UnsupportedOperationException(String.format("%s does not support wiring snapshots", getClass().getName()));
+    }
+
+    /**
+     * Exports the wiring resolved when the classes were registered.
+     *
+     * @param fingerprint the fingerprint of the class path the classes were scanned from
+     * @return the wiring snapshot of the container
+     * @throws UnsupportedOperationException if the container does not support wiring snapshots
+     */
+    default WiringSnapshot createWiringSnapshot(byte[] fingerprint) {
+        throw new UnsupportedOperationException(String.format("%s does not support wiring snapshots", getClass().getName()));
+    }
 }
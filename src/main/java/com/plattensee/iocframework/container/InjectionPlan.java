@@ -0,0 +1,538 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.annotation.Inject;
+import com.plattensee.iocframework.annotation.Lazy;
+import com.plattensee.iocframework.annotation.Named;
+import com.plattensee.iocframework.annotation.Scope;
+import com.plattensee.iocframework.annotation.ScopeType;
+import com.plattensee.iocframework.exception.BeanInstantiationException;
+import com.plattensee.iocframework.exception.UndefinedImplementationException;
+import com.plattensee.iocframework.exception.WiredConstructorInvocationException;
+import com.plattensee.iocframework.exception.WiredConstructorNotAccessible;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The InjectionPlan describes how a class is constructed and how its @Inject fields are wired. It is built once per
+ * class: the @Inject constructor and fields are discovered, their target types are resolved, and a method handle is
+ * bound for the constructor and a setter for each field, so creating and injecting an instance does not touch the
+ * reflection API anymore. An InjectionPlan is immutable and safe to share between threads.
+ * <p>
+ * The parameters of an @Inject constructor are injection points like the fields, so a bean whose dependencies all
+ * arrive through its constructor can keep them in final fields and is not injected after it is constructed.
+ * <p>
+ * A List, Set or Map&lt;String, T&gt; field or parameter receives every component of its element type T, so the
+ * ordered implementations are resolved into the plan instead of a single target type.
+ */
+final class InjectionPlan {
+    static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private final Constructor<?> constructor;
+    private final MethodHandle constructorHandle;
+    private final InjectionPoint[] constructorParameters;
+    private final InjectionPoint[] injectedFields;
+    private final Class<?>[] dependencies;
+
+    private InjectionPlan(Constructor<?> constructor, MethodHandle constructorHandle,
+                          InjectionPoint[] constructorParameters, InjectionPoint[] injectedFields) {
+        this.constructor = constructor;
+        this.constructorHandle = constructorHandle;
+        this.constructorParameters = constructorParameters;
+        this.injectedFields = injectedFields;
+        List<Class<?>> eagerDependencies = new ArrayList<>(constructorParameters.length + injectedFields.length);
+        for (InjectionPoint injectionPoint : getInjectionPoints()) {
+            if (injectionPoint.kind == Kind.INSTANCE) {
+                eagerDependencies.add(injectionPoint.targetType);
+            } else if (injectionPoint.isCollection()) {
+                for (int i = 0; i < injectionPoint.elements.length; i++) {
+                    if (!injectionPoint.lazyElements[i]) {
+                        eagerDependencies.add(injectionPoint.elements[i]);
+                    }
+                }
+            }
+        }
+        this.dependencies = eagerDependencies.toArray(new Class<?>[0]);
+    }
+
+    /**
+     * Builds the injection plan of the specified class.
+     *
+     * @param beanClass               the class to build the plan for
+     * @param targetResolver          resolves the type to instantiate for an injection point
+     * @param implementationsResolver resolves the ordered components injected into a collection of the given type
+     * @return the injection plan of the class
+     * @throws WiredConstructorNotAccessible    if a method handle cannot be created for the @Inject constructor or a
+     *                                          setter for an @Inject field
+     * @throws BeanInstantiationException       if the class has more than one @Inject constructor, or a @Lazy injection
+     *                                          point is neither an interface nor a Provider
+     * @throws UndefinedImplementationException if two components of a Map have the same key
+     */
+    static InjectionPlan of(Class<?> beanClass, TargetResolver targetResolver,
+                            Function<Class<?>, Class<?>[]> implementationsResolver) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Constructor<?> constructor = injectConstructorOf(beanClass);
+        MethodHandle constructorHandle = null;
+        List<InjectionPoint> constructorParameters = new ArrayList<>(0);
+        if (constructor != null) {
+            constructorHandle = constructorHandleOf(lookup, constructor);
+            Parameter[] parameters = constructor.getParameters();
+            for (int i = 0; i < parameters.length; i++) {
+                constructorParameters.add(injectionPointOf(new InjectedElement(parameters[i], i), targetResolver,
+                        implementationsResolver, null));
+            }
+        }
+        List<InjectionPoint> injectedFields = new ArrayList<>();
+        for (Field field : beanClass.getDeclaredFields()) {
+            if (field.isAnnotationPresent(Inject.class)) {
+                injectedFields.add(injectionPointOf(new InjectedElement(field), targetResolver, implementationsResolver,
+                        setterOf(lookup, field)));
+            }
+        }
+        return new InjectionPlan(constructor, constructorHandle, constructorParameters.toArray(new InjectionPoint[0]),
+                injectedFields.toArray(new InjectionPoint[0]));
+    }
+
+    /**
+     * Returns the constructor of the class annotated with @Inject.
+     *
+     * @return the @Inject constructor, or null if the class is created through its no-arg constructor
+     * @throws BeanInstantiationException if more than one constructor is annotated with @Inject
+     */
+    private static Constructor<?> injectConstructorOf(Class<?> beanClass) {
+        Constructor<?> injectConstructor = null;
+        for (Constructor<?> constructor : beanClass.getDeclaredConstructors()) {
+            if (constructor.isAnnotationPresent(Inject.class)) {
+                if (injectConstructor != null) {
+                    throw new BeanInstantiationException(String.format("%s has more than one @Inject constructor",
+                            beanClass.getName()));
+                }
+                injectConstructor = constructor;
+            }
+        }
+        return injectConstructor;
+    }
+
+    private static InjectionPoint injectionPointOf(InjectedElement element, TargetResolver targetResolver,
+                                                   Function<Class<?>, Class<?>[]> implementationsResolver,
+                                                   MethodHandle setter) {
+        if (element.type == Provider.class || element.type == BeanPool.class) {
+            Class<?> providedType = typeArgumentOf(element, 0);
+            return new InjectionPoint(element.name, element.type == Provider.class ? Kind.PROVIDER : Kind.POOL,
+                    providedType, element.resolveTarget(targetResolver, providedType), setter);
+        }
+        Kind collectionKind = collectionKindOf(element.type);
+        if (collectionKind != null) {
+            return collectionInjectionPointOf(element, collectionKind, implementationsResolver, setter);
+        }
+
+        Class<?> declaredType = element.type;
+        Class<?> targetType = element.resolveTarget(targetResolver, declaredType);
+        boolean lazyElement = element.annotations.isAnnotationPresent(Lazy.class);
+        if (declaredType.isInterface() && isThreadOrRequestScoped(targetType)) {
+            return new InjectionPoint(element.name, Kind.SCOPED_PROXY, declaredType, targetType, setter);
+        }
+        if (declaredType.isInterface() && (lazyElement || targetType.isAnnotationPresent(Lazy.class))) {
+            return new InjectionPoint(element.name, Kind.LAZY_PROXY, declaredType, targetType, setter);
+        }
+        if (lazyElement) {
+            throw new BeanInstantiationException(String.format("@Lazy %s has to be an interface or a Provider", element));
+        }
+        return new InjectionPoint(element.name, Kind.INSTANCE, declaredType, targetType, setter);
+    }
+
+    private static boolean isThreadOrRequestScoped(Class<?> targetType) {
+        Scope scope = targetType.getAnnotation(Scope.class);
+        return scope != null && (scope.value() == ScopeType.THREAD || scope.value() == ScopeType.REQUEST);
+    }
+
+    private static InjectionPoint collectionInjectionPointOf(InjectedElement element, Kind kind,
+                                                             Function<Class<?>, Class<?>[]> implementationsResolver,
+                                                             MethodHandle setter) {
+        if (element.annotations.isAnnotationPresent(Lazy.class)) {
+            throw new BeanInstantiationException(String.format("@Lazy %s cannot be a collection", element));
+        }
+        if (kind == Kind.MAP && typeArgumentOf(element, 0) != String.class) {
+            throw new BeanInstantiationException(String.format("Map %s has to be keyed by String", element));
+        }
+        Class<?> elementType = typeArgumentOf(element, kind == Kind.MAP ? 1 : 0);
+        Class<?>[] elements = implementationsResolver.apply(elementType);
+        return new InjectionPoint(element.name, kind, element.type, elementType, setter,
+                elements, kind == Kind.MAP ? keysOf(element, elements) : null);
+    }
+
+    private static Kind collectionKindOf(Class<?> type) {
+        if (type == List.class) {
+            return Kind.LIST;
+        }
+        if (type == Set.class) {
+            return Kind.SET;
+        }
+        return type == Map.class ? Kind.MAP : null;
+    }
+
+    /**
+     * Returns the keys of the components injected into a Map field: their @Named value, or their simple name.
+     *
+     * @throws UndefinedImplementationException if two components have the same key
+     */
+    private static String[] keysOf(InjectedElement element, Class<?>[] elements) {
+        String[] keys = new String[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            Named named = elements[i].getAnnotation(Named.class);
+            keys[i] = named != null && !named.value().isEmpty() ? named.value() : elements[i].getSimpleName();
+            for (int j = 0; j < i; j++) {
+                if (keys[j].equals(keys[i])) {
+                    throw new UndefinedImplementationException(String.format(
+                            "%s and %s have the same key %s in the map %s.%s. Use @Named to give them distinct keys.",
+                            elements[j].getName(), elements[i].getName(), keys[i], element.owner.getName(), element.name));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static Class<?> typeArgumentOf(InjectedElement element, int index) {
+        Type genericType = element.genericType;
+        if (genericType instanceof ParameterizedType) {
+            Type typeArgument = ((ParameterizedType) genericType).getActualTypeArguments()[index];
+            if (typeArgument instanceof Class) {
+                return (Class<?>) typeArgument;
+            }
+            if (typeArgument instanceof ParameterizedType) {
+                return (Class<?>) ((ParameterizedType) typeArgument).getRawType();
+            }
+        }
+        throw new BeanInstantiationException(String.format("%s %s has to declare its type arguments",
+                element.type.getSimpleName(), element));
+    }
+
+    private static MethodHandle setterOf(MethodHandles.Lookup lookup, Field field) {
+        try {
+            field.setAccessible(true);
+            MethodHandle setter = lookup.unreflectSetter(field);
+            if (Modifier.isStatic(field.getModifiers())) {
+                setter = MethodHandles.dropArguments(setter, 0, Object.class);
+            }
+            return setter.asType(SETTER_TYPE);
+        } catch (IllegalAccessException | RuntimeException exception) {
+            throw new WiredConstructorNotAccessible(
+                    String.format("Unable to access %s.%s", field.getDeclaringClass().getName(), field.getName()), exception);
+        }
+    }
+
+    private static MethodHandle constructorHandleOf(MethodHandles.Lookup lookup, Constructor<?> constructor) {
+        try {
+            constructor.setAccessible(true);
+            return lookup.unreflectConstructor(constructor).asFixedArity()
+                    .asSpreader(Object[].class, constructor.getParameterCount()).asType(CONSTRUCTOR_TYPE);
+        } catch (IllegalAccessException | RuntimeException exception) {
+            throw new WiredConstructorNotAccessible(String.format("Unable to access the @Inject constructor of %s",
+                    constructor.getDeclaringClass().getName()), exception);
+        }
+    }
+
+    /**
+     * Creates an instance through the @Inject constructor.
+     *
+     * @param resolver provides the value to pass for a constructor parameter
+     * @return the new instance, whose @Inject fields are not injected yet
+     * @throws WiredConstructorInvocationException if the constructor throws an exception
+     */
+    Object construct(Function<InjectionPoint, Object> resolver) {
+        Object[] arguments = new Object[constructorParameters.length];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = resolver.apply(constructorParameters[i]);
+        }
+        try {
+            return (Object) constructorHandle.invokeExact(arguments);
+        } catch (Error error) {
+            throw error;
+        } catch (Throwable throwable) {
+            throw new WiredConstructorInvocationException(String.format("The @Inject constructor of %s failed",
+                    constructor.getDeclaringClass().getName()), throwable);
+        }
+    }
+
+    /**
+     * Injects the @Inject fields of the specified instance.
+     *
+     * @param instance the instance to inject the dependencies into
+     * @param resolver provides the value to inject at an injection point
+     */
+    void inject(Object instance, Function<InjectionPoint, Object> resolver) {
+        for (InjectionPoint injectionPoint : injectedFields) {
+            injectionPoint.inject(instance, resolver.apply(injectionPoint));
+        }
+    }
+
+    /**
+     * Returns the target types that have to exist before an instance can be created and injected, constructor
+     * parameters first, in declaration order. The targets of lazy and scoped proxies, providers and pools are left
+     * out, since they are obtained on use.
+     *
+     * @return the types injected eagerly by this plan
+     */
+    Class<?>[] getDependencies() {
+        return dependencies.clone();
+    }
+
+    /**
+     * Returns the @Inject constructor of the class.
+     *
+     * @return the @Inject constructor, or null if the class is created through the factory of its no-arg constructor
+     */
+    Constructor<?> getConstructor() {
+        return constructor;
+    }
+
+    boolean isConstructorInjected() {
+        return constructor != null;
+    }
+
+    boolean hasInjectedFields() {
+        return injectedFields.length > 0;
+    }
+
+    /**
+     * Returns every injection point of the class, the parameters of the @Inject constructor first.
+     *
+     * @return the constructor parameters and the @Inject fields
+     */
+    List<InjectionPoint> getInjectionPoints() {
+        List<InjectionPoint> injectionPoints = new ArrayList<>(constructorParameters.length + injectedFields.length);
+        injectionPoints.addAll(Arrays.asList(constructorParameters));
+        injectionPoints.addAll(Arrays.asList(injectedFields));
+        return Collections.unmodifiableList(injectionPoints);
+    }
+
+    List<InjectionPoint> getConstructorParameters() {
+        return Collections.unmodifiableList(Arrays.asList(constructorParameters));
+    }
+
+    List<InjectionPoint> getInjectedFields() {
+        return Collections.unmodifiableList(Arrays.asList(injectedFields));
+    }
+
+    /**
+     * Resolves the type to instantiate for an injection point.
+     */
+    @FunctionalInterface
+    interface TargetResolver {
+        /**
+         * Resolves the type to instantiate for an injection point.
+         *
+         * @param declaredType the declared type of the injection point, or the provided type of a Provider or BeanPool
+         * @param owner        the class declaring the injection point
+         * @param name         the name of the injection point
+         * @param qualifier    the className of the @Inject annotation of the injection point, or an empty string
+         * @return the type to instantiate
+         */
+        Class<?> resolve(Class<?> declaredType, Class<?> owner, String name, String qualifier);
+    }
+
+    /**
+     * An @Inject field or a parameter of an @Inject constructor, as it is seen while the plan is built.
+     */
+    private static final class InjectedElement {
+        private final String description;
+        private final Class<?> owner;
+        private final String name;
+        private final Class<?> type;
+        private final Type genericType;
+        private final AnnotatedElement annotations;
+
+        private InjectedElement(Field field) {
+            this("field", field.getDeclaringClass(), field.getName(), field.getType(), field.getGenericType(), field);
+        }
+
+        private InjectedElement(Parameter parameter, int index) {
+            this("parameter", parameter.getDeclaringExecutable().getDeclaringClass(), parameterName(index),
+                    parameter.getType(), parameter.getParameterizedType(), parameter);
+        }
+
+        private InjectedElement(String description, Class<?> owner, String name, Class<?> type, Type genericType,
+                                AnnotatedElement annotations) {
+            this.description = description;
+            this.owner = owner;
+            this.name = name;
+            this.type = type;
+            this.genericType = genericType;
+            this.annotations = annotations;
+        }
+
+        private Class<?> resolveTarget(TargetResolver targetResolver, Class<?> declaredType) {
+            Inject inject = annotations.getAnnotation(Inject.class);
+            return targetResolver.resolve(declaredType, owner, name, inject == null ? "" : inject.className());
+        }
+
+        @Override
+        public String toString() {
+            return description + " " + owner.getName() + "." + name;
+        }
+    }
+
+    /**
+     * Returns the name of a constructor parameter, which is its position since parameter names are only kept by
+     * classes compiled with -parameters. It cannot clash with the name of a field.
+     */
+    static String parameterName(int index) {
+        return "<init>[" + index + "]";
+    }
+
+    /**
+     * How the value of an injection point is obtained.
+     */
+    enum Kind {
+        /**
+         * The bean itself, obtained when the instance is injected.
+         */
+        INSTANCE,
+        /**
+         * A Provider that obtains the bean whenever it is called.
+         */
+        PROVIDER,
+        /**
+         * The BeanPool of a @Pooled bean.
+         */
+        POOL,
+        /**
+         * A proxy of the declared interface that obtains the bean on its first method call.
+         */
+        LAZY_PROXY,
+        /**
+         * A proxy of the declared interface that obtains the thread- or request-scoped bean of the caller on every call.
+         */
+        SCOPED_PROXY,
+        /**
+         * An immutable List of every component of the element type.
+         */
+        LIST,
+        /**
+         * An immutable Set of every component of the element type.
+         */
+        SET,
+        /**
+         * An immutable Map of every component of the element type, keyed by its @Named value or simple name.
+         */
+        MAP
+    }
+
+    /**
+     * A single @Inject field or constructor parameter with its resolved target type and, for a field, its pre-bound
+     * setter.
+     */
+    static final class InjectionPoint {
+        private final String name;
+        private final Kind kind;
+        private final Class<?> declaredType;
+        private final Class<?> targetType;
+        private final MethodHandle setter;
+        private final Class<?>[] elements;
+        private final boolean[] lazyElements;
+        private final String[] keys;
+
+        private InjectionPoint(String name, Kind kind, Class<?> declaredType, Class<?> targetType, MethodHandle setter) {
+            this(name, kind, declaredType, targetType, setter, null, null);
+        }
+
+        private InjectionPoint(String name, Kind kind, Class<?> declaredType, Class<?> targetType, MethodHandle setter,
+                               Class<?>[] elements, String[] keys) {
+            this.name = name;
+            this.kind = kind;
+            this.declaredType = declaredType;
+            this.targetType = targetType;
+            this.setter = setter;
+            this.elements = elements;
+            this.keys = keys;
+            if (elements == null) {
+                this.lazyElements = null;
+            } else {
+                // A @Lazy component of an interface is collected as a lazy proxy, so it is not created with the collection
+                this.lazyElements = new boolean[elements.length];
+                for (int i = 0; i < elements.length; i++) {
+                    lazyElements[i] = targetType.isInterface() && elements[i].isAnnotationPresent(Lazy.class);
+                }
+            }
+        }
+
+        private void inject(Object instance, Object dependency) {
+            try {
+                setter.invokeExact(instance, dependency);
+            } catch (RuntimeException | Error exception) {
+                throw exception;
+            } catch (Throwable throwable) {
+                throw new BeanInstantiationException(String.format("Unable to inject %s.%s",
+                        instance.getClass().getName(), name), throwable);
+            }
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Returns the declared type of the field or parameter, or the provided type of a Provider or BeanPool.
+         *
+         * @return the declared type of the injection point
+         */
+        Class<?> getDeclaredType() {
+            return declaredType;
+        }
+
+        /**
+         * Returns the type to instantiate, or the element type of a collection.
+         *
+         * @return the target type of the injection point
+         */
+        Class<?> getTargetType() {
+            return targetType;
+        }
+
+        boolean isCollection() {
+            return elements != null;
+        }
+
+        /**
+         * Returns the components collected by a List, Set or Map, in order.
+         *
+         * @return the collected components, or null if the injection point is not a collection
+         */
+        Class<?>[] getElements() {
+            return elements;
+        }
+
+        boolean isLazyElement(int index) {
+            return lazyElements[index];
+        }
+
+        /**
+         * Returns the keys of the components collected by a Map, in the order of the components.
+         *
+         * @return the keys, or null if the injection point is not a Map
+         */
+        String[] getKeys() {
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.plattensee.iocframework.container;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The InstantiationExecutors class provides executors suited for instantiating independent beans concurrently through
+ * {@link DependencyContainer#setInstantiationExecutor(Executor)}.
+ */
+public final class InstantiationExecutors {
+
+    private InstantiationExecutors() {
+    }
+
+    /**
+     * Creates a fork-join pool with the specified parallelism.
+     *
+     * @param parallelism the number of worker threads
+     * @return a new fork-join pool, which has to be shut down by the caller
+     */
+    public static ExecutorService forkJoin(int parallelism) {
+        return new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for every bean, on Java versions that support virtual
+     * threads. Constructors blocking on I/O then do not hold a platform thread. On older versions the common fork-join
+     * pool is returned instead.
+     *
+     * @return a new virtual thread executor, or the common fork-join pool
+     */
+    public static Executor virtualThreadsOrCommonPool() {
+        try {
+            Method newVirtualThreadPerTaskExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) newVirtualThreadPerTaskExecutor.invoke(null);
+        } catch (ReflectiveOperationException exception) {
+            return ForkJoinPool.commonPool();
+        }
+    }
+}
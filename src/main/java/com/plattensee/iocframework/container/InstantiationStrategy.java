@@ -0,0 +1,31 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.instrumentation.ContainerListener;
+
+/**
+ * The InstantiationStrategy interface defines how the container creates the BeanFactory of a component.
+ */
+public interface InstantiationStrategy {
+    /**
+     * Creates the factory that constructs the instances of the specified class.
+     *
+     * @param <T>       the type of the bean
+     * @param beanClass the class object representing the bean
+     * @return the factory of the bean
+     */
+    <T> BeanFactory<T> createFactory(Class<T> beanClass);
+
+    /**
+     * Creates the factory that constructs the instances of the specified class, reporting to the listener of the
+     * container when the strategy has to fall back to a slower factory. The container calls this method; by default it
+     * ignores the listener.
+     *
+     * @param <T>       the type of the bean
+     * @param beanClass the class object representing the bean
+     * @param listener  the instrumentation listener of the container
+     * @return the factory of the bean
+     */
+    default <T> BeanFactory<T> createFactory(Class<T> beanClass, ContainerListener listener) {
+        return createFactory(beanClass);
+    }
+}
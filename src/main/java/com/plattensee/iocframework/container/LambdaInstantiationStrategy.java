@@ -0,0 +1,104 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.exception.BeanInstantiationException;
+import com.plattensee.iocframework.exception.WiredConstructorNotFoundException;
+import com.plattensee.iocframework.instrumentation.ContainerListener;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * The LambdaInstantiationStrategy creates factories with the LambdaMetafactory. Each factory is a generated class that
+ * calls the no-arg constructor of the bean with a plain {@code new} instruction, which the JIT compiler can inline like
+ * any hand-written factory.
+ * <p>
+ * The generated class has to be defined with private access to the bean, which is only available from Java 9 and for
+ * beans in the same module as the framework. Whenever it is not available, the strategy falls back to reflection and
+ * reports it to the {@link ContainerListener#reflectiveFallback(Class, String)} of the container, so the fallback shows
+ * in the startup report.
+ */
+public class LambdaInstantiationStrategy implements InstantiationStrategy {
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(BeanFactory.class);
+    private static final MethodType NEW_INSTANCE_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType NO_ARG_CONSTRUCTOR_TYPE = MethodType.methodType(void.class);
+    private static final Method PRIVATE_LOOKUP_IN = findPrivateLookupIn();
+
+    private final InstantiationStrategy fallback = new ReflectiveInstantiationStrategy();
+
+    /**
+     * Creates a generated factory for the specified class, or a reflective one if the factory cannot be generated.
+     *
+     * @param <T>       the type of the bean
+     * @param beanClass the class object representing the bean
+     * @return the factory of the bean
+     * @throws WiredConstructorNotFoundException if a no-arg constructor is not found for the class
+     */
+    @Override
+    public <T> BeanFactory<T> createFactory(Class<T> beanClass) {
+        return createFactory(beanClass, ContainerListener.NONE);
+    }
+
+    /**
+     * Creates a generated factory for the specified class, or a reflective one if the factory cannot be generated, in
+     * which case the listener is notified.
+     *
+     * @param <T>       the type of the bean
+     * @param beanClass the class object representing the bean
+     * @param listener  the listener notified about a fallback to reflection
+     * @return the factory of the bean
+     * @throws WiredConstructorNotFoundException if a no-arg constructor is not found for the class
+     */
+    @Override
+    public <T> BeanFactory<T> createFactory(Class<T> beanClass, ContainerListener listener) {
+        if (PRIVATE_LOOKUP_IN == null) {
+            return fallback(beanClass, listener, "MethodHandles.privateLookupIn needs Java 9");
+        }
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = (MethodHandles.Lookup) PRIVATE_LOOKUP_IN.invoke(null, beanClass, MethodHandles.lookup());
+        } catch (InvocationTargetException exception) {
+            return fallback(beanClass, listener, String.valueOf(exception.getCause()));
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            return fallback(beanClass, listener, exception.toString());
+        }
+        MethodHandle constructor;
+        try {
+            constructor = lookup.findConstructor(beanClass, NO_ARG_CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException exception) {
+            throw new WiredConstructorNotFoundException("Sorry bro, I need a no-arg constructor or an @Inject constructor!", exception);
+        } catch (IllegalAccessException exception) {
+            return fallback(beanClass, listener, exception.toString());
+        }
+        try {
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "newInstance", FACTORY_TYPE,
+                    NEW_INSTANCE_TYPE, constructor, MethodType.methodType(beanClass));
+            @SuppressWarnings("unchecked")
+            BeanFactory<T> factory = (BeanFactory<T>) callSite.getTarget().invokeExact();
+            return factory;
+        } catch (LambdaConversionException exception) {
+            return fallback(beanClass, listener, exception.toString());
+        } catch (Throwable throwable) {
+            throw new BeanInstantiationException(
+                    String.format("Unable to generate the factory of %s", beanClass.getName()), throwable);
+        }
+    }
+
+    private <T> BeanFactory<T> fallback(Class<T> beanClass, ContainerListener listener, String reason) {
+        listener.reflectiveFallback(beanClass, reason);
+        return fallback.createFactory(beanClass);
+    }
+
+    private static Method findPrivateLookupIn() {
+        try {
+            return MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+        } catch (NoSuchMethodException exception) {
+            return null; // Java 8
+        }
+    }
+}
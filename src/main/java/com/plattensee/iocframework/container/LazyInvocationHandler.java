@@ -0,0 +1,53 @@
+package com.plattensee.iocframework.container;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+/**
+ * The LazyInvocationHandler backs the proxy injected into a lazy interface field. The bean is obtained on the first
+ * method call and every call is delegated to it afterwards.
+ */
+final class LazyInvocationHandler implements InvocationHandler {
+    private final Supplier<Object> beanSupplier;
+    private volatile Object bean;
+
+    private LazyInvocationHandler(Supplier<Object> beanSupplier) {
+        this.beanSupplier = beanSupplier;
+    }
+
+    /**
+     * Creates a proxy implementing the specified interface that obtains the bean on first use.
+     *
+     * @param type         the interface of the injection point
+     * @param beanSupplier obtains the bean from the container
+     * @return the lazy proxy
+     */
+    static Object createProxy(Class<?> type, Supplier<Object> beanSupplier) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new LazyInvocationHandler(beanSupplier));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(getBean(), args);
+        } catch (InvocationTargetException exception) {
+            throw exception.getCause();
+        }
+    }
+
+    private Object getBean() {
+        Object result = bean;
+        if (result == null) {
+            synchronized (this) {
+                result = bean;
+                if (result == null) {
+                    bean = result = beanSupplier.get();
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,169 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.annotation.PostConstruct;
+import com.plattensee.iocframework.annotation.PreDestroy;
+import com.plattensee.iocframework.exception.LifecycleCallbackException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The LifecycleMethods of a bean class are its @PostConstruct and @PreDestroy methods. Like the @Inject fields, they
+ * are looked up among the methods declared by the class, once per class, and are invoked through method handles.
+ * <p>
+ * A @PostConstruct method is invoked once the bean is injected, a @PreDestroy method when its container shuts down.
+ * Both have to be instance methods without parameters.
+ */
+final class LifecycleMethods {
+    private static final MethodType CALLBACK_TYPE = MethodType.methodType(void.class, Object.class);
+    private static final ClassValue<LifecycleMethods> LIFECYCLE_METHODS = new ClassValue<LifecycleMethods>() {
+        @Override
+        protected LifecycleMethods computeValue(Class<?> type) {
+            return LifecycleMethods.find(type);
+        }
+    };
+
+    private final Method[] postConstructMethods;
+    private final MethodHandle[] postConstructHandles;
+    private final Method[] preDestroyMethods;
+    private final MethodHandle[] preDestroyHandles;
+
+    private LifecycleMethods(List<Method> postConstructMethods, List<Method> preDestroyMethods) {
+        this.postConstructMethods = postConstructMethods.toArray(new Method[0]);
+        this.postConstructHandles = handlesOf(this.postConstructMethods);
+        this.preDestroyMethods = preDestroyMethods.toArray(new Method[0]);
+        this.preDestroyHandles = handlesOf(this.preDestroyMethods);
+    }
+
+    /**
+     * Returns the lifecycle methods of the specified class, which are looked up on first access.
+     *
+     * @param beanClass the class object representing the bean
+     * @return the lifecycle methods of the class
+     * @throws LifecycleCallbackException if a lifecycle method is static, takes parameters or cannot be accessed
+     */
+    static LifecycleMethods of(Class<?> beanClass) {
+        return LIFECYCLE_METHODS.get(beanClass);
+    }
+
+    private static LifecycleMethods find(Class<?> beanClass) {
+        List<Method> postConstructMethods = new ArrayList<>(0);
+        List<Method> preDestroyMethods = new ArrayList<>(0);
+        for (Method method : beanClass.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(PostConstruct.class)) {
+                postConstructMethods.add(checkCallback(method, PostConstruct.class));
+            }
+            if (method.isAnnotationPresent(PreDestroy.class)) {
+                preDestroyMethods.add(checkCallback(method, PreDestroy.class));
+            }
+        }
+        return new LifecycleMethods(postConstructMethods, preDestroyMethods);
+    }
+
+    private static Method checkCallback(Method method, Class<?> annotation) {
+        if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0) {
+            throw new LifecycleCallbackException(String.format("@%s method %s.%s has to be an instance method without parameters",
+                    annotation.getSimpleName(), method.getDeclaringClass().getName(), method.getName()));
+        }
+        return method;
+    }
+
+    private static MethodHandle[] handlesOf(Method[] methods) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle[] handles = new MethodHandle[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            try {
+                methods[i].setAccessible(true);
+                handles[i] = lookup.unreflect(methods[i]).asType(CALLBACK_TYPE);
+            } catch (IllegalAccessException | RuntimeException exception) {
+                throw new LifecycleCallbackException(String.format("Unable to access %s.%s",
+                        methods[i].getDeclaringClass().getName(), methods[i].getName()), exception);
+            }
+        }
+        return handles;
+    }
+
+    boolean hasPostConstruct() {
+        return postConstructHandles.length > 0;
+    }
+
+    boolean hasPreDestroy() {
+        return preDestroyHandles.length > 0;
+    }
+
+    /**
+     * Invokes the @PostConstruct methods of an injected bean.
+     *
+     * @param bean the bean, an instance of the class of these methods
+     * @throws LifecycleCallbackException if a method throws an exception
+     */
+    void postConstruct(Object bean) {
+        invoke(postConstructMethods, postConstructHandles, bean, PostConstruct.class);
+    }
+
+    /**
+     * Invokes the @PreDestroy methods of a bean.
+     *
+     * @param bean the bean, an instance of the class of these methods
+     * @throws LifecycleCallbackException if a method throws an exception
+     */
+    void preDestroy(Object bean) {
+        invoke(preDestroyMethods, preDestroyHandles, bean, PreDestroy.class);
+    }
+
+    private static void invoke(Method[] methods, MethodHandle[] handles, Object bean, Class<?> annotation) {
+        for (int i = 0; i < handles.length; i++) {
+            try {
+                handles[i].invokeExact(bean);
+            } catch (Error error) {
+                throw error;
+            } catch (Throwable throwable) {
+                throw new LifecycleCallbackException(String.format("@%s method %s.%s failed",
+                        annotation.getSimpleName(), methods[i].getDeclaringClass().getName(), methods[i].getName()), throwable);
+            }
+        }
+    }
+
+    /**
+     * Invokes the @PreDestroy methods of the specified beans one after another, on the calling thread. Every bean is
+     * destroyed even if the methods of another one fail; the beans left once the timeout has elapsed are not.
+     *
+     * @param beans        the beans to destroy, in order
+     * @param timeoutNanos the time the beans may take to be destroyed, in nanoseconds
+     * @return true if every bean was destroyed within the timeout
+     * @throws LifecycleCallbackException if a method throws an exception, with the failures of the other methods
+     *                                    suppressed
+     */
+    static boolean preDestroyAll(List<Object> beans, long timeoutNanos) {
+        long start = System.nanoTime();
+        LifecycleCallbackException failure = null;
+        for (Object bean : beans) {
+            if (System.nanoTime() - start > timeoutNanos) {
+                return throwIfFailed(failure);
+            }
+            try {
+                of(bean.getClass()).preDestroy(bean);
+            } catch (LifecycleCallbackException exception) {
+                if (failure == null) {
+                    failure = exception;
+                } else {
+                    failure.addSuppressed(exception);
+                }
+            }
+        }
+        throwIfFailed(failure);
+        return true;
+    }
+
+    private static boolean throwIfFailed(LifecycleCallbackException failure) {
+        if (failure != null) {
+            throw failure;
+        }
+        return false;
+    }
+}
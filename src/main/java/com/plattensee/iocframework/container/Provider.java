@@ -0,0 +1,16 @@
+package com.plattensee.iocframework.container;
+
+/**
+ * The Provider interface gives deferred access to a bean. An @Inject field of type Provider&lt;T&gt; receives a provider
+ * instead of the bean itself, and the bean is obtained from the container only when {@link #get()} is called.
+ *
+ * @param <T> the type of the bean
+ */
+public interface Provider<T> {
+    /**
+     * Obtains the bean from the container according to its scope.
+     *
+     * @return the shared instance of a singleton, or a new instance of a prototype
+     */
+    T get();
+}
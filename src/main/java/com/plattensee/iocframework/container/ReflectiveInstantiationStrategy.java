@@ -0,0 +1,42 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.exception.WiredConstructorInvocationException;
+import com.plattensee.iocframework.exception.WiredConstructorNotAccessible;
+import com.plattensee.iocframework.exception.WiredConstructorNotFoundException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * The ReflectiveInstantiationStrategy creates factories that call the no-arg constructor of a bean through the
+ * reflection API. This is the default strategy of the DependencyContainer.
+ */
+public class ReflectiveInstantiationStrategy implements InstantiationStrategy {
+
+    /**
+     * Creates a factory that invokes the no-arg constructor of the specified class reflectively.
+     *
+     * @param <T>       the type of the bean
+     * @param beanClass the class object representing the bean
+     * @return the factory of the bean
+     * @throws WiredConstructorNotFoundException if a no-arg constructor is not found for the class
+     */
+    @Override
+    public <T> BeanFactory<T> createFactory(Class<T> beanClass) {
+        Constructor<T> constructor;
+        try {
+            constructor = beanClass.getDeclaredConstructor();
+        } catch (NoSuchMethodException exception) {
+            throw new WiredConstructorNotFoundException("Sorry bro, I need a no-arg constructor or an @Inject constructor!", exception);
+        }
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch (InvocationTargetException | InstantiationException exception) {
+                throw new WiredConstructorInvocationException(exception);
+            } catch (IllegalAccessException exception) {
+                throw new WiredConstructorNotAccessible(exception);
+            }
+        };
+    }
+}
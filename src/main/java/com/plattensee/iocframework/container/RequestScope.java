@@ -0,0 +1,159 @@
+package com.plattensee.iocframework.container;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * The RequestScope binds the instances of the request-scoped beans to the code running within a request.
+ * <p>
+ * On Java 25 and later, where ScopedValue is final, the instances are bound to a ScopedValue of the container: the
+ * binding is inherited by the subtasks of a StructuredTaskScope, and nothing is left behind in the thread once the
+ * request ends, which suits virtual threads that each serve a single request. ScopedValue is reached through method
+ * handles, so the framework still runs on Java 8. On older versions, including Java 21 to 24 where ScopedValue is a
+ * preview feature, the instances are set in a ThreadLocal for the duration of the request instead.
+ */
+final class RequestScope {
+    private static final Object UNBOUND = new Object();
+    private static final int SCOPED_VALUE_FINAL_VERSION = 25;
+    private static final MethodHandle NEW_SCOPED_VALUE;
+    private static final MethodHandle GET_SCOPED_VALUE;
+    private static final MethodHandle RUN_WHERE;
+
+    static {
+        MethodHandle[] handles = findScopedValueHandles();
+        NEW_SCOPED_VALUE = handles == null ? null : handles[0];
+        GET_SCOPED_VALUE = handles == null ? null : handles[1];
+        RUN_WHERE = handles == null ? null : handles[2];
+    }
+
+    private final Object scopedValue;
+    private final ThreadLocal<ScopedInstances> threadLocal;
+
+    RequestScope() {
+        this.scopedValue = NEW_SCOPED_VALUE == null ? null : newScopedValue();
+        this.threadLocal = scopedValue == null ? new ThreadLocal<>() : null;
+    }
+
+    /**
+     * Looks up the handles of ScopedValue.newInstance(), ScopedValue.orElse(UNBOUND) and
+     * ScopedValue.where(key, value).run(action), and checks that a value can be bound with them.
+     *
+     * @return the handles, of types ()Object, (Object)Object and (Object, Object, Runnable)void, or null if ScopedValue
+     * cannot be used
+     */
+    private static MethodHandle[] findScopedValueHandles() {
+        if (featureVersion() < SCOPED_VALUE_FINAL_VERSION) {
+            // Preview APIs may change or disappear in any release, so they are not relied upon
+            return null;
+        }
+        try {
+            Class<?> scopedValueClass = Class.forName("java.lang.ScopedValue");
+            Class<?> carrierClass = Class.forName("java.lang.ScopedValue$Carrier");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            MethodHandle newInstance = lookup.findStatic(scopedValueClass, "newInstance", MethodType.methodType(scopedValueClass))
+                    .asType(MethodType.methodType(Object.class));
+            // orElse does not accept null on every version, so an unbound value is told apart by a marker
+            MethodHandle get = MethodHandles.insertArguments(
+                    lookup.findVirtual(scopedValueClass, "orElse", MethodType.methodType(Object.class, Object.class)), 1, UNBOUND)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            MethodHandle where = lookup.findStatic(scopedValueClass, "where",
+                    MethodType.methodType(carrierClass, scopedValueClass, Object.class));
+            MethodHandle run = lookup.findVirtual(carrierClass, "run", MethodType.methodType(void.class, Runnable.class));
+            MethodHandle runWhere = MethodHandles.collectArguments(run, 0, where)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class, Runnable.class));
+
+            Object scopedValue = newInstance.invoke();
+            Object value = new Object();
+            boolean[] bound = new boolean[1];
+            runWhere.invoke(scopedValue, value, (Runnable) () -> bound[0] = getBound(get, scopedValue) == value);
+            return bound[0] ? new MethodHandle[]{newInstance, get, runWhere} : null;
+        } catch (Throwable throwable) {
+            // The runtime does not provide ScopedValue the way it was finalized
+            return null;
+        }
+    }
+
+    /**
+     * Returns the feature release of the running Java version, such as 8 for "1.8" and 25 for "25".
+     */
+    static int featureVersion() {
+        String version = System.getProperty("java.specification.version", "1.8");
+        if (version.startsWith("1.")) {
+            version = version.substring(2);
+        }
+        int end = version.indexOf('.');
+        try {
+            return Integer.parseInt(end < 0 ? version : version.substring(0, end));
+        } catch (NumberFormatException exception) {
+            return 8;
+        }
+    }
+
+    private static Object getBound(MethodHandle get, Object scopedValue) {
+        try {
+            return get.invoke(scopedValue);
+        } catch (Throwable throwable) {
+            return null;
+        }
+    }
+
+    private static Object newScopedValue() {
+        try {
+            return (Object) NEW_SCOPED_VALUE.invokeExact();
+        } catch (Throwable throwable) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the instances of the request the calling code runs within.
+     *
+     * @return the instances of the current request, or null outside of a request
+     */
+    ScopedInstances current() {
+        if (scopedValue == null) {
+            return threadLocal.get();
+        }
+        Object instances;
+        try {
+            instances = (Object) GET_SCOPED_VALUE.invokeExact(scopedValue);
+        } catch (RuntimeException | Error exception) {
+            throw exception;
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+        return instances == UNBOUND ? null : (ScopedInstances) instances;
+    }
+
+    /**
+     * Runs the specified action with the instances of a request bound. A request entered within another request has its
+     * own instances, and the instances of the outer request are bound again once it ends.
+     *
+     * @param instances the instances of the request
+     * @param action    the code handling the request
+     */
+    void run(ScopedInstances instances, Runnable action) {
+        if (scopedValue == null) {
+            ScopedInstances previous = threadLocal.get();
+            threadLocal.set(instances);
+            try {
+                action.run();
+            } finally {
+                if (previous == null) {
+                    threadLocal.remove();
+                } else {
+                    threadLocal.set(previous);
+                }
+            }
+            return;
+        }
+        try {
+            RUN_WHERE.invokeExact(scopedValue, (Object) instances, action);
+        } catch (RuntimeException | Error exception) {
+            throw exception;
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+}
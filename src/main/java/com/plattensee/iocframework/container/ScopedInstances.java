@@ -0,0 +1,222 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.annotation.ScopeType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The ScopedInstances hold the instances of the context-, thread- or request-scoped beans within a single child
+ * container, thread or request. They are kept in an array indexed by the ids the container assigned to the beans of the
+ * scope, so a lookup is an array read once the instance exists.
+ * <p>
+ * The first access to a bean claims its slot with a future, under a lock held only to claim the slot or grow the
+ * array, and creates the instance without holding it. Concurrent first accesses, such as those of the subtasks of a
+ * request or of the threads sharing a child container, wait for that future, so they share a single instance, while
+ * different beans are created concurrently and virtual threads are not pinned. Closing the scope invokes the @PreDestroy methods of its instances, in the reverse
+ * order of their ids, which follows the dependencies.
+ */
+final class ScopedInstances {
+    private final DependencyContainer container;
+    private final ScopeType scope;
+    private final AtomicInteger beanCount;
+    private final ChildDependencyContainer child;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile AtomicReferenceArray<Object> instances;
+
+    /**
+     * Constructs the instances of a new thread or request.
+     *
+     * @param container the container creating the instances
+     * @param scope     the scope of the beans
+     * @param beanCount the number of beans of the scope numbered by the container so far
+     */
+    ScopedInstances(DependencyContainer container, ScopeType scope, AtomicInteger beanCount) {
+        this(container, scope, beanCount, null);
+    }
+
+    /**
+     * Constructs the instances of a new thread, request or child container.
+     *
+     * @param container the container creating the instances
+     * @param scope     the scope of the beans
+     * @param beanCount the number of beans of the scope numbered by the container so far
+     * @param child     the child container the instances are created for, which injects its context-scoped instances,
+     *                  or null
+     */
+    ScopedInstances(DependencyContainer container, ScopeType scope, AtomicInteger beanCount, ChildDependencyContainer child) {
+        this.container = container;
+        this.scope = scope;
+        this.beanCount = beanCount;
+        this.child = child;
+        this.instances = new AtomicReferenceArray<>(beanCount.get());
+    }
+
+    /**
+     * Returns the instance of a bean within this child container, thread or request, creating it on first access.
+     *
+     * @param clazz the class object representing the bean
+     * @param id    the id of the bean within its scope
+     * @return the instance of the bean
+     * @throws IllegalStateException if the scope has ended
+     */
+    Object getInstance(Class<?> clazz, int id) {
+        AtomicReferenceArray<Object> current = openInstances();
+        Object instance = id < current.length() ? current.get(id) : null;
+        if (instance == null) {
+            Creation creation = null;
+            lock.lock();
+            try {
+                current = openInstances();
+                if (id >= current.length()) {
+                    // The bean was planned after the scope was entered
+                    current = grow(current, Math.max(id + 1, beanCount.get()));
+                }
+                instance = current.get(id);
+                if (instance == null) {
+                    creation = new Creation();
+                    current.set(id, creation);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (creation != null) {
+                return create(clazz, id, creation);
+            }
+        }
+        return instance instanceof Creation ? ((Creation) instance).await(container, clazz) : instance;
+    }
+
+    /**
+     * Creates the instance of a bean whose slot holds the specified creation, and replaces the creation with it.
+     */
+    private Object create(Class<?> clazz, int id, Creation creation) {
+        Object instance;
+        try {
+            instance = container.resolve(clazz, child);
+        } catch (RuntimeException | Error exception) {
+            lock.lock();
+            try {
+                AtomicReferenceArray<Object> current = instances;
+                if (current != null) {
+                    current.compareAndSet(id, creation, null);
+                }
+            } finally {
+                lock.unlock();
+            }
+            creation.completeExceptionally(exception);
+            throw exception;
+        }
+        boolean stored = false;
+        lock.lock();
+        try {
+            // Creating the bean may have grown the array, so the instance is stored into the current one
+            AtomicReferenceArray<Object> current = instances;
+            if (current != null) {
+                current.set(id, instance);
+                stored = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!stored) {
+            // The scope ended while the instance was created, so it is destroyed right away
+            IllegalStateException ended = endedException();
+            creation.completeExceptionally(ended);
+            LifecycleMethods.preDestroyAll(Collections.singletonList(instance), Long.MAX_VALUE);
+            throw ended;
+        }
+        creation.complete(instance);
+        return instance;
+    }
+
+    private AtomicReferenceArray<Object> grow(AtomicReferenceArray<Object> current, int length) {
+        AtomicReferenceArray<Object> grown = new AtomicReferenceArray<>(length);
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+        instances = grown;
+        return grown;
+    }
+
+    private AtomicReferenceArray<Object> openInstances() {
+        AtomicReferenceArray<Object> current = instances;
+        if (current == null) {
+            throw endedException();
+        }
+        return current;
+    }
+
+    /**
+     * Checks that the scope has not ended.
+     *
+     * @throws IllegalStateException if the scope has ended
+     */
+    void checkOpen() {
+        openInstances();
+    }
+
+    private IllegalStateException endedException() {
+        if (scope == ScopeType.CONTEXT) {
+            return new IllegalStateException("The child container is closed");
+        }
+        return new IllegalStateException(String.format("The %s scope has ended", scope.name().toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Ends the scope and invokes the @PreDestroy methods of its instances. Closing it again has no effect.
+     *
+     * @throws com.plattensee.iocframework.exception.LifecycleCallbackException if a @PreDestroy method throws an
+     *                                                                          exception, once the other instances
+     *                                                                          are destroyed
+     */
+    void close() {
+        AtomicReferenceArray<Object> current;
+        lock.lock();
+        try {
+            current = instances;
+            instances = null;
+        } finally {
+            lock.unlock();
+        }
+        if (current == null) {
+            return;
+        }
+        List<Object> destroyable = new ArrayList<>(0);
+        for (int id = current.length() - 1; id >= 0; id--) {
+            Object instance = current.get(id);
+            // Instances still being created are destroyed by their creator
+            if (instance != null && !(instance instanceof Creation) && LifecycleMethods.of(instance.getClass()).hasPreDestroy()) {
+                destroyable.add(instance);
+            }
+        }
+        LifecycleMethods.preDestroyAll(destroyable, Long.MAX_VALUE);
+    }
+
+    /**
+     * The future of an instance being created, held in its slot until the instance replaces it.
+     */
+    private static final class Creation extends CompletableFuture<Object> {
+        /**
+         * Waits for the instance created by another thread, or by this one further up the call stack.
+         */
+        Object await(DependencyContainer container, Class<?> clazz) {
+            if (!isDone()) {
+                container.checkNotInCreation(clazz);
+            }
+            try {
+                return join();
+            } catch (CompletionException exception) {
+                Throwable cause = exception.getCause();
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : exception;
+            }
+        }
+    }
+}
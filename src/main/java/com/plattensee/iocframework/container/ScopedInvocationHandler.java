@@ -0,0 +1,39 @@
+package com.plattensee.iocframework.container;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * The ScopedInvocationHandler backs the proxy injected into an interface field or parameter whose target is thread- or
+ * request-scoped. Unlike a lazy proxy, it does not keep the bean: every method call is delegated to the instance of the
+ * current thread or request, so the proxy can be kept by beans that live longer than the scope.
+ */
+final class ScopedInvocationHandler implements InvocationHandler {
+    private final Provider<?> beanProvider;
+
+    private ScopedInvocationHandler(Provider<?> beanProvider) {
+        this.beanProvider = beanProvider;
+    }
+
+    /**
+     * Creates a proxy implementing the specified interface that obtains the bean of the current scope on every call.
+     *
+     * @param type         the interface of the injection point
+     * @param beanProvider obtains the bean of the current scope from the container
+     * @return the scoped proxy
+     */
+    static Object createProxy(Class<?> type, Provider<?> beanProvider) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new ScopedInvocationHandler(beanProvider));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(beanProvider.get(), args);
+        } catch (InvocationTargetException exception) {
+            throw exception.getCause();
+        }
+    }
+}
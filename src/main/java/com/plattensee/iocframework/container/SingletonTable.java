@@ -0,0 +1,100 @@
+package com.plattensee.iocframework.container;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The SingletonTable is the compact registry of the singletons of a frozen container. Every singleton class the
+ * container planned when it was frozen gets a dense id, kept in a ClassValue, and its instance is kept in the slot of
+ * that id of an array. A lookup neither locks nor allocates, and each singleton costs one array slot instead of a map
+ * node and a future.
+ * <p>
+ * The slots of the singletons not created yet are empty. Once such a singleton is created, its instance is published
+ * to its slot with {@link #publish(Class, Object)}, which is the only change the table ever sees.
+ */
+final class SingletonTable {
+    static final SingletonTable EMPTY = new SingletonTable(Collections.emptyList());
+    private static final Integer NO_ID = -1;
+
+    private final Class<?>[] classes;
+    private final AtomicReferenceArray<Object> instances;
+    private Map<Class<?>, Integer> assignedIds;
+    private final ClassValue<Integer> ids = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            Map<Class<?>, Integer> idsOfClasses = assignedIds;
+            Integer id = idsOfClasses == null ? null : idsOfClasses.get(type);
+            return id == null ? NO_ID : id;
+        }
+    };
+
+    /**
+     * Builds the table of the specified singleton classes, whose slots are all empty.
+     *
+     * @param singletonClasses the classes of the singletons, each given once
+     */
+    SingletonTable(Collection<Class<?>> singletonClasses) {
+        this.classes = singletonClasses.toArray(new Class<?>[0]);
+        this.instances = new AtomicReferenceArray<>(classes.length);
+        this.assignedIds = new IdentityHashMap<>(classes.length);
+        for (int id = 0; id < classes.length; id++) {
+            assignedIds.put(classes[id], id);
+        }
+        // The ids are computed up front, so the map is not needed to look up the table afterwards
+        for (Class<?> clazz : classes) {
+            ids.get(clazz);
+        }
+        this.assignedIds = null;
+    }
+
+    /**
+     * Returns the instance of the specified singleton.
+     *
+     * @param clazz the class object representing the singleton
+     * @return the instance, or null if the singleton has no slot or was not published yet
+     */
+    Object get(Class<?> clazz) {
+        int id = ids.get(clazz);
+        return id < 0 ? null : instances.get(id);
+    }
+
+    /**
+     * Publishes the instance of the specified singleton to its slot, unless the slot already holds one.
+     *
+     * @param clazz    the class object representing the singleton
+     * @param instance the instance of the singleton
+     * @return true if the table has a slot for the singleton, which then holds an instance
+     */
+    boolean publish(Class<?> clazz, Object instance) {
+        int id = ids.get(clazz);
+        if (id < 0) {
+            return false;
+        }
+        instances.compareAndSet(id, null, instance);
+        return true;
+    }
+
+    /**
+     * Returns the classes of the singletons whose instances were published.
+     *
+     * @return the classes, in the order of their ids
+     */
+    List<Class<?>> getClasses() {
+        List<Class<?>> singletonClasses = new ArrayList<>();
+        for (int id = 0; id < classes.length; id++) {
+            if (instances.get(id) != null) {
+                singletonClasses.add(classes[id]);
+            }
+        }
+        return singletonClasses;
+    }
+
+    long estimateSize() {
+        return Footprint.object(4) + 2 * Footprint.array(classes.length) + Footprint.object(1);
+    }
+}
@@ -0,0 +1,107 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.exception.LifecycleCallbackException;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The ThreadScope keeps the instances of the thread-scoped beans of every thread, in a single ThreadLocal entry per
+ * thread. The instances of each thread are also registered with a weak reference to the thread. Once a thread has
+ * ended and was collected, the next thread entering or ending a thread scope invokes the @PreDestroy methods of the
+ * instances it left, so threads that come and go, such as those of a pool that shrinks or virtual threads, do not leak
+ * their beans.
+ */
+final class ThreadScope {
+    private final ThreadLocal<ThreadInstances> instancesOfThreads = new ThreadLocal<>();
+    private final ReferenceQueue<Thread> endedThreads = new ReferenceQueue<>();
+    private final Set<ThreadInstances> registeredThreads = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Returns the instances of the calling thread, entering its thread scope on first access.
+     *
+     * @param newInstances creates the instances of a thread entering its scope
+     * @return the instances of the calling thread
+     */
+    ScopedInstances current(Supplier<ScopedInstances> newInstances) {
+        ThreadInstances current = instancesOfThreads.get();
+        if (current == null) {
+            destroyEndedThreads();
+            current = new ThreadInstances(Thread.currentThread(), newInstances.get(), endedThreads);
+            registeredThreads.add(current);
+            instancesOfThreads.set(current);
+        }
+        return current.instances;
+    }
+
+    /**
+     * Ends the thread scope of the calling thread, and invokes the @PreDestroy methods of its instances.
+     *
+     * @throws LifecycleCallbackException if a @PreDestroy method of the calling thread's instances throws an exception
+     */
+    void end() {
+        ThreadInstances current = instancesOfThreads.get();
+        if (current != null) {
+            instancesOfThreads.remove();
+            registeredThreads.remove(current);
+            current.instances.close();
+        }
+        destroyEndedThreads();
+    }
+
+    /**
+     * Ends the thread scope of every thread, and invokes the @PreDestroy methods of their instances. Threads still
+     * running fail to obtain a thread-scoped bean of this scope afterwards, so the scope is replaced once it is closed.
+     *
+     * @throws LifecycleCallbackException if a @PreDestroy method throws an exception, once the other instances are
+     *                                    destroyed
+     */
+    void closeAll() {
+        instancesOfThreads.remove();
+        List<ThreadInstances> threads = new ArrayList<>(registeredThreads);
+        registeredThreads.clear();
+        LifecycleCallbackException failure = null;
+        for (ThreadInstances thread : threads) {
+            try {
+                thread.instances.close();
+            } catch (LifecycleCallbackException exception) {
+                if (failure == null) {
+                    failure = exception;
+                } else {
+                    failure.addSuppressed(exception);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void destroyEndedThreads() {
+        for (Reference<? extends Thread> ended; (ended = endedThreads.poll()) != null; ) {
+            ThreadInstances thread = (ThreadInstances) ended;
+            if (registeredThreads.remove(thread)) {
+                try {
+                    thread.instances.close();
+                } catch (LifecycleCallbackException exception) {
+                    // The beans of an ended thread are destroyed on behalf of another one, which must not fail for it
+                }
+            }
+        }
+    }
+
+    private static final class ThreadInstances extends WeakReference<Thread> {
+        private final ScopedInstances instances;
+
+        private ThreadInstances(Thread thread, ScopedInstances instances, ReferenceQueue<Thread> endedThreads) {
+            super(thread, endedThreads);
+            this.instances = instances;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.locator.ComponentIndexLocator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The WiringSnapshot is the fully resolved wiring of a container: the registered components, the implementation chosen
+ * for every injection point, the sorted dependency graph and the order in which the singletons are instantiated at
+ * startup. A container can write it after a regular startup and register it on the next one, skipping the class path
+ * scan, the implementation lookups and the dependency graph walk.
+ * <p>
+ * A snapshot is keyed by a fingerprint of the class path. It is stored in a compact binary format: every class and
+ * field name is written once to a string table and referenced by index afterwards.
+ */
+public final class WiringSnapshot {
+    private static final int MAGIC = 0x53504944; // "SPID"
+    private static final int VERSION = 2;
+
+    private final byte[] fingerprint;
+    private final List<String> components;
+    private final Map<String, Map<String, String>> injectionTargets;
+    private final List<String> instantiationOrder;
+    private final Map<String, List<String>> dependencies;
+
+    /**
+     * Constructs a new WiringSnapshot without a dependency graph, which is built again when it is registered.
+     *
+     * @param fingerprint        the fingerprint of the class path the wiring was resolved against
+     * @param components         the names of the registered components
+     * @param injectionTargets   for every planned class name, the implementation name of each field name
+     * @param instantiationOrder the names of the singletons instantiated at startup, in order
+     */
+    public WiringSnapshot(byte[] fingerprint, List<String> components, Map<String, Map<String, String>> injectionTargets,
+                          List<String> instantiationOrder) {
+        this(fingerprint, components, injectionTargets, instantiationOrder, Collections.emptyMap());
+    }
+
+    /**
+     * Constructs a new WiringSnapshot.
+     *
+     * @param fingerprint        the fingerprint of the class path the wiring was resolved against
+     * @param components         the names of the registered components
+     * @param injectionTargets   for every planned class name, the implementation name of each field name
+     * @param instantiationOrder the names of the singletons instantiated at startup, in order
+     * @param dependencies       for every planned class name, the names of the beans injected into it, each class after
+     *                           all the classes it depends on, or an empty map to build the graph again
+     */
+    public WiringSnapshot(byte[] fingerprint, List<String> components, Map<String, Map<String, String>> injectionTargets,
+                          List<String> instantiationOrder, Map<String, List<String>> dependencies) {
+        this.fingerprint = fingerprint.clone();
+        this.components = Collections.unmodifiableList(new ArrayList<>(components));
+        Map<String, Map<String, String>> targets = new LinkedHashMap<>();
+        injectionTargets.forEach((owner, fields) -> targets.put(owner, Collections.unmodifiableMap(new LinkedHashMap<>(fields))));
+        this.injectionTargets = Collections.unmodifiableMap(targets);
+        this.instantiationOrder = Collections.unmodifiableList(new ArrayList<>(instantiationOrder));
+        Map<String, List<String>> graph = new LinkedHashMap<>();
+        dependencies.forEach((bean, beanDependencies) -> graph.put(bean, Collections.unmodifiableList(new ArrayList<>(beanDependencies))));
+        this.dependencies = Collections.unmodifiableMap(graph);
+    }
+
+    /**
+     * Computes the fingerprint of the specified class path entries without reading or listing the class files. Jar
+     * files contribute their path, size and modification time. A directory holding a component index contributes the
+     * size and modification time of the index, which the annotation processor rewrites on every compilation. Other
+     * directories contribute the modification times of the directory and its sub-directories, which change when a
+     * class file is added, removed or renamed, but not when a class is compiled again in place.
+     *
+     * @param classPathEntries the class path entries
+     * @param key              an additional key, such as the entry point, mixed into the fingerprint
+     * @return the SHA-256 fingerprint
+     */
+    public static byte[] fingerprint(List<Path> classPathEntries, String key) {
+        MessageDigest digest = sha256();
+        update(digest, key);
+        for (Path classPathEntry : classPathEntries) {
+            update(digest, classPathEntry.toAbsolutePath().toString());
+            try {
+                if (Files.isDirectory(classPathEntry)) {
+                    Path index = classPathEntry.resolve(ComponentIndexLocator.INDEX_LOCATION);
+                    if (Files.isRegularFile(index)) {
+                        update(digest, classPathEntry.relativize(index), index);
+                    } else {
+                        updateDirectories(digest, classPathEntry, classPathEntry);
+                    }
+                } else if (Files.exists(classPathEntry)) {
+                    update(digest, classPathEntry.getFileName(), classPathEntry);
+                }
+            } catch (IOException | UncheckedIOException exception) {
+                update(digest, "unreadable");
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Adds the modification times of the specified directory and its sub-directories. Class files are recognized by
+     * their name, so only the other entries have their attributes read.
+     */
+    private static void updateDirectories(MessageDigest digest, Path root, Path directory) throws IOException {
+        update(digest, root.relativize(directory) + ":" + Files.getLastModifiedTime(directory).toMillis());
+        List<Path> subDirectories = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                if (!entry.getFileName().toString().endsWith(".class") && Files.isDirectory(entry)) {
+                    subDirectories.add(entry);
+                }
+            }
+        }
+        Collections.sort(subDirectories);
+        for (Path subDirectory : subDirectories) {
+            updateDirectories(digest, root, subDirectory);
+        }
+    }
+
+    private static void update(MessageDigest digest, Path name, Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            update(digest, name + ":" + attributes.size() + ":" + attributes.lastModifiedTime().toMillis());
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Reads the snapshot stored in the specified file, if it matches the expected fingerprint.
+     *
+     * @param file                the snapshot file
+     * @param expectedFingerprint the fingerprint of the current class path
+     * @return the snapshot, or null if the file does not exist, cannot be read or was written for another class path
+     */
+    public static WiringSnapshot read(Path file, byte[] expectedFingerprint) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readUnsignedShort() != VERSION) {
+                return null;
+            }
+            byte[] fingerprint = new byte[input.readUnsignedShort()];
+            input.readFully(fingerprint);
+            if (!Arrays.equals(fingerprint, expectedFingerprint)) {
+                return null;
+            }
+
+            String[] strings = new String[input.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = input.readUTF();
+            }
+            List<String> components = readNames(input, strings);
+            Map<String, Map<String, String>> injectionTargets = new LinkedHashMap<>();
+            int owners = input.readInt();
+            for (int owner = 0; owner < owners; owner++) {
+                Map<String, String> targets = new LinkedHashMap<>();
+                injectionTargets.put(strings[input.readInt()], targets);
+                int fields = input.readInt();
+                for (int field = 0; field < fields; field++) {
+                    targets.put(strings[input.readInt()], strings[input.readInt()]);
+                }
+            }
+            List<String> instantiationOrder = readNames(input, strings);
+            Map<String, List<String>> dependencies = new LinkedHashMap<>();
+            int beans = input.readInt();
+            for (int bean = 0; bean < beans; bean++) {
+                dependencies.put(strings[input.readInt()], readNames(input, strings));
+            }
+            return new WiringSnapshot(fingerprint, components, injectionTargets, instantiationOrder, dependencies);
+        } catch (IOException | RuntimeException exception) {
+            return null; // A corrupt snapshot is rebuilt like an outdated one
+        }
+    }
+
+    private static List<String> readNames(DataInputStream input, String[] strings) throws IOException {
+        int count = input.readInt();
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(strings[input.readInt()]);
+        }
+        return names;
+    }
+
+    /**
+     * Writes the snapshot to the specified file. The file is written next to its destination first and then moved in
+     * place, so a concurrently starting JVM never reads a partial snapshot.
+     *
+     * @param file the snapshot file
+     * @throws UncheckedIOException if the snapshot cannot be written
+     */
+    public void write(Path file) {
+        Map<String, Integer> stringIndexes = new LinkedHashMap<>();
+        components.forEach(name -> indexOf(stringIndexes, name));
+        injectionTargets.forEach((owner, targets) -> {
+            indexOf(stringIndexes, owner);
+            targets.forEach((field, target) -> {
+                indexOf(stringIndexes, field);
+                indexOf(stringIndexes, target);
+            });
+        });
+        instantiationOrder.forEach(name -> indexOf(stringIndexes, name));
+        dependencies.forEach((bean, beanDependencies) -> {
+            indexOf(stringIndexes, bean);
+            beanDependencies.forEach(name -> indexOf(stringIndexes, name));
+        });
+
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                output.writeInt(MAGIC);
+                output.writeShort(VERSION);
+                output.writeShort(fingerprint.length);
+                output.write(fingerprint);
+                output.writeInt(stringIndexes.size());
+                for (String string : stringIndexes.keySet()) {
+                    output.writeUTF(string);
+                }
+                writeNames(output, components, stringIndexes);
+                output.writeInt(injectionTargets.size());
+                for (Map.Entry<String, Map<String, String>> owner : injectionTargets.entrySet()) {
+                    output.writeInt(stringIndexes.get(owner.getKey()));
+                    output.writeInt(owner.getValue().size());
+                    for (Map.Entry<String, String> target : owner.getValue().entrySet()) {
+                        output.writeInt(stringIndexes.get(target.getKey()));
+                        output.writeInt(stringIndexes.get(target.getValue()));
+                    }
+                }
+                writeNames(output, instantiationOrder, stringIndexes);
+                output.writeInt(dependencies.size());
+                for (Map.Entry<String, List<String>> bean : dependencies.entrySet()) {
+                    output.writeInt(stringIndexes.get(bean.getKey()));
+                    writeNames(output, bean.getValue(), stringIndexes);
+                }
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(String.format("Unable to write the wiring snapshot %s", file), exception);
+        }
+    }
+
+    private static void indexOf(Map<String, Integer> stringIndexes, String string) {
+        stringIndexes.putIfAbsent(string, stringIndexes.size());
+    }
+
+    private static void writeNames(DataOutputStream output, List<String> names, Map<String, Integer> stringIndexes) throws IOException {
+        output.writeInt(names.size());
+        for (String name : names) {
+            output.writeInt(stringIndexes.get(name));
+        }
+    }
+
+    public byte[] getFingerprint() {
+        return fingerprint.clone();
+    }
+
+    public List<String> getComponents() {
+        return components;
+    }
+
+    /**
+     * Returns the chosen implementations, by planned class name and field name.
+     *
+     * @return the implementation name of every field name of every planned class
+     */
+    public Map<String, Map<String, String>> getInjectionTargets() {
+        return injectionTargets;
+    }
+
+    public List<String> getInstantiationOrder() {
+        return instantiationOrder;
+    }
+
+    /**
+     * Returns the recorded dependency graph, by planned class name.
+     *
+     * @return the names of the beans injected into every planned class, each class after all the classes it depends
+     * on, or an empty map if the graph was not recorded
+     */
+    public Map<String, List<String>> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * Loads the named class through the specified class loader, without initializing it.
+     */
+    static Class<?> load(String className, ClassLoader classLoader) {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException exception) {
+            throw new IllegalStateException(String.format("Class %s of the wiring snapshot not found", className), exception);
+        }
+    }
+}
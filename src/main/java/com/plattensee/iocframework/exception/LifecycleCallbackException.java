@@ -0,0 +1,22 @@
+package com.plattensee.iocframework.exception;
+
+public class LifecycleCallbackException extends RuntimeException{
+    public LifecycleCallbackException() {
+    }
+
+    public LifecycleCallbackException(String message) {
+        super(message);
+    }
+
+    public LifecycleCallbackException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public LifecycleCallbackException(Throwable cause) {
+        super(cause);
+    }
+
+    public LifecycleCallbackException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
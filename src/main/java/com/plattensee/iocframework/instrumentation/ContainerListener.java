@@ -0,0 +1,124 @@
+package com.plattensee.iocframework.instrumentation;
+
+/**
+ * The ContainerListener interface is the instrumentation SPI of the container. A listener is notified about the startup
+ * phases, the creation and injection of every bean and the singleton cache lookups. All methods have an empty default
+ * implementation, so a listener only overrides what it is interested in.
+ * <p>
+ * Listeners are called on the threads doing the work, possibly concurrently, and have to be thread-safe. When no
+ * listener is installed the container does not even read the clock.
+ */
+public interface ContainerListener {
+    /**
+     * The listener installed when instrumentation is turned off.
+     */
+    ContainerListener NONE = new ContainerListener() {
+    };
+
+    /**
+     * Called when a startup phase is completed.
+     *
+     * @param phase         the completed phase
+     * @param durationNanos the duration of the phase in nanoseconds
+     */
+    default void phaseCompleted(StartupPhase phase, long durationNanos) {
+    }
+
+    /**
+     * Called when an instance of a bean is constructed, before its dependencies are injected.
+     *
+     * @param beanClass     the class of the bean
+     * @param durationNanos the duration of the construction in nanoseconds
+     */
+    default void beanCreated(Class<?> beanClass, long durationNanos) {
+    }
+
+    /**
+     * Called when the dependencies of an instance are injected. The duration includes creating the prototypes and
+     * the singletons that did not exist yet.
+     *
+     * @param beanClass     the class of the bean
+     * @param durationNanos the duration of the injection in nanoseconds
+     */
+    default void beanInjected(Class<?> beanClass, long durationNanos) {
+    }
+
+    /**
+     * Called when a singleton is found in the singleton cache.
+     *
+     * @param beanClass the class of the singleton
+     */
+    default void cacheHit(Class<?> beanClass) {
+    }
+
+    /**
+     * Called when a singleton is not found in the singleton cache and has to be created.
+     *
+     * @param beanClass the class of the singleton
+     */
+    default void cacheMiss(Class<?> beanClass) {
+    }
+
+    /**
+     * Called when the instantiation strategy cannot create the optimized factory of a bean and falls back to
+     * constructing it reflectively.
+     *
+     * @param beanClass the class of the bean
+     * @param reason    why the optimized factory could not be created
+     */
+    default void reflectiveFallback(Class<?> beanClass, String reason) {
+    }
+
+    /**
+     * Combines two listeners into one that notifies both, in order.
+     *
+     * @param first  the listener notified first
+     * @param second the listener notified second
+     * @return the combined listener
+     */
+    static ContainerListener compose(ContainerListener first, ContainerListener second) {
+        if (first == NONE) {
+            return second;
+        }
+        if (second == NONE) {
+            return first;
+        }
+        return new ContainerListener() {
+            @Override
+            public void phaseCompleted(StartupPhase phase, long durationNanos) {
+                first.phaseCompleted(phase, durationNanos);
+                second.phaseCompleted(phase, durationNanos);
+            }
+
+            @Override
+            public void beanCreated(Class<?> beanClass, long durationNanos) {
+                first.beanCreated(beanClass, durationNanos);
+                second.beanCreated(beanClass, durationNanos);
+            }
+
+            @Override
+            public void beanInjected(Class<?> beanClass, long durationNanos) {
+                first.beanInjected(beanClass, durationNanos);
+                second.beanInjected(beanClass, durationNanos);
+            }
+
+            @Override
+            public void cacheHit(Class<?> beanClass) {
+                first.cacheHit(beanClass);
+                second.cacheHit(beanClass);
+            }
+
+            @Override
+            public void cacheMiss(Class<?> beanClass) {
+                first.cacheMiss(beanClass);
+                second.cacheMiss(beanClass);
+            }
+
+            @Override
+            public void reflectiveFallback(Class<?> beanClass, String reason) {
+                first.reflectiveFallback(beanClass, reason);
+                second.reflectiveFallback(beanClass, reason);
+            }
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.plattensee.iocframework.instrumentation;
+
+/**
+ * The JfrContainerListener records the startup phases and the bean creations and injections as Java Flight Recorder
+ * events, so they can be correlated with the rest of a recording. Singleton cache lookups are too frequent to be
+ * recorded as events and are not reported.
+ * <p>
+ * The events are defined in the Java 11 release of the multi-release framework jar, which this listener loads
+ * reflectively, so the framework still runs on Java 8 and on runtimes without the jdk.jfr module as long as no
+ * JfrContainerListener is created.
+ */
+public class JfrContainerListener implements ContainerListener {
+    private static final String RECORDER_CLASS_NAME = "com.plattensee.iocframework.instrumentation.JfrEventRecorder";
+
+    private final ContainerListener recorder;
+
+    /**
+     * Constructs a new JfrContainerListener.
+     *
+     * @throws UnsupportedOperationException if Java Flight Recorder is not available, on Java 10 and earlier, on a
+     *                                       runtime without the jdk.jfr module, or outside of the framework jar
+     */
+    public JfrContainerListener() {
+        this.recorder = loadRecorder();
+    }
+
+    /**
+     * Returns whether Java Flight Recorder events can be recorded, in which case a JfrContainerListener can be created.
+     *
+     * @return true if the events of the framework and the jdk.jfr module are available
+     */
+    public static boolean isAvailable() {
+        try {
+            loadRecorder();
+            return true;
+        } catch (UnsupportedOperationException exception) {
+            return false;
+        }
+    }
+
+    private static ContainerListener loadRecorder() {
+        try {
+            return Class.forName(RECORDER_CLASS_NAME, true, JfrContainerListener.class.getClassLoader())
+                    .asSubclass(ContainerListener.class)
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError exception) {
+            throw new UnsupportedOperationException(String.format("Java Flight Recorder events are not available on Java %s",
+                    System.getProperty("java.specification.version")), exception);
+        }
+    }
+
+    @Override
+    public void phaseCompleted(StartupPhase phase, long durationNanos) {
+        recorder.phaseCompleted(phase, durationNanos);
+    }
+
+    @Override
+    public void beanCreated(Class<?> beanClass, long durationNanos) {
+        recorder.beanCreated(beanClass, durationNanos);
+    }
+
+    @Override
+    public void beanInjected(Class<?> beanClass, long durationNanos) {
+        recorder.beanInjected(beanClass, durationNanos);
+    }
+}
@@ -0,0 +1,23 @@
+package com.plattensee.iocframework.instrumentation;
+
+/**
+ * The phases of the startup of an application context, in the order they run.
+ */
+public enum StartupPhase {
+    /**
+     * Locating the component classes.
+     */
+    SCAN,
+    /**
+     * Indexing the components by supertype and qualifier.
+     */
+    INDEX,
+    /**
+     * Building the injection plans, the dependency graph and the bean factories.
+     */
+    PLAN,
+    /**
+     * Instantiating and wiring the singletons.
+     */
+    INSTANTIATE
+}
@@ -0,0 +1,123 @@
+package com.plattensee.iocframework.instrumentation;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The StartupReport is an immutable snapshot of the timings collected by a StartupReportCollector: the duration of each
+ * startup phase, the construction and injection time of each bean ordered slowest first, the singleton cache
+ * statistics and the beans constructed reflectively because their optimized factory could not be created.
+ */
+public final class StartupReport {
+    private final Map<StartupPhase, Long> phaseNanos;
+    private final List<BeanTiming> beanTimings;
+    private final long cacheHits;
+    private final long cacheMisses;
+    private final Map<Class<?>, String> reflectiveFallbacks;
+
+    StartupReport(Map<StartupPhase, Long> phaseNanos, List<BeanTiming> beanTimings, long cacheHits, long cacheMisses,
+                  Map<Class<?>, String> reflectiveFallbacks) {
+        this.phaseNanos = Collections.unmodifiableMap(new EnumMap<>(phaseNanos));
+        this.beanTimings = Collections.unmodifiableList(beanTimings);
+        this.cacheHits = cacheHits;
+        this.cacheMisses = cacheMisses;
+        this.reflectiveFallbacks = Collections.unmodifiableMap(reflectiveFallbacks);
+    }
+
+    /**
+     * Returns the duration of the specified phase.
+     *
+     * @param phase the startup phase
+     * @return the duration in nanoseconds, or 0 if the phase did not run
+     */
+    public long getPhaseNanos(StartupPhase phase) {
+        return phaseNanos.getOrDefault(phase, 0L);
+    }
+
+    /**
+     * Returns the timings of every bean, the slowest first.
+     *
+     * @return the bean timings ordered by total time, descending
+     */
+    public List<BeanTiming> getBeanTimings() {
+        return beanTimings;
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * Returns the beans whose optimized factory could not be created, so they are constructed reflectively.
+     *
+     * @return the reason of the fallback of every such bean, ordered by class name
+     */
+    public Map<Class<?>, String> getReflectiveFallbacks() {
+        return reflectiveFallbacks;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder("Spider startup report\n");
+        for (StartupPhase phase : StartupPhase.values()) {
+            report.append(String.format("  %-12s %10.3f ms%n", phase, millis(getPhaseNanos(phase))));
+        }
+        report.append(String.format("  singleton cache: %d hits, %d misses%n", cacheHits, cacheMisses));
+        reflectiveFallbacks.forEach((beanClass, reason) ->
+                report.append(String.format("  reflective factory: %s (%s)%n", beanClass.getName(), reason)));
+        for (BeanTiming beanTiming : beanTimings) {
+            report.append(String.format("  %10.3f ms  (construct %.3f ms, inject %.3f ms, %d instances)  %s%n",
+                    millis(beanTiming.getTotalNanos()), millis(beanTiming.getConstructionNanos()),
+                    millis(beanTiming.getInjectionNanos()), beanTiming.getInstances(), beanTiming.getBeanClass().getName()));
+        }
+        return report.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * The accumulated timings of the instances of a single bean class.
+     */
+    public static final class BeanTiming {
+        private final Class<?> beanClass;
+        private final long instances;
+        private final long constructionNanos;
+        private final long injectionNanos;
+
+        BeanTiming(Class<?> beanClass, long instances, long constructionNanos, long injectionNanos) {
+            this.beanClass = beanClass;
+            this.instances = instances;
+            this.constructionNanos = constructionNanos;
+            this.injectionNanos = injectionNanos;
+        }
+
+        public Class<?> getBeanClass() {
+            return beanClass;
+        }
+
+        public long getInstances() {
+            return instances;
+        }
+
+        public long getConstructionNanos() {
+            return constructionNanos;
+        }
+
+        public long getInjectionNanos() {
+            return injectionNanos;
+        }
+
+        public long getTotalNanos() {
+            return constructionNanos + injectionNanos;
+        }
+    }
+}
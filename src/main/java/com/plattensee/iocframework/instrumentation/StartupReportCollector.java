@@ -0,0 +1,84 @@
+package com.plattensee.iocframework.instrumentation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The StartupReportCollector is the built-in ContainerListener that accumulates the timings of a container into a
+ * StartupReport. Every bean class gets its own counters, so concurrent instantiation only contends on the same bean.
+ */
+public class StartupReportCollector implements ContainerListener {
+    private static final int INSTANCES = 0;
+    private static final int CONSTRUCTION = 1;
+    private static final int INJECTION = 2;
+
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(StartupPhase.values().length);
+    private final ConcurrentMap<Class<?>, AtomicLongArray> beanNanos = new ConcurrentHashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final ConcurrentMap<Class<?>, String> reflectiveFallbacks = new ConcurrentHashMap<>();
+
+    @Override
+    public void phaseCompleted(StartupPhase phase, long durationNanos) {
+        phaseNanos.addAndGet(phase.ordinal(), durationNanos);
+    }
+
+    @Override
+    public void beanCreated(Class<?> beanClass, long durationNanos) {
+        AtomicLongArray counters = countersOf(beanClass);
+        counters.incrementAndGet(INSTANCES);
+        counters.addAndGet(CONSTRUCTION, durationNanos);
+    }
+
+    @Override
+    public void beanInjected(Class<?> beanClass, long durationNanos) {
+        countersOf(beanClass).addAndGet(INJECTION, durationNanos);
+    }
+
+    @Override
+    public void cacheHit(Class<?> beanClass) {
+        cacheHits.increment();
+    }
+
+    @Override
+    public void cacheMiss(Class<?> beanClass) {
+        cacheMisses.increment();
+    }
+
+    @Override
+    public void reflectiveFallback(Class<?> beanClass, String reason) {
+        reflectiveFallbacks.put(beanClass, reason);
+    }
+
+    private AtomicLongArray countersOf(Class<?> beanClass) {
+        AtomicLongArray counters = beanNanos.get(beanClass);
+        return counters != null ? counters : beanNanos.computeIfAbsent(beanClass, type -> new AtomicLongArray(3));
+    }
+
+    /**
+     * Takes a snapshot of the timings collected so far.
+     *
+     * @return the startup report
+     */
+    public StartupReport getReport() {
+        Map<StartupPhase, Long> phases = new EnumMap<>(StartupPhase.class);
+        for (StartupPhase phase : StartupPhase.values()) {
+            phases.put(phase, phaseNanos.get(phase.ordinal()));
+        }
+        List<StartupReport.BeanTiming> beanTimings = new ArrayList<>(beanNanos.size());
+        beanNanos.forEach((beanClass, counters) -> beanTimings.add(new StartupReport.BeanTiming(beanClass,
+                counters.get(INSTANCES), counters.get(CONSTRUCTION), counters.get(INJECTION))));
+        beanTimings.sort(Comparator.comparingLong(StartupReport.BeanTiming::getTotalNanos).reversed());
+        Map<Class<?>, String> fallbacks = new TreeMap<>(Comparator.comparing(Class::getName));
+        fallbacks.putAll(reflectiveFallbacks);
+        return new StartupReport(phases, beanTimings, cacheHits.sum(), cacheMisses.sum(), fallbacks);
+    }
+}
@@ -0,0 +1,197 @@
+package com.plattensee.iocframework.locator;
+
+import com.plattensee.iocframework.annotation.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The BytecodeClassScanner is an implementation of the ClassLocator interface that finds the classes annotated with the
+ * @Component annotation in class path directories and jar files. The annotation is read from the class file itself, so
+ * only the components are loaded, and they are loaded without being initialized.
+ */
+public class BytecodeClassScanner implements ClassLocator {
+    /**
+     * Class files at least this large are memory-mapped instead of being read onto the heap.
+     */
+    private static final long MAPPING_THRESHOLD = 64 * 1024;
+    private static final String CLASS_FILE_SUFFIX = ".class";
+
+    private final List<Path> classPathEntries;
+    private final ClassLoader classLoader;
+    private final ClassFileAnnotationReader annotationReader = new ClassFileAnnotationReader(Component.class);
+
+    /**
+     * Constructs a new BytecodeClassScanner that scans the entries of the java.class.path system property and loads
+     * the components through the class loader of the framework.
+     */
+    public BytecodeClassScanner() {
+        this(systemClassPathEntries(), BytecodeClassScanner.class.getClassLoader());
+    }
+
+    /**
+     * Constructs a new BytecodeClassScanner that scans the specified directories and jar files and loads the
+     * components through the specified class loader.
+     *
+     * @param classPathEntries the directories and jar files to scan
+     * @param classLoader      the class loader used to load the components
+     */
+    public BytecodeClassScanner(List<Path> classPathEntries, ClassLoader classLoader) {
+        this.classPathEntries = new ArrayList<>(Objects.requireNonNull(classPathEntries, "Class path entries cannot be null!"));
+        this.classLoader = Objects.requireNonNull(classLoader, "Class loader cannot be null!");
+    }
+
+    /**
+     * Scans the specified package and its sub-packages in every class path entry for classes annotated with the
+     * @Component annotation.
+     *
+     * @param packageName the name of the package to scan
+     * @return a list of component classes found in the package and its sub-packages
+     * @throws NullPointerException     if the package name is null
+     * @throws PackageScanningException if a class path entry cannot be read or a component cannot be loaded
+     */
+    @Override
+    public List<Class<?>> scan(String packageName) {
+        return scan(ScanConfiguration.of(Objects.requireNonNull(packageName, "Package cannot be null!")));
+    }
+
+    /**
+     * Scans the base packages of the specified configuration in every class path entry for classes annotated with the
+     * @Component annotation. Directories of packages the configuration does not accept are not listed, and class
+     * files it does not accept are not read.
+     *
+     * @param configuration the packages and patterns to scan
+     * @return a list of component classes found in the base packages and accepted by the configuration
+     * @throws PackageScanningException if a class path entry cannot be read or a component cannot be loaded
+     */
+    @Override
+    public List<Class<?>> scan(ScanConfiguration configuration) {
+        List<Class<?>> classes = new ArrayList<>();
+        for (Path classPathEntry : classPathEntries) {
+            try {
+                if (Files.isDirectory(classPathEntry)) {
+                    for (String basePackage : configuration.getBasePackages()) {
+                        if (configuration.acceptsPackage(basePackage)) {
+                            Path packageDir = basePackage.isEmpty() ? classPathEntry : classPathEntry.resolve(basePackage.replace('.', '/'));
+                            scanDirectory(basePackage, packageDir, configuration, classes);
+                        }
+                    }
+                } else if (Files.isRegularFile(classPathEntry)) {
+                    scanArchive(classPathEntry, configuration, classes);
+                }
+            } catch (IOException exception) {
+                throw new PackageScanningException(String.format("Unable to scan %s", classPathEntry), exception);
+            }
+        }
+        return classes;
+    }
+
+    private void scanDirectory(String packageName, Path packageDir, ScanConfiguration configuration,
+                               List<Class<?>> classes) throws IOException {
+        if (!Files.isDirectory(packageDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(packageDir)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                String qualifiedName = packageName.isEmpty() ? fileName : packageName + '.' + fileName;
+                if (Files.isDirectory(file)) {
+                    if (configuration.acceptsPackage(qualifiedName)) {
+                        scanDirectory(qualifiedName, file, configuration, classes);
+                    }
+                } else if (isClassFile(fileName)) {
+                    String className = qualifiedName.substring(0, qualifiedName.length() - CLASS_FILE_SUFFIX.length());
+                    if (configuration.acceptsClass(className) && annotationReader.isAnnotated(read(file))) {
+                        classes.add(loadClass(className));
+                    }
+                }
+            }
+        }
+    }
+
+    private void scanArchive(Path archive, ScanConfiguration configuration, List<Class<?>> classes) throws IOException {
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String entryName = entry.getName();
+                if (!entry.isDirectory() && isClassFile(entryName)) {
+                    String className = entryName.substring(0, entryName.length() - CLASS_FILE_SUFFIX.length()).replace('/', '.');
+                    if (configuration.acceptsClass(className) && annotationReader.isAnnotated(read(zipFile, entry))) {
+                        classes.add(loadClass(className));
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isClassFile(String fileName) {
+        return fileName.endsWith(CLASS_FILE_SUFFIX)
+                && !fileName.endsWith("module-info.class")
+                && !fileName.endsWith("package-info.class");
+    }
+
+    private static ByteBuffer read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= MAPPING_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the whole file is in the buffer
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    private static ByteBuffer read(ZipFile zipFile, ZipEntry entry) throws IOException {
+        try (InputStream input = zipFile.getInputStream(entry)) {
+            long size = entry.getSize();
+            byte[] content = new byte[size >= 0 ? (int) size : 8192];
+            int length = 0;
+            int read;
+            while ((read = input.read(content, length, content.length - length)) > 0) {
+                length += read;
+                if (length == content.length && size < 0) {
+                    content = Arrays.copyOf(content, content.length * 2);
+                }
+            }
+            return ByteBuffer.wrap(content, 0, length);
+        }
+    }
+
+    private Class<?> loadClass(String className) {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException exception) {
+            throw new PackageScanningException(String.format("Component %s could not be loaded", className), exception);
+        }
+    }
+
+    private static List<Path> systemClassPathEntries() {
+        List<Path> entries = new ArrayList<>();
+        for (String classPathEntry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (!classPathEntry.isEmpty()) {
+                entries.add(Paths.get(classPathEntry));
+            }
+        }
+        return entries;
+    }
+}
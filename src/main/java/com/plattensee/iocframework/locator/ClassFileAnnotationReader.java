@@ -0,0 +1,189 @@
+package com.plattensee.iocframework.locator;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The ClassFileAnnotationReader checks whether a class file carries a given runtime visible class annotation. It parses
+ * only the constant pool and the class level RuntimeVisibleAnnotations attribute, skipping everything else, so the
+ * class itself never has to be loaded.
+ */
+final class ClassFileAnnotationReader {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int ACC_MODULE = 0x8000;
+    private static final byte[] RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] annotationDescriptor;
+
+    /**
+     * Constructs a new ClassFileAnnotationReader looking for the specified annotation type.
+     *
+     * @param annotationType the annotation type to look for
+     */
+    ClassFileAnnotationReader(Class<?> annotationType) {
+        this.annotationDescriptor = ('L' + annotationType.getName().replace('.', '/') + ';')
+                .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Checks whether the class file in the specified buffer is annotated with the annotation type of this reader.
+     * Malformed or unsupported class files are reported as not annotated.
+     *
+     * @param classFile the content of the class file, positioned at its first byte
+     * @return true if the class is annotated with the annotation type, false otherwise
+     */
+    boolean isAnnotated(ByteBuffer classFile) {
+        try {
+            return readClassFile(classFile);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException exception) {
+            return false;
+        }
+    }
+
+    private boolean readClassFile(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) {
+            return false;
+        }
+        skip(buffer, 4); // minor and major version
+
+        int constantPoolCount = u2(buffer);
+        int[] utf8Offsets = new int[constantPoolCount];
+        for (int index = 1; index < constantPoolCount; index++) {
+            int tag = u1(buffer);
+            switch (tag) {
+                case 1: // Utf8
+                    utf8Offsets[index] = buffer.position();
+                    skip(buffer, u2(buffer));
+                    break;
+                case 7: // Class
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    skip(buffer, 2);
+                    break;
+                case 15: // MethodHandle
+                    skip(buffer, 3);
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    skip(buffer, 4);
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    skip(buffer, 8);
+                    index++;
+                    break;
+                default:
+                    return false;
+            }
+        }
+
+        if ((u2(buffer) & ACC_MODULE) != 0) {
+            return false;
+        }
+        skip(buffer, 4); // this_class and super_class
+        skip(buffer, 2 * u2(buffer)); // interfaces
+        skipMembers(buffer); // fields
+        skipMembers(buffer); // methods
+
+        int attributesCount = u2(buffer);
+        for (int attribute = 0; attribute < attributesCount; attribute++) {
+            int nameIndex = u2(buffer);
+            int length = buffer.getInt();
+            if (utf8Equals(buffer, utf8Offsets[nameIndex], RUNTIME_VISIBLE_ANNOTATIONS)) {
+                return readAnnotations(buffer, utf8Offsets);
+            }
+            skip(buffer, length);
+        }
+        return false;
+    }
+
+    private boolean readAnnotations(ByteBuffer buffer, int[] utf8Offsets) {
+        int annotationsCount = u2(buffer);
+        for (int annotation = 0; annotation < annotationsCount; annotation++) {
+            if (utf8Equals(buffer, utf8Offsets[u2(buffer)], annotationDescriptor)) {
+                return true;
+            }
+            skipElementValuePairs(buffer);
+        }
+        return false;
+    }
+
+    private void skipMembers(ByteBuffer buffer) {
+        int membersCount = u2(buffer);
+        for (int member = 0; member < membersCount; member++) {
+            skip(buffer, 6); // access_flags, name_index and descriptor_index
+            int attributesCount = u2(buffer);
+            for (int attribute = 0; attribute < attributesCount; attribute++) {
+                skip(buffer, 2);
+                skip(buffer, buffer.getInt());
+            }
+        }
+    }
+
+    private void skipElementValuePairs(ByteBuffer buffer) {
+        int pairsCount = u2(buffer);
+        for (int pair = 0; pair < pairsCount; pair++) {
+            skip(buffer, 2); // element_name_index
+            skipElementValue(buffer);
+        }
+    }
+
+    private void skipElementValue(ByteBuffer buffer) {
+        int tag = u1(buffer);
+        switch (tag) {
+            case 'e':
+                skip(buffer, 4);
+                break;
+            case '@':
+                skip(buffer, 2);
+                skipElementValuePairs(buffer);
+                break;
+            case '[':
+                int valuesCount = u2(buffer);
+                for (int value = 0; value < valuesCount; value++) {
+                    skipElementValue(buffer);
+                }
+                break;
+            default: // constants, strings and classes
+                skip(buffer, 2);
+        }
+    }
+
+    /**
+     * Compares the Utf8 constant starting at the specified offset with the expected bytes. The expected bytes are
+     * ASCII, which is encoded identically in the modified UTF-8 format of the class file.
+     */
+    private static boolean utf8Equals(ByteBuffer buffer, int offset, byte[] expected) {
+        if (offset == 0 || (buffer.getShort(offset) & 0xFFFF) != expected.length) {
+            return false;
+        }
+        int start = offset + 2;
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(start + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int u1(ByteBuffer buffer) {
+        return buffer.get() & 0xFF;
+    }
+
+    private static int u2(ByteBuffer buffer) {
+        return buffer.getShort() & 0xFFFF;
+    }
+
+    private static void skip(ByteBuffer buffer, int length) {
+        buffer.position(buffer.position() + length);
+    }
+}
@@ -1,5 +1,6 @@
 package com.plattensee.iocframework.locator;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -13,4 +14,24 @@ public interface ClassLocator {
      * @return a list of classes found in the package
      */
     List<Class<?>> scan(String packageName);
+
+    /**
+     * Scans the base packages of the specified configuration and returns the classes it accepts. This default
+     * implementation scans every base package and filters the classes found; locators override it to skip excluded
+     * packages and classes before they are listed or loaded.
+     *
+     * @param configuration the packages and patterns to scan
+     * @return a list of classes found in the base packages and accepted by the configuration
+     */
+    default List<Class<?>> scan(ScanConfiguration configuration) {
+        List<Class<?>> classes = new ArrayList<>();
+        for (String basePackage : configuration.getBasePackages()) {
+            for (Class<?> clazz : scan(basePackage)) {
+                if (configuration.acceptsClass(clazz.getName())) {
+                    classes.add(clazz);
+                }
+            }
+        }
+        return classes;
+    }
 }
@@ -0,0 +1,206 @@
+package com.plattensee.iocframework.locator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The ComponentIndexLocator is an implementation of the ClassLocator interface that reads the component index written
+ * at compile time by the ComponentIndexProcessor instead of walking the class path. Only the classes listed in the
+ * index are loaded, so the cost of a scan grows with the number of components rather than the number of classes.
+ * <p>
+ * The index is only trusted for a package when every class path root holding the package has an index of its own, since
+ * a root compiled without the annotation processor, such as the application next to an indexed library, has its
+ * components listed nowhere. Otherwise, or when the indexes list no component in the package at all, the package is
+ * scanned by a fallback locator. The roots of a package are found through the class loader, so a jar without directory
+ * entries is not seen as holding the packages of its classes.
+ */
+public class ComponentIndexLocator implements ClassLocator {
+    /**
+     * The location of the component index, relative to the root of a class path entry.
+     */
+    public static final String INDEX_LOCATION = "META-INF/spider.components";
+
+    private final ClassLoader classLoader;
+    private final ClassLocator fallback;
+
+    /**
+     * Constructs a new ComponentIndexLocator that reads the index through the class loader of the framework.
+     *
+     * @param fallback the locator to use when no component index is found
+     */
+    public ComponentIndexLocator(ClassLocator fallback) {
+        this(ComponentIndexLocator.class.getClassLoader(), fallback);
+    }
+
+    /**
+     * Constructs a new ComponentIndexLocator that reads the index and loads the indexed classes through the specified
+     * class loader.
+     *
+     * @param classLoader the class loader used to find the index and load the components
+     * @param fallback    the locator to use when no component index is found
+     */
+    public ComponentIndexLocator(ClassLoader classLoader, ClassLocator fallback) {
+        this.classLoader = Objects.requireNonNull(classLoader, "Class loader cannot be null!");
+        this.fallback = Objects.requireNonNull(fallback, "Fallback locator cannot be null!");
+    }
+
+    /**
+     * Returns the components of the specified package and its sub-packages listed in the component index, or the
+     * result of the fallback locator if a class path root holding the package is not indexed.
+     *
+     * @param packageName the name of the package to scan
+     * @return a list of component classes found in the package and its sub-packages
+     * @throws NullPointerException    if the package name is null
+     * @throws PackageScanningException if the index cannot be read or an indexed class cannot be loaded
+     */
+    @Override
+    public List<Class<?>> scan(String packageName) {
+        Objects.requireNonNull(packageName, "Package cannot be null!");
+        Map<String, Set<String>> indexes = readIndexes();
+        List<String> classNames = indexedClassNames(indexes, packageName);
+        if (classNames == null) {
+            return fallback.scan(packageName);
+        }
+
+        List<Class<?>> classes = new ArrayList<>(classNames.size());
+        for (String className : classNames) {
+            classes.add(loadClass(className));
+        }
+        return classes;
+    }
+
+    /**
+     * Returns the components listed in the component index that the specified configuration accepts, or the result of
+     * the fallback locator if a class path root holding one of the base packages is not indexed. The indexed names are
+     * filtered before any class is loaded.
+     *
+     * @param configuration the packages and patterns to scan
+     * @return a list of component classes found in the base packages and accepted by the configuration
+     * @throws PackageScanningException if the index cannot be read or an indexed class cannot be loaded
+     */
+    @Override
+    public List<Class<?>> scan(ScanConfiguration configuration) {
+        Map<String, Set<String>> indexes = readIndexes();
+        Set<String> classNames = new LinkedHashSet<>();
+        for (String basePackage : configuration.getBasePackages()) {
+            List<String> packageClassNames = indexedClassNames(indexes, basePackage);
+            if (packageClassNames == null) {
+                return fallback.scan(configuration);
+            }
+            classNames.addAll(packageClassNames);
+        }
+
+        List<Class<?>> classes = new ArrayList<>();
+        for (String className : classNames) {
+            if (configuration.acceptsClass(className)) {
+                classes.add(loadClass(className));
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Returns the indexed components of the specified package and its sub-packages, provided the index can be trusted
+     * for the package.
+     *
+     * @param indexes     the indexed class names by class path root
+     * @param packageName the name of the package
+     * @return the indexed class names in class path order, or null if the package has to be scanned
+     */
+    private List<String> indexedClassNames(Map<String, Set<String>> indexes, String packageName) {
+        if (indexes.isEmpty()) {
+            return null;
+        }
+        for (String root : packageRoots(packageName)) {
+            if (!indexes.containsKey(root)) {
+                return null;
+            }
+        }
+        String packagePrefix = packageName + '.';
+        Set<String> classNames = new LinkedHashSet<>();
+        for (Set<String> indexedClassNames : indexes.values()) {
+            for (String className : indexedClassNames) {
+                if (className.startsWith(packagePrefix)) {
+                    classNames.add(className);
+                }
+            }
+        }
+        return classNames.isEmpty() ? null : new ArrayList<>(classNames);
+    }
+
+    /**
+     * Returns the class path roots holding the directory of the specified package, as URL strings ending with a slash.
+     */
+    private List<String> packageRoots(String packageName) {
+        String packagePath = packageName.replace('.', '/');
+        try {
+            List<String> roots = new ArrayList<>();
+            Enumeration<URL> packageDirs = classLoader.getResources(packagePath);
+            while (packageDirs.hasMoreElements()) {
+                String packageDir = packageDirs.nextElement().toString();
+                if (packageDir.endsWith("/")) {
+                    packageDir = packageDir.substring(0, packageDir.length() - 1);
+                }
+                if (packageDir.endsWith(packagePath)) {
+                    roots.add(packageDir.substring(0, packageDir.length() - packagePath.length()));
+                }
+            }
+            return roots;
+        } catch (IOException exception) {
+            throw new PackageScanningException(String.format("Unable to list the class path roots of %s", packageName), exception);
+        }
+    }
+
+    /**
+     * Reads every component index visible to the class loader.
+     *
+     * @return the indexed class names by class path root, in class path order
+     */
+    private Map<String, Set<String>> readIndexes() {
+        try {
+            Map<String, Set<String>> indexes = new LinkedHashMap<>();
+            Enumeration<URL> indexUrls = classLoader.getResources(INDEX_LOCATION);
+            while (indexUrls.hasMoreElements()) {
+                URL index = indexUrls.nextElement();
+                String location = index.toString();
+                String root = location.substring(0, location.length() - INDEX_LOCATION.length());
+                readIndex(index, indexes.computeIfAbsent(root, key -> new LinkedHashSet<>()));
+            }
+            return indexes;
+        } catch (IOException exception) {
+            throw new PackageScanningException("Unable to read the component index", exception);
+        }
+    }
+
+    private void readIndex(URL index, Set<String> classNames) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(index.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && line.charAt(0) != '#') {
+                    classNames.add(line);
+                }
+            }
+        }
+    }
+
+    private Class<?> loadClass(String className) {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException exception) {
+            throw new PackageScanningException(
+                    String.format("Indexed component %s could not be loaded, the component index may be stale", className), exception);
+        }
+    }
+}
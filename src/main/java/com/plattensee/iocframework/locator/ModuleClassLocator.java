@@ -0,0 +1,65 @@
+package com.plattensee.iocframework.locator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The ModuleClassLocator is an implementation of the ClassLocator interface that finds the components of the named
+ * modules of module layers, as well as those of the class path through another locator.
+ * <p>
+ * This is the Java 8 version of the class, which is used on runtimes without modules: every class is on the class
+ * path, so the scan is delegated to the class path locator. On Java 9 and later, the multi-release jar of the
+ * framework provides the version that reads the modules.
+ */
+public class ModuleClassLocator implements ClassLocator {
+    private final ClassLocator classPathLocator;
+
+    /**
+     * Constructs a new ModuleClassLocator that scans the modules of the boot layer and the class path.
+     *
+     * @param classPathLocator the locator scanning the class path, or null to scan the modules only
+     */
+    public ModuleClassLocator(ClassLocator classPathLocator) {
+        this(new ArrayList<>(), classPathLocator);
+    }
+
+    /**
+     * Constructs a new ModuleClassLocator that scans the modules of the specified module layers and the class path.
+     *
+     * @param moduleLayers     the java.lang.ModuleLayer instances whose modules are scanned; there are none on Java 8
+     * @param classPathLocator the locator scanning the class path, or null to scan the modules only
+     * @throws IllegalArgumentException if a module layer is given on Java 8
+     */
+    public ModuleClassLocator(List<?> moduleLayers, ClassLocator classPathLocator) {
+        if (!Objects.requireNonNull(moduleLayers, "Module layers cannot be null!").isEmpty()) {
+            throw new IllegalArgumentException("Module layers are only supported on Java 9 and later");
+        }
+        this.classPathLocator = classPathLocator;
+    }
+
+    /**
+     * Scans the specified package and its sub-packages for classes annotated with the @Component annotation.
+     *
+     * @param packageName the name of the package to scan
+     * @return a list of component classes found in the package and its sub-packages
+     * @throws NullPointerException     if the package name is null
+     * @throws PackageScanningException if a component cannot be located or loaded
+     */
+    @Override
+    public List<Class<?>> scan(String packageName) {
+        return scan(ScanConfiguration.of(Objects.requireNonNull(packageName, "Package cannot be null!")));
+    }
+
+    /**
+     * Scans the base packages of the specified configuration for classes annotated with the @Component annotation.
+     *
+     * @param configuration the packages and patterns to scan
+     * @return a list of component classes found in the base packages and accepted by the configuration
+     * @throws PackageScanningException if a component cannot be located or loaded
+     */
+    @Override
+    public List<Class<?>> scan(ScanConfiguration configuration) {
+        return classPathLocator == null ? new ArrayList<>() : classPathLocator.scan(configuration);
+    }
+}
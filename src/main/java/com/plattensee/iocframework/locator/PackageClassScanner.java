@@ -3,18 +3,35 @@ package com.plattensee.iocframework.locator;
 import com.plattensee.iocframework.annotation.Component;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * The PackageClassScanner is an implementation of the ClassLocator interface that scans a package and its sub-packages
- * for classes annotated with the @Component annotation.
+ * for classes annotated with the @Component annotation, in the directories and jar files of the class path. The classes
+ * are loaded without being initialized.
+ * <p>
+ * The shared instance scans sequentially. A scanner created with {@link #withParallelism(int)} scans the class path
+ * entries and sub-packages concurrently on a fork-join pool and returns the same classes in the same order.
  */
 public class PackageClassScanner implements ClassLocator {
-    private static volatile PackageClassScanner instance = new PackageClassScanner();
+    private static final String CLASS_FILE_SUFFIX = ".class";
+    private static final String MODULE_INFO_CLASS = "module-info.class";
+    private static final String PACKAGE_INFO_CLASS = "package-info.class";
+    private static volatile PackageClassScanner instance = new PackageClassScanner(0);
 
-    private PackageClassScanner() {
+    private final int parallelism;
+
+    private PackageClassScanner(int parallelism) {
+        this.parallelism = parallelism;
     }
 
     /**
@@ -26,17 +43,37 @@ public class PackageClassScanner implements ClassLocator {
      */
     @Override
     public List<Class<?>> scan(String packageName) {
-        List<Class<?>> classes = new ArrayList<>();
+        return scan(ScanConfiguration.of(Objects.requireNonNull(packageName, "Package cannot be null!")));
+    }
 
-        String packagePath = Objects.requireNonNull(packageName, "Package cannot be null!")
-                .replaceAll("\\.", "\\" + File.separator); // Escape the file separator
+    /**
+     * Scans the base packages of the specified configuration and their sub-packages for classes annotated with the
+     * @Component annotation. The directories of packages the configuration does not accept are not listed, and the
+     * classes it does not accept are not loaded.
+     *
+     * @param configuration the packages and patterns to scan
+     * @return a list of classes found in the base packages and accepted by the configuration
+     */
+    @Override
+    public List<Class<?>> scan(ScanConfiguration configuration) {
         String classPath = System.getProperty("java.class.path");
         String[] classPathEntries = classPath.split(File.pathSeparator);
 
+        if (parallelism > 0) {
+            return scanParallel(configuration, classPathEntries);
+        }
+
+        List<Class<?>> classes = new ArrayList<>();
         for (String classPathEntry : classPathEntries) {
-            File baseDir = new File(classPathEntry);
-            String packageDirPath = baseDir.getAbsolutePath().concat(File.separator).concat(packagePath);
-            scanPackageRecursive(packageName, packageDirPath, classes);
+            if (isArchive(classPathEntry)) {
+                scanArchive(new File(classPathEntry), configuration, classes);
+                continue;
+            }
+            for (String basePackage : configuration.getBasePackages()) {
+                if (configuration.acceptsPackage(basePackage)) {
+                    scanPackageRecursive(basePackage, packageDirPath(classPathEntry, basePackage), configuration, classes);
+                }
+            }
         }
         return classes;
     }
@@ -46,36 +83,290 @@ public class PackageClassScanner implements ClassLocator {
      *
      * @param packageName    the name of the current package being scanned
      * @param packageDirPath the absolute path of the current package directory
+     * @param configuration  the packages and patterns to scan
      * @param classes        the list of classes to add the found classes to
      */
-    private void scanPackageRecursive(String packageName, String packageDirPath, List<Class<?>> classes) {
+    private void scanPackageRecursive(String packageName, String packageDirPath, ScanConfiguration configuration,
+                                      List<Class<?>> classes) {
         File packageDir = new File(packageDirPath);
 
         if (packageDir.exists() && packageDir.isDirectory()) {
             File[] files = packageDir.listFiles();
             if (files != null) {
                 for (File file : files) {
-                    if (file.isFile() && file.getName().endsWith(".class")) {
-                        String className = packageName + '.' + file.getName().substring(0, file.getName().length() - 6);
-                        try {
-                            Class<?> clazz = Class.forName(className);
-                            if (clazz.isAnnotationPresent(Component.class)) {
-                                classes.add(clazz);
-                            }
-                        } catch (ClassNotFoundException e) {
-                            e.printStackTrace();
+                    if (isClassFile(file)) {
+                        Class<?> component = loadComponent(packageName, file, configuration);
+                        if (component != null) {
+                            classes.add(component);
                         }
                     } else if (file.isDirectory()) {
-                        String subPackageName = packageName + '.' + file.getName();
-                        String subPackageDirPath = packageDirPath + File.separator + file.getName();
-                        scanPackageRecursive(subPackageName, subPackageDirPath, classes);
+                        String subPackageName = qualify(packageName, file.getName());
+                        if (configuration.acceptsPackage(subPackageName)) {
+                            String subPackageDirPath = packageDirPath + File.separator + file.getName();
+                            scanPackageRecursive(subPackageName, subPackageDirPath, configuration, classes);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Scans the classes of the base packages of the configuration in a jar file, in the order of its entries.
+     *
+     * @param archive       the jar file
+     * @param configuration the packages and patterns to scan
+     * @param classes       the list of classes to add the found classes to
+     * @throws PackageScanningException if the jar file cannot be read
+     */
+    private static void scanArchive(File archive, ScanConfiguration configuration, List<Class<?>> classes) {
+        if (!archive.isFile()) {
+            return;
+        }
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String entryName = entry.getName();
+                if (!entry.isDirectory() && isClassEntry(entryName)) {
+                    String className = entryName.substring(0, entryName.length() - CLASS_FILE_SUFFIX.length()).replace('/', '.');
+                    Class<?> component = loadComponent(className, configuration);
+                    if (component != null) {
+                        classes.add(component);
+                    }
+                }
+            }
+        } catch (IOException exception) {
+            throw new PackageScanningException(String.format("Unable to scan %s", archive), exception);
+        }
+    }
+
+    /**
+     * Scans every class path entry on a dedicated fork-join pool.
+     *
+     * @param configuration    the packages and patterns to scan
+     * @param classPathEntries the class path entries to scan
+     * @return the classes found, in the same order as a sequential scan
+     */
+    private List<Class<?>> scanParallel(ScanConfiguration configuration, String[] classPathEntries) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new RecursiveTask<List<Class<?>>>() {
+                @Override
+                protected List<Class<?>> compute() {
+                    List<ForkJoinTask<List<Class<?>>>> entryTasks = new ArrayList<>(classPathEntries.length);
+                    for (String classPathEntry : classPathEntries) {
+                        if (isArchive(classPathEntry)) {
+                            entryTasks.add(new ArchiveScanTask(new File(classPathEntry), configuration).fork());
+                            continue;
+                        }
+                        for (String basePackage : configuration.getBasePackages()) {
+                            if (configuration.acceptsPackage(basePackage)) {
+                                entryTasks.add(new PackageScanTask(basePackage, packageDirPath(classPathEntry, basePackage),
+                                        configuration).fork());
+                            }
+                        }
                     }
+                    return joinAll(entryTasks);
                 }
+            });
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<Class<?>> joinAll(List<ForkJoinTask<List<Class<?>>>> tasks) {
+        List<Class<?>> classes = new ArrayList<>();
+        for (ForkJoinTask<List<Class<?>>> task : tasks) {
+            classes.addAll(task.join());
+        }
+        return classes;
+    }
+
+    private static String packageDirPath(String classPathEntry, String packageName) {
+        File baseDir = new File(classPathEntry);
+        if (packageName.isEmpty()) {
+            return baseDir.getAbsolutePath();
+        }
+        return baseDir.getAbsolutePath().concat(File.separator).concat(packageName.replace('.', File.separatorChar));
+    }
+
+    private static String qualify(String packageName, String name) {
+        return packageName.isEmpty() ? name : packageName + '.' + name;
+    }
+
+    private static boolean isArchive(String classPathEntry) {
+        return classPathEntry.endsWith(".jar") || classPathEntry.endsWith(".zip");
+    }
+
+    private static boolean isClassFile(File file) {
+        return file.getName().endsWith(CLASS_FILE_SUFFIX) && file.isFile();
+    }
+
+    /**
+     * Returns whether the jar entry is the class file of a class. module-info and package-info are not classes, and the
+     * entries under META-INF, such as the versioned entries of a multi-release jar, are loaded through their base names
+     * if at all.
+     */
+    private static boolean isClassEntry(String entryName) {
+        String fileName = entryName.substring(entryName.lastIndexOf('/') + 1);
+        return fileName.endsWith(CLASS_FILE_SUFFIX)
+                && !entryName.startsWith("META-INF/")
+                && !fileName.equals(MODULE_INFO_CLASS)
+                && !fileName.equals(PACKAGE_INFO_CLASS);
+    }
+
+    /**
+     * Loads the class of the specified class file and returns it if it is annotated with @Component.
+     *
+     * @param packageName   the name of the package containing the class file
+     * @param classFile     the class file
+     * @param configuration the packages and patterns to scan
+     * @return the component class, or null if the class is not accepted, is not a component or cannot be loaded
+     */
+    private static Class<?> loadComponent(String packageName, File classFile, ScanConfiguration configuration) {
+        String fileName = classFile.getName();
+        return loadComponent(qualify(packageName, fileName.substring(0, fileName.length() - CLASS_FILE_SUFFIX.length())),
+                configuration);
+    }
+
+    /**
+     * Loads the specified class and returns it if it is annotated with @Component. The class is not loaded if the
+     * configuration does not accept its name, and it is loaded without being initialized, so that no static
+     * initializer runs during a scan, let alone concurrently on the workers of a parallel scan.
+     *
+     * @param className     the binary name of the class
+     * @param configuration the packages and patterns to scan
+     * @return the component class, or null if the class is not accepted, is not a component or cannot be loaded
+     */
+    private static Class<?> loadComponent(String className, ScanConfiguration configuration) {
+        if (!configuration.acceptsClass(className)) {
+            return null;
+        }
+        try {
+            Class<?> clazz = Class.forName(className, false, PackageClassScanner.class.getClassLoader());
+            if (clazz.isAnnotationPresent(Component.class)) {
+                return clazz;
             }
+        } catch (ClassNotFoundException e) {
+            e.printStackTrace();
         }
+        return null;
     }
 
     public static synchronized PackageClassScanner getInstance() {
         return instance;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates a scanner that scans the class path entries and sub-packages in parallel.
+     *
+     * @param parallelism the number of worker threads used by a scan
+     * @return a new parallel PackageClassScanner
+     * @throws IllegalArgumentException if the parallelism is not positive
+     */
+    public static PackageClassScanner withParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive!");
+        }
+        return new PackageClassScanner(parallelism);
+    }
+
+    /**
+     * Scans a single package directory. Each run of consecutive class files and each sub-directory becomes a separate
+     * task, and the results are joined in listing order, so every task fills its own list and the output matches the
+     * depth-first sequential scan.
+     */
+    private static final class PackageScanTask extends RecursiveTask<List<Class<?>>> {
+        private final String packageName;
+        private final String packageDirPath;
+        private final ScanConfiguration configuration;
+
+        private PackageScanTask(String packageName, String packageDirPath, ScanConfiguration configuration) {
+            this.packageName = packageName;
+            this.packageDirPath = packageDirPath;
+            this.configuration = configuration;
+        }
+
+        @Override
+        protected List<Class<?>> compute() {
+            File packageDir = new File(packageDirPath);
+            if (!packageDir.exists() || !packageDir.isDirectory()) {
+                return new ArrayList<>();
+            }
+            File[] files = packageDir.listFiles();
+            if (files == null) {
+                return new ArrayList<>();
+            }
+
+            List<ForkJoinTask<List<Class<?>>>> subtasks = new ArrayList<>();
+            List<File> classFiles = new ArrayList<>();
+            for (File file : files) {
+                if (isClassFile(file)) {
+                    classFiles.add(file);
+                } else if (file.isDirectory()) {
+                    String subPackageName = qualify(packageName, file.getName());
+                    if (configuration.acceptsPackage(subPackageName)) {
+                        if (!classFiles.isEmpty()) {
+                            subtasks.add(new ClassFilesTask(packageName, classFiles, configuration).fork());
+                            classFiles = new ArrayList<>();
+                        }
+                        subtasks.add(new PackageScanTask(subPackageName,
+                                packageDirPath + File.separator + file.getName(), configuration).fork());
+                    }
+                }
+            }
+            if (!classFiles.isEmpty()) {
+                subtasks.add(new ClassFilesTask(packageName, classFiles, configuration).fork());
+            }
+            return joinAll(subtasks);
+        }
+    }
+
+    /**
+     * Loads the components among consecutive class files of a single package directory.
+     */
+    private static final class ClassFilesTask extends RecursiveTask<List<Class<?>>> {
+        private final String packageName;
+        private final List<File> classFiles;
+        private final ScanConfiguration configuration;
+
+        private ClassFilesTask(String packageName, List<File> classFiles, ScanConfiguration configuration) {
+            this.packageName = packageName;
+            this.classFiles = classFiles;
+            this.configuration = configuration;
+        }
+
+        @Override
+        protected List<Class<?>> compute() {
+            List<Class<?>> classes = new ArrayList<>();
+            for (File classFile : classFiles) {
+                Class<?> component = loadComponent(packageName, classFile, configuration);
+                if (component != null) {
+                    classes.add(component);
+                }
+            }
+            return classes;
+        }
+    }
+
+    /**
+     * Scans the classes of the base packages in a single jar file.
+     */
+    private static final class ArchiveScanTask extends RecursiveTask<List<Class<?>>> {
+        private final File archive;
+        private final ScanConfiguration configuration;
+
+        private ArchiveScanTask(File archive, ScanConfiguration configuration) {
+            this.archive = archive;
+            this.configuration = configuration;
+        }
+
+        @Override
+        protected List<Class<?>> compute() {
+            List<Class<?>> classes = new ArrayList<>();
+            scanArchive(archive, configuration, classes);
+            return classes;
+        }
+    }
+}
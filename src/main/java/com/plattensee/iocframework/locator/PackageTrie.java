@@ -0,0 +1,82 @@
+package com.plattensee.iocframework.locator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The PackageTrie holds package names split into their segments, so a package can be matched against all the added
+ * packages in a single walk proportional to its depth, however many packages were added.
+ */
+final class PackageTrie {
+    private final Node root = new Node();
+    private boolean empty = true;
+
+    /**
+     * Adds the specified package, which stands for itself and all its sub-packages.
+     *
+     * @param packageName the name of the package, or the empty string for the default package
+     */
+    void add(String packageName) {
+        Node node = root;
+        for (int start = 0; start < packageName.length(); ) {
+            int end = segmentEnd(packageName, start);
+            node = node.children.computeIfAbsent(packageName.substring(start, end), segment -> new Node());
+            start = end + 1;
+        }
+        node.terminal = true;
+        empty = false;
+    }
+
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Checks whether the specified package or one of its parent packages was added.
+     *
+     * @param packageName the name of the package
+     * @return true if the package is covered by an added package
+     */
+    boolean covers(String packageName) {
+        Node node = root;
+        for (int start = 0; !node.terminal && start < packageName.length(); ) {
+            int end = segmentEnd(packageName, start);
+            node = node.children.get(packageName.substring(start, end));
+            if (node == null) {
+                return false;
+            }
+            start = end + 1;
+        }
+        return node.terminal;
+    }
+
+    /**
+     * Checks whether the specified package is covered by an added package or is a parent of one, that is whether an
+     * added package can be reached by descending into the package.
+     *
+     * @param packageName the name of the package
+     * @return true if the package or one of its sub-packages is covered by an added package
+     */
+    boolean leadsTo(String packageName) {
+        Node node = root;
+        for (int start = 0; !node.terminal && start < packageName.length(); ) {
+            int end = segmentEnd(packageName, start);
+            node = node.children.get(packageName.substring(start, end));
+            if (node == null) {
+                return false;
+            }
+            start = end + 1;
+        }
+        return true;
+    }
+
+    private static int segmentEnd(String packageName, int start) {
+        int end = packageName.indexOf('.', start);
+        return end < 0 ? packageName.length() : end;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>(4);
+        private boolean terminal;
+    }
+}
@@ -0,0 +1,231 @@
+package com.plattensee.iocframework.locator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * The ScanConfiguration describes which classes a ClassLocator scans: the base packages, which are scanned with all
+ * their sub-packages, and optional include and exclude patterns. A class is located if it lies in a base package,
+ * matches an include pattern, or there are none, and matches no exclude pattern.
+ * <p>
+ * A pattern without wildcards is a package, standing for the package and all its sub-packages, for example
+ * {@code com.example.generated}, or the fully qualified name of a single class. A pattern with wildcards is matched against the fully qualified class name, where
+ * {@code *} matches within a package segment and {@code **} across segments, for example {@code **.*Test} or
+ * {@code com.example.*Fixture}.
+ * <p>
+ * Package patterns are kept in prefix tries, so the locators can prune an excluded package, or a package that cannot
+ * lead to an included one, before listing its directory. Class name patterns are applied to the names derived from the
+ * file names, before any class is loaded.
+ */
+public final class ScanConfiguration {
+    private final List<String> basePackages;
+    private final List<String> includes;
+    private final List<String> excludes;
+    private final PackageTrie basePackageTrie = new PackageTrie();
+    private final PackageTrie includedPackages = new PackageTrie();
+    private final PackageTrie excludedPackages = new PackageTrie();
+    private final List<Pattern> includedClasses = new ArrayList<>();
+    private final List<Pattern> excludedClasses = new ArrayList<>();
+
+    private ScanConfiguration(List<String> basePackages, List<String> includes, List<String> excludes) {
+        this.basePackages = Collections.unmodifiableList(outermostPackages(basePackages));
+        this.includes = Collections.unmodifiableList(new ArrayList<>(includes));
+        this.excludes = Collections.unmodifiableList(new ArrayList<>(excludes));
+        this.basePackages.forEach(basePackageTrie::add);
+        compile(includes, includedPackages, includedClasses);
+        compile(excludes, excludedPackages, excludedClasses);
+    }
+
+    /**
+     * Creates a configuration that scans the specified packages and all their sub-packages.
+     *
+     * @param basePackages the names of the packages to scan
+     * @return the scan configuration
+     * @throws NullPointerException     if a package name is null
+     * @throws IllegalArgumentException if no package is specified
+     */
+    public static ScanConfiguration of(String... basePackages) {
+        return builder().basePackages(basePackages).build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the base packages. A base package nested in another one is left out, since it is scanned with its
+     * parent.
+     *
+     * @return the names of the packages to scan
+     */
+    public List<String> getBasePackages() {
+        return basePackages;
+    }
+
+    public List<String> getIncludes() {
+        return includes;
+    }
+
+    public List<String> getExcludes() {
+        return excludes;
+    }
+
+    /**
+     * Checks whether a class of the specified package or one of its sub-packages can be accepted, so the locators can
+     * skip the package without listing it.
+     *
+     * @param packageName the name of the package
+     * @return false if no class of the package and its sub-packages is accepted
+     */
+    public boolean acceptsPackage(String packageName) {
+        if (excludedPackages.covers(packageName)) {
+            return false;
+        }
+        return includedPackages.isEmpty() || !includedClasses.isEmpty() || includedPackages.leadsTo(packageName);
+    }
+
+    /**
+     * Checks whether the specified class is accepted by this configuration.
+     *
+     * @param className the fully qualified name of the class
+     * @return true if the class lies in a base package, is included and is not excluded
+     */
+    public boolean acceptsClass(String className) {
+        int packageEnd = className.lastIndexOf('.');
+        String packageName = packageEnd < 0 ? "" : className.substring(0, packageEnd);
+        if (!basePackageTrie.covers(packageName) || excludedPackages.covers(className) || matchesAny(excludedClasses, className)) {
+            return false;
+        }
+        if (includedPackages.isEmpty() && includedClasses.isEmpty()) {
+            return true;
+        }
+        // A class name is covered by the trie if it was added itself, or if its package or a parent package was
+        return includedPackages.covers(className) || matchesAny(includedClasses, className);
+    }
+
+    private static boolean matchesAny(List<Pattern> patterns, String className) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(className).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void compile(List<String> patterns, PackageTrie packages, List<Pattern> classes) {
+        for (String pattern : patterns) {
+            if (pattern.indexOf('*') < 0) {
+                packages.add(pattern);
+            } else {
+                classes.add(toRegex(pattern));
+            }
+        }
+    }
+
+    private static Pattern toRegex(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' && i + 1 < pattern.length() && pattern.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i++;
+            } else if (c == '*') {
+                regex.append("[^.]*");
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static List<String> outermostPackages(List<String> packageNames) {
+        List<String> outermost = new ArrayList<>(packageNames.size());
+        for (String packageName : packageNames) {
+            PackageTrie others = new PackageTrie();
+            for (String other : packageNames) {
+                if (!other.equals(packageName)) {
+                    others.add(other);
+                }
+            }
+            if (!others.covers(packageName) && !outermost.contains(packageName)) {
+                outermost.add(packageName);
+            }
+        }
+        return outermost;
+    }
+
+    @Override
+    public String toString() {
+        return "ScanConfiguration{basePackages=" + basePackages + ", includes=" + includes + ", excludes=" + excludes + '}';
+    }
+
+    /**
+     * The Builder of a ScanConfiguration.
+     */
+    public static final class Builder {
+        private final List<String> basePackages = new ArrayList<>();
+        private final List<String> includes = new ArrayList<>();
+        private final List<String> excludes = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds packages to scan with all their sub-packages.
+         *
+         * @param packageNames the names of the packages
+         * @return this builder
+         */
+        public Builder basePackages(String... packageNames) {
+            for (String packageName : packageNames) {
+                basePackages.add(Objects.requireNonNull(packageName, "Package cannot be null!"));
+            }
+            return this;
+        }
+
+        /**
+         * Adds include patterns. Once there is an include pattern, only the matching classes are located.
+         *
+         * @param patterns packages or class name patterns
+         * @return this builder
+         */
+        public Builder include(String... patterns) {
+            includes.addAll(requireNonNullElements(patterns));
+            return this;
+        }
+
+        /**
+         * Adds exclude patterns.
+         *
+         * @param patterns packages or class name patterns
+         * @return this builder
+         */
+        public Builder exclude(String... patterns) {
+            excludes.addAll(requireNonNullElements(patterns));
+            return this;
+        }
+
+        /**
+         * Builds the scan configuration.
+         *
+         * @return the scan configuration
+         * @throws IllegalArgumentException if no base package is specified
+         */
+        public ScanConfiguration build() {
+            if (basePackages.isEmpty()) {
+                throw new IllegalArgumentException("At least one base package is required!");
+            }
+            return new ScanConfiguration(basePackages, includes, excludes);
+        }
+
+        private static List<String> requireNonNullElements(String... patterns) {
+            List<String> list = Arrays.asList(patterns);
+            list.forEach(pattern -> Objects.requireNonNull(pattern, "Pattern cannot be null!"));
+            return list;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.plattensee.iocframework.processor;
+
+import com.plattensee.iocframework.annotation.Component;
+import com.plattensee.iocframework.locator.ComponentIndexLocator;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The ComponentIndexProcessor is an annotation processor that collects every class annotated with @Component during
+ * compilation and writes their binary names to the component index read by the ComponentIndexLocator.
+ * <p>
+ * An incremental build only compiles the changed sources, so the index already in the class output is merged with the
+ * components of the compilation: an entry is kept as long as its class still exists and is still annotated with
+ * @Component, whether it was compiled again or not. The processor supports every annotation, so that it also runs when
+ * the compilation has no component left, but it never claims any.
+ */
+@SupportedAnnotationTypes("*")
+public class ComponentIndexProcessor extends AbstractProcessor {
+    private final Set<String> componentNames = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * Collects the components of the current round and writes the index, merged with the previous one, once the last
+     * round is over.
+     *
+     * @param annotations the annotation types requested to be processed
+     * @param roundEnv    the environment for information about the current round
+     * @return false, so other processors may claim the annotations as well
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement component = processingEnv.getElementUtils().getTypeElement(Component.class.getName());
+        if (component != null) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(component)) {
+                if (element.getKind() == ElementKind.CLASS) {
+                    componentNames.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+                }
+            }
+        }
+        if (roundEnv.processingOver()) {
+            Set<String> previousNames = readPreviousIndex();
+            for (String previousName : previousNames) {
+                if (isComponent(previousName)) {
+                    componentNames.add(previousName);
+                }
+            }
+            if (!componentNames.isEmpty() || !previousNames.isEmpty()) {
+                writeIndex();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the index written to the class output by a previous compilation.
+     *
+     * @return the indexed binary names, or an empty set if there is no previous index
+     */
+    private Set<String> readPreviousIndex() {
+        Set<String> previousNames = new TreeSet<>();
+        try {
+            FileObject index = processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndexLocator.INDEX_LOCATION);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(index.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && line.charAt(0) != '#') {
+                        previousNames.add(line);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException exception) {
+            // No previous index, or the class output is not a location the filer can read from
+        }
+        return previousNames;
+    }
+
+    /**
+     * Checks whether the class with the specified binary name still exists and is annotated with @Component, either as
+     * a source of this compilation or as a class file of a previous one.
+     */
+    private boolean isComponent(String binaryName) {
+        Elements elements = processingEnv.getElementUtils();
+        TypeElement type = elements.getTypeElement(binaryName.replace('$', '.'));
+        if (type == null || type.getKind() != ElementKind.CLASS
+                || !elements.getBinaryName(type).contentEquals(binaryName)) {
+            return false;
+        }
+        for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName()
+                    .contentEquals(Component.class.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        try {
+            FileObject index = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndexLocator.INDEX_LOCATION);
+            try (Writer writer = new OutputStreamWriter(index.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (String componentName : componentNames) {
+                    writer.write(componentName);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException exception) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write the component index: " + exception.getMessage());
+        }
+    }
+}
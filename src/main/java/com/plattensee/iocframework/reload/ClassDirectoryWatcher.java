@@ -0,0 +1,184 @@
+package com.plattensee.iocframework.reload;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The ClassDirectoryWatcher watches the package directories of the class directories for added, changed and removed
+ * class files with a WatchService. A compiler writes many class files at once, so the events are collected until no
+ * event arrived for a quiet period, and then reported together as the names of the updated and the removed classes.
+ * <p>
+ * The events are handled by a daemon thread, which also calls the change handler.
+ */
+final class ClassDirectoryWatcher implements Closeable {
+    private static final String CLASS_EXTENSION = ".class";
+
+    private final List<Path> classDirectories;
+    private final List<Path> packageDirectories;
+    private final long quietPeriodMillis;
+    private final BiConsumer<Set<String>, Set<String>> changeHandler;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+    private final Thread thread;
+
+    /**
+     * Registers the package directories and their sub-directories with a new WatchService.
+     *
+     * @param classDirectories   the class directories the class names are relative to
+     * @param packageDirectories the directories to watch, within the class directories
+     * @param quietPeriodMillis  the time without events after which the collected changes are reported
+     * @param changeHandler      receives the names of the updated and the removed classes
+     * @throws UncheckedIOException if the directories cannot be watched
+     */
+    ClassDirectoryWatcher(List<Path> classDirectories, List<Path> packageDirectories, long quietPeriodMillis,
+                          BiConsumer<Set<String>, Set<String>> changeHandler) {
+        this.classDirectories = classDirectories;
+        this.packageDirectories = packageDirectories;
+        this.quietPeriodMillis = quietPeriodMillis;
+        this.changeHandler = changeHandler;
+        try {
+            this.watchService = FileSystems.getDefault().newWatchService();
+            for (Path packageDirectory : packageDirectories) {
+                registerAll(packageDirectory);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Unable to watch the class directories", exception);
+        }
+        this.thread = new Thread(this::watch, "spider-class-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Registers a directory and its sub-directories, and returns the class files already in them.
+     */
+    private List<Path> registerAll(Path directory) throws IOException {
+        List<Path> classFiles = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.collect(Collectors.toList())) {
+                if (Files.isDirectory(path)) {
+                    watchedDirectories.put(path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE), path);
+                } else if (path.toString().endsWith(CLASS_EXTENSION)) {
+                    classFiles.add(path);
+                }
+            }
+        }
+        return classFiles;
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                Set<Path> touchedFiles = new LinkedHashSet<>();
+                collect(watchService.take(), touchedFiles);
+                WatchKey key;
+                while ((key = watchService.poll(quietPeriodMillis, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, touchedFiles);
+                }
+                report(touchedFiles);
+            }
+        } catch (ClosedWatchServiceException exception) {
+            // The watcher was closed
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> touchedFiles) {
+        Path directory = watchedDirectories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+                // Events were lost, so every class file is reported as updated
+                touchedFiles.addAll(allClassFiles());
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    // Files created before the new directory was registered did not raise an event
+                    touchedFiles.addAll(registerAll(path));
+                } catch (IOException exception) {
+                    touchedFiles.addAll(allClassFiles());
+                }
+            } else if (path.toString().endsWith(CLASS_EXTENSION)) {
+                touchedFiles.add(path);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+    }
+
+    private List<Path> allClassFiles() {
+        List<Path> classFiles = new ArrayList<>();
+        for (Path packageDirectory : packageDirectories) {
+            try (Stream<Path> paths = Files.walk(packageDirectory)) {
+                paths.filter(path -> path.toString().endsWith(CLASS_EXTENSION)).forEach(classFiles::add);
+            } catch (IOException | UncheckedIOException exception) {
+                // The directory disappeared, its classes are reported when it comes back
+            }
+        }
+        return classFiles;
+    }
+
+    private void report(Set<Path> touchedFiles) {
+        Set<String> updatedClasses = new LinkedHashSet<>();
+        Set<String> removedClasses = new LinkedHashSet<>();
+        for (Path classFile : touchedFiles) {
+            String className = classNameOf(classFile);
+            if (className != null) {
+                (Files.isRegularFile(classFile) ? updatedClasses : removedClasses).add(className);
+            }
+        }
+        if (!updatedClasses.isEmpty() || !removedClasses.isEmpty()) {
+            changeHandler.accept(updatedClasses, removedClasses);
+        }
+    }
+
+    private String classNameOf(Path classFile) {
+        for (Path classDirectory : classDirectories) {
+            if (classFile.startsWith(classDirectory)) {
+                String relativePath = classDirectory.relativize(classFile).toString();
+                return relativePath.substring(0, relativePath.length() - CLASS_EXTENSION.length())
+                        .replace(File.separatorChar, '.');
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stops watching the directories. A reload in progress is completed.
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
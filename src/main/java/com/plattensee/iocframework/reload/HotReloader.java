@@ -0,0 +1,207 @@
+package com.plattensee.iocframework.reload;
+
+import com.plattensee.iocframework.annotation.Component;
+import com.plattensee.iocframework.container.DependencyContainer;
+import com.plattensee.iocframework.locator.ScanConfiguration;
+
+import java.io.Closeable;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The HotReloader keeps a DependencyContainer up to date with the class directories during development. It watches the
+ * package directories of the scanned packages, and when class files are added, changed or removed it reloads them
+ * through a new ReloadingClassLoader and rewires the container: only the beans of the changed classes and the beans
+ * depending on them, directly or transitively, are planned and created again. Nothing is scanned, and the other
+ * singletons are kept.
+ * <p>
+ * The classes are reloaded per package, together with every planned class of the package. The packages reloaded once
+ * are loaded by the newest class loader from then on, and all of their planned classes are created again on every
+ * reload, so the classes of a package never mix class loaders and the previous class loader can be collected.
+ * Code that refers to a reloaded class by its class literal, outside of the beans, keeps seeing the class it was
+ * linked with; beans should be reached through injection, or looked up by an interface that is not reloaded.
+ */
+public final class HotReloader implements Closeable {
+    private static final long QUIET_PERIOD_MILLIS = 200;
+
+    private final DependencyContainer container;
+    private final String entryPointName;
+    private final ScanConfiguration configuration;
+    private final ReloadListener listener;
+    private final ClassLoader parentClassLoader;
+    private final List<Path> classDirectories;
+    private final Set<String> pendingUpdates = new LinkedHashSet<>();
+    private final Set<String> pendingRemovals = new LinkedHashSet<>();
+    private Set<String> reloadedPackages = Collections.emptySet();
+    private ClassDirectoryWatcher watcher;
+
+    private HotReloader(DependencyContainer container, Class<?> entryPoint, ScanConfiguration configuration,
+                        List<Path> classDirectories, ReloadListener listener) {
+        this.container = container;
+        this.entryPointName = entryPoint.getName();
+        this.configuration = configuration;
+        this.listener = listener;
+        this.parentClassLoader = entryPoint.getClassLoader();
+        this.classDirectories = classDirectories;
+    }
+
+    /**
+     * Starts watching the class directories of the scanned packages. The container has to be initialized with the
+     * classes scanned from them.
+     *
+     * @param container        the initialized container to rewire
+     * @param entryPoint       the class object representing the entry point, which is rebuilt when it depends on a
+     *                         changed class
+     * @param configuration    the scan configuration the classes were scanned with, which added classes have to match
+     * @param classPathEntries the class path entries; the directories among them are watched
+     * @param listener         the listener notified about the reloads
+     * @return the started reloader, to be closed to stop watching
+     * @throws java.io.UncheckedIOException if the directories cannot be watched
+     */
+    public static HotReloader start(DependencyContainer container, Class<?> entryPoint, ScanConfiguration configuration,
+                                    List<Path> classPathEntries, ReloadListener listener) {
+        List<Path> classDirectories = new ArrayList<>();
+        List<Path> packageDirectories = new ArrayList<>();
+        for (Path classPathEntry : classPathEntries) {
+            if (Files.isDirectory(classPathEntry)) {
+                Path classDirectory = classPathEntry.toAbsolutePath().normalize();
+                classDirectories.add(classDirectory);
+                for (String basePackage : configuration.getBasePackages()) {
+                    Path packageDirectory = classDirectory.resolve(basePackage.replace('.', File.separatorChar));
+                    if (Files.isDirectory(packageDirectory)) {
+                        packageDirectories.add(packageDirectory);
+                    }
+                }
+            }
+        }
+        HotReloader hotReloader = new HotReloader(Objects.requireNonNull(container), entryPoint, configuration,
+                classDirectories, Objects.requireNonNull(listener));
+        hotReloader.watcher = new ClassDirectoryWatcher(classDirectories, packageDirectories, QUIET_PERIOD_MILLIS,
+                hotReloader::reload);
+        hotReloader.watcher.start();
+        return hotReloader;
+    }
+
+    /**
+     * Reloads the specified classes and rewires the beans depending on them. If the reload fails, the changes are kept
+     * and retried with the next ones.
+     *
+     * @param updatedClasses the names of the added and changed classes
+     * @param removedClasses the names of the removed classes
+     */
+    synchronized void reload(Set<String> updatedClasses, Set<String> removedClasses) {
+        pendingUpdates.removeAll(removedClasses);
+        pendingUpdates.addAll(updatedClasses);
+        pendingRemovals.removeAll(updatedClasses);
+        pendingRemovals.addAll(removedClasses);
+        try {
+            Set<Class<?>> reloadedClasses = reloadPending();
+            pendingUpdates.clear();
+            pendingRemovals.clear();
+            listener.classesReloaded(reloadedClasses);
+        } catch (ClassNotFoundException | RuntimeException | LinkageError exception) {
+            listener.reloadFailed(exception);
+        }
+    }
+
+    private Set<Class<?>> reloadPending() throws ClassNotFoundException {
+        // Every package an earlier generation loaded is loaded again, even if a failed reload did not record it
+        Set<String> packages = new HashSet<>(reloadedPackages);
+        Map<String, Class<?>> plannedClasses = new HashMap<>();
+        for (Class<?> plannedClass : container.getPlannedClasses()) {
+            plannedClasses.put(plannedClass.getName(), plannedClass);
+            if (plannedClass.getClassLoader() instanceof ReloadingClassLoader) {
+                packages.add(ReloadingClassLoader.packageOf(plannedClass.getName()));
+            }
+        }
+        Set<String> changedClasses = new LinkedHashSet<>(pendingUpdates);
+        changedClasses.addAll(pendingRemovals);
+        changedClasses.forEach(className -> packages.add(ReloadingClassLoader.packageOf(className)));
+
+        List<Class<?>> addedComponents = findAddedComponents(
+                new ReloadingClassLoader(parentClassLoader, classDirectories, new HashSet<>(packages)), plannedClasses);
+
+        // Every planned class of a reloaded package is stale, and so is every class depending on a stale one
+        Set<Class<?>> staleClasses;
+        boolean packagesAdded;
+        do {
+            Set<Class<?>> changed = new LinkedHashSet<>(addedComponents);
+            for (Class<?> plannedClass : plannedClasses.values()) {
+                if (packages.contains(ReloadingClassLoader.packageOf(plannedClass.getName()))) {
+                    changed.add(plannedClass);
+                }
+            }
+            staleClasses = container.getDependents(changed);
+            packagesAdded = false;
+            for (Class<?> staleClass : staleClasses) {
+                packagesAdded |= packages.add(ReloadingClassLoader.packageOf(staleClass.getName()));
+            }
+        } while (packagesAdded);
+
+        // The packages are recorded before anything is rewired, a superset of the loaded packages is always safe
+        ReloadingClassLoader classLoader = new ReloadingClassLoader(parentClassLoader, classDirectories, packages);
+        reloadedPackages = packages;
+        List<Class<?>> components = new ArrayList<>();
+        for (Class<?> component : container.getRegisteredClasses()) {
+            if (!staleClasses.contains(component)) {
+                components.add(component);
+            } else if (!pendingRemovals.contains(component.getName())) {
+                components.add(classLoader.loadClass(component.getName()));
+            }
+        }
+        for (Class<?> addedComponent : addedComponents) {
+            components.add(classLoader.loadClass(addedComponent.getName()));
+        }
+        container.rewire(components, staleClasses);
+
+        Set<Class<?>> reloadedClasses = new LinkedHashSet<>();
+        for (Class<?> staleClass : staleClasses) {
+            if (!pendingRemovals.contains(staleClass.getName())) {
+                reloadedClasses.add(classLoader.loadClass(staleClass.getName()));
+            }
+        }
+        for (Class<?> addedComponent : addedComponents) {
+            reloadedClasses.add(classLoader.loadClass(addedComponent.getName()));
+        }
+        if (plannedClasses.containsKey(entryPointName) && staleClasses.contains(plannedClasses.get(entryPointName))) {
+            container.register(classLoader.loadClass(entryPointName));
+        }
+        return reloadedClasses;
+    }
+
+    /**
+     * Loads the updated classes that were not planned yet with a throwaway class loader, and returns the components
+     * among them that the scan configuration accepts.
+     */
+    private List<Class<?>> findAddedComponents(ClassLoader probeClassLoader, Map<String, Class<?>> plannedClasses)
+            throws ClassNotFoundException {
+        List<Class<?>> addedComponents = new ArrayList<>();
+        for (String className : pendingUpdates) {
+            if (!plannedClasses.containsKey(className) && configuration.acceptsClass(className)) {
+                Class<?> clazz = Class.forName(className, false, probeClassLoader);
+                if (clazz.isAnnotationPresent(Component.class)) {
+                    addedComponents.add(clazz);
+                }
+            }
+        }
+        return addedComponents;
+    }
+
+    /**
+     * Stops watching the class directories.
+     */
+    @Override
+    public void close() {
+        watcher.close();
+    }
+}
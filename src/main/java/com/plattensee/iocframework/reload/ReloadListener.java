@@ -0,0 +1,33 @@
+package com.plattensee.iocframework.reload;
+
+import java.util.Set;
+
+/**
+ * The ReloadListener interface is notified when the HotReloader rewired the context after class files changed, or
+ * failed to. Both methods have an empty default implementation. They are called on the thread watching the class
+ * directories.
+ */
+public interface ReloadListener {
+    /**
+     * The listener installed when no one listens to the reloads.
+     */
+    ReloadListener NONE = new ReloadListener() {
+    };
+
+    /**
+     * Called when the changed classes were reloaded and the beans depending on them were rebuilt.
+     *
+     * @param reloadedClasses the new versions of the reloaded beans and the added components
+     */
+    default void classesReloaded(Set<Class<?>> reloadedClasses) {
+    }
+
+    /**
+     * Called when the changed classes could not be reloaded or wired. The context keeps its previous wiring, and the
+     * changes are retried together with the next ones.
+     *
+     * @param failure the exception or linkage error that stopped the reload
+     */
+    default void reloadFailed(Throwable failure) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.plattensee.iocframework.reload;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The ReloadingClassLoader loads the classes of the reloaded packages from the class directories, instead of asking
+ * its parent first, so their latest class files are loaded. The classes of the other packages, and the classes of the
+ * reloaded packages that are not found in the class directories, are loaded by the parent.
+ * <p>
+ * Whole packages are reloaded rather than single classes, since the JVM only grants package-private access between
+ * classes of the same package loaded by the same class loader.
+ */
+final class ReloadingClassLoader extends ClassLoader {
+    static {
+        registerAsParallelCapable();
+    }
+
+    private final List<Path> classDirectories;
+    private final Set<String> reloadedPackages;
+
+    ReloadingClassLoader(ClassLoader parent, List<Path> classDirectories, Set<String> reloadedPackages) {
+        super(parent);
+        this.classDirectories = classDirectories;
+        this.reloadedPackages = reloadedPackages;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!reloadedPackages.contains(packageOf(name))) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> clazz = findLoadedClass(name);
+            if (clazz == null) {
+                Path classFile = classFileOf(name);
+                if (classFile == null) {
+                    return super.loadClass(name, resolve);
+                }
+                byte[] bytes;
+                try {
+                    bytes = Files.readAllBytes(classFile);
+                } catch (IOException exception) {
+                    throw new ClassNotFoundException(String.format("Unable to read %s", classFile), exception);
+                }
+                clazz = defineClass(name, bytes, 0, bytes.length);
+            }
+            if (resolve) {
+                resolveClass(clazz);
+            }
+            return clazz;
+        }
+    }
+
+    private Path classFileOf(String name) {
+        String relativePath = name.replace('.', File.separatorChar) + ".class";
+        for (Path classDirectory : classDirectories) {
+            Path classFile = classDirectory.resolve(relativePath);
+            if (Files.isRegularFile(classFile)) {
+                return classFile;
+            }
+        }
+        return null;
+    }
+
+    static String packageOf(String className) {
+        int packageEnd = className.lastIndexOf('.');
+        return packageEnd < 0 ? "" : className.substring(0, packageEnd);
+    }
+}
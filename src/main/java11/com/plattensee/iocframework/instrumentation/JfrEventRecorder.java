@@ -0,0 +1,77 @@
+package com.plattensee.iocframework.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The JfrEventRecorder binds the JfrContainerListener to the jdk.jfr API. It is compiled into the Java 11 release of
+ * the multi-release jar and loaded reflectively, so the Java 8 classes of the framework do not refer to jdk.jfr.
+ */
+final class JfrEventRecorder implements ContainerListener {
+
+    @Override
+    public void phaseCompleted(StartupPhase phase, long durationNanos) {
+        PhaseEvent event = new PhaseEvent();
+        if (event.isEnabled()) {
+            event.phase = phase.name();
+            event.durationNanos = durationNanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void beanCreated(Class<?> beanClass, long durationNanos) {
+        commitBeanEvent(beanClass, "construct", durationNanos);
+    }
+
+    @Override
+    public void beanInjected(Class<?> beanClass, long durationNanos) {
+        commitBeanEvent(beanClass, "inject", durationNanos);
+    }
+
+    private static void commitBeanEvent(Class<?> beanClass, String step, long durationNanos) {
+        BeanEvent event = new BeanEvent();
+        if (event.isEnabled()) {
+            event.beanClass = beanClass;
+            event.step = step;
+            event.durationNanos = durationNanos;
+            event.commit();
+        }
+    }
+
+    @Name("com.plattensee.iocframework.StartupPhase")
+    @Label("Spider Startup Phase")
+    @Category("Spider IOC")
+    @Description("A completed startup phase of a Spider application context")
+    @StackTrace(false)
+    static class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long durationNanos;
+    }
+
+    @Name("com.plattensee.iocframework.Bean")
+    @Label("Spider Bean")
+    @Category("Spider IOC")
+    @Description("The construction or injection of a bean by a Spider container")
+    @StackTrace(false)
+    static class BeanEvent extends Event {
+        @Label("Bean Class")
+        Class<?> beanClass;
+
+        @Label("Step")
+        String step;
+
+        @Label("Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long durationNanos;
+    }
+}
@@ -0,0 +1,176 @@
+package com.plattensee.iocframework.locator;
+
+import com.plattensee.iocframework.annotation.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.module.ModuleReader;
+import java.lang.module.ModuleReference;
+import java.lang.module.ResolvedModule;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * The ModuleClassLocator is an implementation of the ClassLocator interface that finds the components of the named
+ * modules of module layers, as well as those of the class path through another locator.
+ * <p>
+ * The packages of a module are known from its descriptor, so the modules without a scanned package are skipped
+ * without any I/O. The resources of the other modules are listed through their ModuleReader, and like the
+ * BytecodeClassScanner, the @Component annotation is read from the class files, so only the components are loaded,
+ * without being initialized. The modules have to open the packages of their components to the framework.
+ * <p>
+ * This is the Java 9 version of the class, packaged in the multi-release jar of the framework.
+ */
+public class ModuleClassLocator implements ClassLocator {
+    private static final String CLASS_FILE_SUFFIX = ".class";
+
+    private final List<ModuleLayer> moduleLayers;
+    private final ClassLocator classPathLocator;
+    private final ClassFileAnnotationReader annotationReader = new ClassFileAnnotationReader(Component.class);
+
+    /**
+     * Constructs a new ModuleClassLocator that scans the modules of the boot layer and the class path.
+     *
+     * @param classPathLocator the locator scanning the class path, or null to scan the modules only
+     */
+    public ModuleClassLocator(ClassLocator classPathLocator) {
+        this(Collections.singletonList(ModuleLayer.boot()), classPathLocator);
+    }
+
+    /**
+     * Constructs a new ModuleClassLocator that scans the modules of the specified module layers and the class path.
+     * The modules of the parents of a layer are only scanned if the parents are given as well.
+     *
+     * @param moduleLayers     the java.lang.ModuleLayer instances whose modules are scanned
+     * @param classPathLocator the locator scanning the class path, or null to scan the modules only
+     * @throws IllegalArgumentException if an element is not a module layer
+     */
+    public ModuleClassLocator(List<?> moduleLayers, ClassLocator classPathLocator) {
+        List<ModuleLayer> layers = new ArrayList<>();
+        for (Object moduleLayer : Objects.requireNonNull(moduleLayers, "Module layers cannot be null!")) {
+            if (!(moduleLayer instanceof ModuleLayer)) {
+                throw new IllegalArgumentException(String.format("%s is not a module layer", moduleLayer));
+            }
+            layers.add((ModuleLayer) moduleLayer);
+        }
+        this.moduleLayers = layers;
+        this.classPathLocator = classPathLocator;
+    }
+
+    /**
+     * Scans the specified package and its sub-packages for classes annotated with the @Component annotation.
+     *
+     * @param packageName the name of the package to scan
+     * @return a list of component classes found in the package and its sub-packages
+     * @throws NullPointerException     if the package name is null
+     * @throws PackageScanningException if a module cannot be read or a component cannot be loaded
+     */
+    @Override
+    public List<Class<?>> scan(String packageName) {
+        return scan(ScanConfiguration.of(Objects.requireNonNull(packageName, "Package cannot be null!")));
+    }
+
+    /**
+     * Scans the base packages of the specified configuration for classes annotated with the @Component annotation, in
+     * the modules of the layers, ordered by module name, and then on the class path. Modules without an accepted
+     * package of the configuration are not read, and class files it does not accept are not read either.
+     *
+     * @param configuration the packages and patterns to scan
+     * @return a list of component classes found in the base packages and accepted by the configuration
+     * @throws PackageScanningException if a module cannot be read or a component cannot be loaded
+     */
+    @Override
+    public List<Class<?>> scan(ScanConfiguration configuration) {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        for (ModuleLayer moduleLayer : moduleLayers) {
+            List<Module> modules = new ArrayList<>(moduleLayer.modules());
+            modules.sort(Comparator.comparing(Module::getName));
+            for (Module module : modules) {
+                Set<String> packages = scannedPackages(module, configuration);
+                if (!packages.isEmpty()) {
+                    scanModule(moduleLayer, module, packages, configuration, classes);
+                }
+            }
+        }
+        if (classPathLocator != null) {
+            classes.addAll(classPathLocator.scan(configuration));
+        }
+        return new ArrayList<>(classes);
+    }
+
+    /**
+     * Returns the packages of the module within the base packages that the configuration accepts, reading only the
+     * module descriptor.
+     */
+    private static Set<String> scannedPackages(Module module, ScanConfiguration configuration) {
+        Set<String> packages = new HashSet<>();
+        for (String packageName : module.getDescriptor().packages()) {
+            for (String basePackage : configuration.getBasePackages()) {
+                if ((basePackage.isEmpty() || packageName.equals(basePackage) || packageName.startsWith(basePackage + '.'))
+                        && configuration.acceptsPackage(packageName)) {
+                    packages.add(packageName);
+                    break;
+                }
+            }
+        }
+        return packages;
+    }
+
+    private void scanModule(ModuleLayer moduleLayer, Module module, Set<String> packages,
+                            ScanConfiguration configuration, Set<Class<?>> classes) {
+        ModuleReference reference = moduleLayer.configuration().findModule(module.getName())
+                .map(ResolvedModule::reference)
+                .orElseThrow(() -> new PackageScanningException(String.format("Module %s is not resolved", module.getName())));
+        try (ModuleReader reader = reference.open(); Stream<String> resources = reader.list()) {
+            for (String resource : (Iterable<String>) resources::iterator) {
+                if (!isClassFile(resource)) {
+                    continue;
+                }
+                int packageEnd = resource.lastIndexOf('/');
+                String packageName = packageEnd < 0 ? "" : resource.substring(0, packageEnd).replace('/', '.');
+                String className = resource.substring(0, resource.length() - CLASS_FILE_SUFFIX.length()).replace('/', '.');
+                if (packages.contains(packageName) && configuration.acceptsClass(className) && isComponent(reader, resource)) {
+                    classes.add(loadClass(module, className));
+                }
+            }
+        } catch (IOException | UncheckedIOException exception) {
+            throw new PackageScanningException(String.format("Unable to scan module %s", module.getName()), exception);
+        }
+    }
+
+    private boolean isComponent(ModuleReader reader, String resource) throws IOException {
+        Optional<ByteBuffer> classFile = reader.read(resource);
+        if (!classFile.isPresent()) {
+            return false;
+        }
+        try {
+            return annotationReader.isAnnotated(classFile.get());
+        } finally {
+            reader.release(classFile.get());
+        }
+    }
+
+    private static boolean isClassFile(String resource) {
+        return resource.endsWith(CLASS_FILE_SUFFIX)
+                && !resource.endsWith("module-info.class")
+                && !resource.endsWith("package-info.class");
+    }
+
+    private static Class<?> loadClass(Module module, String className) {
+        try {
+            return Class.forName(className, false, module.getClassLoader());
+        } catch (ClassNotFoundException exception) {
+            throw new PackageScanningException(String.format("Component %s could not be loaded from module %s",
+                    className, module.getName()), exception);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.plattensee.iocframework;
+
+import com.plattensee.iocframework.container.DependencyContainer;
+import com.plattensee.iocframework.fixture.Application;
+import com.plattensee.iocframework.locator.ClassLocator;
+import com.plattensee.iocframework.locator.ScanConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpiderApplicationContextTest {
+    private static final ClassLocator LOCATOR = packageName -> Collections.singletonList(Application.class);
+
+    @Test
+    void usesTheGeneratedContextOfAnUnconfiguredContext() {
+        SpiderApplicationContext context = new SpiderApplicationContext(DependencyContainer.class, LOCATOR);
+
+        Application application = context.initContext(Application.class);
+
+        assertEquals("generated context", application.createdBy);
+        assertSame(application, context.getBean(Application.class));
+    }
+
+    @Test
+    void keepsTheContainerInstance() {
+        DependencyContainer container = new DependencyContainer();
+        SpiderApplicationContext context = new SpiderApplicationContext(container, LOCATOR);
+
+        Application application = context.initContext(Application.class);
+
+        assertEquals("container", application.createdBy);
+        assertSame(application, container.getBean(Application.class));
+    }
+
+    @Test
+    void keepsTheConfiguredFeatures() {
+        SpiderApplicationContext reportingContext = new SpiderApplicationContext(DependencyContainer.class, LOCATOR);
+        reportingContext.enableStartupReport();
+        assertEquals("container", reportingContext.initContext(Application.class).createdBy);
+        assertTrue(reportingContext.getStartupReport().toString().contains(Application.class.getName()));
+
+        SpiderApplicationContext scanningContext = new SpiderApplicationContext(DependencyContainer.class, LOCATOR);
+        scanningContext.setScanConfiguration(ScanConfiguration.of("com.plattensee.iocframework.fixture"));
+        assertEquals("container", scanningContext.initContext(Application.class).createdBy);
+
+        SpiderApplicationContext freezingContext = new SpiderApplicationContext(DependencyContainer.class, LOCATOR);
+        freezingContext.setFreezeEnabled(false);
+        assertEquals("container", freezingContext.initContext(Application.class).createdBy);
+    }
+
+    @Test
+    void rejectsTheEnabledGeneratedContextOfAConfiguredContext() {
+        SpiderApplicationContext context = new SpiderApplicationContext(new DependencyContainer(), LOCATOR);
+        context.enableStartupReport();
+        context.setGeneratedContextEnabled(true);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> context.initContext(Application.class));
+        assertTrue(exception.getMessage().contains("container instance, startup report"), exception.getMessage());
+    }
+
+    @Test
+    void scansWhenTheGeneratedContextIsDisabled() {
+        SpiderApplicationContext context = new SpiderApplicationContext(DependencyContainer.class, LOCATOR);
+        context.setGeneratedContextEnabled(false);
+
+        assertEquals("container", context.initContext(Application.class).createdBy);
+    }
+}
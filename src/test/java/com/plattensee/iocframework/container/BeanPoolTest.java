@@ -0,0 +1,170 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.IOCFrameworkRunner;
+import com.plattensee.iocframework.annotation.Component;
+import com.plattensee.iocframework.annotation.Inject;
+import com.plattensee.iocframework.annotation.Pooled;
+import com.plattensee.iocframework.annotation.PreDestroy;
+import com.plattensee.iocframework.exception.BeanInstantiationException;
+import com.plattensee.iocframework.testing.TestCompiler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URISyntaxException;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BeanPoolTest {
+    private static final List<Object> DESTROYED = new CopyOnWriteArrayList<>();
+
+    @TempDir
+    Path tempDir;
+
+    private DependencyContainer container;
+
+    @BeforeEach
+    void registerComponents() {
+        DESTROYED.clear();
+        Parser.CREATED.set(0);
+        container = new DependencyContainer();
+        container.registerClassesInPath(Arrays.asList(Dictionary.class, Parser.class, ImportJob.class));
+    }
+
+    @Test
+    void fillsThePoolWithWiredInstancesAtStartup() {
+        assertEquals(2, Parser.CREATED.get());
+
+        BeanPool<Parser> pool = container.getBean(ImportJob.class).parsers;
+        Parser first = pool.borrow();
+        Parser second = pool.borrow();
+
+        assertEquals(2, Parser.CREATED.get());
+        assertNotSame(first, second);
+        assertSame(container.getBean(Dictionary.class), first.dictionary);
+        assertSame(pool, container.getBeanPool(Parser.class));
+        assertEquals(2, pool.getSize());
+    }
+
+    @Test
+    void createsAndDestroysExtraInstancesWhenEveryInstanceIsBorrowed() {
+        BeanPool<Parser> pool = container.getBeanPool(Parser.class);
+        Parser first = pool.borrow();
+        Parser second = pool.borrow();
+        Parser extra = pool.borrow();
+        assertEquals(3, Parser.CREATED.get());
+
+        pool.release(first);
+        pool.release(second);
+        pool.release(extra);
+
+        assertEquals(1, DESTROYED.size());
+        assertTrue(Arrays.asList(first, second, extra).contains(DESTROYED.get(0)));
+    }
+
+    @Test
+    void returnsTheInstanceOfALease() {
+        BeanPool<Parser> pool = container.getBeanPool(Parser.class);
+        Parser parser;
+        try (BeanPool.Lease<Parser> lease = pool.lease()) {
+            parser = lease.get();
+            lease.close();
+            assertThrows(IllegalStateException.class, lease::get);
+        }
+
+        assertTrue(Arrays.asList(pool.borrow(), pool.borrow()).contains(parser));
+        assertEquals(2, Parser.CREATED.get());
+    }
+
+    @Test
+    void destroysTheIdleInstancesOnShutdown() {
+        BeanPool<Parser> pool = container.getBeanPool(Parser.class);
+        Parser borrowed = pool.borrow();
+
+        assertTrue(container.shutdown(10, TimeUnit.SECONDS));
+
+        assertEquals(1, DESTROYED.size());
+        assertNotSame(borrowed, DESTROYED.get(0));
+        pool.release(borrowed);
+        assertSame(borrowed, pool.borrow());
+    }
+
+    @Test
+    void rejectsThePoolOfAComponentThatIsNotPooled() {
+        assertThrows(BeanInstantiationException.class, () -> container.getBeanPool(Dictionary.class));
+    }
+
+    @Test
+    void fillsAndDestroysThePoolsOfTheGeneratedContext() throws Exception {
+        String source = new ContextSourceGenerator(new DependencyContainer())
+                .generate(ImportJob.class, Arrays.asList(Dictionary.class, Parser.class, ImportJob.class));
+        Path classes = new TestCompiler()
+                .source(GeneratedContainer.generatedClassNameOf(ImportJob.class), source)
+                .classPath(testClasses())
+                .compileTo(tempDir.resolve("generated"));
+        try (URLClassLoader classLoader = TestCompiler.classLoader(classes)) {
+            GeneratedContainer generated = (GeneratedContainer) classLoader
+                    .loadClass(GeneratedContainer.generatedClassNameOf(ImportJob.class))
+                    .getConstructor()
+                    .newInstance();
+            Parser.CREATED.set(0);
+
+            generated.instantiateSingletons();
+            assertEquals(2, Parser.CREATED.get());
+            BeanPool<Parser> pool = generated.register(ImportJob.class).parsers;
+            assertSame(generated.getBean(Dictionary.class), pool.borrow().dictionary);
+
+            assertTrue(generated.shutdown(10, TimeUnit.SECONDS));
+            assertEquals(1, DESTROYED.size());
+            assertTrue(DESTROYED.get(0) instanceof Parser);
+        }
+    }
+
+    private static Path testClasses() throws URISyntaxException {
+        return Paths.get(BeanPoolTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    @Component
+    public static class Dictionary {
+    }
+
+    @Component
+    @Pooled(size = 2)
+    public static class Parser {
+        static final AtomicInteger CREATED = new AtomicInteger();
+
+        @Inject
+        public Dictionary dictionary;
+
+        public Parser() {
+            CREATED.incrementAndGet();
+        }
+
+        @PreDestroy
+        public void close() {
+            DESTROYED.add(this);
+        }
+    }
+
+    @Component
+    public static class ImportJob implements IOCFrameworkRunner {
+        @Inject
+        public BeanPool<Parser> parsers;
+
+        @Override
+        public void run() {
+        }
+    }
+}
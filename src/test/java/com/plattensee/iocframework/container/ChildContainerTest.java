@@ -0,0 +1,195 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.annotation.Component;
+import com.plattensee.iocframework.annotation.Inject;
+import com.plattensee.iocframework.annotation.PreDestroy;
+import com.plattensee.iocframework.annotation.Scope;
+import com.plattensee.iocframework.annotation.ScopeType;
+import com.plattensee.iocframework.exception.BeanInstantiationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChildContainerTest {
+    private static final List<Object> DESTROYED = new CopyOnWriteArrayList<>();
+
+    private DependencyContainer container;
+
+    @BeforeEach
+    void registerComponents() {
+        DESTROYED.clear();
+        container = new DependencyContainer();
+        container.registerClassesInPath(Arrays.asList(Settings.class, Tenant.class, TenantService.class,
+                SlowTenant.class, OtherSlowTenant.class, GatedTenant.class));
+    }
+
+    @Test
+    void createsOneInstancePerChildAndSharesTheSingletons() {
+        try (ChildContainer first = container.createChildContainer();
+             ChildContainer second = container.createChildContainer()) {
+            TenantService service = first.getBean(TenantService.class);
+
+            assertSame(first.getBean(Tenant.class), service.tenant);
+            assertSame(service.tenant, first.getBean(TenantService.class).tenant);
+            assertNotSame(service.tenant, second.getBean(Tenant.class));
+            assertSame(container.getBean(Settings.class), service.settings);
+            assertSame(container.getBean(Settings.class), second.getBean(Settings.class));
+        }
+    }
+
+    @Test
+    void rejectsContextBeansOutsideOfAChild() {
+        assertThrows(BeanInstantiationException.class, () -> container.getBean(Tenant.class));
+    }
+
+    @Test
+    void destroysTheInstancesOfTheChildWhenItIsClosed() {
+        ChildContainer child = container.createChildContainer();
+        Tenant tenant = child.getBean(TenantService.class).tenant;
+
+        child.close();
+        child.close();
+
+        assertEquals(Arrays.asList(tenant), DESTROYED);
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> child.getBean(Tenant.class));
+        assertEquals("The child container is closed", exception.getMessage());
+        assertThrows(IllegalStateException.class, () -> child.getBean(Settings.class));
+    }
+
+    @Test
+    void createsDifferentBeansConcurrently() throws Exception {
+        SlowTenant.BARRIER.reset();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (ChildContainer child = container.createChildContainer()) {
+            // Each constructor waits for the other one, so the beans are only created if neither holds the child's lock
+            Future<SlowTenant> slowTenant = executor.submit(() -> child.getBean(SlowTenant.class));
+            Future<OtherSlowTenant> otherSlowTenant = executor.submit(() -> child.getBean(OtherSlowTenant.class));
+
+            assertSame(slowTenant.get(10, TimeUnit.SECONDS), child.getBean(SlowTenant.class));
+            assertSame(otherSlowTenant.get(10, TimeUnit.SECONDS), child.getBean(OtherSlowTenant.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void createsASingleInstanceForConcurrentFirstAccesses() throws Exception {
+        GatedTenant.CREATED.set(0);
+        GatedTenant.GATE = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (ChildContainer child = container.createChildContainer()) {
+            List<Future<GatedTenant>> lookups = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                lookups.add(executor.submit(() -> child.getBean(GatedTenant.class)));
+            }
+            Thread.sleep(50);
+            GatedTenant.GATE.countDown();
+
+            GatedTenant instance = lookups.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<GatedTenant> lookup : lookups) {
+                assertSame(instance, lookup.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, GatedTenant.CREATED.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void destroysAnInstanceCreatedWhileTheChildWasClosed() throws Exception {
+        GatedTenant.CREATED.set(0);
+        GatedTenant.GATE = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ChildContainer child = container.createChildContainer();
+            Future<GatedTenant> lookup = executor.submit(() -> child.getBean(GatedTenant.class));
+            while (GatedTenant.CREATED.get() == 0) {
+                Thread.sleep(1);
+            }
+
+            child.close();
+            GatedTenant.GATE.countDown();
+
+            Exception exception = assertThrows(Exception.class, () -> lookup.get(10, TimeUnit.SECONDS));
+            assertTrue(exception.getCause() instanceof IllegalStateException, exception.toString());
+            assertEquals(1, DESTROYED.size());
+            assertTrue(DESTROYED.get(0) instanceof GatedTenant);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Component
+    public static class Settings {
+    }
+
+    @Component
+    @Scope(ScopeType.CONTEXT)
+    public static class Tenant {
+        @PreDestroy
+        public void close() {
+            DESTROYED.add(this);
+        }
+    }
+
+    @Component
+    @Scope(ScopeType.PROTOTYPE)
+    public static class TenantService {
+        @Inject
+        Tenant tenant;
+        @Inject
+        Settings settings;
+    }
+
+    @Component
+    @Scope(ScopeType.CONTEXT)
+    public static class SlowTenant {
+        static final CyclicBarrier BARRIER = new CyclicBarrier(2);
+
+        public SlowTenant() throws Exception {
+            BARRIER.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Component
+    @Scope(ScopeType.CONTEXT)
+    public static class OtherSlowTenant {
+        public OtherSlowTenant() throws Exception {
+            SlowTenant.BARRIER.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Component
+    @Scope(ScopeType.CONTEXT)
+    public static class GatedTenant {
+        static final AtomicInteger CREATED = new AtomicInteger();
+        static volatile CountDownLatch GATE;
+
+        public GatedTenant() throws InterruptedException {
+            CREATED.incrementAndGet();
+            GATE.await(5, TimeUnit.SECONDS);
+        }
+
+        @PreDestroy
+        public void close() {
+            DESTROYED.add(this);
+        }
+    }
+}
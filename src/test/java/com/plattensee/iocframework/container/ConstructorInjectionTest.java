@@ -0,0 +1,277 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.IOCFrameworkRunner;
+import com.plattensee.iocframework.annotation.Component;
+import com.plattensee.iocframework.annotation.Inject;
+import com.plattensee.iocframework.annotation.Lazy;
+import com.plattensee.iocframework.annotation.Named;
+import com.plattensee.iocframework.annotation.Scope;
+import com.plattensee.iocframework.annotation.ScopeType;
+import com.plattensee.iocframework.exception.BeanInstantiationException;
+import com.plattensee.iocframework.exception.CircularDependencyException;
+import com.plattensee.iocframework.exception.WiredConstructorInvocationException;
+import com.plattensee.iocframework.testing.TestCompiler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URISyntaxException;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConstructorInjectionTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void passesTheDependenciesToTheInjectConstructor() {
+        DependencyContainer container = new DependencyContainer();
+        container.registerClassesInPath(Arrays.asList(Engine.class, PetrolFuel.class, DieselFuel.class, Wheel.class,
+                Car.class));
+
+        Car car = container.getBean(Car.class);
+
+        assertSame(container.getBean(Engine.class), car.engine);
+        assertTrue(car.fuel instanceof DieselFuel);
+        assertEquals(2, car.fuels.size());
+        Wheel wheel = car.wheels.get();
+        assertNotSame(wheel, car.wheels.get());
+        assertSame(car.engine, wheel.engine);
+    }
+
+    @Test
+    void createsLazyParametersOnFirstUse() {
+        Gearbox.CREATED.set(0);
+        DependencyContainer container = new DependencyContainer();
+        container.registerClassesInPath(Arrays.asList(Gearbox.class, Truck.class));
+
+        Truck truck = container.getBean(Truck.class);
+
+        assertEquals(0, Gearbox.CREATED.get());
+        assertEquals(6, truck.transmission.gears());
+        assertEquals(1, Gearbox.CREATED.get());
+        assertSame(container.getBean(Transmission.class), container.getBean(Gearbox.class));
+    }
+
+    @Test
+    void breaksACycleThroughALazyParameter() {
+        DependencyContainer container = new DependencyContainer();
+        container.registerClassesInPath(Arrays.asList(Pilot.class, Plane.class));
+
+        Plane plane = container.getBean(Plane.class);
+
+        assertSame(plane, container.getBean(Pilot.class).plane);
+        assertEquals("flying", plane.pilot.fly());
+    }
+
+    @Test
+    void rejectsAConstructorCycle() {
+        DependencyContainer container = new DependencyContainer();
+
+        CircularDependencyException exception = assertThrows(CircularDependencyException.class,
+                () -> container.registerClassesInPath(Arrays.asList(Hen.class, Egg.class)));
+        assertTrue(exception.getMessage().contains(Hen.class.getName()), exception.getMessage());
+    }
+
+    @Test
+    void rejectsTwoInjectConstructors() {
+        DependencyContainer container = new DependencyContainer();
+
+        BeanInstantiationException exception = assertThrows(BeanInstantiationException.class,
+                () -> container.registerClassesInPath(Arrays.asList(Engine.class, Ambiguous.class)));
+        assertTrue(exception.getMessage().contains("more than one @Inject constructor"), exception.getMessage());
+    }
+
+    @Test
+    void wrapsTheFailureOfTheConstructor() {
+        DependencyContainer container = new DependencyContainer();
+
+        WiredConstructorInvocationException exception = assertThrows(WiredConstructorInvocationException.class,
+                () -> container.registerClassesInPath(Arrays.asList(Engine.class, Broken.class)));
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    void generatesTheConstructorCall() throws Exception {
+        String source = new ContextSourceGenerator(new DependencyContainer())
+                .generate(Garage.class, Arrays.asList(Engine.class, Garage.class));
+        assertTrue(source.contains("new " + Garage.class.getCanonicalName() + "("), source);
+
+        Path classes = new TestCompiler()
+                .source(GeneratedContainer.generatedClassNameOf(Garage.class), source)
+                .classPath(testClasses())
+                .compileTo(tempDir.resolve("generated"));
+        try (URLClassLoader classLoader = TestCompiler.classLoader(classes)) {
+            GeneratedContainer container = (GeneratedContainer) classLoader
+                    .loadClass(GeneratedContainer.generatedClassNameOf(Garage.class))
+                    .getConstructor()
+                    .newInstance();
+            container.instantiateSingletons();
+
+            Garage garage = container.register(Garage.class);
+
+            assertSame(container.getBean(Engine.class), garage.engine);
+        }
+    }
+
+    private static Path testClasses() throws URISyntaxException {
+        return Paths.get(ConstructorInjectionTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    public interface Fuel {
+    }
+
+    public interface Transmission {
+        int gears();
+    }
+
+    public interface Flyer {
+        String fly();
+    }
+
+    @Component
+    public static class Engine {
+    }
+
+    @Component
+    public static class PetrolFuel implements Fuel {
+    }
+
+    @Component
+    @Named("diesel")
+    public static class DieselFuel implements Fuel {
+    }
+
+    @Component
+    @Scope(ScopeType.PROTOTYPE)
+    public static class Wheel {
+        final Engine engine;
+
+        @Inject
+        public Wheel(Engine engine) {
+            this.engine = engine;
+        }
+    }
+
+    @Component
+    public static class Car {
+        final Engine engine;
+        final Fuel fuel;
+        final List<Fuel> fuels;
+        final Provider<Wheel> wheels;
+
+        @Inject
+        public Car(Engine engine, @Inject(className = "diesel") Fuel fuel, List<Fuel> fuels, Provider<Wheel> wheels) {
+            this.engine = engine;
+            this.fuel = fuel;
+            this.fuels = fuels;
+            this.wheels = wheels;
+        }
+    }
+
+    @Component
+    @Lazy
+    public static class Gearbox implements Transmission {
+        static final AtomicInteger CREATED = new AtomicInteger();
+
+        public Gearbox() {
+            CREATED.incrementAndGet();
+        }
+
+        @Override
+        public int gears() {
+            return 6;
+        }
+    }
+
+    @Component
+    public static class Truck {
+        final Transmission transmission;
+
+        @Inject
+        public Truck(@Lazy Transmission transmission) {
+            this.transmission = transmission;
+        }
+    }
+
+    @Component
+    public static class Pilot implements Flyer {
+        final Plane plane;
+
+        @Inject
+        public Pilot(Plane plane) {
+            this.plane = plane;
+        }
+
+        @Override
+        public String fly() {
+            return "flying";
+        }
+    }
+
+    @Component
+    public static class Plane {
+        final Flyer pilot;
+
+        @Inject
+        public Plane(@Lazy Flyer pilot) {
+            this.pilot = pilot;
+        }
+    }
+
+    @Component
+    public static class Hen {
+        @Inject
+        public Hen(Egg egg) {
+        }
+    }
+
+    @Component
+    public static class Egg {
+        @Inject
+        public Egg(Hen hen) {
+        }
+    }
+
+    @Component
+    public static class Ambiguous {
+        @Inject
+        public Ambiguous() {
+        }
+
+        @Inject
+        public Ambiguous(Engine engine) {
+        }
+    }
+
+    @Component
+    public static class Broken {
+        @Inject
+        public Broken(Engine engine) {
+            throw new IllegalStateException("No engine fits");
+        }
+    }
+
+    @Component
+    public static class Garage implements IOCFrameworkRunner {
+        final Engine engine;
+
+        @Inject
+        public Garage(Engine engine) {
+            this.engine = engine;
+        }
+
+        @Override
+        public void run() {
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.annotation.Component;
+import com.plattensee.iocframework.annotation.Inject;
+import com.plattensee.iocframework.exception.CircularDependencyException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DependencyGraphTest {
+    private final Map<Class<?>, Class<?>[]> edges = new HashMap<>();
+
+    @Test
+    void ordersEveryBeanAfterItsDependencies() {
+        edge(String.class, Integer.class, Long.class);
+        edge(Integer.class, Short.class);
+        edge(Long.class, Short.class);
+
+        List<Class<?>> order = graph(String.class).getInstantiationOrder();
+
+        assertEquals(Arrays.asList(Short.class, Integer.class, Long.class, String.class), order);
+    }
+
+    @Test
+    void includesTheBeansOnlyReachableThroughDependencies() {
+        edge(String.class, Integer.class);
+        edge(Integer.class, Long.class);
+
+        DependencyGraph graph = graph(String.class);
+
+        assertEquals(Arrays.asList(Long.class, Integer.class, String.class), graph.getInstantiationOrder());
+        assertArrayEquals(new Class<?>[]{Long.class}, graph.getDependencies(Integer.class));
+        assertArrayEquals(new Class<?>[0], graph.getDependencies(Long.class));
+    }
+
+    @Test
+    void visitsSharedDependenciesOnce() {
+        edge(String.class, Short.class);
+        edge(Integer.class, Short.class);
+
+        List<Class<?>> order = graph(String.class, Integer.class, Short.class).getInstantiationOrder();
+
+        assertEquals(Arrays.asList(Short.class, String.class, Integer.class), order);
+    }
+
+    @Test
+    void rejectsACycleAndDescribesIt() {
+        edge(String.class, Integer.class);
+        edge(Integer.class, Long.class);
+        edge(Long.class, Short.class, Integer.class);
+
+        CircularDependencyException exception = assertThrows(CircularDependencyException.class, () -> graph(String.class));
+
+        assertEquals("Circular dependency detected: java.lang.Integer -> java.lang.Long -> java.lang.Integer",
+                exception.getMessage());
+    }
+
+    @Test
+    void rejectsABeanDependingOnItself() {
+        edge(String.class, String.class);
+
+        CircularDependencyException exception = assertThrows(CircularDependencyException.class, () -> graph(String.class));
+
+        assertEquals("Circular dependency detected: java.lang.String -> java.lang.String", exception.getMessage());
+    }
+
+    @Test
+    void instantiatesTheSingletonsOfAContainerDependenciesFirst() {
+        Recorder.created.clear();
+        DependencyContainer container = new DependencyContainer();
+        container.registerClassesInPath(Arrays.asList(Top.class, Left.class, Right.class, Bottom.class));
+
+        assertEquals(Arrays.asList(Bottom.class, Left.class, Right.class, Top.class), Recorder.created);
+        Top top = container.getBean(Top.class);
+        assertSame(top.left.bottom, top.right.bottom);
+    }
+
+    @Test
+    void rejectsCircularComponentsWhenTheyAreRegistered() {
+        DependencyContainer container = new DependencyContainer();
+
+        CircularDependencyException exception = assertThrows(CircularDependencyException.class,
+                () -> container.registerClassesInPath(Arrays.asList(Chicken.class, Egg.class)));
+        assertTrue(exception.getMessage().contains(Chicken.class.getName() + " -> " + Egg.class.getName()));
+    }
+
+    private void edge(Class<?> bean, Class<?>... dependencies) {
+        edges.put(bean, dependencies);
+    }
+
+    private DependencyGraph graph(Class<?>... roots) {
+        return DependencyGraph.of(Arrays.asList(roots), bean -> edges.getOrDefault(bean, new Class<?>[0]));
+    }
+
+    static final class Recorder {
+        static final List<Class<?>> created = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @Component
+    public static class Top {
+        @Inject
+        Left left;
+        @Inject
+        Right right;
+
+        public Top() {
+            Recorder.created.add(Top.class);
+        }
+    }
+
+    @Component
+    public static class Left {
+        @Inject
+        Bottom bottom;
+
+        public Left() {
+            Recorder.created.add(Left.class);
+        }
+    }
+
+    @Component
+    public static class Right {
+        @Inject
+        Bottom bottom;
+
+        public Right() {
+            Recorder.created.add(Right.class);
+        }
+    }
+
+    @Component
+    public static class Bottom {
+        public Bottom() {
+            Recorder.created.add(Bottom.class);
+        }
+    }
+
+    @Component
+    public static class Chicken {
+        @Inject
+        Egg egg;
+    }
+
+    @Component
+    public static class Egg {
+        @Inject
+        Chicken chicken;
+    }
+}
@@ -0,0 +1,219 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.IOCFrameworkRunner;
+import com.plattensee.iocframework.SpiderApplicationContext;
+import com.plattensee.iocframework.annotation.Component;
+import com.plattensee.iocframework.annotation.Inject;
+import com.plattensee.iocframework.annotation.Lazy;
+import com.plattensee.iocframework.annotation.Named;
+import com.plattensee.iocframework.annotation.PreDestroy;
+import com.plattensee.iocframework.annotation.Scope;
+import com.plattensee.iocframework.annotation.ScopeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrozenContainerTest {
+    private DependencyContainer container;
+
+    @BeforeEach
+    void registerComponents() {
+        SlowSingleton.CREATED.set(0);
+        Resource.DESTROYED.clear();
+        container = new DependencyContainer();
+        container.registerClassesInPath(Arrays.asList(EnglishGreeting.class, GermanGreeting.class, Resource.class,
+                Consumer.class, SlowSingleton.class, TenantSession.class, RequestLog.class));
+    }
+
+    @Test
+    void keepsTheSingletonsAndTheirLookups() {
+        Resource resource = container.getBean(Resource.class);
+
+        container.freeze();
+
+        assertSame(resource, container.getBean(Resource.class));
+        assertSame(container.getBean(Resource.class), container.getBean(Closeable.class));
+        Consumer consumer = container.getBean(Consumer.class);
+        assertNotSame(consumer, container.getBean(Consumer.class));
+        assertSame(resource, consumer.resource);
+        assertTrue(consumer.greeting instanceof GermanGreeting);
+        assertSame(container.getBean(GermanGreeting.class), consumer.greeting);
+    }
+
+    @Test
+    void publishesTheSingletonsCreatedAfterTheFreeze() {
+        container.freeze();
+        long retainedSize = container.getRetainedMetadataSize();
+
+        SlowSingleton singleton = container.getBean(SlowSingleton.class);
+
+        assertSame(singleton, container.getBean(SlowSingleton.class));
+        assertSame(singleton, container.resolve(Consumer.class).slowSingleton.get());
+        assertEquals(1, SlowSingleton.CREATED.get());
+        assertEquals(retainedSize, container.getRetainedMetadataSize());
+    }
+
+    @Test
+    void createsEverySingletonOnceWhileFreezing() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 50; round++) {
+                registerComponents();
+                CyclicBarrier start = new CyclicBarrier(5);
+                List<Future<SlowSingleton>> lookups = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    lookups.add(executor.submit(() -> {
+                        start.await();
+                        return container.getBean(SlowSingleton.class);
+                    }));
+                }
+                start.await();
+                container.freeze();
+
+                SlowSingleton singleton = container.getBean(SlowSingleton.class);
+                for (Future<SlowSingleton> lookup : lookups) {
+                    assertSame(singleton, lookup.get(10, TimeUnit.SECONDS));
+                }
+                assertEquals(1, SlowSingleton.CREATED.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsRegistrationsAndExports() {
+        container.freeze();
+        container.freeze();
+
+        assertThrows(IllegalStateException.class,
+                () -> container.registerClassesInPath(Collections.singletonList(Resource.class)));
+        assertThrows(IllegalStateException.class, () -> container.createWiringSnapshot(new byte[0]));
+    }
+
+    @Test
+    void destroysTheFrozenSingletonsOnShutdown() {
+        Resource resource = container.getBean(Resource.class);
+        container.freeze();
+
+        assertTrue(container.shutdown(10, TimeUnit.SECONDS));
+
+        assertEquals(Collections.singletonList(resource), Resource.DESTROYED);
+        assertNotSame(resource, container.getBean(Resource.class));
+    }
+
+    @Test
+    void freezesTheContextUnlessDisabled() {
+        SpiderApplicationContext frozenContext = new SpiderApplicationContext(container = new DependencyContainer(),
+                packageName -> Arrays.asList(Application.class, Resource.class));
+        Application application = frozenContext.initContext(Application.class);
+        assertThrows(IllegalStateException.class, () -> container.createWiringSnapshot(new byte[0]));
+        assertSame(application.resource, container.getBean(Resource.class));
+
+        SpiderApplicationContext context = new SpiderApplicationContext(container = new DependencyContainer(),
+                packageName -> Arrays.asList(Application.class, Resource.class));
+        context.setFreezeEnabled(false);
+        context.initContext(Application.class);
+        assertDoesNotThrow(() -> container.createWiringSnapshot(new byte[0]));
+    }
+
+    @Test
+    void createsChildAndRequestBeansOfAFrozenContainer() {
+        Resource resource = container.getBean(Resource.class);
+        container.freeze();
+
+        try (ChildContainer child = container.createChildContainer()) {
+            TenantSession session = child.getBean(TenantSession.class);
+            assertSame(session, child.getBean(TenantSession.class));
+            assertSame(resource, session.resource);
+        }
+        container.runInRequestScope(() -> assertSame(container.getBean(RequestLog.class), container.getBean(RequestLog.class)));
+    }
+
+    public interface Greeting {
+    }
+
+    public interface Closeable {
+    }
+
+    @Component
+    public static class EnglishGreeting implements Greeting {
+    }
+
+    @Component
+    @Named("german")
+    public static class GermanGreeting implements Greeting {
+    }
+
+    @Component
+    public static class Resource implements Closeable {
+        static final List<Resource> DESTROYED = new CopyOnWriteArrayList<>();
+
+        @PreDestroy
+        public void close() {
+            DESTROYED.add(this);
+        }
+    }
+
+    @Component
+    @Lazy
+    public static class SlowSingleton {
+        static final AtomicInteger CREATED = new AtomicInteger();
+
+        public SlowSingleton() throws InterruptedException {
+            CREATED.incrementAndGet();
+            Thread.sleep(1);
+        }
+    }
+
+    @Component
+    @Scope(ScopeType.PROTOTYPE)
+    public static class Consumer {
+        @Inject
+        Resource resource;
+        @Inject(className = "german")
+        Greeting greeting;
+        @Inject
+        Provider<SlowSingleton> slowSingleton;
+    }
+
+    @Component
+    @Scope(ScopeType.CONTEXT)
+    public static class TenantSession {
+        @Inject
+        Resource resource;
+    }
+
+    @Component
+    @Scope(ScopeType.REQUEST)
+    public static class RequestLog {
+    }
+
+    @Component
+    public static class Application implements IOCFrameworkRunner {
+        @Inject
+        Resource resource;
+
+        @Override
+        public void run() {
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.annotation.Component;
+import com.plattensee.iocframework.exception.WiredConstructorNotFoundException;
+import com.plattensee.iocframework.instrumentation.StartupReport;
+import com.plattensee.iocframework.instrumentation.StartupReportCollector;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LambdaInstantiationStrategyTest {
+    private final LambdaInstantiationStrategy strategy = new LambdaInstantiationStrategy();
+
+    @Test
+    void generatesTheFactoryWithoutFallingBack() {
+        StartupReportCollector collector = new StartupReportCollector();
+
+        BeanFactory<Engine> factory = strategy.createFactory(Engine.class, collector);
+
+        assertNotSame(factory.newInstance(), factory.newInstance());
+        assertTrue(collector.getReport().getReflectiveFallbacks().isEmpty());
+        assertTrue(factory.getClass().isSynthetic(), factory.getClass().getName());
+    }
+
+    @Test
+    void reportsTheFallbackToReflection() {
+        StartupReportCollector collector = new StartupReportCollector();
+
+        // java.base does not open java.util to the framework, so no private lookup is available
+        BeanFactory<ArrayList> factory = strategy.createFactory(ArrayList.class, collector);
+
+        assertTrue(factory.newInstance().isEmpty());
+        StartupReport report = collector.getReport();
+        assertEquals(Arrays.asList(ArrayList.class), new ArrayList<>(report.getReflectiveFallbacks().keySet()));
+        assertTrue(report.toString().contains("reflective factory: java.util.ArrayList"), report.toString());
+    }
+
+    @Test
+    void reportsTheFallbacksOfTheContainer() {
+        DependencyContainer container = new DependencyContainer();
+        StartupReportCollector collector = new StartupReportCollector();
+        container.addContainerListener(collector);
+        container.setInstantiationStrategy(new LambdaInstantiationStrategy());
+
+        container.registerClassesInPath(Arrays.asList(Engine.class, ArrayList.class));
+
+        assertEquals(Arrays.asList(ArrayList.class),
+                new ArrayList<>(collector.getReport().getReflectiveFallbacks().keySet()));
+    }
+
+    @Test
+    void rejectsAMissingNoArgConstructor() {
+        assertThrows(WiredConstructorNotFoundException.class, () -> strategy.createFactory(Gear.class));
+    }
+
+    @Component
+    public static class Engine {
+    }
+
+    @Component
+    public static class Gear {
+        public Gear(int teeth) {
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.annotation.Component;
+import com.plattensee.iocframework.annotation.Inject;
+import com.plattensee.iocframework.annotation.PreDestroy;
+import com.plattensee.iocframework.annotation.Scope;
+import com.plattensee.iocframework.annotation.ScopeType;
+import com.plattensee.iocframework.exception.BeanInstantiationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScopedBeansTest {
+    private static final List<Object> DESTROYED = new CopyOnWriteArrayList<>();
+
+    private DependencyContainer container;
+
+    @BeforeEach
+    void registerComponents() {
+        DESTROYED.clear();
+        CurrentUser.CREATED.set(0);
+        container = new DependencyContainer();
+        container.registerClassesInPath(Arrays.asList(CurrentUser.class, ThreadBuffer.class, Greeter.class));
+    }
+
+    @Test
+    void createsOneInstancePerRequestAndDestroysIt() {
+        List<CurrentUser> users = new ArrayList<>();
+        container.runInRequestScope(() -> {
+            users.add(container.getBean(CurrentUser.class));
+            users.add(container.getBean(CurrentUser.class));
+        });
+        container.runInRequestScope(() -> users.add(container.getBean(CurrentUser.class)));
+
+        assertSame(users.get(0), users.get(1));
+        assertNotSame(users.get(0), users.get(2));
+        assertEquals(Arrays.asList(users.get(0), users.get(2)), DESTROYED);
+    }
+
+    @Test
+    void proxiesTheRequestBeansOfSingletons() throws Exception {
+        Greeter greeter = container.getBean(Greeter.class);
+
+        String first = container.callInRequestScope(greeter::greet);
+        String second = container.callInRequestScope(() -> greeter.greet() + " " + greeter.greet());
+
+        assertEquals("Hello user1", first);
+        assertEquals("Hello user2 Hello user2", second);
+    }
+
+    @Test
+    void bindsNestedRequestsSeparately() {
+        container.runInRequestScope(() -> {
+            CurrentUser outer = container.getBean(CurrentUser.class);
+            container.runInRequestScope(() -> assertNotSame(outer, container.getBean(CurrentUser.class)));
+            assertSame(outer, container.getBean(CurrentUser.class));
+            assertEquals(1, DESTROYED.size());
+        });
+
+        assertEquals(2, DESTROYED.size());
+    }
+
+    @Test
+    void destroysTheRequestBeansWhenTheActionFails() {
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> container.runInRequestScope(() -> {
+            container.getBean(CurrentUser.class);
+            throw new IllegalStateException("Request failed");
+        }));
+
+        assertEquals("Request failed", failure.getMessage());
+        assertEquals(1, DESTROYED.size());
+    }
+
+    @Test
+    void rejectsRequestBeansOutsideOfARequest() {
+        Greeter greeter = container.getBean(Greeter.class);
+
+        assertThrows(BeanInstantiationException.class, () -> container.getBean(CurrentUser.class));
+        assertThrows(BeanInstantiationException.class, greeter::greet);
+    }
+
+    @Test
+    void rejectsSingletonsDependingOnShorterLivedBeans() {
+        BeanInstantiationException exception = assertThrows(BeanInstantiationException.class,
+                () -> new DependencyContainer().registerClassesInPath(Arrays.asList(CurrentUser.class, Auditor.class)));
+
+        assertTrue(exception.getMessage().contains("cannot depend on the request-scoped"), exception.getMessage());
+    }
+
+    @Test
+    void createsOneInstancePerThreadUntilItsScopeEnds() throws Exception {
+        ThreadBuffer buffer = container.getBean(ThreadBuffer.class);
+        assertSame(buffer, container.getBean(ThreadBuffer.class));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertNotSame(buffer, executor.submit(() -> container.getBean(ThreadBuffer.class)).get());
+        } finally {
+            executor.shutdown();
+        }
+
+        container.endThreadScope();
+
+        assertEquals(Collections.singletonList(buffer), DESTROYED);
+        assertNotSame(buffer, container.getBean(ThreadBuffer.class));
+    }
+
+    @Test
+    void destroysTheThreadBeansOfEndedThreads() throws Exception {
+        Thread thread = new Thread(() -> container.getBean(ThreadBuffer.class));
+        thread.start();
+        thread.join();
+        thread = null;
+
+        for (int attempt = 0; attempt < 100 && DESTROYED.isEmpty(); attempt++) {
+            System.gc();
+            Thread.sleep(10);
+            // Entering or ending a thread scope destroys the beans of the collected threads
+            container.endThreadScope();
+        }
+
+        assertEquals(1, DESTROYED.size());
+    }
+
+    @Test
+    void destroysTheThreadBeansOfEveryThreadOnShutdown() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ThreadBuffer pooledBuffer = executor.submit(() -> container.getBean(ThreadBuffer.class)).get();
+            ThreadBuffer buffer = container.getBean(ThreadBuffer.class);
+
+            assertTrue(container.shutdown(10, TimeUnit.SECONDS));
+
+            assertTrue(DESTROYED.containsAll(Arrays.asList(pooledBuffer, buffer)), DESTROYED.toString());
+            assertNotSame(pooledBuffer, executor.submit(() -> container.getBean(ThreadBuffer.class)).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void createsDifferentBeansConcurrently() throws Exception {
+        DependencyContainer prototypes = new DependencyContainer();
+        prototypes.registerClassesInPath(Arrays.asList(SlowBean.class, OtherSlowBean.class));
+        ScopedInstances instances = new ScopedInstances(prototypes, ScopeType.REQUEST, new AtomicInteger(2));
+        SlowBean.BARRIER.reset();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // Each constructor waits for the other one, so the beans are only created if neither holds a lock
+            Future<Object> slowBean = executor.submit(() -> instances.getInstance(SlowBean.class, 0));
+            Future<Object> otherSlowBean = executor.submit(() -> instances.getInstance(OtherSlowBean.class, 1));
+
+            assertTrue(slowBean.get(10, TimeUnit.SECONDS) instanceof SlowBean);
+            assertTrue(otherSlowBean.get(10, TimeUnit.SECONDS) instanceof OtherSlowBean);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void createsASingleInstanceForConcurrentFirstAccesses() throws Exception {
+        DependencyContainer prototypes = new DependencyContainer();
+        prototypes.registerClassesInPath(Collections.singletonList(GatedBean.class));
+        ScopedInstances instances = new ScopedInstances(prototypes, ScopeType.REQUEST, new AtomicInteger(1));
+        GatedBean.CREATED.set(0);
+        GatedBean.GATE = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Object>> lookups = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                lookups.add(executor.submit(() -> instances.getInstance(GatedBean.class, 0)));
+            }
+            Thread.sleep(50);
+            GatedBean.GATE.countDown();
+
+            Object instance = lookups.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<Object> lookup : lookups) {
+                assertSame(instance, lookup.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, GatedBean.CREATED.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void readsTheFeatureVersion() {
+        String version = System.getProperty("java.specification.version");
+        try {
+            System.setProperty("java.specification.version", "1.8");
+            assertEquals(8, RequestScope.featureVersion());
+            System.setProperty("java.specification.version", "25");
+            assertEquals(25, RequestScope.featureVersion());
+        } finally {
+            System.setProperty("java.specification.version", version);
+        }
+    }
+
+    public interface UserInfo {
+        String name();
+    }
+
+    @Component
+    @Scope(ScopeType.REQUEST)
+    public static class CurrentUser implements UserInfo {
+        static final AtomicInteger CREATED = new AtomicInteger();
+
+        private final String name = "user" + CREATED.incrementAndGet();
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @PreDestroy
+        public void close() {
+            DESTROYED.add(this);
+        }
+    }
+
+    @Component
+    @Scope(ScopeType.THREAD)
+    public static class ThreadBuffer {
+        @PreDestroy
+        public void close() {
+            DESTROYED.add(this);
+        }
+    }
+
+    @Component
+    public static class Greeter {
+        @Inject
+        UserInfo user;
+
+        public String greet() {
+            return "Hello " + user.name();
+        }
+    }
+
+    @Component
+    public static class Auditor {
+        @Inject
+        CurrentUser user;
+    }
+
+    @Component
+    @Scope(ScopeType.PROTOTYPE)
+    public static class SlowBean {
+        static final CyclicBarrier BARRIER = new CyclicBarrier(2);
+
+        public SlowBean() throws Exception {
+            BARRIER.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Component
+    @Scope(ScopeType.PROTOTYPE)
+    public static class OtherSlowBean {
+        public OtherSlowBean() throws Exception {
+            SlowBean.BARRIER.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Component
+    @Scope(ScopeType.PROTOTYPE)
+    public static class GatedBean {
+        static final AtomicInteger CREATED = new AtomicInteger();
+        static volatile CountDownLatch GATE;
+
+        public GatedBean() throws InterruptedException {
+            CREATED.incrementAndGet();
+            GATE.await(5, TimeUnit.SECONDS);
+        }
+    }
+}
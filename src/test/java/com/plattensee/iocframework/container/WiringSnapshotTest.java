@@ -0,0 +1,194 @@
+package com.plattensee.iocframework.container;
+
+import com.plattensee.iocframework.IOCFrameworkRunner;
+import com.plattensee.iocframework.SpiderApplicationContext;
+import com.plattensee.iocframework.annotation.Component;
+import com.plattensee.iocframework.annotation.Inject;
+import com.plattensee.iocframework.instrumentation.StartupPhase;
+import com.plattensee.iocframework.locator.ComponentIndexLocator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WiringSnapshotTest {
+    private static final byte[] FINGERPRINT = {1, 2, 3, 4};
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsWhatWasWritten() {
+        Map<String, Map<String, String>> targets = new LinkedHashMap<>();
+        targets.put("app.Service", Collections.singletonMap("repository", "app.JdbcRepository"));
+        Map<String, List<String>> dependencies = new LinkedHashMap<>();
+        dependencies.put("app.JdbcRepository", Collections.emptyList());
+        dependencies.put("app.Service", Collections.singletonList("app.JdbcRepository"));
+        WiringSnapshot snapshot = new WiringSnapshot(FINGERPRINT, Arrays.asList("app.Service", "app.JdbcRepository"),
+                targets, Arrays.asList("app.JdbcRepository", "app.Service"), dependencies);
+        Path file = tempDir.resolve("snapshots/spider.wiring");
+
+        snapshot.write(file);
+        WiringSnapshot read = WiringSnapshot.read(file, FINGERPRINT);
+
+        assertNotNull(read);
+        assertArrayEquals(FINGERPRINT, read.getFingerprint());
+        assertEquals(snapshot.getComponents(), read.getComponents());
+        assertEquals(targets, read.getInjectionTargets());
+        assertEquals(snapshot.getInstantiationOrder(), read.getInstantiationOrder());
+        assertEquals(dependencies, read.getDependencies());
+        assertEquals(Arrays.asList("app.JdbcRepository", "app.Service"), Arrays.asList(read.getDependencies().keySet().toArray()));
+    }
+
+    @Test
+    void ignoresMissingOutdatedAndCorruptSnapshots() throws IOException {
+        Path file = tempDir.resolve("spider.wiring");
+        assertNull(WiringSnapshot.read(file, FINGERPRINT));
+
+        new WiringSnapshot(FINGERPRINT, Collections.singletonList("app.Service"), Collections.emptyMap(),
+                Collections.singletonList("app.Service")).write(file);
+        assertNull(WiringSnapshot.read(file, new byte[]{4, 3, 2, 1}));
+
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 3));
+        assertNull(WiringSnapshot.read(file, FINGERPRINT));
+
+        Files.write(file, "not a snapshot".getBytes(StandardCharsets.UTF_8));
+        assertNull(WiringSnapshot.read(file, FINGERPRINT));
+    }
+
+    @Test
+    void fingerprintsAnIndexedDirectoryByItsIndex() throws IOException {
+        Path classes = tempDir.resolve("classes");
+        Path index = classes.resolve(ComponentIndexLocator.INDEX_LOCATION);
+        Files.createDirectories(index.getParent());
+        Files.write(index, "app.Service\n".getBytes(StandardCharsets.UTF_8));
+        Path classFile = Files.createDirectories(classes.resolve("app")).resolve("Service.class");
+        Files.write(classFile, new byte[]{1});
+        byte[] fingerprint = fingerprint(classes);
+
+        Files.write(classFile, new byte[]{1, 2});
+        assertArrayEquals(fingerprint, fingerprint(classes));
+
+        Files.setLastModifiedTime(index, FileTime.fromMillis(Files.getLastModifiedTime(index).toMillis() + 1000));
+        assertFalse(Arrays.equals(fingerprint, fingerprint(classes)));
+    }
+
+    @Test
+    void fingerprintsAnUnindexedDirectoryByItsSubDirectories() throws IOException {
+        Path classes = tempDir.resolve("classes");
+        Path packageDir = Files.createDirectories(classes.resolve("app/web"));
+        Files.write(packageDir.resolve("Controller.class"), new byte[]{1});
+        byte[] fingerprint = fingerprint(classes);
+        assertArrayEquals(fingerprint, fingerprint(classes));
+
+        Files.write(packageDir.resolve("Filter.class"), new byte[]{1});
+        Files.setLastModifiedTime(packageDir, FileTime.fromMillis(Files.getLastModifiedTime(packageDir).toMillis() + 1000));
+        assertFalse(Arrays.equals(fingerprint, fingerprint(classes)));
+    }
+
+    @Test
+    void fingerprintsAJarBySizeAndModificationTime() throws IOException {
+        Path jar = tempDir.resolve("library.jar");
+        Files.write(jar, new byte[]{1});
+        byte[] fingerprint = fingerprint(jar);
+
+        Files.write(jar, new byte[]{1, 2});
+        assertFalse(Arrays.equals(fingerprint, fingerprint(jar)));
+        assertFalse(Arrays.equals(fingerprint(jar), WiringSnapshot.fingerprint(Collections.singletonList(jar), "other")));
+    }
+
+    @Test
+    void registersTheRecordedWiring() {
+        DependencyContainer original = new DependencyContainer();
+        original.registerClassesInPath(Arrays.asList(Service.class, JdbcRepository.class));
+        WiringSnapshot snapshot = original.createWiringSnapshot(FINGERPRINT);
+        assertEquals(Collections.singletonMap("repository", JdbcRepository.class.getName()),
+                snapshot.getInjectionTargets().get(Service.class.getName()));
+        assertEquals(Collections.singletonList(JdbcRepository.class.getName()),
+                snapshot.getDependencies().get(Service.class.getName()));
+
+        DependencyContainer restored = new DependencyContainer();
+        restored.registerWiringSnapshot(snapshot, getClass().getClassLoader());
+
+        Service service = restored.getBean(Service.class);
+        assertTrue(service.repository instanceof JdbcRepository);
+        assertSame(service.repository, restored.getBean(Repository.class));
+        assertEquals(snapshot.getDependencies(), restored.createWiringSnapshot(FINGERPRINT).getDependencies());
+        assertEquals(snapshot.getInstantiationOrder(), restored.createWiringSnapshot(FINGERPRINT).getInstantiationOrder());
+    }
+
+    @Test
+    void startsAContextFromTheSnapshotWithoutScanning() {
+        Path file = tempDir.resolve("spider.wiring");
+        AtomicInteger scans = new AtomicInteger();
+
+        SpiderApplicationContext first = new SpiderApplicationContext(new DependencyContainer(), packageName -> {
+            scans.incrementAndGet();
+            return Arrays.asList(Application.class, Service.class, JdbcRepository.class);
+        });
+        first.setGeneratedContextEnabled(false);
+        first.setWiringSnapshotFile(file);
+        first.initContext(Application.class);
+        assertEquals(1, scans.get());
+        assertTrue(Files.isRegularFile(file));
+
+        SpiderApplicationContext second = new SpiderApplicationContext(new DependencyContainer(), packageName -> {
+            scans.incrementAndGet();
+            return Collections.emptyList();
+        });
+        second.setGeneratedContextEnabled(false);
+        second.setWiringSnapshotFile(file);
+        second.enableStartupReport();
+        Application application = second.initContext(Application.class);
+
+        assertEquals(1, scans.get());
+        assertTrue(application.service.repository instanceof JdbcRepository);
+        assertTrue(second.getStartupReport().getPhaseNanos(StartupPhase.SCAN) > 0);
+    }
+
+    private static byte[] fingerprint(Path classPathEntry) {
+        return WiringSnapshot.fingerprint(Collections.singletonList(classPathEntry), "key");
+    }
+
+    public interface Repository {
+    }
+
+    @Component
+    public static class JdbcRepository implements Repository {
+    }
+
+    @Component
+    public static class Service {
+        @Inject
+        Repository repository;
+    }
+
+    @Component
+    public static class Application implements IOCFrameworkRunner {
+        @Inject
+        Service service;
+
+        @Override
+        public void run() {
+        }
+    }
+}
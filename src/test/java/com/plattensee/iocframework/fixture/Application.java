@@ -0,0 +1,13 @@
+package com.plattensee.iocframework.fixture;
+
+import com.plattensee.iocframework.IOCFrameworkRunner;
+import com.plattensee.iocframework.annotation.Component;
+
+@Component
+public class Application implements IOCFrameworkRunner {
+    public String createdBy = "container";
+
+    @Override
+    public void run() {
+    }
+}
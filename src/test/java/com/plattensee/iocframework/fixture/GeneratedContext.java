@@ -0,0 +1,25 @@
+package com.plattensee.iocframework.fixture;
+
+import com.plattensee.iocframework.container.GeneratedContainer;
+
+/**
+ * Stands in for the context the spider-maven-plugin generates for the Application.
+ */
+public class GeneratedContext extends GeneratedContainer {
+    private Application application;
+
+    public GeneratedContext() {
+        addBean(Application.class, () -> application, GeneratedContext::newApplication, true);
+    }
+
+    @Override
+    protected void createSingletons() {
+        application = newApplication();
+    }
+
+    private static Application newApplication() {
+        Application application = new Application();
+        application.createdBy = "generated context";
+        return application;
+    }
+}
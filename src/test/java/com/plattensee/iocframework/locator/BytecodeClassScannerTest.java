@@ -0,0 +1,115 @@
+package com.plattensee.iocframework.locator;
+
+import com.plattensee.iocframework.testing.TestCompiler;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLClassLoader;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class BytecodeClassScannerTest {
+    @TempDir
+    static Path tempDir;
+
+    private static Path classes;
+    private static Path jar;
+
+    @BeforeAll
+    static void compile() throws IOException {
+        classes = new TestCompiler()
+                .source("app.Service", "package app; @com.plattensee.iocframework.annotation.Component public class Service {}")
+                .source("app.Helper", "package app; public class Helper {}")
+                .source("app.web.Controller", "package app.web; @com.plattensee.iocframework.annotation.Component"
+                        + " public class Controller { static { System.setProperty(\"spider.test.initialized\", \"true\"); } }")
+                .source("app.generated.Stub", "package app.generated; @com.plattensee.iocframework.annotation.Component public class Stub {}")
+                .source("other.Tool", "package other; @com.plattensee.iocframework.annotation.Component public class Tool {}")
+                .compileTo(tempDir.resolve("classes"));
+        jar = tempDir.resolve("classes.jar");
+        writeJar(classes, jar);
+    }
+
+    @Test
+    void findsTheComponentsOfAPackageAndItsSubPackagesInADirectory() throws IOException {
+        try (URLClassLoader classLoader = TestCompiler.classLoader(classes)) {
+            List<Class<?>> found = new BytecodeClassScanner(Collections.singletonList(classes), classLoader).scan("app");
+
+            assertEquals(Arrays.asList("app.Service", "app.generated.Stub", "app.web.Controller"), names(found));
+        }
+    }
+
+    @Test
+    void findsTheComponentsOfAPackageInAJar() throws IOException {
+        try (URLClassLoader classLoader = TestCompiler.classLoader(jar)) {
+            List<Class<?>> found = new BytecodeClassScanner(Collections.singletonList(jar), classLoader).scan("app");
+
+            assertEquals(Arrays.asList("app.Service", "app.generated.Stub", "app.web.Controller"), names(found));
+        }
+    }
+
+    @Test
+    void loadsTheComponentsWithoutInitializingThem() throws IOException {
+        System.clearProperty("spider.test.initialized");
+        try (URLClassLoader classLoader = TestCompiler.classLoader(classes)) {
+            new BytecodeClassScanner(Collections.singletonList(classes), classLoader).scan("app.web");
+
+            assertFalse(Boolean.getBoolean("spider.test.initialized"));
+        }
+    }
+
+    @Test
+    void skipsTheExcludedPackagesAndClasses() throws IOException {
+        ScanConfiguration configuration = ScanConfiguration.builder()
+                .basePackages("app", "other")
+                .exclude("app.generated", "**.Tool")
+                .build();
+        try (URLClassLoader classLoader = TestCompiler.classLoader(classes)) {
+            List<Class<?>> fromDirectory = new BytecodeClassScanner(Collections.singletonList(classes), classLoader).scan(configuration);
+            List<Class<?>> fromJar = new BytecodeClassScanner(Collections.singletonList(jar), classLoader).scan(configuration);
+
+            assertEquals(Arrays.asList("app.Service", "app.web.Controller"), names(fromDirectory));
+            assertEquals(Arrays.asList("app.Service", "app.web.Controller"), names(fromJar));
+        }
+    }
+
+    @Test
+    void ignoresMissingClassPathEntries() {
+        List<Class<?>> found = new BytecodeClassScanner(Collections.singletonList(tempDir.resolve("missing")),
+                getClass().getClassLoader()).scan("app");
+
+        assertEquals(Collections.emptyList(), found);
+    }
+
+    private static List<String> names(List<Class<?>> classes) {
+        return classes.stream().map(Class::getName).sorted().collect(Collectors.toList());
+    }
+
+    private static void writeJar(Path classDir, Path target) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(target))) {
+            Files.walkFileTree(classDir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                    out.putNextEntry(new ZipEntry(classDir.relativize(file).toString().replace('\\', '/')));
+                    Files.copy(file, (OutputStream) out);
+                    out.closeEntry();
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+    }
+}
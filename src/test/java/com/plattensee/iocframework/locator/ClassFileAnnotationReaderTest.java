@@ -0,0 +1,92 @@
+package com.plattensee.iocframework.locator;
+
+import com.plattensee.iocframework.annotation.Component;
+import com.plattensee.iocframework.testing.TestCompiler;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassFileAnnotationReaderTest {
+    @TempDir
+    static Path tempDir;
+
+    private static Path classes;
+
+    private final ClassFileAnnotationReader reader = new ClassFileAnnotationReader(Component.class);
+
+    @BeforeAll
+    static void compile() {
+        classes = new TestCompiler()
+                .source("app.Plain", "package app; public class Plain {}")
+                .source("app.Annotated", "package app; @com.plattensee.iocframework.annotation.Component public class Annotated {}")
+                .source("app.Marker", "package app; import java.lang.annotation.*;"
+                        + " @Retention(RetentionPolicy.RUNTIME) public @interface Marker {"
+                        + " String name() default \"\"; int[] values() default {}; Class<?> type() default Object.class;"
+                        + " RetentionPolicy policy() default RetentionPolicy.RUNTIME; Retention nested() default @Retention(RetentionPolicy.CLASS); }")
+                .source("app.Invisible", "package app; import java.lang.annotation.*;"
+                        + " @Retention(RetentionPolicy.CLASS) public @interface Invisible {}")
+                .source("app.Crowded", "package app;"
+                        + " @Marker(name = \"crowded\", values = {1, 2}, type = String.class,"
+                        + " policy = java.lang.annotation.RetentionPolicy.SOURCE,"
+                        + " nested = @java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME))"
+                        + " @Invisible @Deprecated @com.plattensee.iocframework.annotation.Component"
+                        + " public class Crowded {"
+                        + " static final long BIG = 1L << 40; static final double PI = Math.PI; static long big = BIG; static double pi = PI;"
+                        + " private String name = \"crowded\"; @Marker int field;"
+                        + " @Marker public String run(Runnable action) { action.run(); Runnable r = () -> {}; r.run(); return name + big + pi; } }")
+                .source("app.MemberOnly", "package app; public class MemberOnly {"
+                        + " @com.plattensee.iocframework.annotation.Inject private Object field; }")
+                .source("app.Outer", "package app; public class Outer {"
+                        + " @com.plattensee.iocframework.annotation.Component public static class Inner {} }")
+                .compileTo(tempDir.resolve("classes"));
+    }
+
+    @Test
+    void findsTheAnnotationOfAComponent() throws IOException {
+        assertTrue(reader.isAnnotated(read("app/Annotated.class")));
+        assertTrue(reader.isAnnotated(read("app/Outer$Inner.class")));
+    }
+
+    @Test
+    void skipsOtherAnnotationsAndWideConstants() throws IOException {
+        assertTrue(reader.isAnnotated(read("app/Crowded.class")));
+    }
+
+    @Test
+    void ignoresClassesWithoutTheAnnotation() throws IOException {
+        assertFalse(reader.isAnnotated(read("app/Plain.class")));
+        assertFalse(reader.isAnnotated(read("app/Outer.class")));
+        assertFalse(reader.isAnnotated(read("app/Marker.class")));
+    }
+
+    @Test
+    void ignoresTheAnnotationOnMembers() throws IOException {
+        assertFalse(reader.isAnnotated(read("app/MemberOnly.class")));
+    }
+
+    @Test
+    void reportsMalformedClassFilesAsNotAnnotated() throws IOException {
+        byte[] annotated = Files.readAllBytes(classes.resolve("app/Annotated.class"));
+
+        assertFalse(reader.isAnnotated(ByteBuffer.wrap(new byte[]{1, 2, 3})));
+        assertFalse(reader.isAnnotated(ByteBuffer.wrap(new byte[0])));
+        byte[] truncated = new byte[annotated.length / 2];
+        System.arraycopy(annotated, 0, truncated, 0, truncated.length);
+        assertFalse(reader.isAnnotated(ByteBuffer.wrap(truncated)));
+        byte[] corrupted = annotated.clone();
+        corrupted[10] = (byte) 99; // the tag of the first constant
+        assertFalse(reader.isAnnotated(ByteBuffer.wrap(corrupted)));
+    }
+
+    private static ByteBuffer read(String classFile) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(classes.resolve(classFile)));
+    }
+}
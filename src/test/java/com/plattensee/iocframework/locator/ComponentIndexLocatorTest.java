@@ -0,0 +1,113 @@
+package com.plattensee.iocframework.locator;
+
+import com.plattensee.iocframework.processor.ComponentIndexProcessor;
+import com.plattensee.iocframework.testing.TestCompiler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ComponentIndexLocatorTest {
+    @TempDir
+    Path tempDir;
+
+    private final List<String> fallbackScans = new ArrayList<>();
+
+    @Test
+    void readsTheIndexOfAnIndexedPackage() throws IOException {
+        Path library = indexedLibrary();
+
+        try (URLClassLoader classLoader = TestCompiler.classLoader(library)) {
+            List<Class<?>> classes = locator(classLoader, library).scan("lib");
+
+            assertEquals(Arrays.asList("lib.Cache", "lib.Clock"), names(classes));
+            assertEquals(Collections.emptyList(), fallbackScans);
+        }
+    }
+
+    @Test
+    void scansAPackageWhoseRootIsNotIndexed() throws IOException {
+        Path library = indexedLibrary();
+        Path application = new TestCompiler()
+                .source("app.Main", "package app; @com.plattensee.iocframework.annotation.Component public class Main {}")
+                .compileTo(tempDir.resolve("app"));
+
+        try (URLClassLoader classLoader = TestCompiler.classLoader(library, application)) {
+            List<Class<?>> classes = locator(classLoader, library, application).scan("app");
+
+            assertEquals(Collections.singletonList("app.Main"), names(classes));
+            assertEquals(Collections.singletonList("app"), fallbackScans);
+        }
+    }
+
+    @Test
+    void scansAPackageSplitAcrossAnIndexedAndAnUnindexedRoot() throws IOException {
+        Path library = indexedLibrary();
+        Path extension = new TestCompiler()
+                .source("lib.Extension", "package lib; @com.plattensee.iocframework.annotation.Component public class Extension {}")
+                .compileTo(tempDir.resolve("extension"));
+
+        try (URLClassLoader classLoader = TestCompiler.classLoader(library, extension)) {
+            List<Class<?>> classes = locator(classLoader, library, extension).scan("lib");
+
+            assertEquals(Arrays.asList("lib.Cache", "lib.Clock", "lib.Extension"), names(classes));
+            assertEquals(Collections.singletonList("lib"), fallbackScans);
+        }
+    }
+
+    @Test
+    void filtersTheIndexWithAScanConfiguration() throws IOException {
+        Path library = indexedLibrary();
+
+        try (URLClassLoader classLoader = TestCompiler.classLoader(library)) {
+            List<Class<?>> classes = locator(classLoader, library)
+                    .scan(ScanConfiguration.builder().basePackages("lib").exclude("**.Cl*").build());
+
+            assertEquals(Collections.singletonList("lib.Cache"), names(classes));
+            assertEquals(Collections.emptyList(), fallbackScans);
+        }
+    }
+
+    @Test
+    void reportsAStaleIndex() throws IOException {
+        Path library = indexedLibrary();
+        java.nio.file.Files.delete(library.resolve("lib/Clock.class"));
+
+        try (URLClassLoader classLoader = TestCompiler.classLoader(library)) {
+            ComponentIndexLocator locator = locator(classLoader, library);
+
+            assertThrows(PackageScanningException.class, () -> locator.scan("lib"));
+        }
+    }
+
+    private Path indexedLibrary() {
+        return new TestCompiler()
+                .source("lib.Cache", "package lib; @com.plattensee.iocframework.annotation.Component public class Cache {}")
+                .source("lib.Clock", "package lib; @com.plattensee.iocframework.annotation.Component public class Clock {}")
+                .source("lib.Util", "package lib; public class Util {}")
+                .processor(new ComponentIndexProcessor())
+                .compileTo(tempDir.resolve("lib"));
+    }
+
+    private ComponentIndexLocator locator(ClassLoader classLoader, Path... classPath) {
+        BytecodeClassScanner scanner = new BytecodeClassScanner(Arrays.asList(classPath), classLoader);
+        return new ComponentIndexLocator(classLoader, packageName -> {
+            fallbackScans.add(packageName);
+            return scanner.scan(packageName);
+        });
+    }
+
+    private static List<String> names(List<Class<?>> classes) {
+        return classes.stream().map(Class::getName).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,137 @@
+package com.plattensee.iocframework.locator;
+
+import com.plattensee.iocframework.locator.fixture.Alpha;
+import com.plattensee.iocframework.locator.fixture.sub.Gamma;
+import com.plattensee.iocframework.locator.fixture.sub.deeper.Delta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class PackageClassScannerTest {
+    private static final String FIXTURE = "com.plattensee.iocframework.locator.fixture";
+
+    @TempDir
+    Path tempDir;
+
+    private String classPath;
+
+    @BeforeEach
+    void setClassPath() throws URISyntaxException {
+        classPath = System.getProperty("java.class.path");
+        System.setProperty("java.class.path", testClasses().toString());
+    }
+
+    @AfterEach
+    void restoreClassPath() {
+        System.setProperty("java.class.path", classPath);
+    }
+
+    @Test
+    void findsTheComponentsOfAPackageAndItsSubPackages() {
+        List<Class<?>> classes = PackageClassScanner.getInstance().scan(FIXTURE);
+
+        assertEquals(new HashSet<>(Arrays.asList(Alpha.class, Gamma.class, Delta.class)), new HashSet<>(classes));
+        assertEquals(3, classes.size());
+    }
+
+    @Test
+    void scansInParallelInTheSequentialOrder() {
+        List<Class<?>> sequential = PackageClassScanner.getInstance().scan(FIXTURE);
+
+        for (int parallelism = 1; parallelism <= 4; parallelism++) {
+            assertEquals(sequential, PackageClassScanner.withParallelism(parallelism).scan(FIXTURE));
+        }
+    }
+
+    @Test
+    void loadsTheComponentsWithoutInitializingThem() {
+        System.clearProperty(Gamma.INITIALIZED_PROPERTY);
+
+        PackageClassScanner.getInstance().scan(FIXTURE + ".sub");
+        PackageClassScanner.withParallelism(2).scan(FIXTURE + ".sub");
+
+        assertFalse(Boolean.getBoolean(Gamma.INITIALIZED_PROPERTY));
+    }
+
+    @Test
+    void skipsTheExcludedPackages() {
+        ScanConfiguration configuration = ScanConfiguration.builder().basePackages(FIXTURE).exclude(FIXTURE + ".sub.deeper").build();
+
+        assertEquals(new HashSet<>(Arrays.asList(Alpha.class, Gamma.class)),
+                new HashSet<>(PackageClassScanner.getInstance().scan(configuration)));
+        assertEquals(new HashSet<>(Arrays.asList(Alpha.class, Gamma.class)),
+                new HashSet<>(PackageClassScanner.withParallelism(2).scan(configuration)));
+    }
+
+    @Test
+    void scansJarFiles() throws IOException, URISyntaxException {
+        Path jar = tempDir.resolve("fixture.jar");
+        writeJar(testClasses(), FIXTURE.replace('.', '/'), jar);
+        System.setProperty("java.class.path", jar + File.pathSeparator + tempDir.resolve("missing.jar"));
+
+        List<Class<?>> sequential = PackageClassScanner.getInstance().scan(FIXTURE);
+
+        assertEquals(new HashSet<>(Arrays.asList(Alpha.class, Gamma.class, Delta.class)), new HashSet<>(sequential));
+        assertEquals(sequential, PackageClassScanner.withParallelism(2).scan(FIXTURE));
+    }
+
+    @Test
+    void skipsTheEntriesThatAreNotClasses() throws IOException, URISyntaxException {
+        Path jar = tempDir.resolve("fixture.jar");
+        String alpha = Alpha.class.getName().replace('.', '/') + ".class";
+        byte[] alphaBytes = Files.readAllBytes(testClasses().resolve(alpha));
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            writeEntry(out, alpha, alphaBytes);
+            writeEntry(out, "META-INF/versions/9/" + alpha, alphaBytes);
+            writeEntry(out, "module-info.class", new byte[0]);
+            writeEntry(out, FIXTURE.replace('.', '/') + "/package-info.class", new byte[0]);
+        }
+        System.setProperty("java.class.path", jar.toString());
+
+        assertEquals(Arrays.asList(Alpha.class), PackageClassScanner.getInstance().scan(FIXTURE));
+    }
+
+    private static void writeEntry(ZipOutputStream out, String name, byte[] content) throws IOException {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(content);
+        out.closeEntry();
+    }
+
+    private static Path testClasses() throws URISyntaxException {
+        return Paths.get(Alpha.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    private static void writeJar(Path classDir, String packagePath, Path target) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(target))) {
+            Files.walkFileTree(classDir.resolve(packagePath), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                    out.putNextEntry(new ZipEntry(classDir.relativize(file).toString().replace('\\', '/')));
+                    Files.copy(file, (OutputStream) out);
+                    out.closeEntry();
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.plattensee.iocframework.locator.fixture;
+
+public class Beta {
+}
@@ -0,0 +1,12 @@
+package com.plattensee.iocframework.locator.fixture.sub;
+
+import com.plattensee.iocframework.annotation.Component;
+
+@Component
+public class Gamma {
+    public static final String INITIALIZED_PROPERTY = "spider.test.fixture.gamma";
+
+    static {
+        System.setProperty(INITIALIZED_PROPERTY, "true");
+    }
+}
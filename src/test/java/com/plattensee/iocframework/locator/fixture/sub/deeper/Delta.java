@@ -0,0 +1,7 @@
+package com.plattensee.iocframework.locator.fixture.sub.deeper;
+
+import com.plattensee.iocframework.annotation.Component;
+
+@Component
+public class Delta {
+}
@@ -0,0 +1,100 @@
+package com.plattensee.iocframework.processor;
+
+import com.plattensee.iocframework.locator.ComponentIndexLocator;
+import com.plattensee.iocframework.testing.TestCompiler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ComponentIndexProcessorTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void indexesTheComponentsOfTheCompilation() throws IOException {
+        Path classes = new TestCompiler()
+                .source("app.Service", "package app; @com.plattensee.iocframework.annotation.Component public class Service {"
+                        + " @com.plattensee.iocframework.annotation.Component public static class Nested {} }")
+                .source("app.Helper", "package app; public class Helper {}")
+                .processor(new ComponentIndexProcessor())
+                .compileTo(tempDir.resolve("classes"));
+
+        assertEquals(Arrays.asList("app.Service", "app.Service$Nested"), readIndex(classes));
+    }
+
+    @Test
+    void writesNoIndexWithoutComponents() {
+        Path classes = new TestCompiler()
+                .source("app.Helper", "package app; public class Helper {}")
+                .processor(new ComponentIndexProcessor())
+                .compileTo(tempDir.resolve("classes"));
+
+        assertFalse(Files.exists(classes.resolve(ComponentIndexLocator.INDEX_LOCATION)));
+    }
+
+    @Test
+    void keepsTheComponentsThatWereNotRecompiled() throws IOException {
+        Path classes = new TestCompiler()
+                .source("app.First", "package app; @com.plattensee.iocframework.annotation.Component public class First {}")
+                .source("app.Second", "package app; @com.plattensee.iocframework.annotation.Component public class Second {}")
+                .processor(new ComponentIndexProcessor())
+                .compileTo(tempDir.resolve("classes"));
+
+        new TestCompiler()
+                .source("app.Third", "package app; @com.plattensee.iocframework.annotation.Component public class Third {}")
+                .classPath(classes)
+                .processor(new ComponentIndexProcessor())
+                .compileTo(classes);
+
+        assertEquals(Arrays.asList("app.First", "app.Second", "app.Third"), readIndex(classes));
+    }
+
+    @Test
+    void dropsTheRecompiledClassesThatAreNoLongerComponents() throws IOException {
+        Path classes = new TestCompiler()
+                .source("app.First", "package app; @com.plattensee.iocframework.annotation.Component public class First {}")
+                .source("app.Second", "package app; @com.plattensee.iocframework.annotation.Component public class Second {}")
+                .processor(new ComponentIndexProcessor())
+                .compileTo(tempDir.resolve("classes"));
+
+        new TestCompiler()
+                .source("app.Second", "package app; public class Second {}")
+                .classPath(classes)
+                .processor(new ComponentIndexProcessor())
+                .compileTo(classes);
+
+        assertEquals(Collections.singletonList("app.First"), readIndex(classes));
+    }
+
+    @Test
+    void dropsTheComponentsWhoseClassesWereDeleted() throws IOException {
+        Path classes = new TestCompiler()
+                .source("app.First", "package app; @com.plattensee.iocframework.annotation.Component public class First {}")
+                .source("app.Second", "package app; @com.plattensee.iocframework.annotation.Component public class Second {}")
+                .processor(new ComponentIndexProcessor())
+                .compileTo(tempDir.resolve("classes"));
+        Files.delete(classes.resolve("app/Second.class"));
+
+        new TestCompiler()
+                .source("app.Third", "package app; @com.plattensee.iocframework.annotation.Component public class Third {}")
+                .classPath(classes)
+                .processor(new ComponentIndexProcessor())
+                .compileTo(classes);
+
+        assertEquals(Arrays.asList("app.First", "app.Third"), readIndex(classes));
+    }
+
+    private static List<String> readIndex(Path classes) throws IOException {
+        return Files.readAllLines(classes.resolve(ComponentIndexLocator.INDEX_LOCATION), StandardCharsets.UTF_8);
+    }
+}
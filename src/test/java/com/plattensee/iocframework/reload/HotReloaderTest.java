@@ -0,0 +1,191 @@
+package com.plattensee.iocframework.reload;
+
+import com.plattensee.iocframework.container.DependencyContainer;
+import com.plattensee.iocframework.locator.ScanConfiguration;
+import com.plattensee.iocframework.testing.TestCompiler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotReloaderTest {
+    private static final String MAIN = "app.Main";
+    private static final String GREETER = "app.Greeter";
+    private static final String FORMATTER = "app.Formatter";
+    private static final String CLOCK = "other.Clock";
+    private static final String CALENDAR = "other.Calendar";
+
+    @TempDir
+    Path tempDir;
+
+    private Path classes;
+    private URLClassLoader classLoader;
+    private DependencyContainer container;
+    private HotReloader hotReloader;
+    private final List<Set<Class<?>>> reloads = new ArrayList<>();
+    private final List<Throwable> failures = new ArrayList<>();
+
+    @BeforeEach
+    void start() throws ClassNotFoundException {
+        classes = tempDir.resolve("classes");
+        compile("[", "]", "1");
+        classLoader = TestCompiler.classLoader(classes);
+        container = new DependencyContainer();
+        container.registerClassesInPath(Arrays.asList(classLoader.loadClass(GREETER),
+                classLoader.loadClass(FORMATTER), classLoader.loadClass(CLOCK)));
+        container.register(classLoader.loadClass(MAIN));
+        // No package is watched, the tests report the changes themselves
+        hotReloader = startReloader(ScanConfiguration.of("unwatched"));
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        hotReloader.close();
+        classLoader.close();
+    }
+
+    @Test
+    void rebuildsTheChangedBeansAndTheirDependents() throws Exception {
+        Object clock = bean(CLOCK);
+        assertEquals("[hello]", greet());
+
+        compile("<", ">", "1");
+        hotReloader.reload(Collections.singleton(FORMATTER), Collections.emptySet());
+
+        assertEquals(Collections.emptyList(), failures);
+        assertEquals("<hello>", greet());
+        assertSame(clock, bean(CLOCK));
+        Set<String> reloaded = new HashSet<>();
+        reloads.get(0).forEach(reloadedClass -> reloaded.add(reloadedClass.getName()));
+        assertEquals(new HashSet<>(Arrays.asList(MAIN, GREETER, FORMATTER)), reloaded);
+        assertTrue(bean(GREETER).getClass().getClassLoader() instanceof ReloadingClassLoader);
+    }
+
+    @Test
+    void keepsEachPackageInOneClassLoaderAcrossReloads() throws Exception {
+        compile("<", ">", "1");
+        hotReloader.reload(Collections.singleton(FORMATTER), Collections.emptySet());
+        Object greeter = bean(GREETER);
+
+        compile("<", ">", "2");
+        hotReloader.reload(Collections.singleton(CLOCK), Collections.emptySet());
+
+        assertEquals(Collections.emptyList(), failures);
+        assertEquals("2", bean(CLOCK).toString());
+        Object reloadedGreeter = bean(GREETER);
+        assertNotSame(greeter, reloadedGreeter);
+        assertSame(reloadedGreeter.getClass().getClassLoader(), bean(FORMATTER).getClass().getClassLoader());
+        assertSame(reloadedGreeter.getClass().getClassLoader(), bean(CLOCK).getClass().getClassLoader());
+        // The package-private Style is loaded by the class loader of the reloaded Formatter
+        assertEquals("<hello>", greet());
+    }
+
+    @Test
+    void wiresAddedComponents() {
+        new TestCompiler()
+                .source(CALENDAR, "package other;\n"
+                        + "@com.plattensee.iocframework.annotation.Component\n"
+                        + "public class Calendar {\n"
+                        + "    @com.plattensee.iocframework.annotation.Inject Clock clock;\n"
+                        + "    public String toString() {\n"
+                        + "        return \"calendar at \" + clock;\n"
+                        + "    }\n"
+                        + "}\n")
+                .classPath(classes)
+                .compileTo(classes);
+        hotReloader.close();
+        hotReloader = startReloader(ScanConfiguration.of("other"));
+
+        hotReloader.reload(Collections.singleton(CALENDAR), Collections.emptySet());
+
+        assertEquals(Collections.emptyList(), failures);
+        assertEquals("calendar at 1", bean(CALENDAR).toString());
+    }
+
+    private HotReloader startReloader(ScanConfiguration configuration) {
+        Class<?> main = container.getPlannedClasses().stream()
+                .filter(plannedClass -> plannedClass.getName().equals(MAIN))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+        return HotReloader.start(container, main, configuration, Collections.singletonList(classes),
+                new ReloadListener() {
+                    @Override
+                    public void classesReloaded(Set<Class<?>> reloadedClasses) {
+                        reloads.add(reloadedClasses);
+                    }
+
+                    @Override
+                    public void reloadFailed(Throwable failure) {
+                        failures.add(failure);
+                    }
+                });
+    }
+
+    private String greet() throws Exception {
+        Object greeter = bean(GREETER);
+        return (String) greeter.getClass().getMethod("greet").invoke(greeter);
+    }
+
+    private Object bean(String className) {
+        for (Class<?> plannedClass : container.getPlannedClasses()) {
+            if (plannedClass.getName().equals(className)) {
+                return container.getBean(plannedClass);
+            }
+        }
+        throw new AssertionError(className + " is not planned");
+    }
+
+    private void compile(String prefix, String suffix, String time) {
+        new TestCompiler()
+                .source(MAIN, "package app;\n"
+                        + "@com.plattensee.iocframework.annotation.Component\n"
+                        + "public class Main implements com.plattensee.iocframework.IOCFrameworkRunner {\n"
+                        + "    @com.plattensee.iocframework.annotation.Inject Greeter greeter;\n"
+                        + "    public void run() {\n"
+                        + "    }\n"
+                        + "}\n")
+                .source(GREETER, "package app;\n"
+                        + "@com.plattensee.iocframework.annotation.Component\n"
+                        + "public class Greeter {\n"
+                        + "    @com.plattensee.iocframework.annotation.Inject Formatter formatter;\n"
+                        + "    public String greet() {\n"
+                        + "        return formatter.format(\"hello\");\n"
+                        + "    }\n"
+                        + "}\n")
+                .source(FORMATTER, "package app;\n"
+                        + "@com.plattensee.iocframework.annotation.Component\n"
+                        + "public class Formatter {\n"
+                        + "    String format(String text) {\n"
+                        + "        return new Style().wrap(text);\n"
+                        + "    }\n"
+                        + "}\n"
+                        + "class Style {\n"
+                        + "    String wrap(String text) {\n"
+                        + "        return \"" + prefix + "\" + text + \"" + suffix + "\";\n"
+                        + "    }\n"
+                        + "}\n")
+                .source(CLOCK, "package other;\n"
+                        + "@com.plattensee.iocframework.annotation.Component\n"
+                        + "public class Clock {\n"
+                        + "    public String toString() {\n"
+                        + "        return \"" + time + "\";\n"
+                        + "    }\n"
+                        + "}\n")
+                .compileTo(classes);
+    }
+}
@@ -0,0 +1,185 @@
+package com.plattensee.iocframework.testing;
+
+import com.plattensee.iocframework.annotation.Component;
+
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+
+/**
+ * The TestCompiler compiles Java sources written by a test into a class directory, with the framework on the class
+ * path, so that tests can scan, index and load classes that are not on the class path of the test itself.
+ */
+public final class TestCompiler {
+    private final Map<String, String> sources = new LinkedHashMap<>();
+    private final List<Path> classPath = new ArrayList<>();
+    private final List<Processor> processors = new ArrayList<>();
+
+    /**
+     * Adds a source to compile.
+     *
+     * @param className the fully qualified name of the top-level class
+     * @param source    the source code of the class
+     * @return this compiler
+     */
+    public TestCompiler source(String className, String source) {
+        sources.put(className, source);
+        return this;
+    }
+
+    /**
+     * Adds a class directory or jar to the class path of the compilation, in addition to the framework.
+     *
+     * @param entry the class path entry
+     * @return this compiler
+     */
+    public TestCompiler classPath(Path entry) {
+        classPath.add(entry);
+        return this;
+    }
+
+    /**
+     * Runs the specified annotation processor during the compilation. Without processors, none runs.
+     *
+     * @param processor the annotation processor
+     * @return this compiler
+     */
+    public TestCompiler processor(Processor processor) {
+        processors.add(processor);
+        return this;
+    }
+
+    /**
+     * Compiles the sources into the specified directory.
+     *
+     * @param outputDir the class directory to write the classes and resources to
+     * @return the class directory
+     * @throws AssertionError if the sources do not compile
+     */
+    public Path compileTo(Path outputDir) {
+        try {
+            Files.createDirectories(outputDir.toAbsolutePath().getParent());
+            Path sourceDir = Files.createTempDirectory(outputDir.toAbsolutePath().getParent(), "sources");
+            List<File> sourceFiles = new ArrayList<>();
+            for (Map.Entry<String, String> source : sources.entrySet()) {
+                Path sourceFile = sourceDir.resolve(source.getKey().replace('.', File.separatorChar) + ".java");
+                Files.createDirectories(sourceFile.getParent());
+                Files.write(sourceFile, source.getValue().getBytes(StandardCharsets.UTF_8));
+                sourceFiles.add(sourceFile.toFile());
+            }
+            Files.createDirectories(outputDir);
+
+            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+                StringBuilder path = new StringBuilder(frameworkClasses().toString());
+                for (Path entry : classPath) {
+                    path.append(File.pathSeparatorChar).append(entry);
+                }
+                List<String> options = new ArrayList<>(Arrays.asList("-d", outputDir.toString(), "-classpath", path.toString()));
+                if (processors.isEmpty()) {
+                    options.add("-proc:none");
+                }
+                JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+                        fileManager.getJavaFileObjectsFromFiles(sourceFiles));
+                task.setProcessors(processors);
+                if (!task.call()) {
+                    StringBuilder errors = new StringBuilder("Compilation failed:");
+                    for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                        errors.append('\n').append(diagnostic);
+                    }
+                    throw new AssertionError(errors.toString());
+                }
+            }
+            return outputDir;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Returns the class directory or jar the framework classes are loaded from.
+     */
+    public static Path frameworkClasses() {
+        try {
+            return Paths.get(Component.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Packages the framework classes into a multi-release jar, so that the classes of its versioned releases, which a
+     * class directory does not serve, are loaded on the running Java version.
+     *
+     * @param jar the jar file to write
+     * @return the jar file
+     */
+    public static Path frameworkJar(Path jar) {
+        Path classes = frameworkClasses();
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(new Attributes.Name("Multi-Release"), "true");
+        try (OutputStream out = Files.newOutputStream(jar);
+             JarOutputStream jarOut = new JarOutputStream(out, manifest);
+             Stream<Path> files = Files.walk(classes)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String name = classes.relativize(file).toString().replace(File.separatorChar, '/');
+                if (!name.equals(JarFile.MANIFEST_NAME)) {
+                    jarOut.putNextEntry(new JarEntry(name));
+                    Files.copy(file, jarOut);
+                    jarOut.closeEntry();
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return jar;
+    }
+
+    /**
+     * Creates a class loader for the specified class directories or jars, delegating to the class loader of the test,
+     * so that the loaded classes share the framework classes of the test.
+     *
+     * @param entries the class path entries
+     * @return the class loader
+     */
+    public static URLClassLoader classLoader(Path... entries) {
+        URL[] urls = new URL[entries.length];
+        try {
+            for (int i = 0; i < entries.length; i++) {
+                urls[i] = entries[i].toUri().toURL();
+            }
+        } catch (MalformedURLException exception) {
+            throw new IllegalStateException(exception);
+        }
+        return new URLClassLoader(urls, TestCompiler.class.getClassLoader());
+    }
+}
@@ -0,0 +1,70 @@
+package com.plattensee.iocframework.instrumentation;
+
+import com.plattensee.iocframework.testing.TestCompiler;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the JfrContainerListener. The events are defined in the Java 11 release of the class directory, which the
+ * test classes do not see, so the framework is packaged into a multi-release jar and the listener is loaded from there.
+ */
+class JfrContainerListenerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void isUnavailableWithoutTheVersionedEvents() {
+        assertFalse(JfrContainerListener.isAvailable());
+        assertThrows(UnsupportedOperationException.class, JfrContainerListener::new);
+    }
+
+    @Test
+    void recordsThePhasesAndBeansAsEvents() throws Exception {
+        Path jar = TestCompiler.frameworkJar(tempDir.resolve("framework.jar"));
+        Path recordingFile = tempDir.resolve("recording.jfr");
+        try (URLClassLoader framework = new URLClassLoader(new URL[]{jar.toUri().toURL()}, ClassLoader.getPlatformClassLoader());
+             Recording recording = new Recording()) {
+            Class<?> listenerClass = framework.loadClass(JfrContainerListener.class.getName());
+            Class<?> phaseClass = framework.loadClass(StartupPhase.class.getName());
+            assertEquals(true, listenerClass.getMethod("isAvailable").invoke(null));
+            Object listener = listenerClass.getConstructor().newInstance();
+            recording.enable("com.plattensee.iocframework.StartupPhase");
+            recording.enable("com.plattensee.iocframework.Bean");
+            recording.start();
+
+            listenerClass.getMethod("phaseCompleted", phaseClass, long.class)
+                    .invoke(listener, phaseClass.getField("SCAN").get(null), 42L);
+            listenerClass.getMethod("beanCreated", Class.class, long.class).invoke(listener, String.class, 7L);
+            listenerClass.getMethod("beanInjected", Class.class, long.class).invoke(listener, String.class, 3L);
+
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        List<String> recorded = events.stream()
+                .map(event -> event.getEventType().getName().endsWith("StartupPhase")
+                        ? event.getString("phase") + " " + event.getDuration("durationNanos")
+                        : event.getString("step") + " " + event.getClass("beanClass").getName() + " " + event.getDuration("durationNanos"))
+                .sorted()
+                .collect(Collectors.toList());
+        assertEquals(List.of("SCAN " + Duration.ofNanos(42), "construct java.lang.String " + Duration.ofNanos(7),
+                "inject java.lang.String " + Duration.ofNanos(3)), recorded);
+        assertTrue(events.stream().allMatch(event -> event.getStackTrace() == null));
+    }
+}
@@ -0,0 +1,175 @@
+package com.plattensee.iocframework.locator;
+
+import com.plattensee.iocframework.testing.TestCompiler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.module.Configuration;
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReader;
+import java.lang.module.ModuleReference;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the Java 9 release of the ModuleClassLocator. The test classes see the Java 8 release of the class directory,
+ * so the framework is packaged into a multi-release jar and the locator is loaded from there.
+ */
+class ModuleClassLocatorTest {
+    private static final String MODULE_NAME = "fixture.app";
+
+    @TempDir
+    Path tempDir;
+
+    private ModuleLayer layer;
+
+    @BeforeEach
+    void defineModuleLayer() {
+        Path classes = new TestCompiler()
+                .source("app.Widget", "package app;\n"
+                        + "@com.plattensee.iocframework.annotation.Component\n"
+                        + "public class Widget {\n"
+                        + "    static {\n"
+                        + "        System.setProperty(\"spider.test.widget\", \"initialized\");\n"
+                        + "    }\n"
+                        + "}\n")
+                .source("app.Helper", "package app;\n"
+                        + "public class Helper {\n"
+                        + "}\n")
+                .source("app.web.Controller", "package app.web;\n"
+                        + "@com.plattensee.iocframework.annotation.Component\n"
+                        + "public class Controller {\n"
+                        + "}\n")
+                .compileTo(tempDir.resolve("module"));
+        ModuleDescriptor descriptor = ModuleDescriptor.newModule(MODULE_NAME)
+                .packages(Set.of("app", "app.web"))
+                .build();
+        ModuleFinder finder = new DirectoryModuleFinder(new DirectoryModuleReference(descriptor, classes));
+        Configuration configuration = ModuleLayer.boot().configuration()
+                .resolve(finder, ModuleFinder.of(), Set.of(MODULE_NAME));
+        layer = ModuleLayer.boot().defineModulesWithOneLoader(configuration, ClassLoader.getSystemClassLoader());
+    }
+
+    @Test
+    void findsTheComponentsOfTheModulesWithoutInitializingThem() throws Exception {
+        try (URLClassLoader framework = multiReleaseFramework()) {
+            List<Class<?>> components = scan(framework, "app");
+
+            assertEquals(List.of("app.Widget", "app.web.Controller"), names(components));
+            assertSame(layer.findLoader(MODULE_NAME), components.get(0).getClassLoader());
+            assertEquals(null, System.getProperty("spider.test.widget"));
+        }
+    }
+
+    @Test
+    void skipsTheModulesWithoutAScannedPackage() throws Exception {
+        try (URLClassLoader framework = multiReleaseFramework()) {
+            assertEquals(List.of("app.web.Controller"), names(scan(framework, "app.web")));
+            assertTrue(scan(framework, "other").isEmpty());
+        }
+    }
+
+    /**
+     * Scans the package with a ModuleClassLocator of the framework loaded by the specified class loader, which only
+     * scans the module layer.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Class<?>> scan(ClassLoader framework, String packageName) throws ReflectiveOperationException {
+        Class<?> locatorClass = framework.loadClass(ModuleClassLocator.class.getName());
+        Class<?> classLocatorClass = framework.loadClass(ClassLocator.class.getName());
+        Object locator = locatorClass.getConstructor(List.class, classLocatorClass)
+                .newInstance(Collections.singletonList(layer), null);
+        try {
+            return (List<Class<?>>) locatorClass.getMethod("scan", String.class).invoke(locator, packageName);
+        } catch (InvocationTargetException exception) {
+            throw new AssertionError(exception.getCause());
+        }
+    }
+
+    private static List<String> names(List<Class<?>> classes) {
+        return classes.stream().map(Class::getName).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a class loader of the framework packaged into a multi-release jar, which does not delegate to the class
+     * path.
+     */
+    private URLClassLoader multiReleaseFramework() throws IOException {
+        Path jar = TestCompiler.frameworkJar(tempDir.resolve("framework.jar"));
+        return new URLClassLoader(new URL[]{jar.toUri().toURL()}, ClassLoader.getPlatformClassLoader());
+    }
+
+    private static final class DirectoryModuleFinder implements ModuleFinder {
+        private final ModuleReference reference;
+
+        private DirectoryModuleFinder(ModuleReference reference) {
+            this.reference = reference;
+        }
+
+        @Override
+        public Optional<ModuleReference> find(String name) {
+            return reference.descriptor().name().equals(name) ? Optional.of(reference) : Optional.empty();
+        }
+
+        @Override
+        public Set<ModuleReference> findAll() {
+            return Set.of(reference);
+        }
+    }
+
+    /**
+     * A module whose descriptor is given, and whose class files are read from a class directory.
+     */
+    private static final class DirectoryModuleReference extends ModuleReference {
+        private final Path directory;
+
+        private DirectoryModuleReference(ModuleDescriptor descriptor, Path directory) {
+            super(descriptor, directory.toUri());
+            this.directory = directory;
+        }
+
+        @Override
+        public ModuleReader open() {
+            return new ModuleReader() {
+                @Override
+                public Optional<URI> find(String name) {
+                    Path file = directory.resolve(name);
+                    return Files.isRegularFile(file) ? Optional.of(file.toUri()) : Optional.empty();
+                }
+
+                @Override
+                public Stream<String> list() throws IOException {
+                    List<String> resources = new ArrayList<>();
+                    try (Stream<Path> files = Files.walk(directory)) {
+                        files.filter(Files::isRegularFile).forEach(file ->
+                                resources.add(directory.relativize(file).toString().replace(File.separatorChar, '/')));
+                    }
+                    return resources.stream().sorted();
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+}